@@ -9,6 +9,8 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.regnosys.drr.DrrRuntimeModuleExternalApi;
 import com.regnosys.drr.examples.util.ResourcesUtils;
+import com.regnosys.drr.report.EvaluationMemoisationModule;
+import com.regnosys.drr.report.RegimeReportEngine;
 import com.regnosys.rosetta.common.serialisation.RosettaObjectMapper;
 import com.regnosys.rosetta.common.serialisation.RosettaObjectMapperCreator;
 import drr.enrichment.common.trade.functions.Create_RegimeReportableEvent;
@@ -25,6 +27,7 @@ import iso20022.auth030.esma.Document;
 import java.io.IOException;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class EMIRRefitExampleReport {
 
@@ -41,10 +44,13 @@ public class EMIRRefitExampleReport {
 
         // Example where ReportableEvent is enriched a ReportingSide for all regimes in during an eligibility phase, before the DRR report is run.
         example.runExampleWithEligibilityPhase(exampleInputData);
+
+        // Example where the DRR reports of all regimes in the eligibility phase are run concurrently.
+        example.runExampleForAllRegimes(exampleInputData);
     }
 
     EMIRRefitExampleReport() {
-        this.injector = Guice.createInjector(new DrrRuntimeModuleExternalApi());
+        this.injector = Guice.createInjector(new DrrRuntimeModuleExternalApi(), new EvaluationMemoisationModule());
     }
 
     /**
@@ -76,6 +82,26 @@ public class EMIRRefitExampleReport {
         System.out.println(iso20022Xml);
     }
 
+    /**
+     * Example where ReportableEvent is enriched a ReportingSide for all regimes in during an eligibility phase, and the DRR report and
+     * ISO-20022 projection of each regime are run concurrently.
+     */
+    void runExampleForAllRegimes(ReportableEvent reportableEvent) {
+        RegimeReportableEvent regimeReportableEvent = createRegimeReportableEvent(reportableEvent);
+
+        try (RegimeReportEngine engine = injector.getInstance(RegimeReportEngine.class)) {
+            RegimeReportEngine.Result result = engine.run(regimeReportableEvent);
+            // Print the time taken by each regime, and any failures
+            for (RegimeReportEngine.RegimeResult regimeResult : result.getRegimeResults()) {
+                System.out.printf("%s report %d ms, projection %d ms%s%n",
+                        regimeResult.getRegimeReport(),
+                        TimeUnit.NANOSECONDS.toMillis(regimeResult.getReportNanos()),
+                        TimeUnit.NANOSECONDS.toMillis(regimeResult.getProjectionNanos()),
+                        regimeResult.isSuccess() ? "" : ", failed: " + regimeResult.getError());
+            }
+        }
+    }
+
     /**
      * TransactionReportInstruction from ReportableEvent and ReportingSide
      */
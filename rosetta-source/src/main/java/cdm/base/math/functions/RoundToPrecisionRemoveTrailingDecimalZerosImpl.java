@@ -15,20 +15,23 @@ public class RoundToPrecisionRemoveTrailingDecimalZerosImpl extends RoundToPreci
     @Override
     protected BigDecimal doEvaluate(BigDecimal value, Integer precision, RoundingDirectionEnum roundingMode) {
         return Optional.ofNullable(roundToPrecision.evaluate(value, precision, roundingMode))
-                .map(this::stripTrailingZeros)
+                .map(RoundToPrecisionRemoveTrailingDecimalZerosImpl::stripTrailingZeros)
                 .orElse(null);
     }
 
-    private BigDecimal stripTrailingZeros(BigDecimal roundedValue) {
-        String numberStr = roundedValue.toPlainString();  // Avoid scientific notation
-        if (numberStr.contains(".")) {
-            // Remove trailing zeros from the decimal part
-            numberStr = numberStr.replaceAll("0+$", "");
-            // If there's a decimal point left, ensure there's at least one digit after it
-            if (numberStr.endsWith(".")) {
-                numberStr = numberStr.substring(0, numberStr.length() - 1);
-            }
+    // remove trailing zeros from the decimal part only, so integers keep a scale of zero rather than becoming 1E+3
+    static BigDecimal stripTrailingZeros(BigDecimal roundedValue) {
+        int scale = roundedValue.scale();
+        if (scale == 0) {
+            return roundedValue;
         }
-        return new BigDecimal(numberStr);
+        if (scale < 0) {
+            return roundedValue.setScale(0);
+        }
+        if (roundedValue.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal stripped = roundedValue.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
     }
 }
@@ -11,12 +11,16 @@ import com.regnosys.rosetta.common.translation.MappingProcessor;
 import com.regnosys.rosetta.common.translation.Path;
 import com.rosetta.model.lib.RosettaModelObjectBuilder;
 import com.rosetta.model.lib.path.RosettaPath;
+import drr.regulation.common.processor.EnumLookup;
+import drr.regulation.common.processor.MappingIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.regnosys.rosetta.common.translation.MappingProcessorUtils.subPath;
+
 @SuppressWarnings("unused")
 public class NaturalPersonPartyMappingProcessor extends MappingProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(NaturalPersonPartyMappingProcessor.class);
@@ -27,8 +31,7 @@ public class NaturalPersonPartyMappingProcessor extends MappingProcessor {
 
     @Override
     public void map(Path synonymPath, List<? extends RosettaModelObjectBuilder> builders, RosettaModelObjectBuilder parent) {
-        List<Path> relatedPersonPaths = getMappings().stream()
-                .filter(mapping -> mapping.getXmlPath().toString().contains(".relatedPerson"))
+        List<Path> relatedPersonPaths = MappingIndex.of(getContext()).getMappingsUnder("relatedPerson").stream()
                 .map(Mapping::getXmlPath)
                 .collect(Collectors.toList());
 
@@ -47,13 +50,11 @@ public class NaturalPersonPartyMappingProcessor extends MappingProcessor {
         Party.PartyBuilder partyBuilder = (Party.PartyBuilder) parent;
 
         for (int i = 0; i < relatedPersonPaths.size(); i++) {
-            String pathStr = relatedPersonPaths.get(i).toString();
-            int startIndex = pathStr.lastIndexOf("(");
-            int endIndex = pathStr.lastIndexOf(")");
+            Optional<Path> relatedPersonPath = subPath("relatedPerson", relatedPersonPaths.get(i));
 
-            if (startIndex != -1 && endIndex != -1) {
-                int currentIndex = Integer.parseInt(pathStr.substring(startIndex + 1, endIndex));
-                int partyTradeInformationIndex = extractPartyTradeInformationIndex(pathStr);
+            if (relatedPersonPath.isPresent()) {
+                int currentIndex = relatedPersonPath.get().getLastElement().forceGetIndex();
+                int partyTradeInformationIndex = relatedPersonPath.get().getParent().getLastElement().forceGetIndex();
 
                 // Check if both indices have not been processed
                 if (!processedPartyTradeInformationIndices.contains(partyTradeInformationIndex) ||
@@ -80,13 +81,7 @@ public class NaturalPersonPartyMappingProcessor extends MappingProcessor {
                             if (rV != null) {
                                 try {
                                     // Check if the roleValue is a valid constant in the NaturalPersonRoleEnum enum
-                                    NaturalPersonRoleEnum roleEnum = null;
-                                    for (NaturalPersonRoleEnum enumValue : NaturalPersonRoleEnum.values()) {
-                                        if (enumValue.toString().trim().equalsIgnoreCase(rV.trim())) {
-                                            roleEnum = enumValue;
-                                            break; // Exit the loop once a match is found
-                                        }
-                                    }
+                                    NaturalPersonRoleEnum roleEnum = EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, rV).orElse(null);
 
                                     // Create a FieldWithMetaNaturalPersonRoleEnum object with the enum value
                                     FieldWithMetaNaturalPersonRoleEnum.FieldWithMetaNaturalPersonRoleEnumBuilder fieldBuilder = FieldWithMetaNaturalPersonRoleEnum.builder();
@@ -129,38 +124,14 @@ public class NaturalPersonPartyMappingProcessor extends MappingProcessor {
         }
     }
 
-    private Integer extractPartyTradeInformationIndex(String pathStr) {
-        int startIndex = pathStr.indexOf("partyTradeInformation(");
-        int endIndex = pathStr.indexOf(")");
-        try {
-            if (startIndex != -1 && endIndex != -1) {
-                String indexStr = pathStr.substring(startIndex + 21, endIndex);
-                // Remove any non-numeric characters from the extracted string
-                indexStr = indexStr.replaceAll("[^0-9]", "");
-                if (!indexStr.isEmpty()) {
-                    return Integer.parseInt(indexStr);
-                }
-            }
-        } catch (NumberFormatException e) {
-            // Handle the case where the extraction fails (e.g., not a valid integer)
-            // You can log an error or take other appropriate action here.
-            LOGGER.error("Error extracting partyTradeInformation index: " + e.getMessage(), e);
-        }
-        return 0; // Return 0 when there is no index
-    }
-
-
     private Optional<String> extractPersonReferenceHref(Path path) {
         // Implement the logic to extract the personReferenceHref from the given path
         // You need to access the XML data correctly based on the path
         // and return the extracted value as an Optional<String>
-        return getMappings()
+        String pathStr = path.toString();
+        return MappingIndex.of(getContext()).getMappingsEndingWith("personReference", "href")
                 .stream()
-                .filter(mapping -> {
-                    // Check if the XML path ends with ".value"
-                    String xmlPath = mapping.getXmlPath().toString();
-                    return xmlPath.endsWith(".personReference.href") && xmlPath.equals(path.toString());
-                })
+                .filter(mapping -> mapping.getXmlPath().toString().equals(pathStr))
                 .map(Mapping::getXmlValue)
                 .filter(Objects::nonNull)
                 .map(Object::toString)
@@ -171,13 +142,10 @@ public class NaturalPersonPartyMappingProcessor extends MappingProcessor {
         // Implement the logic to extract the roleValue from the given path
         // You need to access the XML data correctly based on the path
         // and return the extracted value as an Optional<String>
-        return getMappings()
+        String pathStr = path.toString();
+        return MappingIndex.of(getContext()).getMappingsEndingWith("role")
                 .stream()
-                .filter(mapping -> {
-                    // Check if the XML path ends with ".value"
-                    String xmlPath = mapping.getXmlPath().toString();
-                    return xmlPath.endsWith(".role") && xmlPath.equals(path.toString());
-                })
+                .filter(mapping -> mapping.getXmlPath().toString().equals(pathStr))
                 .map(Mapping::getXmlValue)
                 .filter(Objects::nonNull)
                 .map(Object::toString)
@@ -8,8 +8,9 @@ import com.regnosys.model.functions.NoOpConditionValidator;
 import com.rosetta.model.lib.functions.ConditionValidator;
 import drr.enrichment.eic.functions.GetAcceptedEicCodes;
 import drr.enrichment.eic.functions.GetAcceptedEicCodesImpl;
-import drr.enrichment.upi.functions.FilterEntityIdByScheme;
-import drr.enrichment.upi.functions.FilterEntityIdBySchemeImpl;
+import drr.enrichment.eic.functions.IsAcceptedEicCode;
+import drr.enrichment.eic.functions.IsAcceptedEicCodeImpl;
+import drr.enrichment.upi.functions.*;
 import drr.regulation.common.functions.*;
 import drr.regulation.common.util.functions.*;
 import org.finos.cdm.CdmRuntimeModule;
@@ -30,9 +31,18 @@ public class DrrRuntimeModule extends CdmRuntimeModule {
         bind(StringLength.class).to(bindStringLength());
         bind(SubString.class).to(bindSubString());
         bind(StringContains.class).to(bindStringContains());
+        bind(ReplaceAll.class).to(bindReplaceAll());
         bind(FilterEntityIdByScheme.class).to(bindFilterEntityIdByScheme());
 
+        bind(ConvertCurrency.class).to(bindConvertCurrency());
+        bind(TranslateAssetClass.class).to(bindTranslateAssetClass());
+        bind(TranslatePeriodEnum.class).to(bindTranslatePeriodEnum());
+        bind(TranslatePeriodExtendedEnum.class).to(bindTranslatePeriodExtendedEnum());
+        bind(FloatingRateIndex.class).to(bindFloatingRateIndex());
+        bind(TranslateIndexNameToId.class).to(bindTranslateIndexNameToId());
+
         bind(GetAcceptedEicCodes.class).to(bindGetAcceptedEicCodes()).asEagerSingleton();
+        bind(IsAcceptedEicCode.class).to(bindIsAcceptedEicCode());
         bind(Key.get(String.class, Names.named(GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_PATH)))
                 .toInstance(GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_CSV);
     }
@@ -73,14 +83,46 @@ public class DrrRuntimeModule extends CdmRuntimeModule {
         return StringContainsImpl.class;
     }
 
+    protected Class<? extends ReplaceAll> bindReplaceAll() {
+        return ReplaceAllImpl.class;
+    }
+
     protected Class<? extends FilterEntityIdByScheme> bindFilterEntityIdByScheme() {
         return FilterEntityIdBySchemeImpl.class;
     }
     
+    protected Class<? extends ConvertCurrency> bindConvertCurrency() {
+        return ConvertCurrencyImpl.class;
+    }
+
+    protected Class<? extends TranslateAssetClass> bindTranslateAssetClass() {
+        return TranslateAssetClassImpl.class;
+    }
+
+    protected Class<? extends TranslatePeriodEnum> bindTranslatePeriodEnum() {
+        return TranslatePeriodEnumImpl.class;
+    }
+
+    protected Class<? extends TranslatePeriodExtendedEnum> bindTranslatePeriodExtendedEnum() {
+        return TranslatePeriodExtendedEnumImpl.class;
+    }
+
+    protected Class<? extends FloatingRateIndex> bindFloatingRateIndex() {
+        return FloatingRateIndexImpl.class;
+    }
+
+    protected Class<? extends TranslateIndexNameToId> bindTranslateIndexNameToId() {
+        return TranslateIndexNameToIdImpl.class;
+    }
+
     protected Class<? extends GetAcceptedEicCodes> bindGetAcceptedEicCodes() {
         return GetAcceptedEicCodesImpl.class;
     }
 
+    protected Class<? extends IsAcceptedEicCode> bindIsAcceptedEicCode() {
+        return IsAcceptedEicCodeImpl.class;
+    }
+
     @Override
     protected Class<? extends RoundToPrecisionRemoveTrailingZeros> bindRoundToPrecisionRemoveTrailingZeros() {
         return RoundToPrecisionRemoveTrailingDecimalZerosImpl.class;
@@ -1,12 +1,36 @@
 package com.regnosys.drr;
 
+import com.google.common.base.Ticker;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiClient;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiIndex;
+import com.regnosys.drr.utils.gleif.GleifLeiAdaptor;
+import com.regnosys.drr.utils.gleif.GleifLeiClient;
+import com.regnosys.drr.utils.gleif.PersistentLeiCache;
 import drr.enrichment.lei.functions.API_GetLeiData;
 import drr.enrichment.lei.functions.API_GetLeiDataImpl;
+import drr.enrichment.lei.functions.API_GetLeiDataOfflineImpl;
+import drr.enrichment.lei.functions.LeiDataCacheTtl;
+import drr.enrichment.upi.functions.API_AnnaDsbRetrieveUpi;
+import drr.enrichment.upi.functions.API_AnnaDsbRetrieveUpiImpl;
+import drr.enrichment.upi.functions.API_AnnaDsbRetrieveUpiOfflineImpl;
 import drr.standards.iso.functions.API_GetMicData;
 import drr.standards.iso.functions.API_GetMicDataImpl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
 /**
  * Binds any external API calls.
+ * <p>
+ * The caches of the lookups bound here only expose their metrics over JMX once started, e.g. with
+ * {@link API_GetLeiDataImpl#start()}, and stop when closed, so the MBean server does not keep them reachable after the
+ * injector is discarded.
  */
 public class DrrRuntimeModuleExternalApi extends DrrRuntimeModule {
 
@@ -14,14 +38,152 @@ public class DrrRuntimeModuleExternalApi extends DrrRuntimeModule {
     protected void configure() {
         super.configure();
         bind(API_GetLeiData.class).toInstance(bindApiGetLeiDataInstance());
-        bind(API_GetMicData.class).to(bindAPIGetMicData()).asEagerSingleton();
+        if (getMicDataSnapshotPath().isPresent() || getMicDataRefreshInterval().isPresent() || isMicDataPreloaded()) {
+            bind(API_GetMicData.class).toInstance(bindApiGetMicDataInstance());
+        } else {
+            bind(API_GetMicData.class).to(bindAPIGetMicData()).asEagerSingleton();
+        }
+        if (getAnnaDsbUpiIndexPath().isPresent() || getAnnaDsbUpiSearchUrl().isPresent()) {
+            bind(API_AnnaDsbRetrieveUpi.class).toInstance(bindApiAnnaDsbRetrieveUpiInstance());
+        }
     }
 
     protected API_GetLeiData bindApiGetLeiDataInstance() {
-        return new API_GetLeiDataImpl();
+        Optional<Path> goldenCopyIndexPath = getLeiGoldenCopyIndexPath();
+        if (goldenCopyIndexPath.isPresent()) {
+            try {
+                return new API_GetLeiDataOfflineImpl(goldenCopyIndexPath.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open GLEIF golden copy index " + goldenCopyIndexPath.get(), e);
+            }
+        }
+        return new API_GetLeiDataImpl(new GleifLeiClient(),
+                new GleifLeiAdaptor(),
+                getLeiDataCacheMaximumSize(),
+                getLeiDataCacheTtl(),
+                getLeiDataCachePath().map(PersistentLeiCache::new).orElse(null),
+                Ticker.systemTicker());
+    }
+
+    /**
+     * Maximum number of LEIs held in memory by {@link API_GetLeiDataImpl}.
+     */
+    protected long getLeiDataCacheMaximumSize() {
+        return API_GetLeiDataImpl.DEFAULT_CACHE_MAXIMUM_SIZE;
+    }
+
+    /**
+     * How long {@link API_GetLeiDataImpl} holds found, not found and failed lookups in memory.
+     */
+    protected LeiDataCacheTtl getLeiDataCacheTtl() {
+        return LeiDataCacheTtl.DEFAULT;
+    }
+
+    /**
+     * File used to persist LEI data between restarts, see {@link PersistentLeiCache}. Disabled by default.
+     */
+    protected Optional<Path> getLeiDataCachePath() {
+        return Optional.empty();
+    }
+
+    /**
+     * Index built from the GLEIF golden copy by {@link com.regnosys.drr.utils.gleif.GleifGoldenCopyLoader}. When set,
+     * LEI data is served from the index instead of the GLEIF API, so no network access is needed. Disabled by default.
+     */
+    protected Optional<Path> getLeiGoldenCopyIndexPath() {
+        return Optional.empty();
+    }
+
+    protected API_GetMicData bindApiGetMicDataInstance() {
+        API_GetMicDataImpl apiGetMicData = new API_GetMicDataImpl(getMicDataSnapshotPath().orElse(null));
+        if (isMicDataPreloaded()) {
+            apiGetMicData.preload();
+        }
+        getMicDataRefreshInterval().ifPresent(apiGetMicData::scheduleRefresh);
+        return apiGetMicData;
+    }
+
+    /**
+     * Local copy of the ISO 10383 MIC XML file. When set, MIC data is read from the file if it exists, and otherwise
+     * downloaded and saved there, so later starts need no network access. Disabled by default.
+     */
+    protected Optional<Path> getMicDataSnapshotPath() {
+        return Optional.empty();
+    }
+
+    /**
+     * How often the MIC data is downloaded again while running. Disabled by default.
+     */
+    protected Optional<Duration> getMicDataRefreshInterval() {
+        return Optional.empty();
+    }
+
+    /**
+     * Whether the MIC data is loaded when the injector is created rather than on the first lookup. Disabled by
+     * default.
+     */
+    protected boolean isMicDataPreloaded() {
+        return false;
     }
 
     protected Class<? extends API_GetMicData> bindAPIGetMicData() {
         return API_GetMicDataImpl.class;
     }
+
+    protected API_AnnaDsbRetrieveUpi bindApiAnnaDsbRetrieveUpiInstance() {
+        API_AnnaDsbRetrieveUpi remote = getAnnaDsbUpiSearchUrl().map(this::bindApiAnnaDsbRetrieveUpiRemoteInstance).orElse(null);
+        Optional<Path> indexPath = getAnnaDsbUpiIndexPath();
+        if (indexPath.isEmpty()) {
+            return remote;
+        }
+        try {
+            return new API_AnnaDsbRetrieveUpiOfflineImpl(AnnaDsbUpiIndex.load(indexPath.get()), remote);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load ANNA DSB UPI records " + indexPath.get(), e);
+        }
+    }
+
+    protected API_AnnaDsbRetrieveUpi bindApiAnnaDsbRetrieveUpiRemoteInstance(String searchUrl) {
+        return new API_AnnaDsbRetrieveUpiImpl(new AnnaDsbUpiClient(HttpClient.newHttpClient(), searchUrl, getAnnaDsbUpiHeaders()),
+                getAnnaDsbUpiCacheMaximumSize(),
+                getAnnaDsbUpiCacheTtl(),
+                Ticker.systemTicker());
+    }
+
+    /**
+     * ANNA DSB UPI record dump, or directory of dumps, see {@link AnnaDsbUpiIndex}. When set, UPI records are served
+     * from the dumps, falling back to the ANNA DSB search endpoint if that is also set. Disabled by default.
+     */
+    protected Optional<Path> getAnnaDsbUpiIndexPath() {
+        return Optional.empty();
+    }
+
+    /**
+     * ANNA DSB UPI search endpoint. When set, {@link API_AnnaDsbRetrieveUpi} is bound to {@link API_AnnaDsbRetrieveUpiImpl}.
+     * Disabled by default.
+     */
+    protected Optional<String> getAnnaDsbUpiSearchUrl() {
+        return Optional.empty();
+    }
+
+    /**
+     * Headers added to each ANNA DSB search, e.g. the {@code Authorization} header carrying the API token.
+     */
+    protected Map<String, String> getAnnaDsbUpiHeaders() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Maximum number of UPI requests held in memory by {@link API_AnnaDsbRetrieveUpiImpl}.
+     */
+    protected long getAnnaDsbUpiCacheMaximumSize() {
+        return API_AnnaDsbRetrieveUpiImpl.DEFAULT_CACHE_MAXIMUM_SIZE;
+    }
+
+    /**
+     * How long {@link API_AnnaDsbRetrieveUpiImpl} holds found and not found UPI records in memory.
+     */
+    protected Duration getAnnaDsbUpiCacheTtl() {
+        return API_AnnaDsbRetrieveUpiImpl.DEFAULT_CACHE_TTL;
+    }
 }
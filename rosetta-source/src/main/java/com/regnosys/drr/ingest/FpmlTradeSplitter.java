@@ -0,0 +1,295 @@
+package com.regnosys.drr.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splits a large FpML {@code dataDocument} into standalone documents holding one trade each, so each trade can be
+ * ingested on its own without materialising the whole file.
+ * <p>
+ * The file is read twice with StAX. The first pass keeps the root element and the other top level elements, such as
+ * parties and accounts, that trades refer to. The second pass reads the trades one at a time, and each trade is
+ * returned inside a copy of the root element together with those shared elements, in their original order. Memory is
+ * therefore bounded by the shared elements and a single trade, whatever the number of trades.
+ * <p>
+ * Other documents, and data documents with at most one trade, are returned whole.
+ */
+public class FpmlTradeSplitter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FpmlTradeSplitter.class);
+
+    public static final String DATA_DOCUMENT = "dataDocument";
+    public static final String TRADE = "trade";
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    /**
+     * The documents in the file, one per trade for a data document. Trades are read lazily, so the stream must be
+     * closed to release the file.
+     */
+    public Stream<String> split(Path file) throws IOException {
+        Outline outline = readOutline(file);
+        if (!DATA_DOCUMENT.equals(outline.rootName) || outline.tradeCount <= 1) {
+            return Stream.of(Files.readString(file, outline.charset));
+        }
+        LOGGER.debug("Splitting {} trades from {}", outline.tradeCount, file);
+        TradeIterator trades = new TradeIterator(file, outline);
+        return StreamSupport.stream(Spliterators.spliterator(trades, outline.tradeCount, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(trades::close);
+    }
+
+    private Outline readOutline(Path file) throws IOException {
+        Outline outline = new Outline();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            XMLEventReader reader = XML_INPUT_FACTORY.createXMLEventReader(in);
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+                    if (event.isStartDocument()) {
+                        StartDocument startDocument = (StartDocument) event;
+                        if (startDocument.encodingSet()) {
+                            outline.charset = Charset.forName(startDocument.getCharacterEncodingScheme());
+                        }
+                    } else if (event.isStartElement()) {
+                        if (outline.rootName == null) {
+                            outline.rootName = event.asStartElement().getName().getLocalPart();
+                            outline.rootStartTag = startTag(event.asStartElement());
+                            outline.rootEndTag = "</" + qualifiedName(event.asStartElement().getName()) + ">";
+                            if (!DATA_DOCUMENT.equals(outline.rootName)) {
+                                break;
+                            }
+                        } else if (TRADE.equals(event.asStartElement().getName().getLocalPart())) {
+                            skipElement(reader);
+                            outline.tradeCount++;
+                        } else {
+                            String element = writeElement(event, reader);
+                            (outline.tradeCount == 0 ? outline.leadingElements : outline.trailingElements).add(element);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to read FpML document " + file, e);
+        }
+        return outline;
+    }
+
+    private static String document(Outline outline, String trade) {
+        StringBuilder document = new StringBuilder(XML_DECLARATION).append(outline.rootStartTag);
+        outline.leadingElements.forEach(document::append);
+        document.append(trade);
+        outline.trailingElements.forEach(document::append);
+        return document.append(outline.rootEndTag).toString();
+    }
+
+    /**
+     * Writes the element started by the given event, and its content, which are consumed from the reader. Namespaces
+     * declared on the root element are not repeated.
+     */
+    private static String writeElement(XMLEvent startElement, XMLEventReader reader) throws XMLStreamException {
+        StringWriter out = new StringWriter();
+        XMLEventWriter writer = XML_OUTPUT_FACTORY.createXMLEventWriter(out);
+        writer.add(startElement);
+        int depth = 1;
+        while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+            writer.add(event);
+        }
+        writer.flush();
+        writer.close();
+        return out.toString();
+    }
+
+    private static void skipElement(XMLEventReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+        }
+    }
+
+    private static String startTag(StartElement element) {
+        StringBuilder tag = new StringBuilder("<").append(qualifiedName(element.getName()));
+        for (Iterator<?> it = element.getNamespaces(); it.hasNext(); ) {
+            Namespace namespace = (Namespace) it.next();
+            tag.append(namespace.isDefaultNamespaceDeclaration() ? " xmlns" : " xmlns:" + namespace.getPrefix())
+                    .append("=\"").append(escape(namespace.getNamespaceURI())).append('"');
+        }
+        for (Iterator<?> it = element.getAttributes(); it.hasNext(); ) {
+            Attribute attribute = (Attribute) it.next();
+            tag.append(' ').append(qualifiedName(attribute.getName()))
+                    .append("=\"").append(escape(attribute.getValue())).append('"');
+        }
+        return tag.append('>').toString();
+    }
+
+    private static String qualifiedName(QName name) {
+        return name.getPrefix().isEmpty() ? name.getLocalPart() : name.getPrefix() + ":" + name.getLocalPart();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // FpML documents have no DTD, so refuse one rather than resolve external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static class Outline {
+        private Charset charset = StandardCharsets.UTF_8;
+        private String rootName;
+        private String rootStartTag;
+        private String rootEndTag;
+        private final List<String> leadingElements = new ArrayList<>();
+        private final List<String> trailingElements = new ArrayList<>();
+        private int tradeCount;
+    }
+
+    /**
+     * Reads the trades of a data document one at a time, closing the file once the last trade is read.
+     */
+    private static class TradeIterator implements Iterator<String>, AutoCloseable {
+
+        private final Path file;
+        private final Outline outline;
+        private InputStream in;
+        private XMLEventReader reader;
+        private int depth;
+        private String next;
+        private boolean done;
+
+        TradeIterator(Path file, Outline outline) {
+            this.file = file;
+            this.outline = outline;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = readNextTrade();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String trade = next;
+            next = null;
+            return document(outline, trade);
+        }
+
+        private String readNextTrade() {
+            try {
+                if (reader == null) {
+                    in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+                    reader = XML_INPUT_FACTORY.createXMLEventReader(in);
+                }
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+                    if (event.isStartElement()) {
+                        if (depth == 1 && TRADE.equals(event.asStartElement().getName().getLocalPart())) {
+                            return writeElement(event, reader);
+                        }
+                        if (depth == 1) {
+                            skipElement(reader);
+                        } else {
+                            depth++;
+                        }
+                    } else if (event.isEndElement()) {
+                        depth--;
+                    }
+                }
+                close();
+                return null;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            } catch (XMLStreamException e) {
+                close();
+                throw new UncheckedIOException(new IOException("Failed to read FpML document " + file, e));
+            }
+        }
+
+        @Override
+        public void close() {
+            done = true;
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+                if (in != null) {
+                    in.close();
+                }
+            } catch (IOException | XMLStreamException e) {
+                LOGGER.debug("Failed to close {}", file, e);
+            }
+        }
+    }
+}
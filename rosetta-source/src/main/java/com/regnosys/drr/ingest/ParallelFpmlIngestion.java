@@ -0,0 +1,339 @@
+package com.regnosys.drr.ingest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.regnosys.drr.utils.metrics.LatencyHistogram;
+import com.regnosys.drr.utils.xsd.XsdSchemaRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ingests many FpML files in parallel, e.g. a directory of record keeping messages, returning the results in the
+ * order of the files.
+ * <p>
+ * Files are ingested on a fixed pool of workers. Each worker thread creates its own ingestion from the given factory,
+ * e.g. an {@code FpML_5_RecordKeeping_To_ReportableEvent} ingestion service, so ingestions need not be thread-safe.
+ * Files are only submitted as results are consumed, with at most {@code maxInFlight} files read ahead, so a slow
+ * consumer holds back ingestion rather than letting results pile up in memory.
+ * <p>
+ * Files can optionally be validated against an XSD schema first, see
+ * {@link #ParallelFpmlIngestion(Supplier, int, int, URL)}.
+ * <p>
+ * A file that fails to ingest gives a failed {@link Result} rather than stopping the run. The ingestion time of each
+ * file, and the throughput, are recorded for each run, which logs its summary once its stream is exhausted or closed,
+ * and across all runs; see {@link #getLatency()} and {@link #getThroughputPerSecond()}.
+ */
+public class ParallelFpmlIngestion<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelFpmlIngestion.class);
+
+    public static final int DEFAULT_WORKERS = Runtime.getRuntime().availableProcessors();
+
+    private final ExecutorService executor;
+    private final ThreadLocal<Function<Reader, T>> ingestion;
+    private final int maxInFlight;
+    private final URL schemaUrl;
+
+    private final Statistics total = new Statistics();
+
+    public ParallelFpmlIngestion(Supplier<? extends Function<Reader, T>> ingestionFactory) {
+        this(ingestionFactory, DEFAULT_WORKERS, 2 * DEFAULT_WORKERS);
+    }
+
+    /**
+     * @param ingestionFactory creates the ingestion used by each worker thread
+     * @param workers          number of files ingested at the same time
+     * @param maxInFlight      number of files submitted ahead of the results consumed, at least {@code workers}
+     */
+    public ParallelFpmlIngestion(Supplier<? extends Function<Reader, T>> ingestionFactory, int workers, int maxInFlight) {
+        this(ingestionFactory, workers, maxInFlight, null);
+    }
+
+    /**
+     * @param ingestionFactory creates the ingestion used by each worker thread
+     * @param workers          number of files ingested at the same time
+     * @param maxInFlight      number of files submitted ahead of the results consumed, at least {@code workers}
+     * @param schemaUrl        schema each file is validated against before it is ingested, e.g. the classpath resource
+     *                         {@link XsdSchemaRegistry#FPML_5_13_RECORD_KEEPING_SCHEMA_PATH}, or null not to validate.
+     *                         A file that is not valid gives a failed result holding the validation error.
+     */
+    public ParallelFpmlIngestion(Supplier<? extends Function<Reader, T>> ingestionFactory, int workers, int maxInFlight, URL schemaUrl) {
+        if (workers < 1 || maxInFlight < workers) {
+            throw new IllegalArgumentException("Expected at least one worker and at least as many files in flight as workers, but got "
+                    + workers + " workers and " + maxInFlight + " files in flight");
+        }
+        this.executor = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                .setNameFormat("drr-ingestion-%d")
+                .setDaemon(true)
+                .build());
+        this.ingestion = ThreadLocal.withInitial(ingestionFactory);
+        this.maxInFlight = maxInFlight;
+        this.schemaUrl = schemaUrl;
+    }
+
+    /**
+     * The results of ingesting the {@code .xml} files in the directory and its subdirectories, in path order.
+     */
+    public Stream<Result<T>> ingestDirectory(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return ingest(files);
+    }
+
+    /**
+     * The results of ingesting the files, in the same order. Files are ingested as the stream is consumed, and closing
+     * the stream cancels files not yet ingested.
+     */
+    public Stream<Result<T>> ingest(Collection<Path> files) {
+        OrderedResults results = new OrderedResults(files.iterator());
+        // not sized, as count() would then skip ingesting the files
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::cancel);
+    }
+
+    /**
+     * Ingestion time of each file across all runs, excluding time spent waiting for a worker.
+     */
+    public LatencyHistogram getLatency() {
+        return total.latency;
+    }
+
+    /**
+     * Files ingested across all runs.
+     */
+    public long getFileCount() {
+        return total.getFileCount();
+    }
+
+    /**
+     * Files that failed to ingest across all runs.
+     */
+    public long getFailureCount() {
+        return total.getFailureCount();
+    }
+
+    /**
+     * Files ingested per second of wall clock time across all finished runs, including runs closed early.
+     */
+    public double getThroughputPerSecond() {
+        return total.getThroughputPerSecond();
+    }
+
+    /**
+     * Summary of all runs; each run logs its own summary when it finishes.
+     */
+    public String getSummary() {
+        return total.getSummary();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Result<T> ingest(Path file, Statistics run) {
+        long start = System.nanoTime();
+        try {
+            if (schemaUrl != null) {
+                XsdSchemaRegistry.getInstance().validate(schemaUrl, new StreamSource(file.toFile()));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Failed to validate {}", file, e);
+            return new Result<>(file, null, e, record(run, start, false));
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            T value = ingestion.get().apply(reader);
+            return new Result<>(file, value, null, record(run, start, true));
+        } catch (Exception e) {
+            LOGGER.warn("Failed to ingest {}", file, e);
+            return new Result<>(file, null, e, record(run, start, false));
+        }
+    }
+
+    private long record(Statistics run, long start, boolean success) {
+        long nanos = System.nanoTime() - start;
+        run.record(nanos, success);
+        total.record(nanos, success);
+        return nanos;
+    }
+
+    /**
+     * Submits files as results are taken, keeping at most {@code maxInFlight} files ahead of the consumer, and
+     * returns results in submission order.
+     */
+    private class OrderedResults implements Iterator<Result<T>> {
+
+        private final Iterator<Path> files;
+        private final Deque<Future<Result<T>>> inFlight = new ArrayDeque<>();
+        private final Statistics run = new Statistics();
+        private long start;
+        private boolean started;
+        private boolean done;
+
+        OrderedResults(Iterator<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            submit();
+            if (inFlight.isEmpty()) {
+                finish();
+            }
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public Result<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return Uninterruptibles.getUninterruptibly(inFlight.poll());
+            } catch (ExecutionException e) {
+                // ingest(Path) catches every exception, so this is an error
+                throw new IllegalStateException("Ingestion failed", e.getCause());
+            }
+        }
+
+        private void submit() {
+            if (!started) {
+                started = true;
+                start = System.nanoTime();
+            }
+            while (inFlight.size() < maxInFlight && files.hasNext()) {
+                Path file = files.next();
+                inFlight.add(executor.submit(() -> ingest(file, run)));
+            }
+        }
+
+        void cancel() {
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+            finish();
+        }
+
+        private void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (!started) {
+                return;
+            }
+            // a run closed early still counts the files ingested so far against its elapsed time
+            long nanos = System.nanoTime() - start;
+            run.runNanos.add(nanos);
+            total.runNanos.add(nanos);
+            LOGGER.info("Ingested {}", run.getSummary());
+        }
+    }
+
+    /**
+     * Latency, failures and wall clock time of one run, or of all runs.
+     */
+    private static class Statistics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder runNanos = new LongAdder();
+
+        void record(long nanos, boolean success) {
+            latency.record(nanos);
+            if (!success) {
+                failures.increment();
+            }
+        }
+
+        long getFileCount() {
+            return latency.getCount();
+        }
+
+        long getFailureCount() {
+            return failures.sum();
+        }
+
+        double getThroughputPerSecond() {
+            long nanos = runNanos.sum();
+            return nanos == 0 ? 0 : getFileCount() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+
+        String getSummary() {
+            return String.format("%d files, %d failed, %.1f files/s, latency p50 %.0f ms, p90 %.0f ms, p99 %.0f ms, max %.0f ms",
+                    getFileCount(), getFailureCount(), getThroughputPerSecond(),
+                    latency.getPercentileMillis(50), latency.getPercentileMillis(90), latency.getPercentileMillis(99),
+                    latency.getMaxMillis());
+        }
+    }
+
+    /**
+     * The outcome of ingesting one file: either its value or the exception that stopped it.
+     */
+    public static class Result<T> {
+
+        private final Path file;
+        private final T value;
+        private final Exception error;
+        private final long nanos;
+
+        Result(Path file, T value, Exception error, long nanos) {
+            this.file = file;
+            this.value = value;
+            this.error = error;
+            this.nanos = nanos;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.regnosys.drr.ingest;
+
+import com.google.common.io.Resources;
+import com.regnosys.drr.utils.xsd.XsdSchemaRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Ingests large FpML record keeping files, such as nightly position {@code dataDocument}s, one trade at a time.
+ * <p>
+ * Each trade is split into its own document by {@link FpmlTradeSplitter} and mapped independently by the given
+ * ingestion, e.g. the {@code FpML_5_RecordKeeping_To_ReportableEvent} ingestion service, so only one trade is held
+ * in memory at a time:
+ * <pre>{@code
+ * StreamingFpmlIngestion<ReportableEvent> ingestion = new StreamingFpmlIngestion<>(reader ->
+ *         ingestionService.ingestValidateAndPostProcess(ReportableEvent.class, reader).getRosettaModelInstance());
+ * try (Stream<StreamingFpmlIngestion.Result<ReportableEvent>> results = ingestion.ingest(file)) {
+ *     results.forEach(...);
+ * }
+ * }</pre>
+ * A trade that fails to ingest gives a failed {@link Result}, identifying the trade, rather than stopping the file.
+ * Each trade document can optionally be validated against an XSD schema first, see {@link #withSchemaValidation(URL)}.
+ */
+public class StreamingFpmlIngestion<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingFpmlIngestion.class);
+
+    private static final String TRADE_ID = "tradeId";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final FpmlTradeSplitter splitter;
+    private final Function<Reader, T> ingestion;
+    private final URL schemaUrl;
+
+    public StreamingFpmlIngestion(Function<Reader, T> ingestion) {
+        this(new FpmlTradeSplitter(), ingestion);
+    }
+
+    public StreamingFpmlIngestion(FpmlTradeSplitter splitter, Function<Reader, T> ingestion) {
+        this(splitter, ingestion, null);
+    }
+
+    private StreamingFpmlIngestion(FpmlTradeSplitter splitter, Function<Reader, T> ingestion, URL schemaUrl) {
+        this.splitter = splitter;
+        this.ingestion = ingestion;
+        this.schemaUrl = schemaUrl;
+    }
+
+    /**
+     * A copy of this ingestion that validates each trade document against the schema before ingesting it. A trade that
+     * is not valid gives a failed result holding the validation error. This ingestion is left unchanged.
+     */
+    public StreamingFpmlIngestion<T> withSchemaValidation(URL schemaUrl) {
+        return new StreamingFpmlIngestion<>(splitter, ingestion, schemaUrl);
+    }
+
+    /**
+     * Validates against the schema of a classpath resource, e.g.
+     * {@link XsdSchemaRegistry#FPML_5_13_RECORD_KEEPING_SCHEMA_PATH}, see {@link #withSchemaValidation(URL)}.
+     */
+    public StreamingFpmlIngestion<T> withSchemaValidation(String schemaResourcePath) {
+        return withSchemaValidation(Resources.getResource(schemaResourcePath));
+    }
+
+    /**
+     * The results of ingesting the trades of the file, in document order. Trades are read and ingested lazily as the
+     * stream is consumed, so it must be closed to release the file; use {@link Stream#iterator()} to pull them one by
+     * one. Failing to read the file itself still fails the stream.
+     */
+    public Stream<Result<T>> ingest(Path file) throws IOException {
+        AtomicInteger tradeIndex = new AtomicInteger();
+        return splitter.split(file)
+                .map(document -> ingest(file, tradeIndex.getAndIncrement(), document));
+    }
+
+    private Result<T> ingest(Path file, int tradeIndex, String document) {
+        try {
+            validate(file, tradeIndex, document);
+            return new Result<>(file, tradeIndex, null, ingestion.apply(new StringReader(document)), null);
+        } catch (Exception e) {
+            String tradeId = tradeId(document);
+            LOGGER.warn("Failed to ingest trade {} ({}) of {}", tradeIndex, tradeId, file, e);
+            return new Result<>(file, tradeIndex, tradeId, null, e);
+        }
+    }
+
+    private void validate(Path file, int tradeIndex, String document) throws IOException {
+        if (schemaUrl == null) {
+            return;
+        }
+        try {
+            XsdSchemaRegistry.getInstance().validate(schemaUrl, new StreamSource(new StringReader(document)));
+        } catch (SAXException e) {
+            throw new IllegalArgumentException("Trade " + tradeIndex + " of FpML document " + file + " is not valid against " + schemaUrl, e);
+        }
+    }
+
+    /**
+     * The first trade identifier of the trade document, or null if it has none or cannot be read.
+     */
+    private static String tradeId(String document) {
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(document));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && TRADE_ID.equals(reader.getLocalName())) {
+                        return reader.getElementText().trim();
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * The outcome of ingesting one trade of a file: either its value or the exception that stopped it.
+     */
+    public static class Result<T> {
+
+        private final Path file;
+        private final int tradeIndex;
+        private final String tradeId;
+        private final T value;
+        private final Exception error;
+
+        Result(Path file, int tradeIndex, String tradeId, T value, Exception error) {
+            this.file = file;
+            this.tradeIndex = tradeIndex;
+            this.tradeId = tradeId;
+            this.value = value;
+            this.error = error;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Position of the trade in the file, starting at zero.
+         */
+        public int getTradeIndex() {
+            return tradeIndex;
+        }
+
+        /**
+         * The first {@code tradeId} of a failed trade, or null if it has none or the trade was ingested.
+         */
+        public String getTradeId() {
+            return tradeId;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
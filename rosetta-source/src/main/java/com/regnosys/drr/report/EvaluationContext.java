@@ -0,0 +1,181 @@
+package com.regnosys.drr.report;
+
+import com.rosetta.model.lib.RosettaModelObjectBuilder;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Memoises the results of functions evaluated while producing reports, so a function evaluated many times over the
+ * same input, such as a CDE rule referenced by several report fields or {@code TradeForEvent}, is only evaluated once.
+ * <p>
+ * Results are keyed on the function and the identity of its inputs, and are kept until the context is discarded, so a
+ * context should only span the evaluation of one event, e.g. one {@link RegimeReportEngine} run. Functions are only
+ * memoised while a context is current on the calling thread, see {@link #run(Supplier)}, and the same context can be
+ * current on several threads, e.g. one per regime, which then share results. Which functions are memoised is decided
+ * by {@link EvaluationMemoiser}.
+ */
+public class EvaluationContext {
+
+    private static final ThreadLocal<EvaluationContext> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentMap<Key, Result> results = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The context current on this thread, or null if there is none.
+     */
+    public static EvaluationContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the evaluation with this context current on this thread, restoring the previous context afterwards.
+     */
+    public <T> T run(Supplier<T> evaluation) {
+        EvaluationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return evaluation.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * The result of the function for the inputs, evaluating it unless it has already been evaluated, or is being
+     * evaluated by another thread, for the same inputs. Failed evaluations are not kept.
+     * <p>
+     * A function re-entered by the thread evaluating it, with the same inputs, is evaluated again rather than waiting
+     * for its own result. Results are shared by the threads of the context: built model objects are immutable and are
+     * returned as they are, whereas model object builders and lists are kept as a copy, and each caller is given a copy
+     * of its own, so callers can change what they are given without changing the result of other callers.
+     */
+    Object memoise(Method function, Object[] inputs, Evaluation evaluation) throws Throwable {
+        Key key = new Key(function, inputs);
+        Result result = new Result();
+        Result existing = results.putIfAbsent(key, result);
+        if (existing != null) {
+            if (existing.owner == Thread.currentThread()) {
+                // waiting for the result would never return
+                return evaluation.evaluate();
+            }
+            hits.increment();
+            try {
+                return copy(existing.value.join());
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        misses.increment();
+        try {
+            Object value = evaluation.evaluate();
+            result.value.complete(copy(value));
+            return value;
+        } catch (Throwable t) {
+            results.remove(key, result);
+            result.value.completeExceptionally(t);
+            throw t;
+        } finally {
+            result.owner = null;
+        }
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof RosettaModelObjectBuilder) {
+            return ((RosettaModelObjectBuilder) value).build().toBuilder();
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * The result of an evaluation, and the thread evaluating it until it completes.
+     */
+    private static class Result {
+
+        private final CompletableFuture<Object> value = new CompletableFuture<>();
+        private volatile Thread owner = Thread.currentThread();
+    }
+
+    @FunctionalInterface
+    interface Evaluation {
+        Object evaluate() throws Throwable;
+    }
+
+    /**
+     * A function and its inputs, compared by identity. The context holds the inputs, so identity hash codes are not
+     * reused for other inputs while the context is in use.
+     */
+    private static class Key {
+
+        private final Method function;
+        private final Object[] inputs;
+        private final int hashCode;
+
+        Key(Method function, Object[] inputs) {
+            this.function = function;
+            this.inputs = inputs.clone();
+            int hash = function.hashCode();
+            for (Object input : inputs) {
+                hash = 31 * hash + System.identityHashCode(input);
+            }
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            if (!function.equals(other.function) || inputs.length != other.inputs.length) {
+                return false;
+            }
+            for (int i = 0; i < inputs.length; i++) {
+                if (inputs[i] != other.inputs[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
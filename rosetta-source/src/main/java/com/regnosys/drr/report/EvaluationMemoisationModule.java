@@ -0,0 +1,20 @@
+package com.regnosys.drr.report;
+
+import com.google.inject.AbstractModule;
+
+/**
+ * Memoises the CDE rules and common extractor functions created by the injector within an {@link EvaluationContext},
+ * see {@link EvaluationMemoiser}. Memoisation is opt-in: install this module next to {@code DrrRuntimeModule}, e.g.
+ * <pre>
+ *     Guice.createInjector(new DrrRuntimeModule(), new EvaluationMemoisationModule())
+ * </pre>
+ * for the injector a {@link RegimeReportEngine} is created with. Without it, or without a context, functions are
+ * evaluated as usual.
+ */
+public class EvaluationMemoisationModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bindInterceptor(EvaluationMemoiser.FUNCTIONS, EvaluationMemoiser.EVALUATE, new EvaluationMemoiser());
+    }
+}
@@ -0,0 +1,62 @@
+package com.regnosys.drr.report;
+
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+import com.google.inject.matcher.Matchers;
+import drr.regulation.common.functions.Counterparties;
+import drr.regulation.common.functions.EconomicTermsForProduct;
+import drr.regulation.common.functions.ProductForEvent;
+import drr.regulation.common.functions.TradeForEvent;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Memoises the {@code evaluate} method of the IOSCO CDE reporting rules, which are reused by the reports of every
+ * regime, and of the extractor functions most of the rules start from, in the current {@link EvaluationContext}.
+ * <p>
+ * Bound by {@link EvaluationMemoisationModule}, so it only applies to the functions created by an injector that
+ * installs that module. Outside an evaluation context, functions are evaluated as usual.
+ */
+public class EvaluationMemoiser implements MethodInterceptor {
+
+    private static final String CDE_RULE_PACKAGE_PREFIX = "drr.standards.iosco.cde.";
+    private static final String RULE_PACKAGE_SUFFIX = ".reports";
+
+    private static final Matcher<Class<?>> CDE_RULES = new AbstractMatcher<Class<?>>() {
+        @Override
+        public boolean matches(Class<?> type) {
+            // reporting rules are generated in the reports package of their namespace
+            String packageName = type.getPackageName();
+            return packageName.startsWith(CDE_RULE_PACKAGE_PREFIX) && packageName.endsWith(RULE_PACKAGE_SUFFIX);
+        }
+    };
+
+    /**
+     * The CDE reporting rules and the common extractor functions.
+     */
+    public static final Matcher<Class<?>> FUNCTIONS = CDE_RULES
+            .or(Matchers.subclassesOf(TradeForEvent.class))
+            .or(Matchers.subclassesOf(ProductForEvent.class))
+            .or(Matchers.subclassesOf(EconomicTermsForProduct.class))
+            .or(Matchers.subclassesOf(Counterparties.class));
+
+    public static final Matcher<Method> EVALUATE = new AbstractMatcher<Method>() {
+        @Override
+        public boolean matches(Method method) {
+            // bridge methods delegate to the method they bridge, which is memoised itself
+            return method.getName().equals("evaluate") && Modifier.isPublic(method.getModifiers()) && !method.isSynthetic();
+        }
+    };
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        EvaluationContext context = EvaluationContext.current();
+        if (context == null) {
+            return invocation.proceed();
+        }
+        return context.memoise(invocation.getMethod(), invocation.getArguments(), invocation::proceed);
+    }
+}
@@ -0,0 +1,136 @@
+package com.regnosys.drr.report;
+
+import com.google.inject.Injector;
+import com.rosetta.model.lib.RosettaModelObject;
+import drr.projection.iso20022.asic.rewrite.trade.functions.Project_ASICTradeReportToIso20022;
+import drr.projection.iso20022.esma.emir.refit.trade.functions.Project_EsmaEmirTradeReportToIso20022;
+import drr.projection.iso20022.fca.ukemir.refit.trade.functions.Project_FcaUkEmirTradeReportToIso20022;
+import drr.projection.iso20022.hkma.rewrite.trade.tr.functions.Project_HKMATrTradeReportToIso20022;
+import drr.projection.iso20022.jfsa.rewrite.trade.functions.Project_JFSARewriteTradeReportToIso20022;
+import drr.projection.iso20022.mas.rewrite.trade.functions.Project_MASTradeReportToIso20022;
+import drr.regulation.asic.rewrite.trade.ASICTransactionReport;
+import drr.regulation.asic.rewrite.trade.reports.ASICTradeReportFunction;
+import drr.regulation.cftc.rewrite.CFTCPart45TransactionReport;
+import drr.regulation.cftc.rewrite.reports.CFTCPart45ReportFunction;
+import drr.regulation.common.RegimeNameEnum;
+import drr.regulation.common.RegimeReportingSide;
+import drr.regulation.common.SupervisoryBodyEnum;
+import drr.regulation.common.TransactionReportInstruction;
+import drr.regulation.esma.emir.refit.trade.ESMAEMIRTransactionReport;
+import drr.regulation.esma.emir.refit.trade.reports.ESMAEMIRTradeReportFunction;
+import drr.regulation.fca.ukemir.refit.trade.FCAUKEMIRTransactionReport;
+import drr.regulation.fca.ukemir.refit.trade.reports.FCAUKEMIRTradeReportFunction;
+import drr.regulation.hkma.rewrite.trade.HKMATransactionReport;
+import drr.regulation.hkma.rewrite.trade.reports.HKMATradeReportFunction;
+import drr.regulation.jfsa.rewrite.trade.JFSATransactionReport;
+import drr.regulation.jfsa.rewrite.trade.reports.JFSATradeReportFunction;
+import drr.regulation.mas.rewrite.trade.MASTransactionReport;
+import drr.regulation.mas.rewrite.trade.reports.MASTradeReportFunction;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * The report function of a regime, and optionally the projection of its report, e.g. to ISO 20022, as run by
+ * {@link RegimeReportEngine} for each {@link RegimeReportingSide} of a {@code RegimeReportableEvent}.
+ * <p>
+ * Functions are looked up from the injector on each run, so the bindings of the caller's runtime module apply.
+ */
+public class RegimeReport<R extends RosettaModelObject> {
+
+    /**
+     * Trade reports of the regimes with an ISO 20022 projection, and CFTC Part 45.
+     */
+    public static final List<RegimeReport<?>> TRADE_REPORTS = List.of(
+            of(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA, ESMAEMIRTransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(ESMAEMIRTradeReportFunction.class).evaluate(instruction),
+                    (injector, report) -> injector.getInstance(Project_EsmaEmirTradeReportToIso20022.class).evaluate(report)),
+            of(RegimeNameEnum.UKEMIR, SupervisoryBodyEnum.FCA, FCAUKEMIRTransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(FCAUKEMIRTradeReportFunction.class).evaluate(instruction),
+                    (injector, report) -> injector.getInstance(Project_FcaUkEmirTradeReportToIso20022.class).evaluate(report)),
+            of(RegimeNameEnum.DODD_FRANK_ACT, SupervisoryBodyEnum.CFTC, CFTCPart45TransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(CFTCPart45ReportFunction.class).evaluate(instruction),
+                    null),
+            of(RegimeNameEnum.ASIC, SupervisoryBodyEnum.ASIC, ASICTransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(ASICTradeReportFunction.class).evaluate(instruction),
+                    (injector, report) -> injector.getInstance(Project_ASICTradeReportToIso20022.class).evaluate(report)),
+            of(RegimeNameEnum.MAS, SupervisoryBodyEnum.MAS, MASTransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(MASTradeReportFunction.class).evaluate(instruction),
+                    (injector, report) -> injector.getInstance(Project_MASTradeReportToIso20022.class).evaluate(report)),
+            of(RegimeNameEnum.JFSA, SupervisoryBodyEnum.JFSA, JFSATransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(JFSATradeReportFunction.class).evaluate(instruction),
+                    (injector, report) -> injector.getInstance(Project_JFSARewriteTradeReportToIso20022.class).evaluate(report)),
+            of(RegimeNameEnum.HKMA, SupervisoryBodyEnum.HKMA, HKMATransactionReport.class,
+                    (injector, instruction) -> injector.getInstance(HKMATradeReportFunction.class).evaluate(instruction),
+                    (injector, report) -> injector.getInstance(Project_HKMATrTradeReportToIso20022.class).evaluate(report)));
+
+    private final RegimeNameEnum regimeName;
+    private final SupervisoryBodyEnum supervisoryBody;
+    private final Class<R> reportType;
+    private final BiFunction<Injector, TransactionReportInstruction, R> reportFunction;
+    private final BiFunction<Injector, ? super R, ? extends RosettaModelObject> projectionFunction;
+
+    private RegimeReport(RegimeNameEnum regimeName,
+                         SupervisoryBodyEnum supervisoryBody,
+                         Class<R> reportType,
+                         BiFunction<Injector, TransactionReportInstruction, R> reportFunction,
+                         BiFunction<Injector, ? super R, ? extends RosettaModelObject> projectionFunction) {
+        this.regimeName = regimeName;
+        this.supervisoryBody = supervisoryBody;
+        this.reportType = reportType;
+        this.reportFunction = reportFunction;
+        this.projectionFunction = projectionFunction;
+    }
+
+    /**
+     * @param supervisoryBody    supervisory body of the regime, or null to report for any supervisory body
+     * @param projectionFunction projection of the report, or null if the report is not projected
+     */
+    public static <R extends RosettaModelObject> RegimeReport<R> of(RegimeNameEnum regimeName,
+                                                                   SupervisoryBodyEnum supervisoryBody,
+                                                                   Class<R> reportType,
+                                                                   BiFunction<Injector, TransactionReportInstruction, R> reportFunction,
+                                                                   BiFunction<Injector, ? super R, ? extends RosettaModelObject> projectionFunction) {
+        return new RegimeReport<>(regimeName, supervisoryBody, reportType, reportFunction, projectionFunction);
+    }
+
+    /**
+     * Whether this report applies to the reporting side, i.e. it has the same regime, and the same supervisory body if
+     * both specify one.
+     */
+    public boolean isFor(RegimeReportingSide regimeReportingSide) {
+        return regimeName == regimeReportingSide.getRegimeName()
+                && (supervisoryBody == null
+                || regimeReportingSide.getSupervisoryBody() == null
+                || supervisoryBody == regimeReportingSide.getSupervisoryBody());
+    }
+
+    public RegimeNameEnum getRegimeName() {
+        return regimeName;
+    }
+
+    public SupervisoryBodyEnum getSupervisoryBody() {
+        return supervisoryBody;
+    }
+
+    public Class<R> getReportType() {
+        return reportType;
+    }
+
+    public boolean hasProjection() {
+        return projectionFunction != null;
+    }
+
+    R report(Injector injector, TransactionReportInstruction instruction) {
+        return reportFunction.apply(injector, instruction);
+    }
+
+    RosettaModelObject project(Injector injector, R report) {
+        return projectionFunction.apply(injector, report);
+    }
+
+    @Override
+    public String toString() {
+        return supervisoryBody == null ? regimeName.toString() : supervisoryBody + " " + regimeName;
+    }
+}
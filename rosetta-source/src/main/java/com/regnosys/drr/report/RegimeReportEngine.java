@@ -0,0 +1,354 @@
+package com.regnosys.drr.report;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Injector;
+import com.rosetta.model.lib.RosettaModelObject;
+import drr.enrichment.common.trade.functions.Create_TransactionReportInstructionForRegime;
+import drr.enrichment.lei.functions.LeiDataPrefetcher;
+import drr.regulation.common.RegimeNameEnum;
+import drr.regulation.common.RegimeReportableEvent;
+import drr.regulation.common.RegimeReportingSide;
+import drr.regulation.common.ReportingSide;
+import drr.regulation.common.SupervisoryBodyEnum;
+import drr.regulation.common.TransactionReportInstruction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the reports of every regime a trade is reportable under, e.g. EMIR, UK EMIR, CFTC, ASIC, MAS, JFSA and HKMA,
+ * concurrently from a single {@link RegimeReportableEvent}.
+ * <p>
+ * For each {@link RegimeReportingSide} of the event, the transaction report instruction of the regime is created, and
+ * its report and projection are run on a shared pool of workers. The LEIs of the event are prefetched once beforehand,
+ * so the regimes do not each look them up.
+ * <p>
+ * Regimes with the same reporting side report from the same instruction, and the regimes of an event share an
+ * {@link EvaluationContext}. If the injector installs {@link EvaluationMemoisationModule}, the CDE rules and extractor
+ * functions they have in common are then only evaluated once.
+ * <p>
+ * Regimes fail independently: a regime whose report or projection throws gives a failed {@link RegimeResult} while the
+ * other regimes complete. Reporting sides for regimes without a {@link RegimeReport} are listed as unsupported.
+ */
+public class RegimeReportEngine implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegimeReportEngine.class);
+
+    public static final int DEFAULT_WORKERS = Math.min(Runtime.getRuntime().availableProcessors(), RegimeReport.TRADE_REPORTS.size());
+
+    private final Injector injector;
+    private final Create_TransactionReportInstructionForRegime createInstruction;
+    private final LeiDataPrefetcher leiDataPrefetcher;
+    private final List<RegimeReport<?>> regimeReports;
+    private final ExecutorService executor;
+
+    @Inject
+    public RegimeReportEngine(Injector injector,
+                              Create_TransactionReportInstructionForRegime createInstruction,
+                              LeiDataPrefetcher leiDataPrefetcher) {
+        this(injector, createInstruction, leiDataPrefetcher, RegimeReport.TRADE_REPORTS, DEFAULT_WORKERS);
+    }
+
+    /**
+     * @param regimeReports reports to run, matched to reporting sides with {@link RegimeReport#isFor(RegimeReportingSide)}
+     * @param workers       number of regimes run at the same time, across all events
+     */
+    public RegimeReportEngine(Injector injector,
+                              Create_TransactionReportInstructionForRegime createInstruction,
+                              LeiDataPrefetcher leiDataPrefetcher,
+                              List<RegimeReport<?>> regimeReports,
+                              int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Expected at least one worker, but got " + workers);
+        }
+        this.injector = injector;
+        this.createInstruction = createInstruction;
+        this.leiDataPrefetcher = leiDataPrefetcher;
+        this.regimeReports = List.copyOf(regimeReports);
+        this.executor = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                .setNameFormat("drr-regime-report-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Runs the report of each regime of the event using the reporting side of the regime.
+     */
+    public Result run(RegimeReportableEvent regimeReportableEvent) {
+        return run(regimeReportableEvent, false);
+    }
+
+    /**
+     * Runs the report of each regime of the event.
+     *
+     * @param delegatedReporting whether to report using the delegated reporting side of each regime
+     */
+    public Result run(RegimeReportableEvent regimeReportableEvent, boolean delegatedReporting) {
+        long start = System.nanoTime();
+        try {
+            leiDataPrefetcher.prefetch(regimeReportableEvent);
+        } catch (RuntimeException e) {
+            // the reports look up any LEI not prefetched themselves
+            LOGGER.warn("Failed to prefetch LEIs", e);
+        }
+
+        // reuse the context of the caller, if any, e.g. when reporting the events of a trade together
+        EvaluationContext context = Optional.ofNullable(EvaluationContext.current()).orElseGet(EvaluationContext::new);
+        Instructions instructions = new Instructions(regimeReportableEvent, delegatedReporting);
+        List<Future<RegimeResult>> futures = new ArrayList<>();
+        List<RegimeReportingSide> unsupported = new ArrayList<>();
+        for (RegimeReportingSide regimeReportingSide : regimeReportableEvent.getRegimeReportingSide()) {
+            Optional<RegimeReport<?>> regimeReport = getRegimeReport(regimeReportingSide);
+            if (regimeReport.isPresent()) {
+                futures.add(executor.submit(() -> context.run(() -> run(regimeReport.get(), instructions, regimeReportingSide))));
+            } else {
+                LOGGER.debug("No report for regime {} {}", regimeReportingSide.getSupervisoryBody(), regimeReportingSide.getRegimeName());
+                unsupported.add(regimeReportingSide);
+            }
+        }
+
+        List<RegimeResult> results = new ArrayList<>(futures.size());
+        for (Future<RegimeResult> future : futures) {
+            try {
+                results.add(Uninterruptibles.getUninterruptibly(future));
+            } catch (ExecutionException e) {
+                // run(RegimeReport, ...) catches every exception, so this is an error
+                throw new IllegalStateException("Regime report failed", e.getCause());
+            }
+        }
+        Result result = new Result(results, unsupported, System.nanoTime() - start);
+        LOGGER.debug("Reported {}, {} memoised evaluations reused", result, context.getHitCount());
+        return result;
+    }
+
+    private Optional<RegimeReport<?>> getRegimeReport(RegimeReportingSide regimeReportingSide) {
+        for (RegimeReport<?> regimeReport : regimeReports) {
+            if (regimeReport.isFor(regimeReportingSide)) {
+                return Optional.of(regimeReport);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private <R extends RosettaModelObject> RegimeResult run(RegimeReport<R> regimeReport,
+                                                            Instructions instructions,
+                                                            RegimeReportingSide regimeReportingSide) {
+        RegimeResult result = new RegimeResult(regimeReport, regimeReportingSide);
+        long start = System.nanoTime();
+        try {
+            TransactionReportInstruction instruction = instructions.get(regimeReportingSide);
+            if (instruction == null) {
+                throw new IllegalArgumentException("No " + (instructions.delegatedReporting ? "delegated reporting side" : "reporting side") + " for " + regimeReport);
+            }
+            long reportStart = System.nanoTime();
+            result.instructionNanos = reportStart - start;
+
+            R report = regimeReport.report(injector, instruction);
+            result.report = report;
+            long projectionStart = System.nanoTime();
+            result.reportNanos = projectionStart - reportStart;
+
+            if (report != null && regimeReport.hasProjection()) {
+                result.projection = regimeReport.project(injector, report);
+                result.projectionNanos = System.nanoTime() - projectionStart;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Failed to report {}", regimeReport, e);
+            result.error = e;
+        }
+        result.totalNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the transaction report instruction of each reporting side of an event once.
+     */
+    private class Instructions {
+
+        private final RegimeReportableEvent regimeReportableEvent;
+        private final boolean delegatedReporting;
+        private final ConcurrentMap<ReportingSide, TransactionReportInstruction> byReportingSide = new ConcurrentHashMap<>();
+
+        Instructions(RegimeReportableEvent regimeReportableEvent, boolean delegatedReporting) {
+            this.regimeReportableEvent = regimeReportableEvent;
+            this.delegatedReporting = delegatedReporting;
+        }
+
+        TransactionReportInstruction get(RegimeReportingSide regimeReportingSide) {
+            ReportingSide reportingSide = delegatedReporting ? regimeReportingSide.getDelegatedReportingSide() : regimeReportingSide.getReportingSide();
+            if (reportingSide == null) {
+                return create(regimeReportingSide);
+            }
+            // the instruction only depends on the reporting side, which is compared by value
+            return byReportingSide.computeIfAbsent(reportingSide, k -> create(regimeReportingSide));
+        }
+
+        private TransactionReportInstruction create(RegimeReportingSide regimeReportingSide) {
+            return createInstruction.evaluate(regimeReportableEvent,
+                    regimeReportingSide.getRegimeName(), regimeReportingSide.getSupervisoryBody(), delegatedReporting);
+        }
+    }
+
+    /**
+     * The outcome of running the reports of every regime of an event.
+     */
+    public static class Result {
+
+        private final List<RegimeResult> regimeResults;
+        private final List<RegimeReportingSide> unsupportedRegimes;
+        private final long elapsedNanos;
+
+        Result(List<RegimeResult> regimeResults, List<RegimeReportingSide> unsupportedRegimes, long elapsedNanos) {
+            this.regimeResults = Collections.unmodifiableList(regimeResults);
+            this.unsupportedRegimes = Collections.unmodifiableList(unsupportedRegimes);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Results in the order of the reporting sides of the event.
+         */
+        public List<RegimeResult> getRegimeResults() {
+            return regimeResults;
+        }
+
+        public Optional<RegimeResult> getRegimeResult(RegimeNameEnum regimeName, SupervisoryBodyEnum supervisoryBody) {
+            for (RegimeResult regimeResult : regimeResults) {
+                if (regimeResult.getRegimeName() == regimeName && regimeResult.getSupervisoryBody() == supervisoryBody) {
+                    return Optional.of(regimeResult);
+                }
+            }
+            return Optional.empty();
+        }
+
+        public List<RegimeResult> getFailures() {
+            List<RegimeResult> failures = new ArrayList<>();
+            for (RegimeResult regimeResult : regimeResults) {
+                if (!regimeResult.isSuccess()) {
+                    failures.add(regimeResult);
+                }
+            }
+            return failures;
+        }
+
+        /**
+         * Reporting sides of the event for which no regime report was run.
+         */
+        public List<RegimeReportingSide> getUnsupportedRegimes() {
+            return unsupportedRegimes;
+        }
+
+        public boolean isSuccess() {
+            return getFailures().isEmpty();
+        }
+
+        /**
+         * Wall clock time of the run, including the LEI prefetch.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder()
+                    .append(regimeResults.size()).append(" regimes, ")
+                    .append(getFailures().size()).append(" failed, ")
+                    .append(unsupportedRegimes.size()).append(" unsupported, ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms");
+            regimeResults.forEach(regimeResult -> summary.append("; ").append(regimeResult));
+            return summary.toString();
+        }
+    }
+
+    /**
+     * The outcome of running the report, and projection, of one regime: either the report or the exception that
+     * stopped it, with the time taken by each step.
+     */
+    public static class RegimeResult {
+
+        private final RegimeReport<?> regimeReport;
+        private final RegimeReportingSide regimeReportingSide;
+        private RosettaModelObject report;
+        private RosettaModelObject projection;
+        private Exception error;
+        private long instructionNanos;
+        private long reportNanos;
+        private long projectionNanos;
+        private long totalNanos;
+
+        RegimeResult(RegimeReport<?> regimeReport, RegimeReportingSide regimeReportingSide) {
+            this.regimeReport = regimeReport;
+            this.regimeReportingSide = regimeReportingSide;
+        }
+
+        public RegimeNameEnum getRegimeName() {
+            return regimeReportingSide.getRegimeName();
+        }
+
+        public SupervisoryBodyEnum getSupervisoryBody() {
+            return regimeReportingSide.getSupervisoryBody();
+        }
+
+        public RegimeReport<?> getRegimeReport() {
+            return regimeReport;
+        }
+
+        public RosettaModelObject getReport() {
+            return report;
+        }
+
+        /**
+         * The projected report, or null if the regime has no projection or the report failed.
+         */
+        public RosettaModelObject getProjection() {
+            return projection;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public long getInstructionNanos() {
+            return instructionNanos;
+        }
+
+        public long getReportNanos() {
+            return reportNanos;
+        }
+
+        public long getProjectionNanos() {
+            return projectionNanos;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return regimeReport + (isSuccess() ? "" : " failed") + " in " + TimeUnit.NANOSECONDS.toMillis(totalNanos) + " ms";
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.regnosys.drr.utils.annadsb;
+
+/**
+ * Signals that an ANNA DSB UPI lookup failed, as opposed to no UPI matching the request, so the outcome is not known.
+ */
+public class AnnaDsbException extends RuntimeException {
+
+    public AnnaDsbException(String message) {
+        super(message);
+    }
+
+    public AnnaDsbException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,130 @@
+package com.regnosys.drr.utils.annadsb;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Coalesces UPI lookups from concurrent callers into as few ANNA DSB searches as possible.
+ * <p>
+ * Each requested key is registered as in-flight before being queued, so callers asking for a request that is already
+ * queued or being searched join the existing lookup rather than issuing another search. ANNA DSB searches one request
+ * at a time, so queued requests are sent with at most {@code maxConcurrentRequests} searches on the wire at once;
+ * requests queued while all permits are taken are picked up as soon as a search completes.
+ * <p>
+ * Dispatching never blocks the caller. A lookup completes with an empty result if no UPI matches the request, and
+ * exceptionally with an {@link AnnaDsbException} if the search failed.
+ */
+public class AnnaDsbUpiBatchLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnnaDsbUpiBatchLoader.class);
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+    private final AnnaDsbUpiClient annaDsbUpiClient;
+    private final EnrichmentCacheMetrics metrics;
+
+    private final Map<AnnaDsbUpiRequestKey, CompletableFuture<Optional<AnnaDsbUpiRecord>>> inFlight = new ConcurrentHashMap<>();
+    private final Queue<AnnaDsbUpiRequestKey> pending = new ConcurrentLinkedQueue<>();
+    private final Semaphore requestPermits;
+
+    public AnnaDsbUpiBatchLoader(AnnaDsbUpiClient annaDsbUpiClient) {
+        this(annaDsbUpiClient, DEFAULT_MAX_CONCURRENT_REQUESTS, null);
+    }
+
+    /**
+     * @param metrics optional metrics recording each ANNA DSB search as a remote call
+     */
+    public AnnaDsbUpiBatchLoader(AnnaDsbUpiClient annaDsbUpiClient, int maxConcurrentRequests, EnrichmentCacheMetrics metrics) {
+        this.annaDsbUpiClient = annaDsbUpiClient;
+        this.metrics = metrics;
+        this.requestPermits = new Semaphore(maxConcurrentRequests);
+    }
+
+    public CompletableFuture<Optional<AnnaDsbUpiRecord>> loadAsync(AnnaDsbUpiRequestKey key) {
+        CompletableFuture<Optional<AnnaDsbUpiRecord>> result = enqueue(key);
+        dispatch();
+        return result;
+    }
+
+    /**
+     * Looks up all the given requests, searching once for each distinct key, with a separate result for each so that
+     * a failed search does not fail the others.
+     */
+    public Map<AnnaDsbUpiRequestKey, CompletableFuture<Optional<AnnaDsbUpiRecord>>> loadEachAsync(Collection<AnnaDsbUpiRequestKey> keys) {
+        Map<AnnaDsbUpiRequestKey, CompletableFuture<Optional<AnnaDsbUpiRecord>>> results = new LinkedHashMap<>();
+        keys.forEach(key -> results.computeIfAbsent(key, this::enqueue));
+        dispatch();
+        return results;
+    }
+
+    @VisibleForTesting
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private CompletableFuture<Optional<AnnaDsbUpiRecord>> enqueue(AnnaDsbUpiRequestKey key) {
+        CompletableFuture<Optional<AnnaDsbUpiRecord>> result = new CompletableFuture<>();
+        CompletableFuture<Optional<AnnaDsbUpiRecord>> existing = inFlight.putIfAbsent(key, result);
+        if (existing != null) {
+            LOGGER.debug("Joining in-flight UPI lookup for {}", key);
+            return existing;
+        }
+        pending.add(key);
+        return result;
+    }
+
+    private void dispatch() {
+        // Each completed search calls dispatch again, so requests queued by callers that could not get a permit are not lost
+        while (!pending.isEmpty() && requestPermits.tryAcquire()) {
+            AnnaDsbUpiRequestKey key = pending.poll();
+            if (key == null) {
+                requestPermits.release();
+                continue;
+            }
+            fetchAsync(key)
+                    .whenComplete((record, e) -> {
+                        if (e != null) {
+                            LOGGER.error("Exception occurred searching ANNA DSB for UPI {}", key, e);
+                        }
+                        complete(key, record, e);
+                        requestPermits.release();
+                        dispatch();
+                    });
+        }
+    }
+
+    private CompletableFuture<Optional<AnnaDsbUpiRecord>> fetchAsync(AnnaDsbUpiRequestKey key) {
+        if (metrics == null) {
+            return annaDsbUpiClient.retrieveAsync(key);
+        }
+        long start = metrics.recordRemoteCallStarted();
+        return annaDsbUpiClient.retrieveAsync(key)
+                .whenComplete((record, e) -> metrics.recordRemoteCallCompleted(start, e == null));
+    }
+
+    private void complete(AnnaDsbUpiRequestKey key, Optional<AnnaDsbUpiRecord> record, Throwable error) {
+        CompletableFuture<Optional<AnnaDsbUpiRecord>> result = inFlight.remove(key);
+        if (result == null) {
+            return;
+        }
+        if (error != null) {
+            result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        } else {
+            result.complete(record);
+        }
+    }
+}
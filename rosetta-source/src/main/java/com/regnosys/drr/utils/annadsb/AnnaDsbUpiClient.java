@@ -0,0 +1,94 @@
+package com.regnosys.drr.utils.annadsb;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.regnosys.rosetta.common.serialisation.RosettaObjectMapper;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+/**
+ * Searches ANNA DSB for the UPI record matching a request, by posting the canonical request JSON to the UPI search
+ * endpoint.
+ * <p>
+ * The response may be a single record or an array of matching records, of which the first is used; an empty array
+ * or a 404 means no UPI matches. Any other outcome fails the lookup with an {@link AnnaDsbException}.
+ */
+public class AnnaDsbUpiClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnnaDsbUpiClient.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = RosettaObjectMapper.getNewRosettaObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final HttpClient httpClient;
+    private final URI searchUri;
+    private final Map<String, String> headers;
+
+    /**
+     * @param searchUrl ANNA DSB UPI search endpoint
+     * @param headers   added to each request, e.g. the {@code Authorization} header carrying the API token
+     */
+    public AnnaDsbUpiClient(HttpClient httpClient, String searchUrl, Map<String, String> headers) {
+        this.httpClient = httpClient;
+        this.searchUri = URI.create(searchUrl);
+        this.headers = Map.copyOf(headers);
+    }
+
+    public CompletableFuture<Optional<AnnaDsbUpiRecord>> retrieveAsync(AnnaDsbUpiRequestKey key) {
+        LOGGER.debug("Searching ANNA DSB for UPI {}", key);
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder()
+                    .uri(searchUri)
+                    .timeout(Duration.of(10, SECONDS))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(key.toJson()));
+            headers.forEach(request::header);
+            return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                    .thenApply(response -> toRecord(key, response));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Optional<AnnaDsbUpiRecord> toRecord(AnnaDsbUpiRequestKey key, HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            int statusCode = response.statusCode();
+            if (statusCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                LOGGER.debug("No UPI found in ANNA DSB for {}", key);
+                return Optional.empty();
+            }
+            if (statusCode != HttpURLConnection.HTTP_OK) {
+                throw new AnnaDsbException("Got status code " + statusCode + " from ANNA DSB");
+            }
+            return parseRecord(OBJECT_MAPPER.readTree(body));
+        } catch (IOException e) {
+            throw new CompletionException(new AnnaDsbException("Failed to read ANNA DSB response", e));
+        }
+    }
+
+    static Optional<AnnaDsbUpiRecord> parseRecord(JsonNode json) throws IOException {
+        JsonNode record = json != null && json.isArray() ? json.path(0) : json;
+        if (record == null || !record.isObject() || record.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(OBJECT_MAPPER.treeToValue(record, AnnaDsbUpiRecord.class));
+    }
+}
@@ -0,0 +1,226 @@
+package com.regnosys.drr.utils.annadsb;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Stopwatch;
+import com.regnosys.rosetta.common.serialisation.RosettaObjectMapper;
+import drr.standards.iosco.upi.AnnaDsbAttributes;
+import drr.standards.iosco.upi.AnnaDsbIdentifier;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-memory index of ANNA DSB UPI records, loaded from JSON lines dumps with one record per line, optionally gzipped.
+ * <p>
+ * Each record is indexed on the {@link AnnaDsbUpiRequestKey} of its {@code Header} and of those {@code Attributes}
+ * that can appear in an {@link AnnaDsbUpiRequest}, so a request built by {@code Create_AnnaDsbUpiRequestFromReportableEvent}
+ * finds the record ANNA DSB would have returned for it. Records are also indexed on their UPI. When several records
+ * share a key the most recently updated one wins, whatever the order they are loaded in, and if that one is deleted or
+ * deprecated the key, and the UPIs of its earlier records, are not indexed.
+ * <p>
+ * Attributes whose structure differs between requests and records, such as the commodity {@code BaseProduct}, do
+ * not match, so lookups for those requests miss.
+ */
+public class AnnaDsbUpiIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnnaDsbUpiIndex.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = RosettaObjectMapper.getNewRosettaObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final Set<String> REQUEST_ATTRIBUTES = propertyNames(AnnaDsbAttributes.class);
+
+    private static final Set<String> INACTIVE_STATUSES = Set.of("Deleted", "Deprecated");
+
+    private final Map<AnnaDsbUpiRequestKey, AnnaDsbUpiRecord> byRequest;
+    private final Map<String, AnnaDsbUpiRecord> byUpi;
+
+    private AnnaDsbUpiIndex(Map<AnnaDsbUpiRequestKey, AnnaDsbUpiRecord> byRequest, Map<String, AnnaDsbUpiRecord> byUpi) {
+        this.byRequest = Map.copyOf(byRequest);
+        this.byUpi = Map.copyOf(byUpi);
+    }
+
+    /**
+     * Loads a dump file, or every {@code .jsonl} and {@code .jsonl.gz} file in a directory.
+     */
+    public static AnnaDsbUpiIndex load(Path path) throws IOException {
+        Stopwatch t = Stopwatch.createStarted();
+        Builder builder = new Builder();
+        List<Path> files;
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> list = Files.list(path)) {
+                files = list.filter(AnnaDsbUpiIndex::isDump).sorted().collect(Collectors.toList());
+            }
+        } else {
+            files = List.of(path);
+        }
+        for (Path file : files) {
+            try (InputStream is = open(file)) {
+                builder.addAll(is);
+            }
+        }
+        AnnaDsbUpiIndex index = builder.build();
+        LOGGER.info("Loaded {} ANNA DSB UPI records from {} files in {}, took {}", index.size(), files.size(), path, t);
+        return index;
+    }
+
+    public static AnnaDsbUpiIndex load(InputStream jsonLines) throws IOException {
+        return new Builder().addAll(jsonLines).build();
+    }
+
+    public Optional<AnnaDsbUpiRecord> get(AnnaDsbUpiRequest request) {
+        return get(AnnaDsbUpiRequestKey.of(request));
+    }
+
+    public Optional<AnnaDsbUpiRecord> get(AnnaDsbUpiRequestKey key) {
+        return Optional.ofNullable(byRequest.get(key));
+    }
+
+    public Optional<AnnaDsbUpiRecord> getByUpi(String upi) {
+        return Optional.ofNullable(upi).map(byUpi::get);
+    }
+
+    public int size() {
+        return byRequest.size();
+    }
+
+    /**
+     * The key of the request that identifies the given record JSON.
+     */
+    public static AnnaDsbUpiRequestKey requestKey(JsonNode record) {
+        ObjectNode request = OBJECT_MAPPER.createObjectNode();
+        request.set("Header", record.get("Header"));
+        JsonNode attributes = record.path("Attributes");
+        if (attributes.isObject()) {
+            ObjectNode requestAttributes = request.putObject("Attributes");
+            attributes.fields().forEachRemaining(field -> {
+                if (REQUEST_ATTRIBUTES.contains(field.getKey())) {
+                    requestAttributes.set(field.getKey(), field.getValue());
+                }
+            });
+        }
+        return AnnaDsbUpiRequestKey.of(request);
+    }
+
+    private static boolean isDump(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".jsonl") || name.endsWith(".jsonl.gz");
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream is = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(is) : is;
+    }
+
+    private static Set<String> propertyNames(Class<?> type) {
+        BeanDescription description = OBJECT_MAPPER.getSerializationConfig().introspect(OBJECT_MAPPER.constructType(type));
+        return description.findProperties().stream()
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Collects records for an index, e.g. from several dumps.
+     */
+    public static class Builder {
+
+        private final Map<AnnaDsbUpiRequestKey, String> lastUpdatedByRequest = new HashMap<>();
+        private final Map<AnnaDsbUpiRequestKey, AnnaDsbUpiRecord> byRequest = new HashMap<>();
+        private int skipped;
+
+        /**
+         * Adds every record in the JSON lines, skipping blank, malformed and inactive records.
+         */
+        public Builder addAll(InputStream jsonLines) throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(jsonLines, StandardCharsets.UTF_8));
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    add(OBJECT_MAPPER.readTree(line));
+                } catch (IOException | IllegalArgumentException e) {
+                    skipped++;
+                    LOGGER.warn("Skipping malformed ANNA DSB UPI record on line {}: {}", lineNumber, e.getMessage());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Adds the record, returning false if it was skipped as inactive or superseded. An inactive record still
+         * removes the earlier records of its key, and hides later added records that were updated before it.
+         */
+        public boolean add(JsonNode record) throws IOException {
+            if (!record.isObject()) {
+                skipped++;
+                return false;
+            }
+            JsonNode identifier = record.path("Identifier");
+            AnnaDsbUpiRequestKey key = requestKey(record);
+            String lastUpdated = identifier.path("LastUpdateDateTime").asText("");
+            String latest = lastUpdatedByRequest.get(key);
+            // ISO 8601 timestamps in a single format sort lexicographically
+            if (latest != null && latest.compareTo(lastUpdated) > 0) {
+                skipped++;
+                return false;
+            }
+            if (INACTIVE_STATUSES.contains(identifier.path("Status").asText())) {
+                lastUpdatedByRequest.put(key, lastUpdated);
+                byRequest.remove(key);
+                skipped++;
+                return false;
+            }
+            AnnaDsbUpiRecord upiRecord = OBJECT_MAPPER.treeToValue(record, AnnaDsbUpiRecord.class);
+            lastUpdatedByRequest.put(key, lastUpdated);
+            byRequest.put(key, upiRecord);
+            return true;
+        }
+
+        public AnnaDsbUpiIndex build() {
+            if (skipped > 0) {
+                LOGGER.info("Skipped {} malformed, inactive or superseded ANNA DSB UPI records", skipped);
+            }
+            // indexed from the current records only, so superseded and deleted UPIs are not served
+            Map<String, AnnaDsbUpiRecord> byUpi = new HashMap<>();
+            byRequest.values().forEach(record -> {
+                String upi = record.getIdentifier() == null ? null : record.getIdentifier().getUPI();
+                if (upi != null) {
+                    byUpi.merge(upi, record, (a, b) -> lastUpdated(a).compareTo(lastUpdated(b)) >= 0 ? a : b);
+                }
+            });
+            return new AnnaDsbUpiIndex(byRequest, byUpi);
+        }
+
+        private static String lastUpdated(AnnaDsbUpiRecord record) {
+            return Optional.ofNullable(record.getIdentifier())
+                    .map(AnnaDsbIdentifier::getLastUpdateDateTime)
+                    .orElse("");
+        }
+    }
+}
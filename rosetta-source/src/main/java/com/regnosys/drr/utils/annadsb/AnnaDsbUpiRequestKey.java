@@ -0,0 +1,124 @@
+package com.regnosys.drr.utils.annadsb;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.regnosys.rosetta.common.serialisation.RosettaObjectMapper;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Canonical form of an {@link AnnaDsbUpiRequest}, used both as the cache key and as the request body, so that
+ * requests describing the same product (asset class, instrument type, underlier, tenor, currencies, ...) map to the
+ * same key however they were built.
+ * <p>
+ * The canonical form is the request's JSON with object fields sorted by name, absent and empty values dropped,
+ * strings trimmed and currency codes upper cased. Array order is kept, as it can be significant.
+ */
+public final class AnnaDsbUpiRequestKey {
+
+    private static final ObjectMapper OBJECT_MAPPER = RosettaObjectMapper.getNewRosettaObjectMapper();
+
+    private static final Set<String> CURRENCY_FIELDS = Set.of("NotionalCurrency", "OtherNotionalCurrency", "SettlementCurrency");
+
+    private final String canonicalJson;
+
+    private AnnaDsbUpiRequestKey(String canonicalJson) {
+        this.canonicalJson = canonicalJson;
+    }
+
+    public static AnnaDsbUpiRequestKey of(AnnaDsbUpiRequest request) {
+        return of(OBJECT_MAPPER.valueToTree(request));
+    }
+
+    /**
+     * Creates the key from the JSON of a request, or of the {@code Header} and {@code Attributes} of a UPI record.
+     */
+    public static AnnaDsbUpiRequestKey of(JsonNode requestJson) {
+        JsonNode canonical = canonicalise(null, requestJson);
+        try {
+            return new AnnaDsbUpiRequestKey(OBJECT_MAPPER.writeValueAsString(canonical == null ? JsonNodeFactory.instance.objectNode() : canonical));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialise ANNA DSB UPI request", e);
+        }
+    }
+
+    /**
+     * The canonical request JSON, suitable as the body of a UPI search.
+     */
+    public String toJson() {
+        return canonicalJson;
+    }
+
+    /**
+     * Returns the canonical form of the node, or null if it has no value.
+     */
+    private static JsonNode canonicalise(String fieldName, JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isObject()) {
+            List<String> fieldNames = new ArrayList<>(node.size());
+            node.fieldNames().forEachRemaining(fieldNames::add);
+            fieldNames.sort(null);
+            ObjectNode canonical = JsonNodeFactory.instance.objectNode();
+            for (String name : fieldNames) {
+                JsonNode value = canonicalise(name, node.get(name));
+                if (value != null) {
+                    canonical.set(name, value);
+                }
+            }
+            return canonical.isEmpty() ? null : canonical;
+        }
+        if (node.isArray()) {
+            ArrayNode canonical = JsonNodeFactory.instance.arrayNode();
+            for (Iterator<JsonNode> elements = node.elements(); elements.hasNext(); ) {
+                JsonNode value = canonicalise(fieldName, elements.next());
+                if (value != null) {
+                    canonical.add(value);
+                }
+            }
+            return canonical.isEmpty() ? null : canonical;
+        }
+        if (node.isTextual()) {
+            String text = node.textValue().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            if (CURRENCY_FIELDS.contains(fieldName)) {
+                text = text.toUpperCase(Locale.ROOT);
+            }
+            return JsonNodeFactory.instance.textNode(text);
+        }
+        return node;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return canonicalJson.equals(((AnnaDsbUpiRequestKey) o).canonicalJson);
+    }
+
+    @Override
+    public int hashCode() {
+        return canonicalJson.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return canonicalJson;
+    }
+}
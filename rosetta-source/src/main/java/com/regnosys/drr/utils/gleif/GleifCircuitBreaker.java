@@ -0,0 +1,86 @@
+package com.regnosys.drr.utils.gleif;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Circuit breaker guarding the GLEIF API, so that callers fail fast rather than queueing on an unhealthy endpoint.
+ * <p>
+ * The breaker opens after {@code failureThreshold} consecutive failed requests. While open every request is rejected
+ * until {@code openDuration} has elapsed, after which a single trial request is let through (half-open): if it
+ * succeeds the breaker closes, otherwise it opens again.
+ */
+public class GleifCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GleifCircuitBreaker.class);
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public GleifCircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION, Clock.systemUTC());
+    }
+
+    public GleifCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns whether a request may be sent now. Every permitted request must be followed by a call to either
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() - openedAt >= openDuration.toMillis()) {
+                    LOGGER.info("GLEIF circuit breaker half-open, sending trial request");
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // trial request already in flight
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            LOGGER.info("GLEIF circuit breaker closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            LOGGER.warn("GLEIF circuit breaker opened after {} consecutive failures, failing fast for {}", consecutiveFailures, openDuration);
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,372 @@
+package com.regnosys.drr.utils.gleif;
+
+import com.google.common.base.Stopwatch;
+import drr.enrichment.lei.LeiCategoryEnum;
+import drr.enrichment.lei.LeiData;
+import drr.enrichment.lei.LeiRegistrationStatusEnum;
+import drr.enrichment.lei.LeiStatusEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compact, sorted, memory-mapped index of LEI records built from the GLEIF golden copy, see
+ * {@link GleifGoldenCopyLoader}.
+ * <p>
+ * The index file consists of a header, the names of the entity category, entity status and registration status enums,
+ * a table of fixed-width keys sorted by LEI (20 ASCII bytes followed by the offset of the record), and the
+ * variable-width records. Records refer to enum values by their position in the names written to the file, which are
+ * mapped back to enum values by name when the index is opened, so an index stays readable when the enums are
+ * reordered or extended; a name no longer defined reads as no value. The keys and records are mapped read-only, so
+ * lookups are a binary search over off-heap memory and the heap footprint is independent of the number of records.
+ * <p>
+ * The golden copy only holds published records, and does not hold the status of the branches of an entity, so unlike
+ * the records of the GLEIF API, every record of the index is published and has a branch entity status of
+ * {@link LeiStatusEnum#NULL}.
+ */
+public class GleifGoldenCopyIndex implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GleifGoldenCopyIndex.class);
+
+    static final int MAGIC = 0x4C454958; // "LEIX"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int LEI_LENGTH = 20;
+    static final int KEY_SIZE = LEI_LENGTH + Long.BYTES;
+
+    private static final byte NULL_ORDINAL = 0;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final List<LeiCategoryEnum> categories;
+    private final List<LeiStatusEnum> statuses;
+    private final List<LeiRegistrationStatusEnum> registrationStatuses;
+    private final MappedByteBuffer keys;
+    private final MappedByteBuffer records;
+    private final int count;
+
+    public GleifGoldenCopyIndex(Path path) throws IOException {
+        Stopwatch t = Stopwatch.createStarted();
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // read fully
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            channel.close();
+            throw new IOException("Not a GLEIF golden copy index, or built with an incompatible version: " + path);
+        }
+        this.count = header.getInt();
+        int namesSize = header.getInt();
+        ByteBuffer names = ByteBuffer.allocate(namesSize);
+        while (names.hasRemaining() && channel.read(names, HEADER_SIZE + names.position()) >= 0) {
+            // read fully
+        }
+        names.flip();
+        this.categories = readNames(names, LeiCategoryEnum.class, path);
+        this.statuses = readNames(names, LeiStatusEnum.class, path);
+        this.registrationStatuses = readNames(names, LeiRegistrationStatusEnum.class, path);
+        long keysStart = HEADER_SIZE + namesSize;
+        long keysSize = (long) count * KEY_SIZE;
+        this.keys = channel.map(FileChannel.MapMode.READ_ONLY, keysStart, keysSize);
+        this.records = channel.map(FileChannel.MapMode.READ_ONLY, keysStart + keysSize, channel.size() - keysStart - keysSize);
+        LOGGER.info("Opened GLEIF golden copy index {} with {} LEI records, took {}", path, count, t);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Optional<LeiData> get(String lei) {
+        if (lei == null || lei.length() != LEI_LENGTH) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, lei);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return Optional.of(readRecord(lei, keys.getLong(mid * KEY_SIZE + LEI_LENGTH)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int compareKey(int index, String lei) {
+        int base = index * KEY_SIZE;
+        for (int i = 0; i < LEI_LENGTH; i++) {
+            int diff = (keys.get(base + i) & 0xFF) - lei.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private LeiData readRecord(String lei, long offset) {
+        int position = (int) offset;
+        byte category = records.get(position);
+        byte status = records.get(position + 1);
+        byte registrationStatus = records.get(position + 2);
+        long registrationDate = records.getLong(position + 3);
+        int nameLength = records.getChar(position + 11);
+        byte[] name = new byte[nameLength];
+        records.duplicate().position(position + 13).get(name);
+        return LeiData.builder()
+                .setLei(lei)
+                .setEntityName(nameLength == 0 ? null : new String(name, StandardCharsets.UTF_8))
+                .setEntityCategory(category == NULL_ORDINAL ? null : categories.get(category - 1))
+                .setEntityStatus(status == NULL_ORDINAL || statuses.get(status - 1) == null ? LeiStatusEnum.NULL : statuses.get(status - 1))
+                .setBranchEntityStatus(LeiStatusEnum.NULL)
+                .setRegistrationStatus(registrationStatus == NULL_ORDINAL ? null : registrationStatuses.get(registrationStatus - 1))
+                .setRegistrationDate(registrationDate == NULL_DATE ? null : ZonedDateTime.ofInstant(Instant.ofEpochSecond(registrationDate), ZoneOffset.UTC))
+                .setPublished(true)
+                .build();
+    }
+
+    /**
+     * Reads the names of the values of an enum, in the order the records refer to them, as written by
+     * {@link Builder#writeNames(DataOutputStream, Enum[])}.
+     */
+    private static <E extends Enum<E>> List<E> readNames(ByteBuffer names, Class<E> type, Path path) throws IOException {
+        if (names.remaining() < Short.BYTES) {
+            throw new IOException("Truncated GLEIF golden copy index: " + path);
+        }
+        int size = names.getShort() & 0xFFFF;
+        List<E> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int length = names.remaining() < Short.BYTES ? -1 : names.getShort() & 0xFFFF;
+            if (length < 0 || names.remaining() < length) {
+                throw new IOException("Truncated GLEIF golden copy index: " + path);
+            }
+            byte[] name = new byte[length];
+            names.get(name);
+            String value = new String(name, StandardCharsets.UTF_8);
+            try {
+                values.add(Enum.valueOf(type, value));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("GLEIF golden copy index {} holds {} {}, which is no longer defined, and reads as no value", path, type.getSimpleName(), value);
+                values.add(null);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes an index file from records added in any order. Records are appended to a temporary file as they are
+     * added, and only the packed keys and offsets are held in memory until {@link #build()} sorts and writes them.
+     * If an LEI is added more than once the last record wins.
+     */
+    public static class Builder implements Closeable {
+
+        private final Path path;
+        private final Path recordsPath;
+        private final DataOutputStream recordsOut;
+
+        private byte[] leis = new byte[1024 * LEI_LENGTH];
+        private long[] offsets = new long[1024];
+        private int count;
+        private long recordsSize;
+
+        public Builder(Path path) throws IOException {
+            this.path = path;
+            this.recordsPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".records");
+            this.recordsOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordsPath), 1 << 16));
+        }
+
+        public Builder add(String lei, String entityName, LeiCategoryEnum entityCategory, LeiStatusEnum entityStatus,
+                           LeiRegistrationStatusEnum registrationStatus, ZonedDateTime registrationDate) throws IOException {
+            if (lei == null || lei.length() != LEI_LENGTH) {
+                LOGGER.warn("Skipping golden copy record with invalid LEI {}", lei);
+                return this;
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                leis = Arrays.copyOf(leis, count * 2 * LEI_LENGTH);
+            }
+            for (int i = 0; i < LEI_LENGTH; i++) {
+                leis[count * LEI_LENGTH + i] = (byte) lei.charAt(i);
+            }
+            offsets[count++] = recordsSize;
+
+            byte[] name = entityName == null ? new byte[0] : entityName.getBytes(StandardCharsets.UTF_8);
+            int nameLength = Math.min(name.length, Character.MAX_VALUE);
+            recordsOut.writeByte(entityCategory == null ? NULL_ORDINAL : entityCategory.ordinal() + 1);
+            recordsOut.writeByte(entityStatus == null || entityStatus == LeiStatusEnum.NULL ? NULL_ORDINAL : entityStatus.ordinal() + 1);
+            recordsOut.writeByte(registrationStatus == null ? NULL_ORDINAL : registrationStatus.ordinal() + 1);
+            recordsOut.writeLong(registrationDate == null ? NULL_DATE : registrationDate.toEpochSecond());
+            recordsOut.writeChar(nameLength);
+            recordsOut.write(name, 0, nameLength);
+            recordsSize += 13 + nameLength;
+            return this;
+        }
+
+        /**
+         * Sorts the keys and writes the index file, returning the number of distinct LEIs indexed.
+         */
+        public int build() throws IOException {
+            recordsOut.close();
+            if (recordsSize > Integer.MAX_VALUE) {
+                throw new IOException("Golden copy records exceed the maximum index size: " + recordsSize);
+            }
+            Stopwatch t = Stopwatch.createStarted();
+            heapSort();
+            int distinct = dedupe();
+            LOGGER.info("Sorted {} golden copy keys ({} distinct), took {}", count, distinct, t);
+
+            ByteArrayOutputStream names = new ByteArrayOutputStream();
+            try (DataOutputStream namesOut = new DataOutputStream(names)) {
+                writeNames(namesOut, LeiCategoryEnum.values());
+                writeNames(namesOut, LeiStatusEnum.values());
+                writeNames(namesOut, LeiRegistrationStatusEnum.values());
+            }
+
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+                DataOutputStream data = new DataOutputStream(out);
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeInt(distinct);
+                data.writeInt(names.size());
+                names.writeTo(data);
+                for (int i = 0; i < distinct; i++) {
+                    data.write(leis, i * LEI_LENGTH, LEI_LENGTH);
+                    data.writeLong(offsets[i]);
+                }
+                try (InputStream in = Files.newInputStream(recordsPath)) {
+                    in.transferTo(data);
+                }
+                data.flush();
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(recordsPath);
+            LOGGER.info("Wrote GLEIF golden copy index {} with {} LEI records, took {}", path, distinct, t);
+            return distinct;
+        }
+
+        @Override
+        public void close() throws IOException {
+            recordsOut.close();
+            Files.deleteIfExists(recordsPath);
+        }
+
+        /**
+         * Writes the names of the values of an enum in ordinal order, which is the order records refer to them by.
+         */
+        static void writeNames(DataOutputStream out, Enum<?>[] values) throws IOException {
+            out.writeShort(values.length);
+            for (Enum<?> value : values) {
+                byte[] name = value.name().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+        }
+
+        /**
+         * Collapses runs of equal LEIs, keeping the most recently added record, i.e. the highest offset.
+         */
+        private int dedupe() {
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct > 0 && compare(distinct - 1, i) == 0) {
+                    offsets[distinct - 1] = Math.max(offsets[distinct - 1], offsets[i]);
+                } else {
+                    if (distinct != i) {
+                        System.arraycopy(leis, i * LEI_LENGTH, leis, distinct * LEI_LENGTH, LEI_LENGTH);
+                        offsets[distinct] = offsets[i];
+                    }
+                    distinct++;
+                }
+            }
+            return distinct;
+        }
+
+        /**
+         * In-place heap sort of the packed keys, avoiding boxing for millions of records.
+         */
+        private void heapSort() {
+            for (int i = count / 2 - 1; i >= 0; i--) {
+                siftDown(i, count);
+            }
+            for (int end = count - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int root, int end) {
+            while (true) {
+                int child = 2 * root + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && compare(child, child + 1) < 0) {
+                    child++;
+                }
+                if (compare(root, child) >= 0) {
+                    return;
+                }
+                swap(root, child);
+                root = child;
+            }
+        }
+
+        private int compare(int a, int b) {
+            int baseA = a * LEI_LENGTH;
+            int baseB = b * LEI_LENGTH;
+            for (int i = 0; i < LEI_LENGTH; i++) {
+                int diff = (leis[baseA + i] & 0xFF) - (leis[baseB + i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+
+        private void swap(int a, int b) {
+            int baseA = a * LEI_LENGTH;
+            int baseB = b * LEI_LENGTH;
+            for (int i = 0; i < LEI_LENGTH; i++) {
+                byte tmp = leis[baseA + i];
+                leis[baseA + i] = leis[baseB + i];
+                leis[baseB + i] = tmp;
+            }
+            long tmp = offsets[a];
+            offsets[a] = offsets[b];
+            offsets[b] = tmp;
+        }
+    }
+}
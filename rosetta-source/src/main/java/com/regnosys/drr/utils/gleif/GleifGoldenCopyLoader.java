@@ -0,0 +1,335 @@
+package com.regnosys.drr.utils.gleif;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.base.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Builds a {@link GleifGoldenCopyIndex} from the GLEIF golden copy (concatenated LEI-CDF file), published as CSV or
+ * JSON, optionally zipped, at https://www.gleif.org/en/lei-data/gleif-golden-copy.
+ * <p>
+ * Both formats are read with a streaming parser one record at a time, so memory use does not depend on the size of
+ * the file. The format is detected from the file extension (or that of the zip entry).
+ */
+public class GleifGoldenCopyLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GleifGoldenCopyLoader.class);
+
+    static final String LEI = "LEI";
+    static final String LEGAL_NAME = "Entity.LegalName";
+    static final String ENTITY_CATEGORY = "Entity.EntityCategory";
+    static final String ENTITY_STATUS = "Entity.EntityStatus";
+    static final String INITIAL_REGISTRATION_DATE = "Registration.InitialRegistrationDate";
+    static final String REGISTRATION_STATUS = "Registration.RegistrationStatus";
+
+    private static final String[] COLUMNS = {LEI, LEGAL_NAME, ENTITY_CATEGORY, ENTITY_STATUS, INITIAL_REGISTRATION_DATE, REGISTRATION_STATUS};
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Usage: {@code GleifGoldenCopyLoader <golden copy file> <index file>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: GleifGoldenCopyLoader <golden copy .csv|.json|.zip> <index file>");
+            System.exit(1);
+        }
+        new GleifGoldenCopyLoader().buildIndex(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Reads the golden copy file and writes the index, returning the number of LEI records indexed.
+     */
+    public int buildIndex(Path goldenCopy, Path index) throws IOException {
+        Stopwatch t = Stopwatch.createStarted();
+        LOGGER.info("Building GLEIF golden copy index {} from {}", index, goldenCopy);
+        try (GleifGoldenCopyIndex.Builder builder = new GleifGoldenCopyIndex.Builder(index);
+             InputStream in = new BufferedInputStream(Files.newInputStream(goldenCopy), 1 << 16)) {
+            String fileName = goldenCopy.getFileName().toString();
+            if (hasExtension(fileName, ".zip")) {
+                readZip(in, builder);
+            } else {
+                read(in, fileName, builder);
+            }
+            int count = builder.build();
+            LOGGER.info("Built GLEIF golden copy index {} with {} LEI records, took {}", index, count, t);
+            return count;
+        }
+    }
+
+    private void readZip(InputStream in, GleifGoldenCopyIndex.Builder builder) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && (hasExtension(entry.getName(), ".csv") || hasExtension(entry.getName(), ".json"))) {
+                read(zip, entry.getName(), builder);
+                return;
+            }
+        }
+        throw new IOException("No .csv or .json golden copy file found in zip");
+    }
+
+    private void read(InputStream in, String fileName, GleifGoldenCopyIndex.Builder builder) throws IOException {
+        if (hasExtension(fileName, ".csv")) {
+            readCsv(new InputStreamReader(in, StandardCharsets.UTF_8), builder);
+        } else if (hasExtension(fileName, ".json")) {
+            readJson(in, builder);
+        } else {
+            throw new IOException("Unsupported golden copy file, expected .csv, .json or .zip: " + fileName);
+        }
+    }
+
+    void readCsv(Reader reader, GleifGoldenCopyIndex.Builder builder) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IOException("Golden copy CSV is empty");
+        }
+        int[] columns = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columns[i] = header.indexOf(COLUMNS[i]);
+            if (columns[i] < 0) {
+                throw new IOException("Golden copy CSV header is missing column " + COLUMNS[i]);
+            }
+        }
+        String[] values = new String[COLUMNS.length];
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() <= columns[0]) {
+                continue;
+            }
+            for (int i = 0; i < COLUMNS.length; i++) {
+                values[i] = columns[i] < record.size() ? record.get(columns[i]) : null;
+            }
+            add(builder, values);
+        }
+    }
+
+    /**
+     * Reads the {@code records} array of the LEI-CDF JSON format, where each value is wrapped in an object such as
+     * {@code "LegalName": {"$": "..."}}. Only the {@code "$"} values of the indexed fields are materialised.
+     */
+    void readJson(InputStream in, GleifGoldenCopyIndex.Builder builder) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (!seekRecords(parser)) {
+                throw new IOException("Golden copy JSON has no records array");
+            }
+            String[] values = new String[COLUMNS.length];
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                readJsonRecord(parser, values);
+                add(builder, values);
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected token in golden copy records array " + token);
+            }
+        }
+    }
+
+    private static boolean seekRecords(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("records".equals(name) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static void readJsonRecord(JsonParser parser, String[] values) throws IOException {
+        Arrays.fill(values, null);
+        JsonStreamContext record = parser.getParsingContext();
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new IOException("Unexpected end of golden copy JSON");
+            }
+            switch (token) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                case VALUE_STRING:
+                    if ("$".equals(parser.getCurrentName())) {
+                        int column = jsonColumn(parser.getParsingContext().getParent(), record);
+                        if (column >= 0) {
+                            values[column] = parser.getText();
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Resolves the enclosing field names of a {@code "$"} value, e.g. {@code Entity.LegalName}, to a column index
+     * without building the path.
+     */
+    private static int jsonColumn(JsonStreamContext field, JsonStreamContext record) {
+        if (field == record) {
+            return LEI.equals(record.getCurrentName()) ? 0 : -1;
+        }
+        if (field == null || field.getParent() != record) {
+            return -1;
+        }
+        String group = record.getCurrentName();
+        String name = field.getCurrentName();
+        if ("Entity".equals(group)) {
+            switch (name) {
+                case "LegalName":
+                    return 1;
+                case "EntityCategory":
+                    return 2;
+                case "EntityStatus":
+                    return 3;
+                default:
+                    return -1;
+            }
+        }
+        if ("Registration".equals(group)) {
+            switch (name) {
+                case "InitialRegistrationDate":
+                    return 4;
+                case "RegistrationStatus":
+                    return 5;
+                default:
+                    return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static void add(GleifGoldenCopyIndex.Builder builder, String[] values) throws IOException {
+        builder.add(emptyToNull(values[0]),
+                emptyToNull(values[1]),
+                GleifLeiAdaptor.toLeiCategoryEnum(emptyToNull(values[2])),
+                GleifLeiAdaptor.toLeiStatusEnum(emptyToNull(values[3])),
+                GleifLeiAdaptor.toLeiRegistrationStatusEnum(emptyToNull(values[5])),
+                toZonedDateTime(emptyToNull(values[4])));
+    }
+
+    private static ZonedDateTime toZonedDateTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return GleifLeiAdaptor.parseZonedDateTime(value);
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Invalid registration date in golden copy {}", value);
+            return null;
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static boolean hasExtension(String fileName, String extension) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(extension);
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks. The returned list is
+     * reused for each record.
+     */
+    static class CsvReader {
+
+        private final Reader reader;
+        private final char[] buffer = new char[1 << 16];
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean first = true;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> readRecord() throws IOException {
+            int c = read();
+            if (first && c == '\uFEFF') {
+                c = read();
+            }
+            first = false;
+            if (c == -1) {
+                return null;
+            }
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field in golden copy CSV");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.regnosys.drr.utils.gleif;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import drr.enrichment.lei.LeiCategoryEnum;
 import drr.enrichment.lei.LeiData;
 import drr.enrichment.lei.LeiRegistrationStatusEnum;
@@ -10,74 +10,254 @@ import drr.enrichment.lei.LeiStatusEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Adapts GLEIF API responses into {@link LeiData}.
+ * <p>
+ * Responses are read in a single pass with a streaming parser from a shared {@link JsonFactory}. Only the fields
+ * needed for {@link LeiData} are materialised, everything else is skipped without building a tree.
+ */
 public class GleifLeiAdaptor {
     private static final Logger LOGGER = LoggerFactory.getLogger(GleifLeiAdaptor.class);
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Slots of the extracted values of a record
+    private static final int LEI = 0;
+    private static final int ENTITY_NAME = 1;
+    private static final int ENTITY_CATEGORY = 2;
+    private static final int ENTITY_STATUS = 3;
+    private static final int BRANCH_ENTITY_STATUS = 4;
+    private static final int REGISTRATION_STATUS = 5;
+    private static final int REGISTRATION_DATE = 6;
+    private static final int LAST_UPDATE_DATE = 7;
+    private static final int NEXT_RENEWAL_DATE = 8;
+    private static final int TYPE = 9;
+    private static final int ID = 10;
+    private static final int LINKS_SELF = 11;
+    private static final int SLOTS = 12;
+
+    /**
+     * Paths, relative to a record, of the extracted values.
+     */
+    private static final FieldPath RECORD_PATHS = new FieldPath()
+            .add(LEI, "attributes", "lei")
+            .add(ENTITY_NAME, "attributes", "entity", "legalName", "name")
+            .add(ENTITY_CATEGORY, "attributes", "entity", "category")
+            .add(ENTITY_STATUS, "attributes", "entity", "status")
+            .add(BRANCH_ENTITY_STATUS, "attributes", "branches", "entityStatus")
+            .add(REGISTRATION_STATUS, "attributes", "registration", "status")
+            .add(REGISTRATION_DATE, "attributes", "registration", "initialRegistrationDate")
+            .add(LAST_UPDATE_DATE, "attributes", "registration", "lastUpdateDate")
+            .add(NEXT_RENEWAL_DATE, "attributes", "registration", "nextRenewalDate")
+            .add(TYPE, "type")
+            .add(ID, "id")
+            .add(LINKS_SELF, "links", "self");
+
+    private static final Map<String, LeiCategoryEnum> LEI_CATEGORIES = byName(LeiCategoryEnum.values());
+    private static final Map<String, LeiStatusEnum> LEI_STATUSES = byName(LeiStatusEnum.values());
+    private static final Map<String, LeiRegistrationStatusEnum> LEI_REGISTRATION_STATUSES = byName(LeiRegistrationStatusEnum.values());
+
     public LeiData adapt(String responseJson) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode node = objectMapper.readTree(responseJson);
-
-            return LeiData.builder()
-                    .setLei(extractField(node, "/data/attributes/lei").orElse(null))
-                    .setEntityName(extractField(node, "/data/attributes/entity/legalName/name").orElse(null))
-                    .setEntityCategory(extractField(node, "/data/attributes/entity/category").map(GleifLeiAdaptor::toLeiCategoryEnum).orElse(null))
-                    .setEntityStatus(extractField(node, "/data/attributes/entity/status").map(GleifLeiAdaptor::toLeiStatusEnum).orElse(LeiStatusEnum.NULL))
-                    .setBranchEntityStatus(extractField(node, "/data/attributes/branches/entityStatus").map(GleifLeiAdaptor::toLeiStatusEnum).orElse(LeiStatusEnum.NULL))
-                    .setRegistrationStatus(extractField(node, "/data/attributes/registration/status").map(GleifLeiAdaptor::toLeiRegistrationStatusEnum).orElse(null))
-                    .setRegistrationDate(extractField(node, "/data/attributes/registration/initialRegistrationDate").map(GleifLeiAdaptor::parseZonedDateTime).orElse(null))
-                    .setPublished(isPublished(node))
-                    .build();
-        } catch (JsonProcessingException e) {
+        return Optional.ofNullable(adaptRecord(responseJson))
+                .map(GleifLeiRecord::getLeiData)
+                .orElse(null);
+    }
+
+    /**
+     * Adapts a bulk GLEIF response (i.e. where {@code data} is an array of LEI records) into a map keyed by LEI.
+     * LEIs that were requested but not found are simply absent from the result.
+     */
+    public Map<String, LeiData> adaptAll(String responseJson) {
+        Map<String, LeiData> leiData = new HashMap<>();
+        adaptAllRecords(responseJson).forEach((lei, record) -> leiData.put(lei, record.getLeiData()));
+        return leiData;
+    }
+
+    /**
+     * As {@link #adapt(String)}, but also retaining the registration dates of the record.
+     */
+    public GleifLeiRecord adaptRecord(String responseJson) {
+        try (JsonParser parser = JSON_FACTORY.createParser(responseJson)) {
+            String[] values = new String[SLOTS];
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    if ("data".equals(name) && token == JsonToken.START_OBJECT) {
+                        RECORD_PATHS.read(parser, values);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            return toRecord(values);
+        } catch (IOException e) {
             LOGGER.error("Error occurred parsing JSON response: {}", responseJson, e);
             return null;
         }
     }
 
-    private static Optional<String> extractField(JsonNode node, String path) {
-        return Optional.ofNullable(node.at(path))
-                .map(JsonNode::asText)
-                .filter(str -> !str.isEmpty());
+    /**
+     * As {@link #adaptAll(String)}, but also retaining the registration dates of each record.
+     */
+    public Map<String, GleifLeiRecord> adaptAllRecords(String responseJson) {
+        Map<String, GleifLeiRecord> records = new HashMap<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(responseJson)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken token = parser.nextToken();
+                    if ("data".equals(name) && token == JsonToken.START_ARRAY) {
+                        readRecords(parser, records);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error occurred parsing JSON response: {}", responseJson, e);
+            return Collections.emptyMap();
+        }
+        return records;
+    }
+
+    private static void readRecords(JsonParser parser, Map<String, GleifLeiRecord> records) throws IOException {
+        String[] values = new String[SLOTS];
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                RECORD_PATHS.read(parser, values);
+                GleifLeiRecord record = toRecord(values);
+                if (record.getLeiData().getLei() != null) {
+                    records.put(record.getLeiData().getLei(), record);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
     }
 
-    private static LeiCategoryEnum toLeiCategoryEnum(String entityCategory) {
-        try {
-            return LeiCategoryEnum.valueOf(entityCategory);
-        } catch (Exception e) {
+    private static GleifLeiRecord toRecord(String[] values) {
+        LeiStatusEnum entityStatus = toLeiStatusEnum(values[ENTITY_STATUS]);
+        LeiStatusEnum branchEntityStatus = toLeiStatusEnum(values[BRANCH_ENTITY_STATUS]);
+        LeiData leiData = LeiData.builder()
+                .setLei(values[LEI])
+                .setEntityName(values[ENTITY_NAME])
+                .setEntityCategory(toLeiCategoryEnum(values[ENTITY_CATEGORY]))
+                .setEntityStatus(entityStatus == null ? LeiStatusEnum.NULL : entityStatus)
+                .setBranchEntityStatus(branchEntityStatus == null ? LeiStatusEnum.NULL : branchEntityStatus)
+                .setRegistrationStatus(toLeiRegistrationStatusEnum(values[REGISTRATION_STATUS]))
+                .setRegistrationDate(toZonedDateTime(values[REGISTRATION_DATE], "registration date"))
+                .setPublished(isPublished(values))
+                .build();
+        return new GleifLeiRecord(leiData,
+                toZonedDateTime(values[LAST_UPDATE_DATE], "last update date"),
+                toZonedDateTime(values[NEXT_RENEWAL_DATE], "next renewal date"));
+    }
+
+    static LeiCategoryEnum toLeiCategoryEnum(String entityCategory) {
+        LeiCategoryEnum leiCategory = entityCategory == null ? null : LEI_CATEGORIES.get(entityCategory);
+        if (entityCategory != null && leiCategory == null) {
             LOGGER.warn("Unknown LEI entity category received from GLEIF {}", entityCategory);
-            return null;
         }
+        return leiCategory;
     }
 
-    private static LeiStatusEnum toLeiStatusEnum(String leiStatus) {
-        try {
-            return LeiStatusEnum.valueOf(leiStatus);
-        } catch (Exception e) {
+    static LeiStatusEnum toLeiStatusEnum(String leiStatus) {
+        LeiStatusEnum status = leiStatus == null ? null : LEI_STATUSES.get(leiStatus);
+        if (leiStatus != null && status == null) {
             LOGGER.warn("Unknown LEI status received from GLEIF {}", leiStatus);
-            return null;
         }
+        return status;
     }
 
-    private static LeiRegistrationStatusEnum toLeiRegistrationStatusEnum(String registrationStatus) {
-        try {
-            return LeiRegistrationStatusEnum.valueOf(registrationStatus);
-        } catch (Exception e) {
+    static LeiRegistrationStatusEnum toLeiRegistrationStatusEnum(String registrationStatus) {
+        LeiRegistrationStatusEnum status = registrationStatus == null ? null : LEI_REGISTRATION_STATUSES.get(registrationStatus);
+        if (registrationStatus != null && status == null) {
             LOGGER.warn("Unknown LEI registration status received from GLEIF {}", registrationStatus);
-            return null;
         }
+        return status;
     }
 
-    private static ZonedDateTime parseZonedDateTime(String zonedDateTime) {
+    static ZonedDateTime parseZonedDateTime(String zonedDateTime) {
         return ZonedDateTime.parse(zonedDateTime);
     }
 
-    private static boolean isPublished(JsonNode node) {
-        return extractField(node, "/data/type").map("lei-records"::equals).orElse(false)
-                && extractField(node, "/data/id").isPresent()
-                && extractField(node, "/data/links/self").isPresent();
+    private static ZonedDateTime toZonedDateTime(String zonedDateTime, String field) {
+        if (zonedDateTime == null) {
+            return null;
+        }
+        try {
+            return parseZonedDateTime(zonedDateTime);
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Unparseable LEI {} received from GLEIF {}", field, zonedDateTime);
+            return null;
+        }
+    }
+
+    private static boolean isPublished(String[] values) {
+        return "lei-records".equals(values[TYPE])
+                && values[ID] != null
+                && values[LINKS_SELF] != null;
     }
 
+    private static <E extends Enum<E>> Map<String, E> byName(E[] values) {
+        Map<String, E> byName = new HashMap<>();
+        for (E value : values) {
+            byName.put(value.name(), value);
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Tree of the field names leading to each extracted value, so that a record can be read in one pass by descending
+     * only into the objects on a path and skipping everything else.
+     */
+    private static class FieldPath {
+        private final Map<String, FieldPath> children = new HashMap<>();
+        private int slot = -1;
+
+        FieldPath add(int slot, String... names) {
+            FieldPath node = this;
+            for (String name : names) {
+                node = node.children.computeIfAbsent(name, n -> new FieldPath());
+            }
+            node.slot = slot;
+            return this;
+        }
+
+        /**
+         * Reads the object at the current {@link JsonToken#START_OBJECT} into {@code values}, which is cleared first.
+         */
+        void read(JsonParser parser, String[] values) throws IOException {
+            Arrays.fill(values, null);
+            readObject(parser, values);
+        }
+
+        private void readObject(JsonParser parser, String[] values) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                FieldPath child = children.get(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+                if (child == null) {
+                    parser.skipChildren();
+                } else if (token == JsonToken.START_OBJECT && !child.children.isEmpty()) {
+                    child.readObject(parser, values);
+                } else if (child.slot >= 0 && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    String text = parser.getText();
+                    values[child.slot] = text.isEmpty() ? null : text;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,210 @@
+package com.regnosys.drr.utils.gleif;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Coalesces LEI lookups from concurrent callers into bulk GLEIF requests.
+ * <p>
+ * Each requested LEI is registered as in-flight before being queued, so callers asking for an LEI that is already
+ * queued or being fetched join the existing lookup rather than issuing another request. Queued LEIs are sent in
+ * batches of up to {@link GleifLeiClient#MAX_BATCH_SIZE}, with at most {@code maxConcurrentBatches} requests on the
+ * wire at once; LEIs queued while all batches are in flight are picked up as soon as one completes.
+ * <p>
+ * Dispatching never blocks the caller, so lookups can be composed asynchronously. A lookup completes with an empty
+ * result if GLEIF does not know the LEI, and exceptionally with a {@link GleifLeiException} if the request failed.
+ */
+public class GleifLeiBatchLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GleifLeiBatchLoader.class);
+
+    public static final int DEFAULT_MAX_CONCURRENT_BATCHES = 3;
+
+    private final GleifLeiClient gleifLeiClient;
+    private final GleifLeiAdaptor gleifLeiAdaptor;
+    private final EnrichmentCacheMetrics metrics;
+
+    private final Map<String, CompletableFuture<Optional<GleifLeiRecord>>> inFlight = new ConcurrentHashMap<>();
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final Semaphore batchPermits;
+
+    public GleifLeiBatchLoader(GleifLeiClient gleifLeiClient, GleifLeiAdaptor gleifLeiAdaptor) {
+        this(gleifLeiClient, gleifLeiAdaptor, DEFAULT_MAX_CONCURRENT_BATCHES);
+    }
+
+    public GleifLeiBatchLoader(GleifLeiClient gleifLeiClient, GleifLeiAdaptor gleifLeiAdaptor, int maxConcurrentBatches) {
+        this(gleifLeiClient, gleifLeiAdaptor, maxConcurrentBatches, null);
+    }
+
+    /**
+     * @param metrics optional metrics recording each GLEIF request as a remote call, timed from being sent until its
+     *                final response, including any retries
+     */
+    public GleifLeiBatchLoader(GleifLeiClient gleifLeiClient, GleifLeiAdaptor gleifLeiAdaptor, int maxConcurrentBatches, EnrichmentCacheMetrics metrics) {
+        this.gleifLeiClient = gleifLeiClient;
+        this.gleifLeiAdaptor = gleifLeiAdaptor;
+        this.metrics = metrics;
+        this.batchPermits = new Semaphore(maxConcurrentBatches);
+    }
+
+    /**
+     * Looks up a single LEI, joining any in-progress batch that already contains it.
+     */
+    public Optional<GleifLeiRecord> load(String lei) {
+        return loadAsync(lei).join();
+    }
+
+    /**
+     * Looks up all the given LEIs using as few GLEIF requests as possible.
+     */
+    public Map<String, Optional<GleifLeiRecord>> loadAll(Collection<String> leis) {
+        return loadAllAsync(leis).join();
+    }
+
+    /**
+     * As {@link #loadAllAsync(Collection)}, but with a separate result for each LEI so that a failed batch does not
+     * fail lookups that were served by other batches.
+     */
+    public Map<String, CompletableFuture<Optional<GleifLeiRecord>>> loadEachAsync(Collection<String> leis) {
+        Map<String, CompletableFuture<Optional<GleifLeiRecord>>> results = new LinkedHashMap<>();
+        leis.forEach(lei -> results.computeIfAbsent(lei, this::enqueue));
+        dispatch();
+        return results;
+    }
+
+    public CompletableFuture<Optional<GleifLeiRecord>> loadAsync(String lei) {
+        CompletableFuture<Optional<GleifLeiRecord>> result = enqueue(lei);
+        dispatch();
+        return result;
+    }
+
+    public CompletableFuture<Map<String, Optional<GleifLeiRecord>>> loadAllAsync(Collection<String> leis) {
+        Map<String, CompletableFuture<Optional<GleifLeiRecord>>> results = loadEachAsync(leis);
+        return CompletableFuture.allOf(results.values().toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    Map<String, Optional<GleifLeiRecord>> records = new LinkedHashMap<>();
+                    results.forEach((lei, result) -> records.put(lei, result.join()));
+                    return records;
+                });
+    }
+
+    @VisibleForTesting
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private CompletableFuture<Optional<GleifLeiRecord>> enqueue(String lei) {
+        CompletableFuture<Optional<GleifLeiRecord>> result = new CompletableFuture<>();
+        CompletableFuture<Optional<GleifLeiRecord>> existing = inFlight.putIfAbsent(lei, result);
+        if (existing != null) {
+            LOGGER.debug("Joining in-flight lookup for LEI {}", lei);
+            return existing;
+        }
+        pending.add(lei);
+        return result;
+    }
+
+    private void dispatch() {
+        // Each completed batch calls dispatch again, so LEIs queued by callers that could not get a permit are not lost
+        while (!pending.isEmpty() && batchPermits.tryAcquire()) {
+            List<String> batch = drain();
+            if (batch.isEmpty()) {
+                batchPermits.release();
+                continue;
+            }
+            fetchAsync(batch)
+                    .whenComplete((records, e) -> {
+                        if (e != null) {
+                            LOGGER.error("Exception occurred getting LEI records from GLEIF", e);
+                        }
+                        complete(batch, records, e);
+                        batchPermits.release();
+                        dispatch();
+                    });
+        }
+    }
+
+    private List<String> drain() {
+        List<String> batch = new ArrayList<>();
+        String lei;
+        while (batch.size() < GleifLeiClient.MAX_BATCH_SIZE && (lei = pending.poll()) != null) {
+            batch.add(lei);
+        }
+        return batch;
+    }
+
+    private CompletableFuture<Map<String, GleifLeiRecord>> fetchAsync(List<String> batch) {
+        if (metrics == null) {
+            return fetchBatch(batch);
+        }
+        long start = metrics.recordRemoteCallStarted();
+        return fetchBatch(batch)
+                .whenComplete((records, e) -> metrics.recordRemoteCallCompleted(start, e == null));
+    }
+
+    private CompletableFuture<Map<String, GleifLeiRecord>> fetchBatch(List<String> batch) {
+        try {
+            return batch.size() == 1 ? fetchSingle(batch.get(0)) : fetchBulk(batch);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void complete(List<String> batch, Map<String, GleifLeiRecord> records, Throwable error) {
+        for (String lei : batch) {
+            CompletableFuture<Optional<GleifLeiRecord>> result = inFlight.remove(lei);
+            if (result == null) {
+                continue;
+            }
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(Optional.ofNullable(records.get(lei)));
+            }
+        }
+    }
+
+    private CompletableFuture<Map<String, GleifLeiRecord>> fetchSingle(String lei) {
+        return gleifLeiClient.getLeiDataFromGleifAsync(lei)
+                .thenApply(GleifLeiBatchLoader::checkStatus)
+                .thenApply(result -> result.getData()
+                        .map(gleifLeiAdaptor::adaptRecord)
+                        .map(record -> Collections.singletonMap(lei, record))
+                        .orElse(Collections.emptyMap()));
+    }
+
+    private CompletableFuture<Map<String, GleifLeiRecord>> fetchBulk(List<String> leis) {
+        return gleifLeiClient.getLeiDataFromGleifAsync(leis)
+                .thenApply(GleifLeiBatchLoader::checkStatus)
+                .thenApply(result -> result.getData()
+                        .map(gleifLeiAdaptor::adaptAllRecords)
+                        .orElse(Collections.emptyMap()));
+    }
+
+    /**
+     * Not found is a valid outcome of a lookup, whereas an API error or exception means the outcome is unknown.
+     */
+    private static GleifLeiClient.GleifLeiResult checkStatus(GleifLeiClient.GleifLeiResult result) {
+        GleifLeiClient.Status status = result.getStatus();
+        if (status == GleifLeiClient.Status.API_ERROR || status == GleifLeiClient.Status.EXCEPTION) {
+            throw new GleifLeiException("GLEIF lookup failed with status " + status, result.getError().orElse(null));
+        }
+        return result;
+    }
+}
@@ -9,9 +9,14 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import static java.time.temporal.ChronoUnit.SECONDS;
@@ -20,8 +25,16 @@ public class GleifLeiClient {
     public static final Pattern LEI_PATTERN = Pattern.compile("^[A-Z0-9]{18,18}[0-9]{2,2}$");
     private static final Logger LOGGER = LoggerFactory.getLogger(GleifLeiClient.class);
 
-    private static final String DATA_SOURCE_URL = "https://api.gleif.org/api/v1/lei-records/";
+    /**
+     * Maximum page size supported by the GLEIF API, and therefore the maximum number of LEIs per bulk request.
+     */
+    public static final int MAX_BATCH_SIZE = 200;
+
+    private static final String DATA_SOURCE_URL = "https://api.gleif.org/api/v1/lei-records";
     private final HttpClient httpClient;
+    private final String dataSourceUrl;
+    private final GleifRetryPolicy retryPolicy;
+    private final GleifCircuitBreaker circuitBreaker;
 
     public GleifLeiClient() {
         this(HttpClient.newBuilder()
@@ -30,48 +43,142 @@ public class GleifLeiClient {
     }
 
     public GleifLeiClient(HttpClient httpClient) {
+        this(httpClient, DATA_SOURCE_URL);
+    }
+
+    public GleifLeiClient(HttpClient httpClient, String dataSourceUrl) {
+        this(httpClient, dataSourceUrl, GleifRetryPolicy.DEFAULT, new GleifCircuitBreaker());
+    }
+
+    public GleifLeiClient(HttpClient httpClient, String dataSourceUrl, GleifRetryPolicy retryPolicy, GleifCircuitBreaker circuitBreaker) {
         this.httpClient = httpClient;
+        this.dataSourceUrl = dataSourceUrl;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public GleifCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
+    /**
+     * Returns whether the LEI has a valid format and checksum, see {@link LeiValidator}. Invalid LEIs cannot exist in
+     * GLEIF, so there is no need to look them up.
+     */
     public boolean isValidLei(String lei) {
-        return LEI_PATTERN.matcher(lei).matches();
+        return LeiValidator.isValid(lei);
     }
 
     public GleifLeiResult getLeiDataFromGleif(String lei) {
+        return getLeiDataFromGleifAsync(lei).join();
+    }
+
+    /**
+     * Looks up several LEIs in a single round-trip using the GLEIF multi-LEI filter, e.g. {@code filter[lei]=a,b,c}.
+     * The response body contains a {@code data} array with one record per LEI found; LEIs not found are omitted.
+     * At most {@link #MAX_BATCH_SIZE} LEIs may be requested at once.
+     */
+    public GleifLeiResult getLeiDataFromGleif(Collection<String> leis) {
+        return getLeiDataFromGleifAsync(leis).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getLeiDataFromGleif(String)}. The returned future never completes
+     * exceptionally; failures are reported with {@link Status#EXCEPTION}.
+     * <p>
+     * Transient failures are retried according to the {@link GleifRetryPolicy}, and while the
+     * {@link GleifCircuitBreaker} is open the lookup fails immediately without a request being sent.
+     */
+    public CompletableFuture<GleifLeiResult> getLeiDataFromGleifAsync(String lei) {
         LOGGER.info("Looking up LEI {} in GLEIF", lei);
+        return sendAsync(dataSourceUrl + "/" + lei, lei);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getLeiDataFromGleif(Collection)}.
+     */
+    public CompletableFuture<GleifLeiResult> getLeiDataFromGleifAsync(Collection<String> leis) {
+        if (leis.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Cannot look up more than " + MAX_BATCH_SIZE + " LEIs in one request, got " + leis.size());
+        }
+        String joinedLeis = String.join(",", leis);
+        LOGGER.info("Looking up {} LEIs {} in GLEIF", leis.size(), joinedLeis);
+        return sendAsync(dataSourceUrl + "?filter%5Blei%5D=" + joinedLeis + "&page%5Bsize%5D=" + MAX_BATCH_SIZE, joinedLeis);
+    }
+
+    private CompletableFuture<GleifLeiResult> sendAsync(String uri, String lei) {
         try {
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(DATA_SOURCE_URL + lei))
+                    .uri(new URI(uri))
                     .timeout(Duration.of(10, SECONDS))
                     .GET()
                     .build();
 
-            CompletableFuture<HttpResponse<String>> httpResponse =
-                    httpClient
-                            .sendAsync(request, HttpResponse.BodyHandlers.ofString());
-
-            LOGGER.debug("Waiting for response");
-            HttpResponse<String> response = httpResponse.join();
-            LOGGER.debug("Got response");
-            int statusCode = response.statusCode();
-            if (statusCode == HttpURLConnection.HTTP_NOT_FOUND) {
-                LOGGER.error("Got not found from GLEIF: lei {}, status code {}", lei, statusCode);
-                return new GleifLeiResult(null, Status.NOT_FOUND, null);
-            }
-
-            if (statusCode != HttpURLConnection.HTTP_OK) {
-                LOGGER.error("Got error code from GLEIF: lei {}, status code {}", lei, statusCode);
-                return new GleifLeiResult(null, Status.API_ERROR, null);
-            }
-
-            String body = response.body();
-            return new GleifLeiResult(body, Status.OK, null);
+            return sendAsync(request, lei, 1);
         } catch (Exception e) {
-            LOGGER.error("Exception occurred getting LEI record from GLEIF", e);
-            return new GleifLeiResult(null, Status.EXCEPTION, e);
+            return CompletableFuture.completedFuture(toExceptionResult(e));
         }
     }
 
+    private CompletableFuture<GleifLeiResult> sendAsync(HttpRequest request, String lei, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            LOGGER.warn("GLEIF circuit breaker is open, failing fast: lei {}", lei);
+            return CompletableFuture.completedFuture(new GleifLeiResult(null, Status.EXCEPTION, new GleifLeiException("GLEIF circuit breaker is open")));
+        }
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        if (response == null) {
+            response = CompletableFuture.failedFuture(new GleifLeiException("No response from HTTP client"));
+        }
+        return response
+                .handle((r, e) -> {
+                    boolean failed = e != null || retryPolicy.isRetryable(r.statusCode());
+                    if (failed) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                    if (failed && attempt < retryPolicy.getMaxAttempts()) {
+                        Duration backoff = retryPolicy.getBackoff(attempt);
+                        LOGGER.warn("GLEIF request failed: lei {}, attempt {} of {}, retrying in {} ms",
+                                lei, attempt, retryPolicy.getMaxAttempts(), backoff.toMillis());
+                        Executor delayedExecutor = CompletableFuture.delayedExecutor(backoff.toMillis(), TimeUnit.MILLISECONDS);
+                        return CompletableFuture.supplyAsync(() -> sendAsync(request, lei, attempt + 1), delayedExecutor)
+                                .thenCompose(Function.identity());
+                    }
+                    return CompletableFuture.completedFuture(e == null ? toResult(lei, r) : toExceptionResult(e));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private static GleifLeiResult toResult(String lei, HttpResponse<String> response) {
+        LOGGER.debug("Got response");
+        int statusCode = response.statusCode();
+        if (statusCode == HttpURLConnection.HTTP_NOT_FOUND) {
+            LOGGER.error("Got not found from GLEIF: lei {}, status code {}", lei, statusCode);
+            return new GleifLeiResult(null, Status.NOT_FOUND, null);
+        }
+
+        if (statusCode != HttpURLConnection.HTTP_OK) {
+            LOGGER.error("Got error code from GLEIF: lei {}, status code {}", lei, statusCode);
+            return new GleifLeiResult(null, Status.API_ERROR, null);
+        }
+
+        String body = response.body();
+        return new GleifLeiResult(body, Status.OK, null);
+    }
+
+    private static GleifLeiResult toExceptionResult(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        LOGGER.error("Exception occurred getting LEI record from GLEIF", cause);
+        Exception exception = cause instanceof Exception ? (Exception) cause : new CompletionException(cause);
+        return new GleifLeiResult(null, Status.EXCEPTION, exception);
+    }
+
     public enum Status {
         OK, API_ERROR, NOT_FOUND, EXCEPTION
     }
@@ -96,7 +203,7 @@ public class GleifLeiClient {
         }
 
         public Optional<Exception> getError() {
-            return Optional.of(exception);
+            return Optional.ofNullable(exception);
         }
     }
 }
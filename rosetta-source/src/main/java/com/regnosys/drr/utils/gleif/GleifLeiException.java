@@ -0,0 +1,15 @@
+package com.regnosys.drr.utils.gleif;
+
+/**
+ * Signals that a GLEIF lookup failed, as opposed to the LEI not being found, so the outcome is not known.
+ */
+public class GleifLeiException extends RuntimeException {
+
+    public GleifLeiException(String message) {
+        super(message);
+    }
+
+    public GleifLeiException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,34 @@
+package com.regnosys.drr.utils.gleif;
+
+import drr.enrichment.lei.LeiData;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * Adapted GLEIF LEI record, holding the {@link LeiData} together with the registration dates that determine how long
+ * the record may be cached for.
+ */
+public class GleifLeiRecord {
+    private final LeiData leiData;
+    private final ZonedDateTime lastUpdateDate;
+    private final ZonedDateTime nextRenewalDate;
+
+    public GleifLeiRecord(LeiData leiData, ZonedDateTime lastUpdateDate, ZonedDateTime nextRenewalDate) {
+        this.leiData = leiData;
+        this.lastUpdateDate = lastUpdateDate;
+        this.nextRenewalDate = nextRenewalDate;
+    }
+
+    public LeiData getLeiData() {
+        return leiData;
+    }
+
+    public Optional<ZonedDateTime> getLastUpdateDate() {
+        return Optional.ofNullable(lastUpdateDate);
+    }
+
+    public Optional<ZonedDateTime> getNextRenewalDate() {
+        return Optional.ofNullable(nextRenewalDate);
+    }
+}
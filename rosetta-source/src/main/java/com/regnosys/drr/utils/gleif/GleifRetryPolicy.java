@@ -0,0 +1,58 @@
+package com.regnosys.drr.utils.gleif;
+
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retries with exponential backoff and full jitter for GLEIF requests. Only failures that may be transient are
+ * retried, i.e. connection errors and timeouts, server errors and throttling; not found and other client errors are
+ * not.
+ */
+public class GleifRetryPolicy {
+
+    public static final GleifRetryPolicy DEFAULT = new GleifRetryPolicy(3, Duration.ofMillis(200), Duration.ofSeconds(2));
+    public static final GleifRetryPolicy NONE = new GleifRetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    /**
+     * @param maxAttempts    total number of attempts, including the first
+     * @param initialBackoff upper bound of the delay before the first retry, doubled for each subsequent retry
+     * @param maxBackoff     upper bound of any delay
+     */
+    public GleifRetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1, got " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Delay before retrying after the given (1-based) failed attempt, chosen uniformly between zero and the exponential
+     * bound so that callers failing together do not retry in lockstep.
+     */
+    public Duration getBackoff(int attempt) {
+        long bound = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+        if (bound <= 0 || bound > maxBackoff.toMillis()) {
+            bound = maxBackoff.toMillis();
+        }
+        return Duration.ofMillis(bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    public boolean isRetryable(int statusCode) {
+        return statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR
+                || statusCode == HTTP_TOO_MANY_REQUESTS
+                || statusCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT;
+    }
+}
@@ -0,0 +1,40 @@
+package com.regnosys.drr.utils.gleif;
+
+/**
+ * Validates Legal Entity Identifiers according to ISO 17442: 18 upper case alphanumeric characters followed by two
+ * check digits, verified with the ISO 7064 MOD 97-10 checksum.
+ * <p>
+ * The checksum is computed incrementally over the characters, without building the 40+ digit number, so validation
+ * allocates nothing and can be run before any cache or network lookup.
+ */
+public final class LeiValidator {
+
+    public static final int LEI_LENGTH = 20;
+
+    private static final int CHECK_DIGITS_START = 18;
+
+    private LeiValidator() {
+    }
+
+    /**
+     * Returns whether the given value has the LEI format and a valid checksum.
+     */
+    public static boolean isValid(CharSequence lei) {
+        if (lei == null || lei.length() != LEI_LENGTH) {
+            return false;
+        }
+        int remainder = 0;
+        for (int i = 0; i < LEI_LENGTH; i++) {
+            char c = lei.charAt(i);
+            if (c >= '0' && c <= '9') {
+                remainder = (remainder * 10 + (c - '0')) % 97;
+            } else if (c >= 'A' && c <= 'Z' && i < CHECK_DIGITS_START) {
+                // letters expand to two digits, A = 10 to Z = 35
+                remainder = (remainder * 100 + (c - 'A' + 10)) % 97;
+            } else {
+                return false;
+            }
+        }
+        return remainder == 1;
+    }
+}
@@ -0,0 +1,434 @@
+package com.regnosys.drr.utils.gleif;
+
+import com.google.common.base.Stopwatch;
+import drr.enrichment.lei.LeiCategoryEnum;
+import drr.enrichment.lei.LeiData;
+import drr.enrichment.lei.LeiRegistrationStatusEnum;
+import drr.enrichment.lei.LeiStatusEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Disk-backed LEI cache that survives restarts.
+ * <p>
+ * Entries are appended to a single UTF-8 file, one tab-separated line per lookup, with later lines for the same LEI
+ * superseding earlier ones. At startup the file is memory-mapped, at most 1 GB at a time, and scanned once to build an
+ * index of LEI to file offset, reading only the LEI and expiry of each line, so start-up cost is independent of the
+ * size of the records. Records are read back from disk on demand. When the file holds more superseded or expired lines
+ * than live ones it is compacted at startup.
+ * <p>
+ * Lookups run concurrently with each other, while appending an entry and compacting the file exclude lookups.
+ * <p>
+ * Expiry is driven by the GLEIF registration dates:
+ * <ul>
+ *     <li>a record is kept for half the time since its {@code lastUpdateDate} (records that have not changed for a
+ *     long time are unlikely to change soon), bounded by the configured minimum and maximum time-to-live;</li>
+ *     <li>a record never outlives its {@code nextRenewalDate}, after which it may have lapsed;</li>
+ *     <li>a record whose renewal is already overdue, and a not-found result, are kept for the minimum time-to-live.</li>
+ * </ul>
+ */
+public class PersistentLeiCache implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentLeiCache.class);
+
+    public static final Duration DEFAULT_MIN_TTL = Duration.ofDays(1);
+    public static final Duration DEFAULT_MAX_TTL = Duration.ofDays(30);
+
+    private static final char SEPARATOR = '\t';
+    private static final byte NEW_LINE = '\n';
+    private static final String FOUND = "1";
+    private static final String NOT_FOUND = "0";
+    private static final int MAX_MAP_SIZE = 1 << 30;
+
+    private final Path path;
+    private final Duration minTtl;
+    private final Duration maxTtl;
+    private final Clock clock;
+    private final int mapSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private FileChannel channel;
+    private long size;
+    private long lines;
+
+    public PersistentLeiCache(Path path) {
+        this(path, DEFAULT_MIN_TTL, DEFAULT_MAX_TTL, Clock.systemUTC());
+    }
+
+    public PersistentLeiCache(Path path, Duration minTtl, Duration maxTtl, Clock clock) {
+        this(path, minTtl, maxTtl, clock, MAX_MAP_SIZE);
+    }
+
+    /**
+     * @param mapSize maximum number of bytes of the file mapped at a time when scanning it
+     */
+    PersistentLeiCache(Path path, Duration minTtl, Duration maxTtl, Clock clock, int mapSize) {
+        this.path = path;
+        this.minTtl = minTtl;
+        this.maxTtl = maxTtl;
+        this.clock = clock;
+        this.mapSize = mapSize;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            open();
+            if (lines > 2L * index.size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error occurred opening persistent LEI cache {}", path, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the cached result for the LEI, which is empty for a cached not-found result, or empty if there is no
+     * unexpired entry.
+     */
+    public Optional<Optional<LeiData>> getIfPresent(String lei) {
+        lock.readLock().lock();
+        try {
+            Entry entry = index.get(lei);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt <= clock.millis()) {
+                index.remove(lei, entry);
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(parse(read(entry)));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Error occurred reading LEI {} from persistent LEI cache {}", lei, path, e);
+                index.remove(lei, entry);
+                return Optional.empty();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String lei, Optional<GleifLeiRecord> record) {
+        Instant now = clock.instant();
+        long expiresAt = expiresAt(record, now).toEpochMilli();
+        byte[] line = format(lei, expiresAt, record.map(GleifLeiRecord::getLeiData)).getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            long offset = size;
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            size += line.length;
+            lines++;
+            index.put(lei, new Entry(offset, line.length - 1, expiresAt));
+        } catch (IOException e) {
+            LOGGER.error("Error occurred writing LEI {} to persistent LEI cache {}", lei, path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Duration getMinTtl() {
+        return minTtl;
+    }
+
+    /**
+     * Number of unexpired entries.
+     */
+    public long size() {
+        long now = clock.millis();
+        return index.values().stream().filter(e -> e.expiresAt > now).count();
+    }
+
+    /**
+     * Rewrites the file keeping only the latest unexpired line for each LEI.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            doCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doCompact() throws IOException {
+        Stopwatch t = Stopwatch.createStarted();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        long now = clock.millis();
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : index.values()) {
+                if (entry.expiresAt > now) {
+                    ByteBuffer line = ByteBuffer.allocate(entry.length + 1);
+                    read(entry, line);
+                    line.flip();
+                    while (line.hasRemaining()) {
+                        out.write(line);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index.clear();
+        open();
+        LOGGER.info("Compacted persistent LEI cache {} to {} entries, took {}", path, index.size(), t);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Instant expiresAt(Optional<GleifLeiRecord> record, Instant now) {
+        if (record.isEmpty()) {
+            return now.plus(minTtl);
+        }
+        Duration ttl = record.get().getLastUpdateDate()
+                .map(ZonedDateTime::toInstant)
+                .map(lastUpdate -> Duration.between(lastUpdate, now).dividedBy(2))
+                .map(stableFor -> min(max(stableFor, minTtl), maxTtl))
+                .orElse(maxTtl);
+        Instant expiresAt = now.plus(ttl);
+        Optional<Instant> nextRenewal = record.get().getNextRenewalDate().map(ZonedDateTime::toInstant);
+        if (nextRenewal.isPresent()) {
+            if (!nextRenewal.get().isAfter(now)) {
+                return now.plus(minTtl);
+            }
+            if (nextRenewal.get().isBefore(expiresAt)) {
+                return nextRenewal.get();
+            }
+        }
+        return expiresAt;
+    }
+
+    private void open() throws IOException {
+        Stopwatch t = Stopwatch.createStarted();
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = channel.size();
+        long now = clock.millis();
+        lines = 0;
+        // map the file a window at a time, each window starting at the start of a line
+        long windowStart = 0;
+        long lineStart = 0;
+        while (windowStart < fileSize) {
+            int windowSize = (int) Math.min(mapSize, fileSize - windowStart);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            int start = 0;
+            for (int i = 0; i < windowSize; i++) {
+                if (buffer.get(i) == NEW_LINE) {
+                    indexLine(buffer, windowStart, start, i - start, now);
+                    lines++;
+                    start = i + 1;
+                }
+            }
+            lineStart = windowStart + start;
+            if (windowStart + windowSize == fileSize) {
+                break;
+            }
+            if (start == 0) {
+                throw new IOException("Entry at offset " + windowStart + " of persistent LEI cache " + path + " is longer than " + mapSize + " bytes");
+            }
+            windowStart = lineStart;
+        }
+        if (lineStart < fileSize) {
+            LOGGER.warn("Truncating incomplete entry at end of persistent LEI cache {}", path);
+            channel.truncate(lineStart);
+        }
+        size = lineStart;
+        LOGGER.info("Loaded {} entries from persistent LEI cache {}, took {}", index.size(), path, t);
+    }
+
+    private void indexLine(MappedByteBuffer buffer, long windowStart, int offset, int length, long now) {
+        int leiEnd = indexOf(buffer, offset, offset + length, SEPARATOR);
+        int expiryEnd = indexOf(buffer, leiEnd + 1, offset + length, SEPARATOR);
+        if (leiEnd < 0 || expiryEnd < 0) {
+            return;
+        }
+        long expiresAt = 0;
+        for (int i = leiEnd + 1; i < expiryEnd; i++) {
+            expiresAt = expiresAt * 10 + (buffer.get(i) - '0');
+        }
+        String lei = ascii(buffer, offset, leiEnd);
+        if (expiresAt > now) {
+            index.put(lei, new Entry(windowStart + offset, length, expiresAt));
+        } else {
+            index.remove(lei);
+        }
+    }
+
+    private String read(Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        read(entry, buffer);
+        return new String(buffer.array(), 0, entry.length, StandardCharsets.UTF_8);
+    }
+
+    private void read(Entry entry, ByteBuffer buffer) throws IOException {
+        long position = entry.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of persistent LEI cache " + path);
+            }
+            position += read;
+        }
+    }
+
+    private static String format(String lei, long expiresAt, Optional<LeiData> leiData) {
+        StringBuilder line = new StringBuilder(128)
+                .append(lei).append(SEPARATOR)
+                .append(expiresAt).append(SEPARATOR);
+        if (leiData.isEmpty()) {
+            line.append(NOT_FOUND);
+        } else {
+            LeiData data = leiData.get();
+            line.append(FOUND);
+            appendField(line, data.getLei());
+            appendField(line, data.getEntityName());
+            appendField(line, data.getEntityCategory() == null ? null : data.getEntityCategory().name());
+            appendField(line, data.getEntityStatus() == null ? null : data.getEntityStatus().name());
+            appendField(line, data.getBranchEntityStatus() == null ? null : data.getBranchEntityStatus().name());
+            appendField(line, data.getRegistrationStatus() == null ? null : data.getRegistrationStatus().name());
+            appendField(line, data.getRegistrationDate() == null ? null : data.getRegistrationDate().toString());
+            appendField(line, data.getPublished() == null ? null : data.getPublished().toString());
+        }
+        return line.append((char) NEW_LINE).toString();
+    }
+
+    private static void appendField(StringBuilder line, String value) {
+        line.append(SEPARATOR);
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    private static Optional<LeiData> parse(String line) {
+        String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+        if (!FOUND.equals(fields[2])) {
+            return Optional.empty();
+        }
+        return Optional.of(LeiData.builder()
+                .setLei(field(fields, 3, Function.identity()))
+                .setEntityName(field(fields, 4, Function.identity()))
+                .setEntityCategory(field(fields, 5, LeiCategoryEnum::valueOf))
+                .setEntityStatus(field(fields, 6, LeiStatusEnum::valueOf))
+                .setBranchEntityStatus(field(fields, 7, LeiStatusEnum::valueOf))
+                .setRegistrationStatus(field(fields, 8, LeiRegistrationStatusEnum::valueOf))
+                .setRegistrationDate(field(fields, 9, ZonedDateTime::parse))
+                .setPublished(field(fields, 10, Boolean::valueOf))
+                .build());
+    }
+
+    private static <T> T field(String[] fields, int i, Function<String, T> parser) {
+        String value = fields[i];
+        if (value.isEmpty()) {
+            return null;
+        }
+        return parser.apply(unescape(value));
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, char c) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String ascii(ByteBuffer buffer, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = (char) buffer.get(i);
+        }
+        return new String(chars);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static class Entry {
+        private final long offset;
+        private final int length;
+        private final long expiresAt;
+
+        private Entry(long offset, int length, long expiresAt) {
+            this.offset = offset;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
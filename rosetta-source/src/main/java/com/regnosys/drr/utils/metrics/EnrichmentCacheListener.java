@@ -0,0 +1,53 @@
+package com.regnosys.drr.utils.metrics;
+
+/**
+ * Receives the events recorded by an {@link EnrichmentCacheMetrics}, e.g. to forward them to a metrics registry.
+ * Every method has a no-op default, so implementations only override the events they need.
+ * <p>
+ * Listeners are called synchronously on the thread doing the lookup, which may be an HTTP client thread, so they
+ * must be fast and must not throw.
+ */
+public interface EnrichmentCacheListener {
+
+    /**
+     * A lookup was served from the cache.
+     */
+    default void onHit(String cacheName) {
+    }
+
+    /**
+     * A lookup was not in the cache, or its entry had expired, so it needs to be loaded.
+     */
+    default void onMiss(String cacheName) {
+    }
+
+    /**
+     * A missing entry was loaded, either from the remote source or a local store.
+     *
+     * @param nanos   time taken to load the entry
+     * @param success false if the load failed
+     */
+    default void onLoad(String cacheName, long nanos, boolean success) {
+    }
+
+    /**
+     * An entry was removed from the cache because it expired or the cache was full.
+     */
+    default void onEviction(String cacheName) {
+    }
+
+    /**
+     * A request to the remote source was sent.
+     */
+    default void onRemoteCallStarted(String cacheName) {
+    }
+
+    /**
+     * A request to the remote source completed, including any retries.
+     *
+     * @param nanos   time taken from sending the request to receiving the final response
+     * @param success false if the request failed
+     */
+    default void onRemoteCallCompleted(String cacheName, long nanos, boolean success) {
+    }
+}
@@ -0,0 +1,290 @@
+package com.regnosys.drr.utils.metrics;
+
+import com.google.common.base.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hit, miss, load, eviction and remote call metrics for an enrichment cache, e.g. the LEI, MIC or EIC lookups.
+ * <p>
+ * The owning cache records events as they happen; the metrics are exposed over JMX once {@link #registerMBean()} is
+ * called, until {@link #unregisterMBean()} is, and forwarded to any {@link EnrichmentCacheListener}s added. Recording
+ * is lock-free so it can be done on every lookup.
+ */
+public class EnrichmentCacheMetrics implements EnrichmentCacheMetricsMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnrichmentCacheMetrics.class);
+
+    public static final String OBJECT_NAME_PREFIX = "com.regnosys.drr:type=EnrichmentCache,name=";
+
+    private final String name;
+    private final Ticker ticker;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder remoteCallFailures = new LongAdder();
+    private final AtomicInteger inFlightRemoteCalls = new AtomicInteger();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram remoteCallLatency = new LatencyHistogram();
+    private final List<EnrichmentCacheListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile LongSupplier sizeSupplier = () -> 0;
+    private ObjectName registeredObjectName;
+
+    public EnrichmentCacheMetrics(String name) {
+        this(name, Ticker.systemTicker());
+    }
+
+    public EnrichmentCacheMetrics(String name, Ticker ticker) {
+        this.name = name;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Sets how the current number of cached entries is read, as the owning cache usually cannot be created before
+     * its metrics.
+     */
+    public void setSizeSupplier(LongSupplier sizeSupplier) {
+        this.sizeSupplier = sizeSupplier;
+    }
+
+    public void addListener(EnrichmentCacheListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EnrichmentCacheListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, returning whether they are registered. If metrics are
+     * already registered for a cache of the same name, e.g. by another injector, those are left in place and these
+     * are not registered. Failures are logged rather than thrown, as metrics must never stop enrichment.
+     */
+    public synchronized boolean registerMBean() {
+        if (registeredObjectName != null) {
+            return true;
+        }
+        try {
+            ObjectName objectName = getObjectName();
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredObjectName = objectName;
+            return true;
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.info("Enrichment cache metrics MBean for {} is already registered, so these metrics are not exposed over JMX", name);
+            return false;
+        } catch (JMException | RuntimeException e) {
+            LOGGER.warn("Failed to register enrichment cache metrics MBean for {}", name, e);
+            return false;
+        }
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server if they were registered, so the server no longer keeps
+     * them, or the cache they read their size from, reachable. Metrics registered for another cache of the same name
+     * are left in place.
+     */
+    public synchronized void unregisterMBean() {
+        if (registeredObjectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredObjectName);
+        } catch (InstanceNotFoundException e) {
+            // already unregistered through the MBean server
+        } catch (JMException | RuntimeException e) {
+            LOGGER.warn("Failed to unregister enrichment cache metrics MBean for {}", name, e);
+        }
+        registeredObjectName = null;
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        return new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+    }
+
+    /**
+     * Returns the current time, to be passed to {@link #recordLoad(long, boolean)} or
+     * {@link #recordRemoteCallCompleted(long, boolean)} once the timed operation completes.
+     */
+    public long startTimer() {
+        return ticker.read();
+    }
+
+    public void recordHit() {
+        hits.increment();
+        notifyListeners(listener -> listener.onHit(name));
+    }
+
+    public void recordMiss() {
+        misses.increment();
+        notifyListeners(listener -> listener.onMiss(name));
+    }
+
+    public void recordLoad(long startNanos, boolean success) {
+        long nanos = ticker.read() - startNanos;
+        loadLatency.record(nanos);
+        if (!success) {
+            loadFailures.increment();
+        }
+        notifyListeners(listener -> listener.onLoad(name, nanos, success));
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+        notifyListeners(listener -> listener.onEviction(name));
+    }
+
+    /**
+     * Records a request being sent to the remote source, and returns the start time to be passed to
+     * {@link #recordRemoteCallCompleted(long, boolean)}.
+     */
+    public long recordRemoteCallStarted() {
+        inFlightRemoteCalls.incrementAndGet();
+        notifyListeners(listener -> listener.onRemoteCallStarted(name));
+        return ticker.read();
+    }
+
+    public void recordRemoteCallCompleted(long startNanos, boolean success) {
+        long nanos = ticker.read() - startNanos;
+        inFlightRemoteCalls.decrementAndGet();
+        remoteCallLatency.record(nanos);
+        if (!success) {
+            remoteCallFailures.increment();
+        }
+        notifyListeners(listener -> listener.onRemoteCallCompleted(name, nanos, success));
+    }
+
+    private void notifyListeners(Consumer<EnrichmentCacheListener> event) {
+        for (EnrichmentCacheListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Enrichment cache listener {} failed for {}", listener, name, e);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = getHitCount();
+        long requestCount = hitCount + getMissCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadLatency.getCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    @Override
+    public double getLoadLatencyMeanMillis() {
+        return loadLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getLoadLatencyP50Millis() {
+        return loadLatency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getLoadLatencyP99Millis() {
+        return loadLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getLoadLatencyMaxMillis() {
+        return loadLatency.getMaxMillis();
+    }
+
+    @Override
+    public long[] getLoadLatencyBucketBoundsMillis() {
+        return loadLatency.getBucketBoundsMillis();
+    }
+
+    @Override
+    public long[] getLoadLatencyBucketCounts() {
+        return loadLatency.getBucketCounts();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getCacheSize() {
+        return sizeSupplier.getAsLong();
+    }
+
+    @Override
+    public int getInFlightRemoteCalls() {
+        return inFlightRemoteCalls.get();
+    }
+
+    @Override
+    public long getRemoteCallCount() {
+        return remoteCallLatency.getCount();
+    }
+
+    @Override
+    public long getRemoteCallFailureCount() {
+        return remoteCallFailures.sum();
+    }
+
+    @Override
+    public double getRemoteCallLatencyP50Millis() {
+        return remoteCallLatency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getRemoteCallLatencyP99Millis() {
+        return remoteCallLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public long[] getRemoteCallLatencyBucketCounts() {
+        return remoteCallLatency.getBucketCounts();
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    public LatencyHistogram getRemoteCallLatency() {
+        return remoteCallLatency;
+    }
+}
@@ -0,0 +1,48 @@
+package com.regnosys.drr.utils.metrics;
+
+/**
+ * JMX view of an {@link EnrichmentCacheMetrics}, registered under
+ * {@code com.regnosys.drr:type=EnrichmentCache,name=<cache name>}. Latencies are in milliseconds.
+ */
+public interface EnrichmentCacheMetricsMXBean {
+
+    String getName();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    long getLoadCount();
+
+    long getLoadFailureCount();
+
+    double getLoadLatencyMeanMillis();
+
+    double getLoadLatencyP50Millis();
+
+    double getLoadLatencyP99Millis();
+
+    double getLoadLatencyMaxMillis();
+
+    long[] getLoadLatencyBucketBoundsMillis();
+
+    long[] getLoadLatencyBucketCounts();
+
+    long getEvictionCount();
+
+    long getCacheSize();
+
+    int getInFlightRemoteCalls();
+
+    long getRemoteCallCount();
+
+    long getRemoteCallFailureCount();
+
+    double getRemoteCallLatencyP50Millis();
+
+    double getRemoteCallLatencyP99Millis();
+
+    long[] getRemoteCallLatencyBucketCounts();
+}
@@ -0,0 +1,231 @@
+package com.regnosys.drr.utils.mic;
+
+import com.google.common.base.Stopwatch;
+import com.rosetta.model.lib.records.Date;
+import drr.standards.iso.MicData;
+import drr.standards.iso.MicMarketCategoryEnum;
+import drr.standards.iso.MicTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the ISO 10383 MIC list, as published at https://www.iso20022.org/market-identifier-codes in XML, into an
+ * immutable map of MIC to {@link MicData}.
+ * <p>
+ * The XML is read with a StAX parser in a single pass, building each {@link MicData} as its {@code ISO10383_MIC}
+ * element ends, so neither the document nor an intermediate object model is held in memory. It can be read from the
+ * download stream directly or from a local snapshot of the file.
+ */
+public class MicDataLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicDataLoader.class);
+
+    private static final String RECORD = "ISO10383_MIC";
+
+    private static final int MIC = 0;
+    private static final int OPERATING_MIC = 1;
+    private static final int MIC_TYPE = 2;
+    private static final int NAME_INSTITUTION_DESCRIPTION = 3;
+    private static final int LEGAL_ENTITY_NAME = 4;
+    private static final int MARKET_CATEGORY = 5;
+    private static final int ACRONYM = 6;
+    private static final int COUNTRY_CODE = 7;
+    private static final int CITY = 8;
+    private static final int WEBSITE = 9;
+    private static final int STATUS = 10;
+    private static final int CREATION_DATE = 11;
+    private static final int LAST_UPDATE_DATE = 12;
+    private static final int LAST_VALIDATION_DATE = 13;
+    private static final int EXPIRY_DATE = 14;
+    private static final int FIELD_COUNT = 15;
+
+    private static final Map<String, Integer> FIELDS = Map.ofEntries(
+            Map.entry("MIC", MIC),
+            Map.entry("OPERATING_x0020_MIC", OPERATING_MIC),
+            Map.entry("OPRT_x002F_SGMT", MIC_TYPE),
+            Map.entry("MARKET_x0020_NAME-INSTITUTION_x0020_DESCRIPTION", NAME_INSTITUTION_DESCRIPTION),
+            Map.entry("LEGAL_x0020_ENTITY_x0020_NAME", LEGAL_ENTITY_NAME),
+            Map.entry("MARKET_x0020_CATEGORY_x0020_CODE", MARKET_CATEGORY),
+            Map.entry("ACRONYM", ACRONYM),
+            Map.entry("ISO_x0020_COUNTRY_x0020_CODE_x0020__x0028_ISO_x0020_3166_x0029_", COUNTRY_CODE),
+            Map.entry("CITY", CITY),
+            Map.entry("WEBSITE", WEBSITE),
+            Map.entry("STATUS", STATUS),
+            Map.entry("CREATION_x0020_DATE", CREATION_DATE),
+            Map.entry("LAST_x0020_UPDATE_x0020_DATE", LAST_UPDATE_DATE),
+            Map.entry("LAST_x0020_VALIDATION_x0020_DATE", LAST_VALIDATION_DATE),
+            Map.entry("EXPIRY_x0020_DATE", EXPIRY_DATE));
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    /**
+     * Reads a local snapshot of the MIC XML file.
+     */
+    public Map<String, MicData> load(Path snapshot) throws IOException {
+        Stopwatch t = Stopwatch.createStarted();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16)) {
+            Map<String, MicData> micData = load(in);
+            LOGGER.info("Loaded {} mic data items from {}, took {}", micData.size(), snapshot, t);
+            return micData;
+        }
+    }
+
+    /**
+     * Reads the MIC XML from the stream, which is not closed.
+     */
+    public Map<String, MicData> load(InputStream in) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            Map<String, MicData> micData = new HashMap<>(4096);
+            String[] values = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (RECORD.equals(name)) {
+                        values = new String[FIELD_COUNT];
+                    } else if (values != null) {
+                        Integer field = FIELDS.get(name);
+                        if (field != null) {
+                            values[field] = clean(reader.getElementText());
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && values != null && RECORD.equals(reader.getLocalName())) {
+                    MicData record = toMicData(values);
+                    values = null;
+                    if (record.getMic() == null) {
+                        LOGGER.warn("Skipping mic data item without a MIC {}", record);
+                    } else if (micData.put(record.getMic(), record) != null) {
+                        LOGGER.warn("Duplicate MIC {} in mic data, keeping the last item", record.getMic());
+                    }
+                }
+            }
+            return Map.copyOf(micData);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to read ISO 10383 MIC XML", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    LOGGER.debug("Failed to close XML stream reader", e);
+                }
+            }
+        }
+    }
+
+    private static MicData toMicData(String[] values) {
+        return MicData.builder()
+                .setMic(values[MIC])
+                .setOperatingMic(values[OPERATING_MIC])
+                .setMicType(toMicTypeEnum(values[MIC_TYPE]))
+                .setNameInstitutionDescription(values[NAME_INSTITUTION_DESCRIPTION])
+                .setLegalEntityName(values[LEGAL_ENTITY_NAME])
+                .setMarketCategory(toMarketCategoryEnum(values[MARKET_CATEGORY]))
+                .setAcronym(values[ACRONYM])
+                .setCountryCode(values[COUNTRY_CODE])
+                .setCity(values[CITY])
+                .setWebsite(values[WEBSITE])
+                .setStatus(values[STATUS])
+                .setCreationDate(parseDate(values[CREATION_DATE]))
+                .setLastUpdateDate(parseDate(values[LAST_UPDATE_DATE]))
+                .setLastValidationDate(parseDate(values[LAST_VALIDATION_DATE]))
+                .setExpiryDate(parseDate(values[EXPIRY_DATE]))
+                .build();
+    }
+
+    /**
+     * Drops the line breaks and tabs the file wraps long values with, and trims the result, returning null if
+     * nothing is left.
+     */
+    static String clean(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+        if (text.indexOf('\n', start) < 0 && text.indexOf('\t', start) < 0) {
+            return start == 0 && end == text.length() ? text : text.substring(start, end);
+        }
+        StringBuilder cleaned = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\n' && c != '\t') {
+                cleaned.append(c);
+            }
+        }
+        return cleaned.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        // as String.trim()
+        return c <= ' ';
+    }
+
+    static Date parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return Date.of(LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE));
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Unparseable date in mic data {}", date);
+            return null;
+        }
+    }
+
+    static MicTypeEnum toMicTypeEnum(String micType) {
+        if (micType == null) {
+            return null;
+        }
+        try {
+            return MicTypeEnum.valueOf(micType);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unknown MIC type received {}", micType);
+            return null;
+        }
+    }
+
+    static MicMarketCategoryEnum toMarketCategoryEnum(String marketCategory) {
+        if (marketCategory == null) {
+            return null;
+        }
+        try {
+            return MicMarketCategoryEnum.valueOf(marketCategory);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unknown MIC market category received {}", marketCategory);
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // the MIC file has no DTD, so refuse one rather than resolve external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,212 @@
+package com.regnosys.drr.utils.mic;
+
+import drr.standards.iso.MicData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current ISO 10383 MIC data as an immutable, versioned {@link Snapshot}.
+ * <p>
+ * Readers only ever do a volatile read of the current snapshot, so lookups never block, including while a refresh
+ * is in progress. The data is loaded exactly once however many callers ask for it concurrently before it is
+ * available: the first caller loads it and the others wait for that load, failing together if it fails so that the
+ * next caller tries again. A refresh, which may be scheduled with {@link #scheduleRefresh(Duration)}, loads the data
+ * in the background and swaps in the new snapshot atomically; if it fails the current snapshot is kept.
+ */
+public class MicDataRegistry implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicDataRegistry.class);
+
+    /**
+     * Loads the MIC data, keyed by MIC.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Map<String, MicData> load() throws IOException;
+    }
+
+    private final Loader initialLoader;
+    private final Loader refreshLoader;
+    private final Clock clock;
+    private final AtomicReference<CompletableFuture<Snapshot>> initialLoad = new AtomicReference<>();
+    private final Object refreshLock = new Object();
+
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService refreshExecutor;
+
+    public MicDataRegistry(Loader loader) {
+        this(loader, loader, Clock.systemUTC());
+    }
+
+    /**
+     * @param initialLoader loads the data the first time it is needed, e.g. from a local snapshot file
+     * @param refreshLoader loads the data on each refresh, e.g. by downloading the latest file
+     */
+    public MicDataRegistry(Loader initialLoader, Loader refreshLoader, Clock clock) {
+        this.initialLoader = initialLoader;
+        this.refreshLoader = refreshLoader;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the current snapshot, loading it first if this is the first call.
+     *
+     * @throws UncheckedIOException if the data could not be loaded
+     */
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        CompletableFuture<Snapshot> load = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = initialLoad.compareAndExchange(null, load);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            synchronized (refreshLock) {
+                // a refresh may have completed while this caller was getting here
+                current = snapshot;
+                if (current == null) {
+                    current = newSnapshot(initialLoader.load(), 1);
+                    snapshot = current;
+                }
+            }
+            load.complete(current);
+            return current;
+        } catch (IOException | RuntimeException e) {
+            // allow the next caller to try again, then fail the callers waiting on this load
+            initialLoad.set(null);
+            load.completeExceptionally(e);
+            throw propagate(e);
+        }
+    }
+
+    /**
+     * Returns the current snapshot without loading it, or null if it has not been loaded yet.
+     */
+    public Snapshot getIfLoaded() {
+        return snapshot;
+    }
+
+    /**
+     * Loads the data again and swaps in the new snapshot, keeping the current snapshot if the load fails. Readers
+     * see either the old or the new snapshot and are never blocked; concurrent refreshes run one at a time.
+     *
+     * @return whether the snapshot was replaced
+     */
+    public boolean refresh() {
+        synchronized (refreshLock) {
+            Snapshot current = snapshot;
+            try {
+                Snapshot refreshed = newSnapshot(refreshLoader.load(), current == null ? 1 : current.getVersion() + 1);
+                snapshot = refreshed;
+                LOGGER.info("Refreshed mic data to version {} with {} items", refreshed.getVersion(), refreshed.size());
+                return true;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Failed to refresh mic data, keeping version {}", current == null ? null : current.getVersion(), e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Refreshes the data periodically on a background daemon thread, until {@link #close()} is called.
+     */
+    public synchronized void scheduleRefresh(Duration interval) {
+        if (refreshExecutor != null) {
+            throw new IllegalStateException("Mic data refresh is already scheduled");
+        }
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mic-data-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        refreshExecutor.scheduleWithFixedDelay(this::refresh, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            refreshExecutor = null;
+        }
+    }
+
+    private Snapshot newSnapshot(Map<String, MicData> micData, long version) {
+        return new Snapshot(Map.copyOf(micData), version, clock.instant());
+    }
+
+    private static Snapshot join(CompletableFuture<Snapshot> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw propagate(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof IOException) {
+            return new UncheckedIOException("Failed to load mic data", (IOException) e);
+        }
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new CompletionException(e);
+    }
+
+    /**
+     * Immutable MIC data as loaded at a point in time.
+     */
+    public static final class Snapshot {
+        private final Map<String, MicData> micData;
+        private final long version;
+        private final Instant loadedAt;
+
+        Snapshot(Map<String, MicData> micData, long version, Instant loadedAt) {
+            this.micData = micData;
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * Returns the MIC data, or null if the MIC is unknown.
+         */
+        public MicData get(String mic) {
+            return micData.get(mic);
+        }
+
+        public Map<String, MicData> asMap() {
+            return micData;
+        }
+
+        public int size() {
+            return micData.size();
+        }
+
+        /**
+         * Starts at 1 for the first load and increases by one with each refresh.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public Instant getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
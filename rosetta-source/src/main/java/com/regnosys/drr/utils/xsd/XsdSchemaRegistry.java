@@ -0,0 +1,174 @@
+package com.regnosys.drr.utils.xsd;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.io.Resources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles each XSD schema once and validates documents against it with pooled {@link Validator}s.
+ * <p>
+ * Compiling the FpML and ISO 20022 schemas takes seconds, so schemas are compiled lazily on first use and shared.
+ * Different schemas compile concurrently, while callers of a schema being compiled wait for it rather than compiling it
+ * again. {@link Schema}s are thread-safe but {@link Validator}s are not, so each validation borrows a validator that is
+ * confined to the calling thread until it is returned to the pool of its schema.
+ * <p>
+ * Validated documents may come from outside, e.g. ingested FpML, so validators do not resolve external DTDs, entities
+ * or schemas.
+ */
+public class XsdSchemaRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XsdSchemaRegistry.class);
+
+    public static final String FPML_5_10_RECORD_KEEPING_SCHEMA_PATH = "schemas/fpml-5-10/recordkeeping/fpml-main-5-10.xsd";
+    public static final String FPML_5_13_RECORD_KEEPING_SCHEMA_PATH = "schemas/fpml-5-13/recordkeeping/fpml-main-5-13.xsd";
+
+    public static final int DEFAULT_POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final XsdSchemaRegistry INSTANCE = new XsdSchemaRegistry(DEFAULT_POOL_SIZE);
+
+    private final int poolSize;
+    private final ConcurrentMap<String, PooledSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * @param poolSize maximum number of idle validators kept per schema
+     */
+    public XsdSchemaRegistry(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Expected a pool size of at least one, but got " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * The registry shared by ingestion and report validation.
+     */
+    public static XsdSchemaRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The compiled schema, compiling it if this is its first use.
+     */
+    public Schema getSchema(URL schemaUrl) {
+        return pooledSchema(schemaUrl).schema.get();
+    }
+
+    /**
+     * The compiled schema of a classpath resource, e.g. {@link #FPML_5_13_RECORD_KEEPING_SCHEMA_PATH}.
+     */
+    public Schema getSchema(String schemaResourcePath) {
+        return getSchema(Resources.getResource(schemaResourcePath));
+    }
+
+    /**
+     * Validates the source against the schema.
+     *
+     * @throws SAXException if the source is not valid
+     */
+    public void validate(URL schemaUrl, Source source) throws SAXException, IOException {
+        PooledSchema pooledSchema = pooledSchema(schemaUrl);
+        Validator validator = pooledSchema.borrow();
+        try {
+            validator.validate(source);
+        } finally {
+            pooledSchema.release(validator);
+        }
+    }
+
+    /**
+     * Validates the stream against the schema, without closing it.
+     *
+     * @throws SAXException if the stream is not valid
+     */
+    public void validate(URL schemaUrl, InputStream inputStream) throws SAXException, IOException {
+        validate(schemaUrl, new StreamSource(inputStream));
+    }
+
+    /**
+     * Validates the source against the schema, returning the validation error or {@code null} if it is valid.
+     */
+    public String getValidationError(URL schemaUrl, Source source) throws IOException {
+        try {
+            validate(schemaUrl, source);
+            return null;
+        } catch (SAXException e) {
+            return e.getMessage();
+        }
+    }
+
+    private PooledSchema pooledSchema(URL schemaUrl) {
+        // keyed on the external form as URL equality may resolve host names
+        return schemas.computeIfAbsent(schemaUrl.toExternalForm(), k -> new PooledSchema(schemaUrl, poolSize));
+    }
+
+    private static Schema compile(URL schemaUrl) {
+        long start = System.nanoTime();
+        try {
+            // SchemaFactory is not thread-safe, so use one per compilation
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            // required to process xml elements with an maxOccurs greater than 5000 (rather than unbounded)
+            schemaFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, false);
+            Schema schema = schemaFactory.newSchema(schemaUrl);
+            LOGGER.info("Compiled schema {} in {} ms", schemaUrl, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return schema;
+        } catch (SAXException e) {
+            throw new IllegalArgumentException("Failed to compile schema " + schemaUrl, e);
+        }
+    }
+
+    /**
+     * A schema, compiled on first use, and its idle validators.
+     */
+    private static class PooledSchema {
+
+        // memoized outside the registry map, so compiling one schema does not block the others
+        private final Supplier<Schema> schema;
+        private final BlockingQueue<Validator> idleValidators;
+
+        PooledSchema(URL schemaUrl, int poolSize) {
+            this.schema = Suppliers.memoize(() -> compile(schemaUrl));
+            this.idleValidators = new ArrayBlockingQueue<>(poolSize);
+        }
+
+        Validator borrow() {
+            Validator validator = idleValidators.poll();
+            return validator != null ? validator : restrictExternalAccess(schema.get().newValidator());
+        }
+
+        void release(Validator validator) {
+            // validators are confined to the registry, which sets no handlers, so they are not reset: reset() would
+            // drop the external access restrictions, and validating after resetting a restricted validator fails
+            // with a NullPointerException on JDK 17. A full pool drops the validator.
+            idleValidators.offer(validator);
+        }
+
+        private static Validator restrictExternalAccess(Validator validator) {
+            try {
+                // schemas compile with secure processing disabled, which validators would otherwise inherit
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+                return validator;
+            } catch (SAXException e) {
+                throw new IllegalStateException("Failed to restrict external access of the validator", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package drr.enrichment.eic.functions;
+
+import com.google.common.base.Stopwatch;
+import com.regnosys.rosetta.common.util.ClassPathUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The lists of accepted EIC codes published by ACER, each effective from the date in its file name, e.g.
+ * {@code List-of-Accepted-EICs-2024-07-05.csv} from 5 July 2024 until the next list. A list without a date in its name
+ * is effective from the start of time.
+ * <p>
+ * Each list is held as an immutable hashed set, so membership checks take constant time, and the lists are read once
+ * when this is created.
+ */
+public class AcceptedEicCodes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AcceptedEicCodes.class);
+
+    private static final Pattern EFFECTIVE_DATE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})\\.csv$");
+
+    private final NavigableMap<LocalDate, Set<String>> versions;
+    private final Set<String> latest;
+    private final List<String> latestList;
+
+    AcceptedEicCodes(NavigableMap<LocalDate, Set<String>> versions) {
+        this.versions = Collections.unmodifiableNavigableMap(versions);
+        this.latest = versions.isEmpty() ? Collections.emptySet() : versions.lastEntry().getValue();
+        this.latestList = List.copyOf(latest);
+    }
+
+    /**
+     * Reads the given classpath resources, skipping any that cannot be found.
+     */
+    public static AcceptedEicCodes load(Collection<String> resourceNames, ClassLoader classLoader) {
+        NavigableMap<LocalDate, Set<String>> versions = new TreeMap<>();
+        for (String resourceName : resourceNames) {
+            List<String> codes = loadAcceptedEicCodes(resourceName, classLoader);
+            if (!codes.isEmpty()) {
+                LocalDate effectiveDate = getEffectiveDate(resourceName);
+                if (versions.put(effectiveDate, Set.copyOf(codes)) != null) {
+                    LOGGER.warn("Several Accepted EIC codes CSVs are effective from {}, using {}", effectiveDate, resourceName);
+                }
+            }
+        }
+        return new AcceptedEicCodes(versions);
+    }
+
+    /**
+     * Returns whether the code is in the list effective on the given date, or in the latest list if the date is null.
+     */
+    public boolean isAccepted(String eicCode, LocalDate date) {
+        return eicCode != null && getEffective(date).contains(eicCode);
+    }
+
+    /**
+     * Returns the list effective on the given date, or the latest list if the date is null. Dates before the first
+     * list get an empty set.
+     */
+    public Set<String> getEffective(LocalDate date) {
+        if (date == null) {
+            return latest;
+        }
+        Map.Entry<LocalDate, Set<String>> version = versions.floorEntry(date);
+        return version == null ? Collections.emptySet() : version.getValue();
+    }
+
+    public Set<String> getLatest() {
+        return latest;
+    }
+
+    /**
+     * The latest list as an immutable list, in no particular order.
+     */
+    public List<String> getLatestList() {
+        return latestList;
+    }
+
+    /**
+     * The dates each list is effective from.
+     */
+    public Set<LocalDate> getEffectiveDates() {
+        return versions.keySet();
+    }
+
+    static LocalDate getEffectiveDate(String resourceName) {
+        Matcher matcher = EFFECTIVE_DATE.matcher(resourceName);
+        if (matcher.find()) {
+            try {
+                return LocalDate.parse(matcher.group(1));
+            } catch (DateTimeParseException e) {
+                LOGGER.warn("Invalid effective date in Accepted EIC codes CSV name {}", resourceName);
+            }
+        }
+        return LocalDate.MIN;
+    }
+
+    private static List<String> loadAcceptedEicCodes(String resourceName, ClassLoader classLoader) {
+        Stopwatch t = Stopwatch.createStarted();
+        List<Path> paths = ClassPathUtils
+                .loadFromClasspath(resourceName, classLoader)
+                .collect(Collectors.toList());
+        if (paths.isEmpty()) {
+            LOGGER.warn("Failed to find Accepted EIC codes CSV path for resource: {}, took {}", resourceName, t);
+            return Collections.emptyList();
+        } else {
+            LOGGER.info("Found {} Accepted EIC codes CSV paths for resource: {}: paths: {}, took {}", paths.size(), resourceName, paths, t);
+        }
+        Path acceptedEicCodesPath = paths.get(0);
+        LOGGER.debug("Accepted EIC codes CSV path: {}", acceptedEicCodesPath);
+        try {
+            List<String> acceptedEicCodesCsv = new ArrayList<>();
+            for (String line : Files.readAllLines(acceptedEicCodesPath, StandardCharsets.UTF_8)) {
+                String code = line.trim();
+                if (!code.isEmpty()) {
+                    acceptedEicCodesCsv.add(code);
+                }
+            }
+            LOGGER.info("Loaded {} Accepted EIC codes from path {}, took {}", acceptedEicCodesCsv.size(), acceptedEicCodesPath, t);
+            return acceptedEicCodesCsv;
+        } catch (IOException e) {
+            LOGGER.error("Error occurred while reading Accepted EIC codes CSV path {} found from resource {}, took {}", acceptedEicCodesPath, resourceName, t, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,70 +1,96 @@
 package drr.enrichment.eic.functions;
 
-import com.google.common.base.Stopwatch;
-import com.regnosys.rosetta.common.util.ClassPathUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.google.common.base.Splitter;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
-public class GetAcceptedEicCodesImpl extends GetAcceptedEicCodes {
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(GetAcceptedEicCodesImpl.class);
+public class GetAcceptedEicCodesImpl extends GetAcceptedEicCodes implements AutoCloseable {
 
+    /**
+     * Classpath resource of the accepted EIC codes CSV, or several comma separated resources each effective from the
+     * date in its name, see {@link AcceptedEicCodes}.
+     */
     public static final String ACCEPTED_EIC_CODES_PATH = "accepted-eic-codes-path";
 
     // Downloaded from https://www.acer.europa.eu/remit-documents/remit-reporting-guidance > List of accepted EICs (05/07/2024)
     public static final String ACCEPTED_EIC_CODES_CSV = "regulatory-reporting/lookup/List-of-Accepted-EICs-2024-07-05.csv";
 
-    private final Set<String> acceptedEicCodesCsv = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    public static final String METRICS_NAME = "AcceptedEicCodes";
+
+    private final List<String> resourceNames;
 
-    private final String resourceName;
+    private final EnrichmentCacheMetrics metrics = new EnrichmentCacheMetrics(METRICS_NAME);
+
+    private volatile AcceptedEicCodes acceptedEicCodes;
 
     @Inject
     public GetAcceptedEicCodesImpl(@Named(ACCEPTED_EIC_CODES_PATH) String resourceName) {
-        this.resourceName = resourceName;
+        this.resourceNames = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(resourceName);
+        this.metrics.setSizeSupplier(() -> {
+            AcceptedEicCodes loaded = acceptedEicCodes;
+            return loaded == null ? 0 : loaded.getLatest().size();
+        });
+    }
+
+    /**
+     * Hit, miss and load metrics for the accepted EIC codes, exposed over JMX while started, see {@link #start()}. The
+     * codes are read from the classpath, so no remote calls are recorded.
+     */
+    public EnrichmentCacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Exposes the metrics of this cache over JMX until {@link #close()} is called. If metrics are already exposed for a
+     * cache of the same name, e.g. by another injector, those are left in place.
+     */
+    public void start() {
+        metrics.registerMBean();
     }
 
+    /**
+     * Stops exposing the metrics of this cache over JMX, so the MBean server no longer keeps the cache reachable.
+     */
     @Override
-    protected List<String> doEvaluate() {
-        if (acceptedEicCodesCsv.isEmpty()) {
-            acceptedEicCodesCsv.addAll(loadAcceptedEicCodes(resourceName));
-        }
-        return new ArrayList<>(acceptedEicCodesCsv);
+    public void close() {
+        metrics.unregisterMBean();
     }
 
-    private List<String> loadAcceptedEicCodes(String resourceName) {
-        Stopwatch t = Stopwatch.createStarted();
-        List<Path> paths = ClassPathUtils
-                .loadFromClasspath(resourceName, this.getClass().getClassLoader())
-                .collect(Collectors.toList());
-        if (paths.isEmpty()) {
-            LOGGER.warn("Failed to find Accepted EIC codes CSV path for resource: {}, took {}", resourceName, t);
-            return Collections.emptyList();
-        } else {
-            LOGGER.info("Found {} Accepted EIC codes CSV paths for resource: {}: paths: {}, took {}", paths.size(), resourceName, paths, t);
+    /**
+     * Returns every version of the accepted EIC codes, reading them on the first call only.
+     */
+    public AcceptedEicCodes getAcceptedEicCodes() {
+        AcceptedEicCodes loaded = acceptedEicCodes;
+        if (loaded != null) {
+            metrics.recordHit();
+            return loaded;
         }
-        Path acceptedEicCodesPath = paths.get(0);
-        LOGGER.debug("Accepted EIC codes CSV path: {}", acceptedEicCodesPath);
-        try {
-            List<String> acceptedEicCodesCsv = Files.readAllLines(acceptedEicCodesPath, StandardCharsets.UTF_8);
-            LOGGER.info("Loaded {} Accepted EIC codes from path {}, took {}", acceptedEicCodesCsv.size(), acceptedEicCodesPath, t);
-            return acceptedEicCodesCsv;
-        } catch (IOException e) {
-            LOGGER.error("Error occurred while reading Accepted EIC codes CSV path {} found from resource {}, took {}", acceptedEicCodesPath, resourceName, t, e);
-            throw new UncheckedIOException(e);
+        synchronized (this) {
+            if (acceptedEicCodes == null) {
+                metrics.recordMiss();
+                long start = metrics.startTimer();
+                boolean success = false;
+                try {
+                    acceptedEicCodes = AcceptedEicCodes.load(resourceNames, getClass().getClassLoader());
+                    success = true;
+                } finally {
+                    metrics.recordLoad(start, success);
+                }
+            } else {
+                metrics.recordHit();
+            }
+            return acceptedEicCodes;
         }
     }
+
+    /**
+     * Returns the latest accepted EIC codes. The list is immutable and shared between calls rather than copied.
+     */
+    @Override
+    protected List<String> doEvaluate() {
+        return getAcceptedEicCodes().getLatestList();
+    }
 }
@@ -0,0 +1,58 @@
+package drr.enrichment.eic.functions;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks EIC codes against a hashed set of the accepted codes, rather than searching the list returned by
+ * {@link GetAcceptedEicCodes} for each code.
+ */
+public class IsAcceptedEicCodeImpl extends IsAcceptedEicCode {
+
+    private final GetAcceptedEicCodes acceptedEicCodesFunc;
+
+    private volatile Set<String> boundAcceptedEicCodes;
+
+    @Inject
+    public IsAcceptedEicCodeImpl(GetAcceptedEicCodes acceptedEicCodesFunc) {
+        this.acceptedEicCodesFunc = acceptedEicCodesFunc;
+    }
+
+    @Override
+    protected Boolean doEvaluate(List<String> eicCode) {
+        return isAccepted(eicCode, null);
+    }
+
+    /**
+     * As {@link #evaluate(List)}, but checking against the accepted EIC codes effective on the given reporting date,
+     * or the latest ones if the date is null.
+     */
+    public boolean isAccepted(List<String> eicCodes, LocalDate reportingDate) {
+        if (eicCodes == null || eicCodes.isEmpty()) {
+            return false;
+        }
+        Set<String> acceptedEicCodes = getAcceptedEicCodes(reportingDate);
+        for (String eicCode : eicCodes) {
+            if (eicCode == null || !acceptedEicCodes.contains(eicCode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<String> getAcceptedEicCodes(LocalDate reportingDate) {
+        if (acceptedEicCodesFunc instanceof GetAcceptedEicCodesImpl) {
+            return ((GetAcceptedEicCodesImpl) acceptedEicCodesFunc).getAcceptedEicCodes().getEffective(reportingDate);
+        }
+        // another binding only provides a single undated list, which is read once
+        Set<String> acceptedEicCodes = boundAcceptedEicCodes;
+        if (acceptedEicCodes == null) {
+            acceptedEicCodes = new HashSet<>(acceptedEicCodesFunc.evaluate());
+            boundAcceptedEicCodes = acceptedEicCodes;
+        }
+        return acceptedEicCodes;
+    }
+}
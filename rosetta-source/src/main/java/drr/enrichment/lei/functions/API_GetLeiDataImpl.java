@@ -1,31 +1,54 @@
 package drr.enrichment.lei.functions;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.regnosys.drr.utils.gleif.GleifLeiAdaptor;
+import com.regnosys.drr.utils.gleif.GleifLeiBatchLoader;
 import com.regnosys.drr.utils.gleif.GleifLeiClient;
+import com.regnosys.drr.utils.gleif.GleifLeiRecord;
+import com.regnosys.drr.utils.gleif.PersistentLeiCache;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
 import drr.enrichment.lei.LeiData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 
-public class API_GetLeiDataImpl extends API_GetLeiData {
+public class API_GetLeiDataImpl extends API_GetLeiData implements AutoCloseable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(API_GetLeiDataImpl.class);
 
+    public static final long DEFAULT_CACHE_MAXIMUM_SIZE = 500;
+
+    public static final String METRICS_NAME = "LeiData";
+
+    private static final long NEVER = Long.MAX_VALUE;
+
     private final GleifLeiClient gleifLeiClient;
     private final GleifLeiAdaptor gleifLeiAdaptor;
+    private final GleifLeiBatchLoader gleifLeiBatchLoader;
+    private final PersistentLeiCache persistentLeiCache;
+    private final Ticker ticker;
+    private final long foundTtlNanos;
+    private final long notFoundTtlNanos;
+    private final long errorTtlNanos;
+    private final EnrichmentCacheMetrics metrics;
 
     @VisibleForTesting
-    protected final Cache<String, Optional<LeiData>> leiDataCache =
-            CacheBuilder.newBuilder()
-                    .maximumSize(500)
-                    .build();
+    protected final Cache<String, CachedLeiData> leiDataCache;
 
     public API_GetLeiDataImpl(HttpClient httpClient) {
         this(new GleifLeiClient(httpClient), new GleifLeiAdaptor());
@@ -36,8 +59,45 @@ public class API_GetLeiDataImpl extends API_GetLeiData {
     }
 
     public API_GetLeiDataImpl(GleifLeiClient gleifLeiClient, GleifLeiAdaptor gleifLeiAdaptor) {
+        this(gleifLeiClient, gleifLeiAdaptor, DEFAULT_CACHE_MAXIMUM_SIZE, null);
+    }
+
+    public API_GetLeiDataImpl(GleifLeiClient gleifLeiClient, GleifLeiAdaptor gleifLeiAdaptor, long cacheMaximumSize, PersistentLeiCache persistentLeiCache) {
+        this(gleifLeiClient, gleifLeiAdaptor, cacheMaximumSize, LeiDataCacheTtl.DEFAULT, persistentLeiCache, Ticker.systemTicker());
+    }
+
+    /**
+     * @param cacheMaximumSize maximum number of LEIs held in memory
+     * @param cacheTtl how long found, not found and failed lookups are held in memory
+     * @param persistentLeiCache optional disk-backed cache consulted on an in-memory miss before going to GLEIF, and
+     *                           updated with every GLEIF result other than failures. When present, in-memory entries
+     *                           are expired after at most the persistent cache's minimum time-to-live so that its
+     *                           renewal-aware expiry applies.
+     * @param ticker time source for the in-memory expiry and the metrics latencies
+     */
+    public API_GetLeiDataImpl(GleifLeiClient gleifLeiClient, GleifLeiAdaptor gleifLeiAdaptor, long cacheMaximumSize,
+                              LeiDataCacheTtl cacheTtl, PersistentLeiCache persistentLeiCache, Ticker ticker) {
         this.gleifLeiClient = gleifLeiClient;
         this.gleifLeiAdaptor = gleifLeiAdaptor;
+        this.metrics = new EnrichmentCacheMetrics(METRICS_NAME, ticker);
+        this.gleifLeiBatchLoader = new GleifLeiBatchLoader(gleifLeiClient, gleifLeiAdaptor,
+                GleifLeiBatchLoader.DEFAULT_MAX_CONCURRENT_BATCHES, metrics);
+        this.persistentLeiCache = persistentLeiCache;
+        this.ticker = ticker;
+        Duration maxTtl = persistentLeiCache == null ? null : persistentLeiCache.getMinTtl();
+        this.foundTtlNanos = capTtl(cacheTtl.getFound(), maxTtl);
+        this.notFoundTtlNanos = capTtl(cacheTtl.getNotFound(), maxTtl);
+        this.errorTtlNanos = capTtl(cacheTtl.getError(), maxTtl);
+        this.leiDataCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .ticker(ticker)
+                .<String, CachedLeiData>removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        metrics.recordEviction();
+                    }
+                })
+                .build();
+        this.metrics.setSizeSupplier(leiDataCache::size);
     }
 
     public API_GetLeiDataImpl(Map<String, String> preloadLeiData) {
@@ -51,14 +111,103 @@ public class API_GetLeiDataImpl extends API_GetLeiData {
                     Optional.ofNullable(value)
                             .flatMap(jsonResponse ->
                                     Optional.ofNullable(gleifLeiAdaptor.adapt(jsonResponse)));
-            leiDataCache.put(lei, leiData);
+            leiDataCache.put(lei, new CachedLeiData(leiData, NEVER));
         });
     }
 
+    /**
+     * Hit, miss, load and GLEIF request metrics for this cache, exposed over JMX while started, see {@link #start()}.
+     */
+    public EnrichmentCacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Exposes the metrics of this cache over JMX until {@link #close()} is called. If metrics are already exposed for a
+     * cache of the same name, e.g. by another injector, those are left in place.
+     */
+    public void start() {
+        metrics.registerMBean();
+    }
+
+    /**
+     * Stops exposing the metrics of this cache over JMX, so the MBean server no longer keeps the cache reachable.
+     */
+    @Override
+    public void close() {
+        metrics.unregisterMBean();
+    }
+
     public Optional<LeiData> getResultForLei(String lei) {
-        GleifLeiClient.GleifLeiResult leiDataFromGleif = gleifLeiClient.getLeiDataFromGleif(lei);
-        return leiDataFromGleif.getData()
-                .map(gleifLeiAdaptor::adapt);
+        return load(lei).leiData;
+    }
+
+    /**
+     * Non-blocking lookup of a single LEI, served from the cache when present. Results fetched from GLEIF are added
+     * to the cache once the lookup completes.
+     */
+    public CompletableFuture<Optional<LeiData>> getLeiDataAsync(String lei) {
+        if (lei == null || !gleifLeiClient.isValidLei(lei)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        CachedLeiData cached = getCached(lei);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.leiData);
+        }
+        long start = metrics.startTimer();
+        CachedLeiData persisted = getPersisted(lei);
+        if (persisted != null) {
+            leiDataCache.put(lei, persisted);
+            metrics.recordLoad(start, true);
+            return CompletableFuture.completedFuture(persisted.leiData);
+        }
+        return gleifLeiBatchLoader.loadAsync(lei)
+                .handle((record, e) -> {
+                    CachedLeiData loaded = toCachedLeiData(lei, record, e);
+                    leiDataCache.put(lei, loaded);
+                    metrics.recordLoad(start, e == null);
+                    return loaded.leiData;
+                });
+    }
+
+    /**
+     * Looks up any valid LEIs not already cached using bulk GLEIF requests, and adds the results to the cache so
+     * that subsequent evaluations for these LEIs do not go to the network.
+     */
+    public void prefetch(Collection<String> leis) {
+        prefetchAsync(leis).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #prefetch(Collection)}; the returned future completes once every LEI has been
+     * resolved and cached.
+     */
+    public CompletableFuture<Void> prefetchAsync(Collection<String> leis) {
+        Set<String> uncachedLeis = new HashSet<>();
+        long start = metrics.startTimer();
+        for (String lei : leis) {
+            if (lei == null || !gleifLeiClient.isValidLei(lei) || getCached(lei) != null) {
+                continue;
+            }
+            CachedLeiData persisted = getPersisted(lei);
+            if (persisted != null) {
+                leiDataCache.put(lei, persisted);
+                metrics.recordLoad(start, true);
+            } else {
+                uncachedLeis.add(lei);
+            }
+        }
+        if (uncachedLeis.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<?>> results = new ArrayList<>();
+        gleifLeiBatchLoader.loadEachAsync(uncachedLeis).forEach((lei, result) ->
+                results.add(result.handle((record, e) -> {
+                    leiDataCache.put(lei, toCachedLeiData(lei, record, e));
+                    metrics.recordLoad(start, e == null);
+                    return null;
+                })));
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
     }
 
     @Override
@@ -67,18 +216,15 @@ public class API_GetLeiDataImpl extends API_GetLeiData {
                 .filter(gleifLeiClient::isValidLei)
                 .flatMap(x -> {
                     try {
-                        Optional<LeiData> leiData;
-                        if (leiDataCache.asMap().containsKey(x)) {
-                            //get from cache if exists
-                            leiData = leiDataCache.getIfPresent(x);
-                        } else {
-                            //else get from GLEIF
-                            leiData = leiDataCache.get(x, () -> getResultForLei(x));
+                        CachedLeiData cached = getCached(x);
+                        if (cached == null) {
+                            //get from GLEIF, only once for concurrent callers
+                            cached = leiDataCache.get(x, () -> load(x));
                         }
-                        if (leiData.isEmpty()) {
+                        if (cached.leiData.isEmpty()) {
                             LOGGER.debug("LEI data not found for {}", lei);
                         }
-                        return leiData;
+                        return cached.leiData;
                     } catch (ExecutionException e) {
                         LOGGER.error("LEI record cache exception", e);
                         return Optional.empty();
@@ -88,5 +234,95 @@ public class API_GetLeiDataImpl extends API_GetLeiData {
                 .orElse(null);
     }
 
-}
+    /**
+     * Returns the cached entry for the LEI, or null if there is none or it has expired, recording the hit or miss.
+     */
+    private CachedLeiData getCached(String lei) {
+        CachedLeiData cached = leiDataCache.getIfPresent(lei);
+        if (cached != null && cached.isExpired(ticker.read())) {
+            if (leiDataCache.asMap().remove(lei, cached)) {
+                metrics.recordEviction();
+            }
+            cached = null;
+        }
+        if (cached == null) {
+            metrics.recordMiss();
+        } else {
+            metrics.recordHit();
+        }
+        return cached;
+    }
+
+    private CachedLeiData load(String lei) {
+        long start = metrics.startTimer();
+        CachedLeiData persisted = getPersisted(lei);
+        if (persisted != null) {
+            metrics.recordLoad(start, true);
+            return persisted;
+        }
+        try {
+            CachedLeiData loaded = toCachedLeiData(lei, gleifLeiBatchLoader.load(lei), null);
+            metrics.recordLoad(start, true);
+            return loaded;
+        } catch (CompletionException e) {
+            metrics.recordLoad(start, false);
+            return toCachedLeiData(lei, null, e.getCause());
+        }
+    }
+
+    private CachedLeiData getPersisted(String lei) {
+        if (persistentLeiCache == null) {
+            return null;
+        }
+        return persistentLeiCache.getIfPresent(lei)
+                .map(this::newCachedLeiData)
+                .orElse(null);
+    }
+
+    /**
+     * Persists a found or not found result, while a failed lookup is only held in memory for the error time-to-live
+     * so that it is retried once that has passed.
+     */
+    private CachedLeiData toCachedLeiData(String lei, Optional<GleifLeiRecord> record, Throwable error) {
+        if (error != null) {
+            LOGGER.warn("LEI lookup failed for {}, will retry after {} ms: {}", lei, Duration.ofNanos(errorTtlNanos).toMillis(), error.getMessage());
+            return new CachedLeiData(Optional.empty(), expiresAt(errorTtlNanos));
+        }
+        if (persistentLeiCache != null) {
+            persistentLeiCache.put(lei, record);
+        }
+        return newCachedLeiData(record.map(GleifLeiRecord::getLeiData));
+    }
 
+    private CachedLeiData newCachedLeiData(Optional<LeiData> leiData) {
+        return new CachedLeiData(leiData, expiresAt(leiData.isPresent() ? foundTtlNanos : notFoundTtlNanos));
+    }
+
+    private long expiresAt(long ttlNanos) {
+        // time-to-lives too long to add to the ticker without overflow never expire
+        return ttlNanos >= Long.MAX_VALUE / 2 ? NEVER : ticker.read() + ttlNanos;
+    }
+
+    private static long capTtl(Duration ttl, Duration maxTtl) {
+        Duration capped = maxTtl != null && ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl;
+        try {
+            return capped.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    static final class CachedLeiData {
+        private final Optional<LeiData> leiData;
+        private final long expiresAt;
+
+        CachedLeiData(Optional<LeiData> leiData, long expiresAt) {
+            this.leiData = leiData;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != NEVER && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package drr.enrichment.lei.functions;
+
+import com.regnosys.drr.utils.gleif.GleifGoldenCopyIndex;
+import com.regnosys.drr.utils.gleif.LeiValidator;
+import drr.enrichment.lei.LeiData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Serves LEI data from a local {@link GleifGoldenCopyIndex} with no network access, for air-gapped runs. Build the
+ * index with {@link com.regnosys.drr.utils.gleif.GleifGoldenCopyLoader}.
+ */
+public class API_GetLeiDataOfflineImpl extends API_GetLeiData {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(API_GetLeiDataOfflineImpl.class);
+
+    private final GleifGoldenCopyIndex index;
+
+    public API_GetLeiDataOfflineImpl(Path indexPath) throws IOException {
+        this(new GleifGoldenCopyIndex(indexPath));
+    }
+
+    public API_GetLeiDataOfflineImpl(GleifGoldenCopyIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    protected LeiData.LeiDataBuilder doEvaluate(String lei) {
+        Optional<LeiData> leiData = Optional.ofNullable(lei)
+                .filter(LeiValidator::isValid)
+                .flatMap(index::get);
+        if (leiData.isEmpty()) {
+            LOGGER.debug("LEI data not found in golden copy index for {}", lei);
+        }
+        return leiData.map(LeiData::toBuilder).orElse(null);
+    }
+}
@@ -0,0 +1,40 @@
+package drr.enrichment.lei.functions;
+
+import java.time.Duration;
+
+/**
+ * How long {@link API_GetLeiDataImpl} caches each outcome of a GLEIF lookup. Failed lookups are only cached briefly,
+ * so that a GLEIF outage does not hide LEI data once the service recovers, but long enough to stop every evaluation
+ * hitting a failing endpoint.
+ */
+public class LeiDataCacheTtl {
+
+    public static final LeiDataCacheTtl DEFAULT = new LeiDataCacheTtl(Duration.ofHours(24), Duration.ofHours(1), Duration.ofSeconds(30));
+
+    private final Duration found;
+    private final Duration notFound;
+    private final Duration error;
+
+    /**
+     * @param found    time-to-live of LEI data returned by GLEIF
+     * @param notFound time-to-live of LEIs that GLEIF does not know
+     * @param error    time-to-live of lookups that failed, e.g. because GLEIF was unavailable
+     */
+    public LeiDataCacheTtl(Duration found, Duration notFound, Duration error) {
+        this.found = found;
+        this.notFound = notFound;
+        this.error = error;
+    }
+
+    public Duration getFound() {
+        return found;
+    }
+
+    public Duration getNotFound() {
+        return notFound;
+    }
+
+    public Duration getError() {
+        return error;
+    }
+}
@@ -0,0 +1,108 @@
+package drr.enrichment.lei.functions;
+
+import cdm.base.staticdata.party.LegalEntity;
+import cdm.base.staticdata.party.PartyIdentifier;
+import cdm.base.staticdata.party.PartyIdentifierTypeEnum;
+import com.regnosys.drr.utils.gleif.LeiValidator;
+import com.regnosys.rosetta.common.util.SimpleProcessor;
+import com.rosetta.model.lib.RosettaModelObject;
+import com.rosetta.model.lib.path.RosettaPath;
+import com.rosetta.model.lib.process.AttributeMeta;
+import com.rosetta.model.metafields.FieldWithMetaString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prefetch stage run ahead of report generation. Walks a reportable event (e.g. {@code ReportableEvent},
+ * {@code RegimeReportableEvent}, {@code TransactionReportInstruction}), collects every valid LEI held as a party
+ * identifier or a legal entity identifier, such as the trade parties, the {@code partyInformation} party references
+ * and underlier issuers, and resolves them all concurrently so that {@code GetOrFetchLeiData} only hits a warm cache
+ * during rule evaluation. Other strings, e.g. trade identifiers, are never looked up, even when they happen to pass
+ * the LEI checksum.
+ * <p>
+ * Only takes effect when {@link API_GetLeiData} is bound to {@link API_GetLeiDataImpl}, otherwise it is a no-op. It is
+ * run by {@link com.regnosys.drr.report.RegimeReportEngine}; {@code PreEnrich} is defined in the model rather than
+ * implemented in code, so other callers of the report functions prefetch by calling {@link #prefetch} themselves.
+ */
+public class LeiDataPrefetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeiDataPrefetcher.class);
+
+    private final API_GetLeiData apiGetLeiData;
+
+    @Inject
+    public LeiDataPrefetcher(API_GetLeiData apiGetLeiData) {
+        this.apiGetLeiData = apiGetLeiData;
+    }
+
+    public void prefetch(RosettaModelObject reportableEvent) {
+        prefetchAsync(reportableEvent).join();
+    }
+
+    public CompletableFuture<Void> prefetchAsync(RosettaModelObject reportableEvent) {
+        if (!(apiGetLeiData instanceof API_GetLeiDataImpl)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Set<String> leis = collectLeis(reportableEvent);
+        LOGGER.debug("Prefetching {} LEIs {}", leis.size(), leis);
+        return ((API_GetLeiDataImpl) apiGetLeiData).prefetchAsync(leis);
+    }
+
+    public static Set<String> collectLeis(RosettaModelObject reportableEvent) {
+        Set<String> leis = new LinkedHashSet<>();
+        if (reportableEvent != null) {
+            reportableEvent.process(RosettaPath.valueOf(reportableEvent.getType().getSimpleName()), new LeiCollector(leis));
+        }
+        return leis;
+    }
+
+    private static class LeiCollector extends SimpleProcessor {
+
+        private final Set<String> leis;
+
+        LeiCollector(Set<String> leis) {
+            this.leis = leis;
+        }
+
+        @Override
+        public <T> void processBasic(RosettaPath path, Class<? extends T> rosettaType, T instance, RosettaModelObject parent, AttributeMeta... metas) {
+        }
+
+        @Override
+        public <R extends RosettaModelObject> boolean processRosetta(RosettaPath path, Class<? extends R> rosettaType, R instance, RosettaModelObject parent, AttributeMeta... metas) {
+            if (instance instanceof PartyIdentifier) {
+                PartyIdentifier partyIdentifier = (PartyIdentifier) instance;
+                // identifiers without a type may still be reported as LEIs
+                if (partyIdentifier.getIdentifierType() == null || partyIdentifier.getIdentifierType() == PartyIdentifierTypeEnum.LEI) {
+                    add(partyIdentifier.getIdentifier());
+                }
+                return false;
+            }
+            if (instance instanceof LegalEntity) {
+                List<? extends FieldWithMetaString> entityIds = ((LegalEntity) instance).getEntityId();
+                if (entityIds != null) {
+                    entityIds.forEach(this::add);
+                }
+                return false;
+            }
+            return instance != null;
+        }
+
+        private void add(FieldWithMetaString identifier) {
+            if (identifier != null && identifier.getValue() != null && LeiValidator.isValid(identifier.getValue())) {
+                leis.add(identifier.getValue());
+            }
+        }
+
+        @Override
+        public Report report() {
+            return null;
+        }
+    }
+}
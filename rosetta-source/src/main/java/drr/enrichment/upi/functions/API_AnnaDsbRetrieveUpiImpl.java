@@ -0,0 +1,188 @@
+package drr.enrichment.upi.functions;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiBatchLoader;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiClient;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiRequestKey;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrieves UPI records from ANNA DSB, caching found and not found results for a time-to-live.
+ * <p>
+ * Requests are cached on their {@link AnnaDsbUpiRequestKey canonical form}, so requests for the same product built in
+ * different ways share an entry. Concurrent lookups of the same request share a single ANNA DSB search, see
+ * {@link AnnaDsbUpiBatchLoader}. Failed searches are not cached, so they are retried on the next evaluation.
+ */
+public class API_AnnaDsbRetrieveUpiImpl extends API_AnnaDsbRetrieveUpi implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(API_AnnaDsbRetrieveUpiImpl.class);
+
+    public static final long DEFAULT_CACHE_MAXIMUM_SIZE = 10_000;
+
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofHours(24);
+
+    public static final String METRICS_NAME = "AnnaDsbUpi";
+
+    private final AnnaDsbUpiBatchLoader annaDsbUpiBatchLoader;
+    private final EnrichmentCacheMetrics metrics;
+
+    @VisibleForTesting
+    protected final Cache<AnnaDsbUpiRequestKey, Optional<AnnaDsbUpiRecord>> upiRecordCache;
+
+    /**
+     * @param searchUrl ANNA DSB UPI search endpoint
+     * @param headers   added to each search, e.g. the {@code Authorization} header carrying the API token
+     */
+    public API_AnnaDsbRetrieveUpiImpl(String searchUrl, Map<String, String> headers) {
+        this(new AnnaDsbUpiClient(HttpClient.newHttpClient(), searchUrl, headers),
+                DEFAULT_CACHE_MAXIMUM_SIZE,
+                DEFAULT_CACHE_TTL,
+                Ticker.systemTicker());
+    }
+
+    /**
+     * @param cacheMaximumSize maximum number of requests held in memory
+     * @param cacheTtl how long found and not found results are held in memory
+     * @param ticker time source for the expiry and the metrics latencies
+     */
+    public API_AnnaDsbRetrieveUpiImpl(AnnaDsbUpiClient annaDsbUpiClient, long cacheMaximumSize, Duration cacheTtl, Ticker ticker) {
+        this.metrics = new EnrichmentCacheMetrics(METRICS_NAME, ticker);
+        this.annaDsbUpiBatchLoader = new AnnaDsbUpiBatchLoader(annaDsbUpiClient,
+                AnnaDsbUpiBatchLoader.DEFAULT_MAX_CONCURRENT_REQUESTS, metrics);
+        this.upiRecordCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .<AnnaDsbUpiRequestKey, Optional<AnnaDsbUpiRecord>>removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        metrics.recordEviction();
+                    }
+                })
+                .build();
+        this.metrics.setSizeSupplier(upiRecordCache::size);
+    }
+
+    /**
+     * Hit, miss, load and ANNA DSB search metrics for this cache, exposed over JMX while started, see {@link #start()}.
+     */
+    public EnrichmentCacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Exposes the metrics of this cache over JMX until {@link #close()} is called. If metrics are already exposed for a
+     * cache of the same name, e.g. by another injector, those are left in place.
+     */
+    public void start() {
+        metrics.registerMBean();
+    }
+
+    /**
+     * Stops exposing the metrics of this cache over JMX, so the MBean server no longer keeps the cache reachable.
+     */
+    @Override
+    public void close() {
+        metrics.unregisterMBean();
+    }
+
+    @Override
+    protected AnnaDsbUpiRecord.AnnaDsbUpiRecordBuilder doEvaluate(AnnaDsbUpiRequest request) {
+        if (request == null) {
+            return null;
+        }
+        AnnaDsbUpiRequestKey key = AnnaDsbUpiRequestKey.of(request);
+        try {
+            Optional<AnnaDsbUpiRecord> record = lookupAsync(key).join();
+            if (record.isEmpty()) {
+                LOGGER.debug("UPI not found for {}", key);
+            }
+            return record.map(AnnaDsbUpiRecord::toBuilder).orElse(null);
+        } catch (CompletionException e) {
+            LOGGER.warn("UPI lookup failed for {}, will retry on next evaluation: {}", key, e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Non-blocking lookup of a single request, served from the cache when present. Results found or not found by
+     * ANNA DSB are added to the cache once the lookup completes.
+     */
+    public CompletableFuture<Optional<AnnaDsbUpiRecord>> retrieveAsync(AnnaDsbUpiRequest request) {
+        return lookupAsync(AnnaDsbUpiRequestKey.of(request));
+    }
+
+    /**
+     * Looks up any requests not already cached, searching ANNA DSB once for each distinct request, and adds the
+     * results to the cache so that subsequent evaluations for these requests do not go to the network.
+     */
+    public CompletableFuture<Void> prefetchAsync(Collection<AnnaDsbUpiRequest> requests) {
+        Set<AnnaDsbUpiRequestKey> uncachedKeys = new HashSet<>();
+        for (AnnaDsbUpiRequest request : requests) {
+            AnnaDsbUpiRequestKey key = AnnaDsbUpiRequestKey.of(request);
+            if (getCached(key) == null) {
+                uncachedKeys.add(key);
+            }
+        }
+        if (uncachedKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = metrics.startTimer();
+        List<CompletableFuture<?>> results = new ArrayList<>();
+        annaDsbUpiBatchLoader.loadEachAsync(uncachedKeys).forEach((key, result) ->
+                results.add(result.handle((record, e) -> {
+                    cacheResult(key, record, e, start);
+                    return null;
+                })));
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
+    }
+
+    private CompletableFuture<Optional<AnnaDsbUpiRecord>> lookupAsync(AnnaDsbUpiRequestKey key) {
+        Optional<AnnaDsbUpiRecord> cached = getCached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long start = metrics.startTimer();
+        return annaDsbUpiBatchLoader.loadAsync(key)
+                .whenComplete((record, e) -> cacheResult(key, record, e, start));
+    }
+
+    /**
+     * Returns the cached result for the request, or null if there is none, recording the hit or miss.
+     */
+    private Optional<AnnaDsbUpiRecord> getCached(AnnaDsbUpiRequestKey key) {
+        Optional<AnnaDsbUpiRecord> cached = upiRecordCache.getIfPresent(key);
+        if (cached == null) {
+            metrics.recordMiss();
+        } else {
+            metrics.recordHit();
+        }
+        return cached;
+    }
+
+    private void cacheResult(AnnaDsbUpiRequestKey key, Optional<AnnaDsbUpiRecord> record, Throwable error, long start) {
+        if (error == null) {
+            upiRecordCache.put(key, record);
+        }
+        metrics.recordLoad(start, error == null);
+    }
+}
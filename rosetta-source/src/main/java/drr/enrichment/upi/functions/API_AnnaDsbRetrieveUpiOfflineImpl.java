@@ -0,0 +1,57 @@
+package drr.enrichment.upi.functions;
+
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiIndex;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiRequestKey;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Serves UPI records from a local {@link AnnaDsbUpiIndex} loaded from ANNA DSB dumps, so enrichment resolves without
+ * network access. Requests not found in the index are passed to the optional fallback, e.g.
+ * {@link API_AnnaDsbRetrieveUpiImpl}, and are otherwise not found.
+ */
+public class API_AnnaDsbRetrieveUpiOfflineImpl extends API_AnnaDsbRetrieveUpi {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(API_AnnaDsbRetrieveUpiOfflineImpl.class);
+
+    private final AnnaDsbUpiIndex index;
+    private final API_AnnaDsbRetrieveUpi fallback;
+
+    public API_AnnaDsbRetrieveUpiOfflineImpl(Path indexPath) throws IOException {
+        this(AnnaDsbUpiIndex.load(indexPath), null);
+    }
+
+    /**
+     * @param fallback optional lookup for requests not in the index
+     */
+    public API_AnnaDsbRetrieveUpiOfflineImpl(AnnaDsbUpiIndex index, API_AnnaDsbRetrieveUpi fallback) {
+        this.index = index;
+        this.fallback = fallback;
+    }
+
+    @Override
+    protected AnnaDsbUpiRecord.AnnaDsbUpiRecordBuilder doEvaluate(AnnaDsbUpiRequest request) {
+        if (request == null) {
+            return null;
+        }
+        AnnaDsbUpiRequestKey key = AnnaDsbUpiRequestKey.of(request);
+        Optional<AnnaDsbUpiRecord> record = index.get(key);
+        if (record.isPresent()) {
+            return record.get().toBuilder();
+        }
+        if (fallback == null) {
+            LOGGER.debug("UPI not found in ANNA DSB index for {}", key);
+            return null;
+        }
+        LOGGER.debug("UPI not found in ANNA DSB index for {}, using fallback", key);
+        return Optional.ofNullable(fallback.evaluate(request))
+                .map(AnnaDsbUpiRecord::toBuilder)
+                .orElse(null);
+    }
+}
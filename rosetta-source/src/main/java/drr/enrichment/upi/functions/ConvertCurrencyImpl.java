@@ -0,0 +1,40 @@
+package drr.enrichment.upi.functions;
+
+import java.util.Map;
+
+/**
+ * Converts offshore and non-standard currency codes to the ISO 4217 code reported to ANNA DSB, with a hashed lookup
+ * rather than comparing against each code in turn.
+ */
+public class ConvertCurrencyImpl extends ConvertCurrency {
+
+    private static final Map<String, String> CURRENCIES = Map.ofEntries(
+            Map.entry("CNH", "CNY"),
+            Map.entry("COO", "COP"),
+            Map.entry("GBPpence", "GBP"),
+            Map.entry("ARO", "ARS"),
+            Map.entry("AZO", "AZN"),
+            Map.entry("BRO", "BRL"),
+            Map.entry("CNO", "CNY"),
+            Map.entry("IDO", "IDR"),
+            Map.entry("INO", "INR"),
+            Map.entry("KRO", "KRW"),
+            Map.entry("MAO", "MAD"),
+            Map.entry("MYO", "MYR"),
+            Map.entry("RUO", "RUB"),
+            Map.entry("THO", "THB"),
+            Map.entry("TWO", "TWD"),
+            Map.entry("VNO", "VND"),
+            Map.entry("XRH", "XXX"),
+            Map.entry("AUO", "AUD"),
+            Map.entry("LKO", "LKR"),
+            Map.entry("UAO", "UAH"));
+
+    @Override
+    protected String doEvaluate(String currency) {
+        if (currency == null) {
+            return null;
+        }
+        return CURRENCIES.getOrDefault(currency, currency);
+    }
+}
@@ -0,0 +1,42 @@
+package drr.enrichment.upi.functions;
+
+import cdm.base.staticdata.asset.rates.FloatingRateIndexEnum;
+import cdm.base.staticdata.asset.rates.metafields.FieldWithMetaFloatingRateIndexEnum;
+import cdm.observable.asset.FloatingRateOption;
+import cdm.observable.asset.metafields.ReferenceWithMetaFloatingRateOption;
+import cdm.product.asset.FloatingRateSpecification;
+import cdm.product.asset.InterestRatePayout;
+import cdm.product.asset.RateSpecification;
+
+import java.util.Optional;
+
+/**
+ * Reads the floating rate index name of a floating or inflation rate payout directly, rather than through the
+ * generated path mappers.
+ */
+public class FloatingRateIndexImpl extends FloatingRateIndex {
+
+    @Override
+    protected String doEvaluate(InterestRatePayout interestRatePayout) {
+        RateSpecification rateSpecification = interestRatePayout == null ? null : interestRatePayout.getRateSpecification();
+        if (rateSpecification == null) {
+            return null;
+        }
+        if (rateSpecification.getFloatingRate() != null) {
+            return getFloatingRateIndexName(rateSpecification.getFloatingRate());
+        }
+        if (rateSpecification.getInflationRate() != null) {
+            return getFloatingRateIndexName(rateSpecification.getInflationRate());
+        }
+        return null;
+    }
+
+    private static String getFloatingRateIndexName(FloatingRateSpecification floatingRate) {
+        return Optional.ofNullable(floatingRate.getRateOption())
+                .map(ReferenceWithMetaFloatingRateOption::getValue)
+                .map(FloatingRateOption::getFloatingRateIndex)
+                .map(FieldWithMetaFloatingRateIndexEnum::getValue)
+                .map(FloatingRateIndexEnum::toString)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,28 @@
+package drr.enrichment.upi.functions;
+
+import cdm.base.staticdata.asset.common.AssetClassEnum;
+import drr.standards.iosco.upi.AnnaDsbAssetClassEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Translates the CDM asset class to the ANNA DSB asset class with an enum-indexed lookup.
+ */
+public class TranslateAssetClassImpl extends TranslateAssetClass {
+
+    private static final Map<AssetClassEnum, AnnaDsbAssetClassEnum> ASSET_CLASSES = new EnumMap<>(AssetClassEnum.class);
+
+    static {
+        ASSET_CLASSES.put(AssetClassEnum.INTEREST_RATE, AnnaDsbAssetClassEnum.RATES);
+        ASSET_CLASSES.put(AssetClassEnum.FOREIGN_EXCHANGE, AnnaDsbAssetClassEnum.FOREIGN_EXCHANGE);
+        ASSET_CLASSES.put(AssetClassEnum.CREDIT, AnnaDsbAssetClassEnum.CREDIT);
+        ASSET_CLASSES.put(AssetClassEnum.EQUITY, AnnaDsbAssetClassEnum.EQUITY);
+        ASSET_CLASSES.put(AssetClassEnum.COMMODITY, AnnaDsbAssetClassEnum.COMMODITIES);
+    }
+
+    @Override
+    protected AnnaDsbAssetClassEnum doEvaluate(AssetClassEnum assetClass) {
+        return assetClass == null ? null : ASSET_CLASSES.get(assetClass);
+    }
+}
@@ -0,0 +1,57 @@
+package drr.enrichment.upi.functions;
+
+import drr.standards.iosco.upi.codesets.AnnaDsbMrktCreditIndexEnum;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Translates a credit index name, less any series suffix, to its ANNA DSB identifier with a hashed lookup of the
+ * {@link AnnaDsbMrktCreditIndexEnum} display names, rather than converting the name with a regular expression and
+ * resolving the enum on each evaluation.
+ */
+public class TranslateIndexNameToIdImpl extends TranslateIndexNameToId {
+
+    private static final String SERIES = " SERIES";
+
+    // as applied by the Rosetta function, only needed for names spanning several lines
+    private static final Pattern SERIES_SUFFIX = Pattern.compile(" SERIES.*$");
+
+    private static final Map<String, String> INDEX_IDS = new HashMap<>();
+
+    static {
+        for (AnnaDsbMrktCreditIndexEnum index : AnnaDsbMrktCreditIndexEnum.values()) {
+            INDEX_IDS.put(index.toDisplayString(), index.toString());
+        }
+    }
+
+    @Override
+    protected String doEvaluate(String name) {
+        if (name == null) {
+            return null;
+        }
+        return INDEX_IDS.get(removeSeries(name));
+    }
+
+    static String removeSeries(String name) {
+        int series = name.indexOf(SERIES);
+        if (series < 0) {
+            return name;
+        }
+        if (hasLineTerminator(name, series)) {
+            return SERIES_SUFFIX.matcher(name).replaceAll("");
+        }
+        return name.substring(0, series);
+    }
+
+    private static boolean hasLineTerminator(String name, int from) {
+        for (int i = from; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package drr.enrichment.upi.functions;
+
+import cdm.base.datetime.PeriodEnum;
+import drr.standards.iosco.upi.AnnaDsbUnderlyingInstrumentIndexTermUnitEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Translates a CDM period to the ANNA DSB term unit with an enum-indexed lookup.
+ */
+public class TranslatePeriodEnumImpl extends TranslatePeriodEnum {
+
+    private static final Map<PeriodEnum, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum> TERM_UNITS = new EnumMap<>(PeriodEnum.class);
+
+    static {
+        TERM_UNITS.put(PeriodEnum.D, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.DAYS);
+        TERM_UNITS.put(PeriodEnum.W, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.WEEK);
+        TERM_UNITS.put(PeriodEnum.M, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.MNTH);
+        TERM_UNITS.put(PeriodEnum.Y, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.YEAR);
+    }
+
+    @Override
+    protected AnnaDsbUnderlyingInstrumentIndexTermUnitEnum doEvaluate(PeriodEnum period) {
+        return period == null ? null : TERM_UNITS.get(period);
+    }
+}
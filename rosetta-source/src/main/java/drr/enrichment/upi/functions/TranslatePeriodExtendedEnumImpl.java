@@ -0,0 +1,27 @@
+package drr.enrichment.upi.functions;
+
+import cdm.base.datetime.PeriodExtendedEnum;
+import drr.standards.iosco.upi.AnnaDsbUnderlyingInstrumentIndexTermUnitEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Translates a CDM extended period to the ANNA DSB term unit with an enum-indexed lookup.
+ */
+public class TranslatePeriodExtendedEnumImpl extends TranslatePeriodExtendedEnum {
+
+    private static final Map<PeriodExtendedEnum, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum> TERM_UNITS = new EnumMap<>(PeriodExtendedEnum.class);
+
+    static {
+        TERM_UNITS.put(PeriodExtendedEnum.D, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.DAYS);
+        TERM_UNITS.put(PeriodExtendedEnum.W, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.WEEK);
+        TERM_UNITS.put(PeriodExtendedEnum.M, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.MNTH);
+        TERM_UNITS.put(PeriodExtendedEnum.Y, AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.YEAR);
+    }
+
+    @Override
+    protected AnnaDsbUnderlyingInstrumentIndexTermUnitEnum doEvaluate(PeriodExtendedEnum period) {
+        return period == null ? null : TERM_UNITS.get(period);
+    }
+}
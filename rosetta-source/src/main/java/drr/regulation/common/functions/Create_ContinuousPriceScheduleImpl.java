@@ -1,32 +1,36 @@
-package  drr.regulation.common.functions;
+package drr.regulation.common.functions;
 
 import com.rosetta.model.lib.records.Date;
 import drr.standards.iosco.cde.base.price.PricePeriod;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+/**
+ * Makes the price schedule continuous in a single pass, ending each period the day before the next one starts.
+ * Input already in effective date order, the usual case, is not sorted again.
+ */
 public class Create_ContinuousPriceScheduleImpl extends Create_ContinuousPriceSchedule {
+
     @Override
     protected List<PricePeriod.PricePeriodBuilder> doEvaluate(List<? extends PricePeriod> pricePeriods, Date endDate) {
         if (pricePeriods == null || endDate == null) {
             return null;
         }
         LocalDate localEndDate = endDate.toLocalDate();
+        List<? extends PricePeriod> sortedPeriods = sortByEffectiveDate(pricePeriods);
+        int size = sortedPeriods.size();
 
-        // First sort based on start date
-        List<? extends PricePeriod> sortedPeriods = pricePeriods.stream().sorted(Comparator.comparing(PricePeriod::getEffectiveDate)).collect(Collectors.toList());
-
-        return IntStream.range(0, sortedPeriods.size()).mapToObj(i -> {
+        List<PricePeriod.PricePeriodBuilder> continuousPeriods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
             PricePeriod pricePeriod = sortedPeriods.get(i);
             PricePeriod.PricePeriodBuilder pricePeriodBuilder = toBuilder(pricePeriod);
 
             LocalDate computedEndDate;
             //This is the last reportable Period
-            if (i == sortedPeriods.size() - 1) {
+            if (i == size - 1) {
                 computedEndDate = localEndDate;
             } else {
                 computedEndDate = sortedPeriods.get(i + 1).getEffectiveDate().toLocalDate().minusDays(1);
@@ -35,7 +39,19 @@ public class Create_ContinuousPriceScheduleImpl extends Create_ContinuousPriceSc
             if (pricePeriod.getEndDate() == null || pricePeriod.getEndDate().toLocalDate().isBefore(localEndDate)) {
                 pricePeriodBuilder.setEndDate(Date.of(computedEndDate));
             }
-            return pricePeriodBuilder;
-        }).collect(Collectors.toList());
+            continuousPeriods.add(pricePeriodBuilder);
+        }
+        return continuousPeriods;
+    }
+
+    private static List<? extends PricePeriod> sortByEffectiveDate(List<? extends PricePeriod> pricePeriods) {
+        for (int i = 1; i < pricePeriods.size(); i++) {
+            if (pricePeriods.get(i - 1).getEffectiveDate().compareTo(pricePeriods.get(i).getEffectiveDate()) > 0) {
+                List<PricePeriod> sortedPeriods = new ArrayList<>(pricePeriods);
+                sortedPeriods.sort(Comparator.comparing(PricePeriod::getEffectiveDate));
+                return sortedPeriods;
+            }
+        }
+        return pricePeriods;
     }
 }
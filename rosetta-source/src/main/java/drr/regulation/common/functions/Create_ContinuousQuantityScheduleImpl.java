@@ -4,32 +4,33 @@ import com.rosetta.model.lib.records.Date;
 import drr.standards.iosco.cde.base.quantity.NotionalPeriod;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
 
+/**
+ * Makes the quantity schedule continuous in a single pass, ending each period the day before the next one starts.
+ * Input already in effective date order, the usual case, is not sorted again.
+ */
 public class Create_ContinuousQuantityScheduleImpl extends Create_ContinuousQuantitySchedule {
+
     @Override
     protected List<NotionalPeriod.NotionalPeriodBuilder> doEvaluate(List<? extends NotionalPeriod> notionalPeriods, Date endDate) {
         if (notionalPeriods == null || endDate == null) {
             return null;
         }
         LocalDate localEndDate = endDate.toLocalDate();
+        List<? extends NotionalPeriod> sortedPeriods = sortByEffectiveDate(notionalPeriods);
+        int size = sortedPeriods.size();
 
-        // First sort based on start date
-        List<? extends NotionalPeriod> sortedPeriods = notionalPeriods.stream()
-                .sorted(Comparator.comparing(NotionalPeriod::getEffectiveDate))
-                .collect(Collectors.toList());
-
-        return IntStream.range(0, sortedPeriods.size()).mapToObj(i -> {
+        List<NotionalPeriod.NotionalPeriodBuilder> continuousPeriods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
             NotionalPeriod notionalPeriod = sortedPeriods.get(i);
             NotionalPeriod.NotionalPeriodBuilder notionalPeriodBuilder = toBuilder(notionalPeriod);
 
             LocalDate computedEndDate;
             //This is the last reportable Period
-            if (i == sortedPeriods.size() - 1) {
+            if (i == size - 1) {
                 computedEndDate = localEndDate;
             } else {
                 computedEndDate = sortedPeriods.get(i + 1).getEffectiveDate().toLocalDate().minusDays(1);
@@ -38,8 +39,20 @@ public class Create_ContinuousQuantityScheduleImpl extends Create_ContinuousQuan
             if (notionalPeriod.getEndDate() == null || notionalPeriod.getEndDate().toLocalDate().isBefore(localEndDate)) {
                 notionalPeriodBuilder.setEndDate(Date.of(computedEndDate));
             }
-            return notionalPeriodBuilder;
-        }).collect(Collectors.toList());
+            continuousPeriods.add(notionalPeriodBuilder);
+        }
+        return continuousPeriods;
+    }
+
+    private static List<? extends NotionalPeriod> sortByEffectiveDate(List<? extends NotionalPeriod> notionalPeriods) {
+        for (int i = 1; i < notionalPeriods.size(); i++) {
+            if (notionalPeriods.get(i - 1).getEffectiveDate().compareTo(notionalPeriods.get(i).getEffectiveDate()) > 0) {
+                List<NotionalPeriod> sortedPeriods = new ArrayList<>(notionalPeriods);
+                sortedPeriods.sort(Comparator.comparing(NotionalPeriod::getEffectiveDate));
+                return sortedPeriods;
+            }
+        }
+        return notionalPeriods;
     }
 
 }
@@ -5,24 +5,37 @@ import cdm.product.common.settlement.PriceQuantity;
 import com.rosetta.model.lib.meta.Key;
 import com.rosetta.model.metafields.MetaFields;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Collects the distinct quantity keys of a price quantity, in order, into a new list.
+ */
 public class GetQuantityKeysImpl extends GetQuantityKeys {
 
     @Override
     protected List<String> doEvaluate(PriceQuantity priceQuantity) {
-        return Optional.ofNullable(priceQuantity)
-                .map(PriceQuantity::getQuantity)
-                .orElse(Collections.emptyList())
-                .stream()
-                .map(FieldWithMetaNonNegativeQuantitySchedule::getMeta)
-                .filter(Objects::nonNull)
-                .map(MetaFields::getKey)
-                .flatMap(Collection::stream)
-                .map(Key::getKeyValue)
-                .filter(Objects::nonNull)
-                .distinct()
-                .collect(Collectors.toList());
+        List<? extends FieldWithMetaNonNegativeQuantitySchedule> quantities = priceQuantity == null ? null : priceQuantity.getQuantity();
+        if (quantities == null || quantities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> keys = new ArrayList<>(quantities.size());
+        for (FieldWithMetaNonNegativeQuantitySchedule quantity : quantities) {
+            MetaFields meta = quantity == null ? null : quantity.getMeta();
+            if (meta == null || meta.getKey() == null) {
+                continue;
+            }
+            for (Key key : meta.getKey()) {
+                String keyValue = key == null ? null : key.getKeyValue();
+                if (keyValue == null) {
+                    continue;
+                }
+                // only a handful of keys, so a list scan is cheaper than a set
+                if (!keys.contains(keyValue)) {
+                    keys.add(keyValue);
+                }
+            }
+        }
+        return keys;
     }
 }
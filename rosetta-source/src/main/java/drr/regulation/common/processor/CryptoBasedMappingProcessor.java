@@ -15,8 +15,6 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Optional;
 
-import static com.regnosys.rosetta.common.translation.MappingProcessorUtils.getNonNullMappedValue;
-
 public class CryptoBasedMappingProcessor extends MappingProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(CryptoBasedMappingProcessor.class);
     public static final String CRYPTO_SCHEME = "http://www.fpml.org/coding-scheme/esma-emir-refit-crypto-asset-indicator";
@@ -46,13 +44,13 @@ public class CryptoBasedMappingProcessor extends MappingProcessor {
     }
 
     private Boolean isCryptoBasedByProductType(Path xmlPath) {
-        List<Path> productTypePaths = getMappings().stream()
-                .filter(m -> m.getXmlPath().endsWith("productType"))
+        MappingIndex mappingIndex = MappingIndex.of(getContext());
+        List<Path> productTypePaths = mappingIndex.getMappingsEndingWith("productType").stream()
                 .map(Mapping::getXmlPath)
                 .collect(Collectors.toList());
 
         for (Path productTypePath : productTypePaths) {
-            Optional<String> mappedValue = getNonNullMappedValue(productTypePath, getMappings());
+            Optional<String> mappedValue = mappingIndex.getNonNullMappedValue(productTypePath);
 
             if (mappedValue.isPresent()) {
                 if (mappedValue.get().equals("true")) {
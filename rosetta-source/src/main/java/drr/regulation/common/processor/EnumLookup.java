@@ -0,0 +1,67 @@
+package drr.regulation.common.processor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Looks up enum values by name, or by display name ignoring case and surrounding whitespace, from tables built once
+ * per enum type, so mapping processors neither scan {@code values()} nor catch exceptions from {@code valueOf} for
+ * every value they map.
+ */
+public final class EnumLookup {
+
+    private static final ClassValue<Tables<?>> TABLES = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected Tables<?> computeValue(Class<?> type) {
+            return new Tables(type.getEnumConstants());
+        }
+    };
+
+    private EnumLookup() {
+    }
+
+    /**
+     * The enum value with the given constant name, like {@link Enum#valueOf(Class, String)} but empty if not found.
+     */
+    public static <E extends Enum<E>> Optional<E> getEnumValue(Class<E> type, String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(tables(type).byName.get(name));
+    }
+
+    /**
+     * The enum value with the given display name, i.e. {@code toString()}, ignoring case and surrounding whitespace.
+     */
+    public static <E extends Enum<E>> Optional<E> getEnumValueIgnoreCase(Class<E> type, String displayName) {
+        return displayName == null ? Optional.empty() : Optional.ofNullable(tables(type).byDisplayName.get(normalise(displayName)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> Tables<E> tables(Class<E> type) {
+        return (Tables<E>) TABLES.get(type);
+    }
+
+    private static String normalise(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Tables<E extends Enum<E>> {
+
+        private final Map<String, E> byName;
+        private final Map<String, E> byDisplayName;
+
+        Tables(E[] values) {
+            Map<String, E> byName = new HashMap<>();
+            Map<String, E> byDisplayName = new HashMap<>();
+            for (E value : values) {
+                byName.put(value.name(), value);
+                // the first value wins if display names only differ in case
+                byDisplayName.putIfAbsent(normalise(value.toString()), value);
+            }
+            this.byName = Collections.unmodifiableMap(byName);
+            this.byDisplayName = Collections.unmodifiableMap(byDisplayName);
+        }
+    }
+}
@@ -15,8 +15,6 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Optional;
 
-import static com.regnosys.rosetta.common.translation.MappingProcessorUtils.getNonNullMappedValue;
-
 /**
  * FpML mapping processor.
  * Specs for the mapper:
@@ -55,8 +53,8 @@ public class IntragroupMappingProcessor extends MappingProcessor {
     }
 
     private Boolean isIntragroupByCategory(Path xmlPath) {
-        List<Path> categoryPaths = getMappings().stream()
-                .filter(m -> m.getXmlPath().endsWith("category"))
+        MappingIndex mappingIndex = MappingIndex.of(getContext());
+        List<Path> categoryPaths = mappingIndex.getMappingsEndingWith("category").stream()
                 .map(Mapping::getXmlPath)
                 .collect(Collectors.toList());
 
@@ -75,7 +73,7 @@ public class IntragroupMappingProcessor extends MappingProcessor {
             Optional<Boolean> isTrueValue = categoryElements.stream()
                     .filter(element -> element.getPathName().equals("category"))
                     .map(element -> {
-                        Optional<String> mappedValue = getNonNullMappedValue(categoryPath, getMappings());
+                        Optional<String> mappedValue = mappingIndex.getNonNullMappedValue(categoryPath);
                         return mappedValue.isPresent() && mappedValue.get().equals("true");
                     })
                     .findFirst();
@@ -91,13 +89,13 @@ public class IntragroupMappingProcessor extends MappingProcessor {
     }
 
     private Boolean isIntragroupByTradePartyRelationshipType(Path xmlPath) {
-        List<Path> tradePartyRelationshipTypePaths = getMappings().stream()
-                .filter(m -> m.getXmlPath().endsWith("tradePartyRelationshipType"))
+        MappingIndex mappingIndex = MappingIndex.of(getContext());
+        List<Path> tradePartyRelationshipTypePaths = mappingIndex.getMappingsEndingWith("tradePartyRelationshipType").stream()
                 .map(Mapping::getXmlPath)
                 .collect(Collectors.toList());
 
         for (Path tradePartyRelationshipTypePath : tradePartyRelationshipTypePaths) {
-            String tradePartyRelationshipType = getNonNullMappedValue(tradePartyRelationshipTypePath, getMappings()).orElse(null);
+            String tradePartyRelationshipType = mappingIndex.getNonNullMappedValue(tradePartyRelationshipTypePath).orElse(null);
             if ("Intragroup".equals(tradePartyRelationshipType)) {
                 return true;
             }
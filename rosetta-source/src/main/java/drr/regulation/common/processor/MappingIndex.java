@@ -0,0 +1,138 @@
+package drr.regulation.common.processor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.regnosys.rosetta.common.translation.Mapping;
+import com.regnosys.rosetta.common.translation.MappingContext;
+import com.regnosys.rosetta.common.translation.MappingProcessorUtils;
+import com.regnosys.rosetta.common.translation.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only view of the mappings of an ingested document, indexed so mapping processors can find the mappings they
+ * need without scanning every mapping of the document on each invocation.
+ * <p>
+ * Mappings are indexed on the name of the last element of their xml path, in document order. Mappings under a given
+ * element are collected on first use and kept for later lookups. One index is shared by all processors of a
+ * {@link MappingContext}. Mappings appended to the context since the index was last used are added to it, so the
+ * mappings are only indexed once however many are added; any other change to the mappings of the context rebuilds it.
+ * Lookups return a copy of the matching mappings.
+ */
+public class MappingIndex {
+
+    // weak keys are compared by identity
+    private static final Cache<MappingContext, MappingIndex> INDEXES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private final List<Mapping> mappings = new ArrayList<>();
+    private final Map<String, List<Mapping>> byLastElement = new HashMap<>();
+    private final Map<String, List<Mapping>> byElement = new HashMap<>();
+
+    MappingIndex(List<Mapping> mappings) {
+        addAll(mappings);
+    }
+
+    /**
+     * The index of the mappings in the context, built on first use and shared with the other processors of the context.
+     */
+    public static MappingIndex of(MappingContext context) {
+        List<Mapping> mappings = context.getMappings();
+        return INDEXES.asMap().compute(context, (c, index) -> index == null || !index.update(mappings) ? new MappingIndex(mappings) : index);
+    }
+
+    /**
+     * Adds the mappings appended since this index was built or last updated, returning false if the mappings have
+     * changed in any other way, in which case this index is left as it is.
+     */
+    private synchronized boolean update(List<Mapping> current) {
+        int size = mappings.size();
+        if (current.size() < size || size > 0 && current.get(size - 1) != mappings.get(size - 1)) {
+            return false;
+        }
+        if (current.size() > size) {
+            addAll(current.subList(size, current.size()));
+        }
+        return true;
+    }
+
+    private void addAll(List<Mapping> added) {
+        for (Mapping mapping : added) {
+            mappings.add(mapping);
+            Path xmlPath = mapping.getXmlPath();
+            if (xmlPath == null || xmlPath.getElements().isEmpty()) {
+                continue;
+            }
+            byLastElement.computeIfAbsent(xmlPath.getLastElement().getPathName(), k -> new ArrayList<>()).add(mapping);
+            for (Map.Entry<String, List<Mapping>> entry : byElement.entrySet()) {
+                if (hasElement(xmlPath, entry.getKey())) {
+                    entry.getValue().add(mapping);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mappings with an xml path ending in the given element names, in document order.
+     */
+    public synchronized List<Mapping> getMappingsEndingWith(String... elementNames) {
+        List<Mapping> candidates = byLastElement.getOrDefault(elementNames[elementNames.length - 1], Collections.emptyList());
+        if (elementNames.length == 1) {
+            return new ArrayList<>(candidates);
+        }
+        List<Mapping> matches = new ArrayList<>();
+        for (Mapping mapping : candidates) {
+            if (mapping.getXmlPath().endsWith(elementNames)) {
+                matches.add(mapping);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Mappings with an xml path under the given element, i.e. the element is in the path but not its first element, in
+     * document order.
+     */
+    public synchronized List<Mapping> getMappingsUnder(String elementName) {
+        List<Mapping> matches = byElement.computeIfAbsent(elementName, k -> {
+            List<Mapping> under = new ArrayList<>();
+            for (Mapping mapping : mappings) {
+                Path xmlPath = mapping.getXmlPath();
+                if (xmlPath != null && hasElement(xmlPath, elementName)) {
+                    under.add(mapping);
+                }
+            }
+            return under;
+        });
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * Same as {@link MappingProcessorUtils#getNonNullMappedValue(Path, List)} over all mappings, but only considering
+     * mappings with the same last element. That utility only matches mappings whose xml path has the same element
+     * names and indexes as the given path, so mappings ending in another element can never match.
+     */
+    public synchronized Optional<String> getNonNullMappedValue(Path xmlPath) {
+        if (xmlPath == null || xmlPath.getElements().isEmpty()) {
+            return Optional.empty();
+        }
+        List<Mapping> candidates = byLastElement.get(xmlPath.getLastElement().getPathName());
+        return candidates == null ? Optional.empty() : MappingProcessorUtils.getNonNullMappedValue(xmlPath, candidates);
+    }
+
+    private static boolean hasElement(Path xmlPath, String elementName) {
+        List<Path.PathElement> elements = xmlPath.getElements();
+        for (int i = 1; i < elements.size(); i++) {
+            if (elements.get(i).getPathName().equals(elementName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
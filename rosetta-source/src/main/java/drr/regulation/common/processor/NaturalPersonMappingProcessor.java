@@ -109,8 +109,7 @@ public class NaturalPersonMappingProcessor extends MappingProcessor {
     }
 
     private List<Path> getRelatedPersonPaths() {
-        return getMappings().stream()
-                .filter(mapping -> mapping.getXmlPath().toString().contains(".relatedPerson"))
+        return MappingIndex.of(getContext()).getMappingsUnder("relatedPerson").stream()
                 .map(Mapping::getXmlPath)
                 .collect(Collectors.toList());
     }
@@ -123,13 +122,10 @@ public class NaturalPersonMappingProcessor extends MappingProcessor {
         // Implement the logic to extract the personReferenceHref from the given path
         // You need to access the XML data correctly based on the path
         // and return the extracted value as an Optional<String>
-        return getMappings()
+        String pathStr = path.toString();
+        return MappingIndex.of(getContext()).getMappingsEndingWith("personReference", "href")
                 .stream()
-                .filter(mapping -> {
-                    // Check if the XML path ends with ".value"
-                    String xmlPath = mapping.getXmlPath().toString();
-                    return xmlPath.endsWith(".personReference.href") && xmlPath.equals(path.toString());
-                })
+                .filter(mapping -> mapping.getXmlPath().toString().equals(pathStr))
                 .map(Mapping::getXmlValue)
                 .filter(Objects::nonNull)
                 .map(Object::toString)
@@ -140,13 +136,10 @@ public class NaturalPersonMappingProcessor extends MappingProcessor {
         // Implement the logic to extract the roleValue from the given path
         // You need to access the XML data correctly based on the path
         // and return the extracted value as an Optional<String>
-        return getMappings()
+        String pathStr = path.toString();
+        return MappingIndex.of(getContext()).getMappingsEndingWith("role")
                 .stream()
-                .filter(mapping -> {
-                    // Check if the XML path ends with ".value"
-                    String xmlPath = mapping.getXmlPath().toString();
-                    return xmlPath.endsWith(".role") && xmlPath.equals(path.toString());
-                })
+                .filter(mapping -> mapping.getXmlPath().toString().equals(pathStr))
                 .map(Mapping::getXmlValue)
                 .filter(Objects::nonNull)
                 .map(Object::toString)
@@ -15,7 +15,6 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static com.regnosys.rosetta.common.translation.MappingProcessorUtils.getNonNullMappedValue;
 import static com.regnosys.rosetta.common.translation.MappingProcessorUtils.setValueAndOptionallyUpdateMappings;
 import static drr.regulation.common.PartyInformation.PartyInformationBuilder;
 
@@ -62,8 +61,9 @@ public class RegimeInformationMappingProcessor extends MappingProcessor {
                 .filter(b -> isSupervisoryBody(b, supervisoryBody))
                 .findFirst()
                 .ifPresent(reportingRegimeBuilder -> {
+                    MappingIndex mappingIndex = MappingIndex.of(getContext());
                     for (Path classificationPath : classificationPaths) {
-                        getNonNullMappedValue(classificationPath.addElement("industryClassificationScheme"), getMappings())
+                        mappingIndex.getNonNullMappedValue(classificationPath.addElement("industryClassificationScheme"))
                                 .filter(corporateSectorScheme::equals)
                                 .ifPresent(industryClassificationScheme ->
                                         setValueAndOptionallyUpdateMappings(classificationPath,
@@ -90,21 +90,21 @@ public class RegimeInformationMappingProcessor extends MappingProcessor {
     }
 
     private Boolean isFederalEntityScheme(Path organizationTypePath) {
-        return getNonNullMappedValue(organizationTypePath.addElement("organizationTypeScheme"), getMappings())
+        return MappingIndex.of(getContext()).getNonNullMappedValue(organizationTypePath.addElement("organizationTypeScheme"))
                 .map(CFTC_ORGANIZATION_TYPE_SCHEME::equals).orElse(false);
     }
 
     private void setTechnicalRecordId(List<ReportingRegimeBuilder> reportingRegimeBuilders) {
-        List<Path> messageIdSchemePaths = getMappings().stream()
+        MappingIndex mappingIndex = MappingIndex.of(getContext());
+        List<Path> messageIdSchemePaths = mappingIndex.getMappingsEndingWith("messageIdScheme").stream()
                 .map(Mapping::getXmlPath)
-                .filter(xmlPath -> xmlPath.endsWith("messageIdScheme"))
                 .collect(Collectors.toList());
 
         for (Path messageIdSchemePath : messageIdSchemePaths) {
-            Optional<String> mappedValue = getNonNullMappedValue(messageIdSchemePath, getMappings());
+            Optional<String> mappedValue = mappingIndex.getNonNullMappedValue(messageIdSchemePath);
             if (mappedValue.isPresent() && mappedValue.get().equals("http://www.fpml.org/coding-scheme/external/technical-record-id")) {
                 Path messageIdPath = messageIdSchemePath.getParent();
-                Optional<String> messageId = getNonNullMappedValue(messageIdPath, getMappings());
+                Optional<String> messageId = mappingIndex.getNonNullMappedValue(messageIdPath);
 
                 messageId.ifPresent(id -> {
                     FieldWithMetaString fieldWithMetaString = FieldWithMetaString.builder().setValue(id).build();
@@ -158,7 +158,7 @@ public class RegimeInformationMappingProcessor extends MappingProcessor {
         Optional<Path> partyPath = getPartyPath(partyReference, "party", "id");
         partyPath.ifPresent(path -> {
             String partyPathStr = path.toString();
-            for (Mapping mapping : getMappings()) {
+            for (Mapping mapping : MappingIndex.of(getContext()).getMappingsEndingWith(partyAttribute)) {
                 Path xmlPath = mapping.getXmlPath();
                 if (mapping.getXmlValue() != null
                         && xmlPath != null
@@ -173,8 +173,7 @@ public class RegimeInformationMappingProcessor extends MappingProcessor {
     }
 
     private Optional<Path> getPartyPath(String xmlValue, String... xmlPathEndsWith) {
-        return getMappings().stream()
-                .filter(m -> m.getXmlPath().endsWith(xmlPathEndsWith))
+        return MappingIndex.of(getContext()).getMappingsEndingWith(xmlPathEndsWith).stream()
                 .filter(m -> {
                     Object xmlValueObj = m.getXmlValue();
                     String xmlValueStr = (xmlValueObj != null) ? xmlValueObj.toString() : null;
@@ -203,22 +202,14 @@ public class RegimeInformationMappingProcessor extends MappingProcessor {
     }
 
     private Optional<FinancialSectorEnum> getFinancialSectorEnum(String value) {
-        try {
-            return Optional.of(FinancialSectorEnum.valueOf(value));
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
-        }
+        return EnumLookup.getEnumValue(FinancialSectorEnum.class, value);
     }
 
     private Optional<NonFinancialSector> getNonFinancialSector(String value) {
-        try {
-            return Optional.of(NonFinancialSectorEnum.valueOf(value))
-                    .map(e ->
-                            NonFinancialSector.builder()
-                                    .setNonFinancialSectorIndicator(e)
-                                    .setOrdinal(e.ordinal() + 1));
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
-        }
+        return EnumLookup.getEnumValue(NonFinancialSectorEnum.class, value)
+                .map(e ->
+                        NonFinancialSector.builder()
+                                .setNonFinancialSectorIndicator(e)
+                                .setOrdinal(e.ordinal() + 1));
     }
 }
@@ -0,0 +1,49 @@
+package drr.regulation.common.util.functions;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Bounded, thread-safe cache of compiled regular expressions, so that rules applying the same expression to every
+ * trade compile it once rather than on each evaluation.
+ * <p>
+ * The expressions come from the model, so the number in use is small; the bound only protects against unbounded
+ * growth should expressions be built from data.
+ */
+public final class CompiledPatterns {
+
+    static final long MAXIMUM_SIZE = 1024;
+
+    private static final LoadingCache<String, Pattern> PATTERNS = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build(CacheLoader.from(Pattern::compile));
+
+    private CompiledPatterns() {
+    }
+
+    /**
+     * Returns the compiled expression.
+     *
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid, which is not cached
+     */
+    public static Pattern get(String regex) {
+        try {
+            return PATTERNS.getUnchecked(regex);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @VisibleForTesting
+    static long size() {
+        return PATTERNS.size();
+    }
+}
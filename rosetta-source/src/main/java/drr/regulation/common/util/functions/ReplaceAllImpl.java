@@ -0,0 +1,16 @@
+package drr.regulation.common.util.functions;
+
+/**
+ * Replaces every match of the expression, as {@link String#replaceAll(String, String)}, but with the expression
+ * compiled once and reused from {@link CompiledPatterns}.
+ */
+public class ReplaceAllImpl extends ReplaceAll {
+
+    @Override
+    protected String doEvaluate(String input, String regex, String replacement) {
+        if (input == null || regex == null || replacement == null) {
+            return input;
+        }
+        return CompiledPatterns.get(regex).matcher(input).replaceAll(replacement);
+    }
+}
@@ -1,13 +1,15 @@
 package drr.regulation.common.util.functions;
 
-import java.util.Optional;
-
+/**
+ * Whether the whole input matches the expression, which is compiled once and reused from {@link CompiledPatterns}.
+ */
 public class StringContainsImpl extends StringContains {
 
     @Override
     protected Boolean doEvaluate(String input, String regex) {
-        return Optional.ofNullable(input)
-                .map(s -> s.matches(regex))
-                .orElse(false);
+        if (input == null || regex == null) {
+            return false;
+        }
+        return CompiledPatterns.get(regex).matcher(input).matches();
     }
-}
\ No newline at end of file
+}
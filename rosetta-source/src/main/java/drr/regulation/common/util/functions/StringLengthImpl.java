@@ -1,11 +1,15 @@
 package drr.regulation.common.util.functions;
 
-import java.util.Optional;
-
+/**
+ * Number of characters in the string, counting a supplementary character, stored as a surrogate pair, as one.
+ */
 public class StringLengthImpl extends StringLength {
 
     @Override
     protected Integer doEvaluate(String str) {
-        return Optional.ofNullable(str).map(String::length).orElse(0);
+        if (str == null) {
+            return 0;
+        }
+        return str.codePointCount(0, str.length());
     }
 }
@@ -1,18 +1,26 @@
 package drr.regulation.common.util.functions;
 
-
-import java.util.Optional;
-
+/**
+ * Extracts characters by position, counting a supplementary character, stored as a surrogate pair, as one so that a
+ * pair is never split.
+ */
 public class SubStringImpl extends SubString {
 
     @Override
     protected String doEvaluate(String text, Integer startIndex, Integer length) {
-        int start = Optional.ofNullable(startIndex).orElse(1) - 1;
-        if (text == null || length == null || length < 0 || start < 0 || text.length() < start) {
+        // Java start index is zero-based
+        int start = startIndex == null ? 0 : startIndex - 1;
+        if (text == null || length == null || length < 0 || start < 0) {
             return text;
         }
-        // Java start index is zero-based
-        int actualLength = Math.min(length + start, text.length());
-        return text.substring(start, actualLength);
+        int textLength = text.length();
+        int codePointCount = text.codePointCount(0, textLength);
+        if (codePointCount < start) {
+            return text;
+        }
+        int beginIndex = codePointCount == textLength ? start : text.offsetByCodePoints(0, start);
+        int count = Math.min(length, codePointCount - start);
+        int endIndex = codePointCount == textLength ? beginIndex + count : text.offsetByCodePoints(beginIndex, count);
+        return text.substring(beginIndex, endIndex);
     }
 }
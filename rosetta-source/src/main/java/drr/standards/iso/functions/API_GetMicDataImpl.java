@@ -1,195 +1,216 @@
 package drr.standards.iso.functions;
 
-import cdm.base.staticdata.party.PartyIdentifier;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.rosetta.model.lib.records.Date;
+import com.google.common.base.Stopwatch;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
+import com.regnosys.drr.utils.mic.MicDataLoader;
+import com.regnosys.drr.utils.mic.MicDataRegistry;
 import drr.standards.iso.MicData;
-import drr.standards.iso.MicTypeEnum;
-import drr.standards.iso.MicMarketCategoryEnum;
-import org.iso10383.Dataroot;
-import org.iso10383.ISO10383MIC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
 import java.time.Duration;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
 
 import static drr.standards.iso.MicData.MicDataBuilder;
-import static drr.standards.iso.MicData.builder;
 import static java.time.temporal.ChronoUnit.SECONDS;
 
-public class API_GetMicDataImpl extends API_GetMicData {
+public class API_GetMicDataImpl extends API_GetMicData implements AutoCloseable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(API_GetMicDataImpl.class);
     private static final String DATA_SOURCE_URL = "https://www.iso20022.org/sites/default/files/ISO10383_MIC/ISO10383_MIC.xml";
 
-    private final HttpClient httpClient;
-    private final JAXBContext jaxbContext;
+    public static final String METRICS_NAME = "MicData";
 
-    @VisibleForTesting
-    protected final Cache<String, MicData.MicDataBuilder> micDataCache =
-            CacheBuilder.newBuilder()
-                    .maximumSize(3000)
-                    .build();
+    private final HttpClient httpClient;
+    private final Path snapshotPath;
+    private final MicDataLoader micDataLoader = new MicDataLoader();
+    private final EnrichmentCacheMetrics metrics = new EnrichmentCacheMetrics(METRICS_NAME);
+    private final MicDataRegistry micDataRegistry;
 
     public API_GetMicDataImpl() {
+        this((Path) null);
+    }
+
+    public API_GetMicDataImpl(Path snapshotPath) {
         this(HttpClient.newBuilder()
                 .executor(Executors.newFixedThreadPool(3))
-                .build());
+                .build(), snapshotPath);
     }
 
     @VisibleForTesting
     public API_GetMicDataImpl(HttpClient httpClient) {
-        this.httpClient = httpClient;
-        try {
-            this.jaxbContext = JAXBContext.newInstance(Dataroot.class);
-        } catch (JAXBException e) {
-            LOGGER.error("JAXBContext Exception ", e);
-            throw new RuntimeException(e);
-        }
+        this(httpClient, null);
     }
 
-    @Override
-    protected MicDataBuilder doEvaluate(String mic) {
-        if (null == mic) {
-            return null;
-        }
-        // Check if cache is empty
-        if (micDataCache.size() == 0) {
-            Map<String, MicDataBuilder> data = load().stream()
-                    .collect(Collectors.toMap(m -> m.getMic(), m -> m));
-            micDataCache.putAll(data);
-        }
-        // Look up mic data from cache
-        MicDataBuilder micData = Optional.ofNullable(mic)
-                .map(micDataCache::getIfPresent)
-                .orElse(null);
-        LOGGER.info("Looked up mic {} and found data {}", mic, micData);
-        return micData;
+    /**
+     * @param snapshotPath optional local copy of the MIC XML file. If the file exists the MIC data is read from it
+     *                     without network access, e.g. from a snapshot bundled with the application; otherwise the
+     *                     file is downloaded from www.iso20022.org and saved there for the next start.
+     */
+    public API_GetMicDataImpl(HttpClient httpClient, Path snapshotPath) {
+        this.httpClient = httpClient;
+        this.snapshotPath = snapshotPath;
+        this.micDataRegistry = new MicDataRegistry(() -> timedLoad(this::load), () -> timedLoad(this::download), Clock.systemUTC());
+        this.metrics.setSizeSupplier(() -> {
+            MicDataRegistry.Snapshot snapshot = micDataRegistry.getIfLoaded();
+            return snapshot == null ? 0 : snapshot.size();
+        });
     }
 
-    private List<MicDataBuilder> load() {
-        LOGGER.info("Loading ISO10383_MIC data from www.iso20022.org");
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(DATA_SOURCE_URL))
-                    .timeout(Duration.of(10, SECONDS))
-                    .GET()
-                    .build();
-
-            CompletableFuture<String> httpResponse =
-                    httpClient
-                            .sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                            .thenApply(HttpResponse::body);
-
-            LOGGER.debug("Waiting for response");
-            String body = httpResponse.join();
-            LOGGER.debug("Got response");
-
-            // unmarshall
-            Dataroot dataroot = parseResponse(body);
-
-            // transform
-            List<MicDataBuilder> micData = dataroot.getISO10383MIC().stream()
-                    .map(this::toMicData)
-                    .collect(Collectors.toList());
-
-            LOGGER.info("Loaded {} mic data item", micData.size());
-
-            return micData;
-        } catch (Exception e) {
-            LOGGER.error("Exception occurred getting ISO10383_MIC data from www.iso20022.org", e);
-            throw new RuntimeException(e);
-        }
+    /**
+     * Hit, miss, load and download metrics for the MIC data, exposed over JMX while started, see {@link #start()}.
+     */
+    public EnrichmentCacheMetrics getMetrics() {
+        return metrics;
     }
 
-    protected Dataroot parseResponse(String response) throws JAXBException {
-        Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-        InputStream inputStream = new ByteArrayInputStream(removeLineBreaks(response).getBytes(StandardCharsets.UTF_8));
-        return (Dataroot) jaxbUnmarshaller.unmarshal(inputStream);
+    /**
+     * Exposes the metrics of the MIC data over JMX until {@link #close()} is called. If metrics are already exposed for
+     * a cache of the same name, e.g. by another injector, those are left in place.
+     */
+    public void start() {
+        metrics.registerMBean();
     }
 
-    private String removeLineBreaks(String response) {
-        return response
-                .replace("\n", "")
-                .replace("\t", "");
+    /**
+     * Stops exposing the metrics over JMX, so the MBean server no longer keeps the MIC data reachable, and stops any
+     * scheduled refresh.
+     */
+    @Override
+    public void close() {
+        metrics.unregisterMBean();
+        micDataRegistry.close();
     }
 
-    private MicDataBuilder toMicData(ISO10383MIC iso10383MIC) {
-        MicDataBuilder micEnrichmentInformation = builder()
-                .setMic(trim(iso10383MIC.getMIC()))
-                .setOperatingMic(trim(iso10383MIC.getOPERATINGX0020MIC()))
-                .setNameInstitutionDescription(trim(iso10383MIC.getMARKETX0020NAMEINSTITUTIONX0020DESCRIPTION()))
-                .setLegalEntityName(trim(iso10383MIC.getLEGALX0020ENTITYX0020NAME()))
-                .setAcronym(trim(iso10383MIC.getACRONYM()))
-                .setCountryCode(trim(iso10383MIC.getISOX0020COUNTRYX0020CODEX0020X0028ISOX00203166X0029()))
-                .setCity(trim(iso10383MIC.getCITY()))
-                .setWebsite(trim(iso10383MIC.getWEBSITE()))
-                .setStatus(trim(iso10383MIC.getSTATUS()))
-                .setCreationDate(parseDate(iso10383MIC.getCREATIONX0020DATE()))
-                .setLastUpdateDate(parseDate(iso10383MIC.getLASTX0020UPDATEX0020DATE()))
-                .setLastValidationDate(parseDate(iso10383MIC.getLASTX0020VALIDATIONX0020DATE()))
-                .setExpiryDate(parseDate(iso10383MIC.getEXPIRYX0020DATE()));
-
-        Optional.ofNullable(trim(iso10383MIC.getOPRTX002FSGMT()))
-                .map(this::toMicTypeEnum)
-                .ifPresent(micEnrichmentInformation::setMicType);
-
-        Optional.ofNullable(trim(iso10383MIC.getMARKETX0020CATEGORYX0020CODE()))
-                .map(this::toMarketCategoryEnum)
-                .ifPresent(micEnrichmentInformation::setMarketCategory);
+    @VisibleForTesting
+    public MicDataRegistry getMicDataRegistry() {
+        return micDataRegistry;
+    }
 
-        return micEnrichmentInformation;
+    /**
+     * Loads the MIC data now rather than on the first lookup.
+     */
+    public void preload() {
+        micDataRegistry.get();
     }
 
-    private Date parseDate(String date) {
-        date = trim(date);
+    /**
+     * Downloads the latest MIC data periodically, swapping it in without pausing lookups.
+     */
+    public void scheduleRefresh(Duration interval) {
+        micDataRegistry.scheduleRefresh(interval);
+    }
 
-        if ("".equals(date) || null == date) {
+    @Override
+    protected MicDataBuilder doEvaluate(String mic) {
+        if (null == mic) {
             return null;
         }
-        return Date.of(LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE));
+        MicDataRegistry.Snapshot snapshot = micDataRegistry.getIfLoaded();
+        if (snapshot == null) {
+            metrics.recordMiss();
+            // loads once for concurrent first callers
+            snapshot = micDataRegistry.get();
+        } else {
+            metrics.recordHit();
+        }
+        MicData micData = snapshot.get(mic);
+        LOGGER.debug("Looked up mic {} in version {} and found data {}", mic, snapshot.getVersion(), micData);
+        // each caller gets its own builder, as the snapshot is shared across threads
+        return micData == null ? null : micData.toBuilder();
     }
 
-    private static String trim(String s) {
-        return Optional.ofNullable(s).map(String::trim).filter(str-> !str.isEmpty()).orElse(null);
+    private Map<String, MicData> timedLoad(MicDataRegistry.Loader loader) throws IOException {
+        long start = metrics.startTimer();
+        boolean loaded = false;
+        try {
+            Map<String, MicData> micData = loader.load();
+            loaded = true;
+            return micData;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Exception occurred loading ISO10383_MIC data", e);
+            throw e;
+        } finally {
+            metrics.recordLoad(start, loaded);
+        }
     }
 
+    private Map<String, MicData> load() throws IOException {
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            LOGGER.info("Loading ISO10383_MIC data from snapshot {}", snapshotPath);
+            return micDataLoader.load(snapshotPath);
+        }
+        return download();
+    }
 
-    private MicTypeEnum toMicTypeEnum(String micType) {
+    private Map<String, MicData> download() throws IOException {
+        LOGGER.info("Loading ISO10383_MIC data from www.iso20022.org");
+        Stopwatch t = Stopwatch.createStarted();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(DATA_SOURCE_URL))
+                .timeout(Duration.of(10, SECONDS))
+                .GET()
+                .build();
+
+        long start = metrics.recordRemoteCallStarted();
+        boolean received = false;
         try {
-            return MicTypeEnum.valueOf(micType);
-        } catch (Exception e) {
-            LOGGER.warn("Unknown MIC type received {}", micType);
-            return null;
+            Map<String, MicData> micData;
+            if (snapshotPath == null) {
+                // parse the response as it arrives, without buffering the document
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    checkStatus(response);
+                    micData = micDataLoader.load(body);
+                }
+            } else {
+                micData = micDataLoader.load(downloadSnapshot(request));
+            }
+            received = true;
+            LOGGER.info("Loaded {} mic data item, took {}", micData.size(), t);
+            return micData;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted downloading ISO10383_MIC data", e);
+        } finally {
+            metrics.recordRemoteCallCompleted(start, received);
         }
     }
 
-    private MicMarketCategoryEnum toMarketCategoryEnum(String marketCategory) {
+    /**
+     * Downloads to a temporary file next to the snapshot, which then replaces the snapshot atomically so a failed
+     * download never leaves a partial snapshot behind.
+     */
+    private Path downloadSnapshot(HttpRequest request) throws IOException, InterruptedException {
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path download = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
         try {
-            return MicMarketCategoryEnum.valueOf(marketCategory);
-        } catch (Exception e) {
-            LOGGER.warn("Unknown MIC market category received {}", marketCategory);
-            return null;
+            checkStatus(httpClient.send(request, HttpResponse.BodyHandlers.ofFile(download)));
+            Files.move(download, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("Saved ISO10383_MIC data snapshot to {}", snapshotPath);
+            return snapshotPath;
+        } finally {
+            Files.deleteIfExists(download);
+        }
+    }
+
+    private static void checkStatus(HttpResponse<?> response) throws IOException {
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Got status code " + response.statusCode() + " downloading ISO10383_MIC data");
         }
     }
 }
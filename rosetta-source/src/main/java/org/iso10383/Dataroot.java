@@ -1,109 +0,0 @@
-//
-// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.3.2 
-// See <a href="https://javaee.github.io/jaxb-v2/">https://javaee.github.io/jaxb-v2/</a> 
-// Any modifications to this file will be lost upon recompilation of the source schema. 
-// Generated on: 2023.04.20 at 11:48:52 AM BST 
-//
-
-
-package org.iso10383;
-
-import java.util.ArrayList;
-import java.util.List;
-import javax.xml.bind.annotation.XmlAccessType;
-import javax.xml.bind.annotation.XmlAccessorType;
-import javax.xml.bind.annotation.XmlAttribute;
-import javax.xml.bind.annotation.XmlElement;
-import javax.xml.bind.annotation.XmlRootElement;
-import javax.xml.bind.annotation.XmlSchemaType;
-import javax.xml.bind.annotation.XmlType;
-import javax.xml.datatype.XMLGregorianCalendar;
-
-
-/**
- * <p>Java class for anonymous complex type.
- * 
- * <p>The following schema fragment specifies the expected content contained within this class.
- * 
- * <pre>
- * &lt;complexType&gt;
- *   &lt;complexContent&gt;
- *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType"&gt;
- *       &lt;sequence&gt;
- *         &lt;element ref="{}ISO10383_MIC" maxOccurs="unbounded" minOccurs="0"/&gt;
- *       &lt;/sequence&gt;
- *       &lt;attribute name="generated" type="{http://www.w3.org/2001/XMLSchema}dateTime" /&gt;
- *     &lt;/restriction&gt;
- *   &lt;/complexContent&gt;
- * &lt;/complexType&gt;
- * </pre>
- * 
- * 
- */
-@XmlAccessorType(XmlAccessType.FIELD)
-@XmlType(name = "", propOrder = {
-    "iso10383MIC"
-})
-@XmlRootElement(name = "dataroot")
-public class Dataroot {
-
-    @XmlElement(name = "ISO10383_MIC")
-    protected List<ISO10383MIC> iso10383MIC;
-    @XmlAttribute(name = "generated")
-    @XmlSchemaType(name = "dateTime")
-    protected XMLGregorianCalendar generated;
-
-    /**
-     * Gets the value of the iso10383MIC property.
-     * 
-     * <p>
-     * This accessor method returns a reference to the live list,
-     * not a snapshot. Therefore any modification you make to the
-     * returned list will be present inside the JAXB object.
-     * This is why there is not a <CODE>set</CODE> method for the iso10383MIC property.
-     * 
-     * <p>
-     * For example, to add a new item, do as follows:
-     * <pre>
-     *    getISO10383MIC().add(newItem);
-     * </pre>
-     * 
-     * 
-     * <p>
-     * Objects of the following type(s) are allowed in the list
-     * {@link ISO10383MIC }
-     * 
-     * 
-     */
-    public List<ISO10383MIC> getISO10383MIC() {
-        if (iso10383MIC == null) {
-            iso10383MIC = new ArrayList<ISO10383MIC>();
-        }
-        return this.iso10383MIC;
-    }
-
-    /**
-     * Gets the value of the generated property.
-     * 
-     * @return
-     *     possible object is
-     *     {@link XMLGregorianCalendar }
-     *     
-     */
-    public XMLGregorianCalendar getGenerated() {
-        return generated;
-    }
-
-    /**
-     * Sets the value of the generated property.
-     * 
-     * @param value
-     *     allowed object is
-     *     {@link XMLGregorianCalendar }
-     *     
-     */
-    public void setGenerated(XMLGregorianCalendar value) {
-        this.generated = value;
-    }
-
-}
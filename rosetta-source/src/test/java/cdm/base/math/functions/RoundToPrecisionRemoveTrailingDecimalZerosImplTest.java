@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 
 import javax.inject.Inject;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -68,4 +70,46 @@ class RoundToPrecisionRemoveTrailingDecimalZerosImplTest extends AbstractFunctio
         // previously rounded to 1E+3
         assertEquals("1000", result.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStripTrailingZerosOfZeroAndNegativeScales() {
+        assertEquals("0", func.doEvaluate(new BigDecimal("-0.000"), 5, RoundingDirectionEnum.NEAREST).toString());
+        assertEquals("0", func.doEvaluate(new BigDecimal("0E+3"), 5, RoundingDirectionEnum.NEAREST).toString());
+        assertEquals("-1000", func.doEvaluate(new BigDecimal("-1E+3"), 5, RoundingDirectionEnum.NEAREST).toString());
+        assertEquals("0.0001", func.doEvaluate(new BigDecimal("0.000100"), 5, RoundingDirectionEnum.NEAREST).toString());
+    }
+
+    @Test
+    void shouldStripTrailingZerosAsPlainStringImplementation() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            BigInteger unscaledValue = random.nextInt(4) == 0
+                    ? new BigInteger(1 + random.nextInt(120), random)
+                    : BigInteger.valueOf(random.nextLong() % 1_000_000_000_000L);
+            if (random.nextBoolean()) {
+                unscaledValue = unscaledValue.multiply(BigInteger.TEN.pow(random.nextInt(12)));
+            }
+            if (random.nextBoolean()) {
+                unscaledValue = unscaledValue.negate();
+            }
+            BigDecimal value = new BigDecimal(unscaledValue, random.nextInt(40) - 10);
+
+            // BigDecimal.equals compares scale as well as value
+            assertEquals(stripTrailingZerosFromPlainString(value),
+                    RoundToPrecisionRemoveTrailingDecimalZerosImpl.stripTrailingZeros(value),
+                    () -> "Mismatch for " + value);
+        }
+    }
+
+    // the previous implementation, kept as the reference output
+    private static BigDecimal stripTrailingZerosFromPlainString(BigDecimal roundedValue) {
+        String numberStr = roundedValue.toPlainString();
+        if (numberStr.contains(".")) {
+            numberStr = numberStr.replaceAll("0+$", "");
+            if (numberStr.endsWith(".")) {
+                numberStr = numberStr.substring(0, numberStr.length() - 1);
+            }
+        }
+        return new BigDecimal(numberStr);
+    }
+}
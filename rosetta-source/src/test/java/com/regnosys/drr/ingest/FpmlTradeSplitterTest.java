@@ -0,0 +1,80 @@
+package com.regnosys.drr.ingest;
+
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FpmlTradeSplitterTest {
+
+    private static final String FPML_NAMESPACE = "http://www.fpml.org/FpML-5/recordkeeping";
+
+    private final FpmlTradeSplitter splitter = new FpmlTradeSplitter();
+
+    @Test
+    void shouldSplitDataDocumentIntoOneDocumentPerTrade() throws Exception {
+        List<Document> documents = split(resource("fpml/data-document.xml"));
+
+        assertEquals(3, documents.size());
+        assertEquals(List.of("UTI1 & 1", "UTI2", "UTI3"), documents.stream()
+                .map(document -> document.getElementsByTagNameNS(FPML_NAMESPACE, "tradeId").item(0).getTextContent())
+                .collect(Collectors.toList()));
+        for (Document document : documents) {
+            assertEquals("dataDocument", document.getDocumentElement().getLocalName());
+            assertEquals(FPML_NAMESPACE, document.getDocumentElement().getNamespaceURI());
+            assertEquals("5-13", document.getDocumentElement().getAttribute("fpmlVersion"));
+            assertEquals(1, document.getElementsByTagNameNS(FPML_NAMESPACE, "trade").getLength());
+            assertEquals(1, document.getElementsByTagNameNS(FPML_NAMESPACE, "onBehalfOf").getLength());
+            assertEquals(2, document.getElementsByTagNameNS(FPML_NAMESPACE, "party").getLength());
+        }
+    }
+
+    @Test
+    void shouldReturnOtherDocumentsWhole(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("execution-report.xml");
+        String report = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<nonpublicExecutionReport xmlns=\"" + FPML_NAMESPACE + "\" fpmlVersion=\"5-13\">\n" +
+                "    <trade/>\n" +
+                "</nonpublicExecutionReport>\n";
+        Files.writeString(file, report);
+
+        try (Stream<String> documents = splitter.split(file)) {
+            assertEquals(List.of(report), documents.collect(Collectors.toList()));
+        }
+    }
+
+    private List<Document> split(Path file) throws IOException {
+        try (Stream<String> documents = splitter.split(file)) {
+            return documents.map(FpmlTradeSplitterTest::parse).collect(Collectors.toList());
+        }
+    }
+
+    private static Document parse(String xml) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new AssertionError("Invalid FpML document " + xml, e);
+        }
+    }
+
+    private static Path resource(String name) throws URISyntaxException {
+        return Path.of(Resources.getResource(name).toURI());
+    }
+}
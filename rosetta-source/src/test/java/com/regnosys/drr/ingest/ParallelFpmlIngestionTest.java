@@ -0,0 +1,196 @@
+package com.regnosys.drr.ingest;
+
+import com.google.common.io.CharStreams;
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFpmlIngestionTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReturnResultsInFileOrder() throws IOException {
+        List<Path> files = writeFiles(50);
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> slowly(ParallelFpmlIngestionTest::read), 4, 8);
+             Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(files)) {
+            List<String> values = results.map(ParallelFpmlIngestion.Result::getValue).collect(Collectors.toList());
+
+            assertEquals(files.stream().map(ParallelFpmlIngestionTest::content).collect(Collectors.toList()), values);
+            assertEquals(50, ingestion.getFileCount());
+            assertEquals(0, ingestion.getFailureCount());
+            assertTrue(ingestion.getThroughputPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void shouldIngestDirectoryInPathOrder() throws IOException {
+        List<Path> files = writeFiles(3);
+        Files.writeString(dir.resolve("README.txt"), "not fpml");
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> ParallelFpmlIngestionTest::read, 2, 2);
+             Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingestDirectory(dir)) {
+            assertEquals(files, results.map(ParallelFpmlIngestion.Result::getFile).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void shouldCreateOneIngestionPerWorker() throws IOException {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger created = new AtomicInteger();
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> {
+            created.incrementAndGet();
+            return slowly(reader -> {
+                threads.add(Thread.currentThread());
+                return read(reader);
+            });
+        }, 3, 6);
+             Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(writeFiles(30))) {
+            assertEquals(30, results.count());
+        }
+
+        assertEquals(threads.size(), created.get());
+        assertTrue(created.get() <= 3);
+    }
+
+    @Test
+    void shouldIsolateFailedFiles() throws IOException {
+        List<Path> files = writeFiles(5);
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> reader -> {
+            String content = read(reader);
+            if (content.contains("trade-2")) {
+                throw new IllegalStateException("Cannot map trade-2");
+            }
+            return content;
+        }, 2, 4);
+             Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(files)) {
+            List<ParallelFpmlIngestion.Result<String>> resultList = results.collect(Collectors.toList());
+
+            assertEquals(List.of(true, true, false, true, true), resultList.stream()
+                    .map(ParallelFpmlIngestion.Result::isSuccess)
+                    .collect(Collectors.toList()));
+            assertEquals("Cannot map trade-2", resultList.get(2).getError().getMessage());
+            assertEquals(1, ingestion.getFailureCount());
+        }
+    }
+
+    @Test
+    void shouldFailFilesNotValidAgainstSchema() throws IOException {
+        List<Path> files = writeFiles(1);
+        Path valid = dir.resolve("mic.xml");
+        Files.writeString(valid, "<dataroot generated=\"2023-03-13T15:02:49\"><ISO10383_MIC><MIC>XLON</MIC></ISO10383_MIC></dataroot>");
+        files.add(valid);
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> ParallelFpmlIngestionTest::read, 1, 1,
+                Resources.getResource("schemas/iso10383/ISO10383_MIC.xsd"));
+             Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(files)) {
+            assertEquals(List.of(false, true), results
+                    .map(ParallelFpmlIngestion.Result::isSuccess)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void shouldOnlyReadAheadOfConsumerUpToMaxInFlight() throws IOException {
+        AtomicInteger started = new AtomicInteger();
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> reader -> {
+            started.incrementAndGet();
+            return read(reader);
+        }, 2, 4);
+             Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(writeFiles(20))) {
+            Iterator<ParallelFpmlIngestion.Result<String>> iterator = results.iterator();
+            iterator.next();
+            iterator.next();
+            // the consumed results plus at most four more in flight
+            sleep(100);
+            assertTrue(started.get() <= 6, () -> started.get() + " files started");
+        }
+    }
+
+    @Test
+    void shouldAccumulateStatisticsAcrossRuns() throws IOException {
+        List<Path> files = writeFiles(4);
+
+        try (ParallelFpmlIngestion<String> ingestion = new ParallelFpmlIngestion<>(() -> ParallelFpmlIngestionTest::read, 2, 2)) {
+            try (Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(files)) {
+                assertEquals(4, results.count());
+            }
+            assertEquals(4, ingestion.getFileCount());
+            // a run closed early still records its elapsed time
+            try (Stream<ParallelFpmlIngestion.Result<String>> results = ingestion.ingest(files)) {
+                assertTrue(results.iterator().hasNext());
+            }
+            assertTrue(ingestion.getFileCount() > 4);
+            assertTrue(ingestion.getThroughputPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void shouldRejectFewerFilesInFlightThanWorkers() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelFpmlIngestion<>(() -> ParallelFpmlIngestionTest::read, 4, 2));
+    }
+
+    private List<Path> writeFiles(int count) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path file = dir.resolve(String.format("trade-%03d.xml", i));
+            Files.writeString(file, "<trade>trade-" + i + "</trade>");
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static Function<Reader, String> slowly(Function<Reader, String> ingestion) {
+        return reader -> {
+            sleep(ThreadLocalRandom.current().nextInt(5));
+            return ingestion.apply(reader);
+        };
+    }
+
+    private static String read(Reader reader) {
+        try {
+            return CharStreams.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String content(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
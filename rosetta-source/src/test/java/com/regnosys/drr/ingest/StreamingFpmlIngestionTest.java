@@ -0,0 +1,161 @@
+package com.regnosys.drr.ingest;
+
+import com.google.common.io.CharStreams;
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingFpmlIngestionTest {
+
+    private static final Pattern TRADE_ID = Pattern.compile("<tradeId[^>]*>([^<]*)</tradeId>");
+
+    @Test
+    void shouldIngestTradesLazilyInDocumentOrder() throws Exception {
+        List<String> ingested = new ArrayList<>();
+        StreamingFpmlIngestion<String> ingestion = new StreamingFpmlIngestion<>(reader -> {
+            String tradeId = tradeId(reader);
+            ingested.add(tradeId);
+            return tradeId;
+        });
+
+        try (Stream<StreamingFpmlIngestion.Result<String>> results = ingestion.ingest(dataDocument())) {
+            Iterator<String> iterator = results.map(StreamingFpmlIngestion.Result::getValue).iterator();
+
+            assertEquals("UTI1 &amp; 1", iterator.next());
+            assertEquals(List.of("UTI1 &amp; 1"), ingested);
+            assertEquals("UTI2", iterator.next());
+            assertEquals("UTI3", iterator.next());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    void shouldIsolateFailedTrades() throws Exception {
+        StreamingFpmlIngestion<String> ingestion = new StreamingFpmlIngestion<>(reader -> {
+            String tradeId = tradeId(reader);
+            if (tradeId.startsWith("UTI1")) {
+                throw new IllegalStateException("Cannot map " + tradeId);
+            }
+            return tradeId;
+        });
+
+        try (Stream<StreamingFpmlIngestion.Result<String>> results = ingestion.ingest(dataDocument())) {
+            List<StreamingFpmlIngestion.Result<String>> resultList = results.collect(Collectors.toList());
+
+            assertEquals(List.of(false, true, true), resultList.stream()
+                    .map(StreamingFpmlIngestion.Result::isSuccess)
+                    .collect(Collectors.toList()));
+            StreamingFpmlIngestion.Result<String> failed = resultList.get(0);
+            assertEquals(0, failed.getTradeIndex());
+            assertEquals("UTI1 & 1", failed.getTradeId());
+            assertEquals("Cannot map UTI1 &amp; 1", failed.getError().getMessage());
+            assertNull(failed.getValue());
+            assertEquals(2, resultList.get(2).getTradeIndex());
+            assertEquals("UTI3", resultList.get(2).getValue());
+        }
+    }
+
+    @Test
+    void shouldFailTradesNotValidAgainstSchema() throws Exception {
+        StreamingFpmlIngestion<String> ingestion = new StreamingFpmlIngestion<>(StreamingFpmlIngestionTest::tradeId);
+        StreamingFpmlIngestion<String> validatingIngestion = ingestion.withSchemaValidation("schemas/iso10383/ISO10383_MIC.xsd");
+
+        try (Stream<StreamingFpmlIngestion.Result<String>> results = validatingIngestion.ingest(dataDocument())) {
+            List<StreamingFpmlIngestion.Result<String>> resultList = results.collect(Collectors.toList());
+
+            assertEquals(3, resultList.size());
+            assertTrue(resultList.stream().noneMatch(StreamingFpmlIngestion.Result::isSuccess));
+            assertEquals(IllegalArgumentException.class, resultList.get(1).getError().getClass());
+            assertEquals("UTI2", resultList.get(1).getTradeId());
+        }
+        // the ingestion it was configured from still does not validate
+        try (Stream<StreamingFpmlIngestion.Result<String>> results = ingestion.ingest(dataDocument())) {
+            assertTrue(results.allMatch(StreamingFpmlIngestion.Result::isSuccess));
+        }
+    }
+
+    @Test
+    void shouldIngestLargeDocumentInBoundedHeap(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("positions.xml");
+        int tradeCount = 5_000;
+        writeDataDocument(file, tradeCount, 4_000);
+        StreamingFpmlIngestion<String> ingestion = new StreamingFpmlIngestion<>(StreamingFpmlIngestionTest::tradeId);
+
+        long baseline = usedHeapAfterGc();
+        long maxGrowth = 0;
+        int ingested = 0;
+        try (Stream<StreamingFpmlIngestion.Result<String>> results = ingestion.ingest(file)) {
+            Iterator<StreamingFpmlIngestion.Result<String>> iterator = results.iterator();
+            while (iterator.hasNext()) {
+                assertEquals("UTI" + ingested, iterator.next().getValue());
+                if (++ingested % 500 == 0) {
+                    maxGrowth = Math.max(maxGrowth, usedHeapAfterGc() - baseline);
+                }
+            }
+        }
+
+        assertEquals(tradeCount, ingested);
+        // holding every trade at once would take more than the size of the file
+        long fileSize = Files.size(file);
+        long growth = maxGrowth;
+        assertTrue(growth < fileSize / 4, () -> "Heap grew by " + growth + " bytes ingesting a file of " + fileSize + " bytes");
+    }
+
+    /**
+     * Writes a data document of the given number of trades, each padded to about the given number of characters, and
+     * the two parties they refer to.
+     */
+    private static void writeDataDocument(Path file, int tradeCount, int tradeSize) throws IOException {
+        String padding = "x".repeat(tradeSize);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<dataDocument xmlns=\"http://www.fpml.org/FpML-5/recordkeeping\" fpmlVersion=\"5-13\">\n");
+            for (int i = 0; i < tradeCount; i++) {
+                writer.write("<trade><tradeHeader><partyTradeIdentifier><partyReference href=\"party1\"/><tradeId>UTI" + i
+                        + "</tradeId></partyTradeIdentifier></tradeHeader><swap><productType>" + padding + "</productType></swap></trade>\n");
+            }
+            writer.write("<party id=\"party1\"><partyId>529900TESTLEI0000064</partyId></party>\n");
+            writer.write("<party id=\"party2\"><partyId>529900TESTLEI0000161</partyId></party>\n");
+            writer.write("</dataDocument>\n");
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static Path dataDocument() throws Exception {
+        return Path.of(Resources.getResource("fpml/data-document.xml").toURI());
+    }
+
+    private static String tradeId(Reader reader) {
+        try {
+            Matcher matcher = TRADE_ID.matcher(CharStreams.toString(reader));
+            return matcher.find() ? matcher.group(1) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.regnosys.drr.report;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.matcher.Matchers;
+import com.regnosys.drr.DrrRuntimeModule;
+import drr.regulation.common.functions.Counterparties;
+import drr.regulation.common.functions.TradeForEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluationContextTest {
+
+    @Test
+    void shouldOnlyMemoiseWithinContext() {
+        Extractor extractor = createExtractor();
+        Object input = new Object();
+
+        assertNotSame(extractor.evaluate(input), extractor.evaluate(input));
+        assertEquals(2, extractor.evaluations.get());
+
+        EvaluationContext context = new EvaluationContext();
+        context.run(() -> {
+            assertSame(extractor.evaluate(input), extractor.evaluate(input));
+            return null;
+        });
+        assertEquals(3, extractor.evaluations.get());
+        assertEquals(1, context.getHitCount());
+        assertEquals(1, context.getMissCount());
+        assertNull(EvaluationContext.current());
+    }
+
+    @Test
+    void shouldKeyOnInputIdentity() {
+        Extractor extractor = createExtractor();
+
+        new EvaluationContext().run(() -> {
+            // equal but distinct inputs are evaluated separately
+            assertNotSame(extractor.evaluate("a"), extractor.evaluate(new String("a")));
+            return null;
+        });
+        assertEquals(2, extractor.evaluations.get());
+    }
+
+    @Test
+    void shouldShareResultsAcrossThreads() throws Exception {
+        Extractor extractor = createExtractor();
+        Object input = new Object();
+        EvaluationContext context = new EvaluationContext();
+        CountDownLatch started = new CountDownLatch(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = executor.submit(() -> context.run(() -> {
+                    started.countDown();
+                    await(started);
+                    return extractor.evaluate(input);
+                }));
+            }
+            for (Future<?> result : results) {
+                assertSame(results[0].get(), result.get());
+            }
+            assertEquals(1, extractor.evaluations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotKeepFailedEvaluations() {
+        Extractor extractor = createExtractor();
+
+        new EvaluationContext().run(() -> {
+            assertThrows(IllegalArgumentException.class, () -> extractor.evaluate(null));
+            assertThrows(IllegalArgumentException.class, () -> extractor.evaluate(null));
+            return null;
+        });
+        assertEquals(2, extractor.evaluations.get());
+    }
+
+    @Test
+    void shouldEvaluateReentrantCallsOnSameThread() {
+        ReentrantExtractor extractor = create(ReentrantExtractor.class);
+        Object input = new Object();
+
+        assertNotNull(new EvaluationContext().run(() -> extractor.evaluate(input)));
+        assertEquals(2, extractor.evaluations.get());
+    }
+
+    @Test
+    void shouldGiveEachCallerItsOwnListOfResults() {
+        ListExtractor extractor = create(ListExtractor.class);
+        Object input = new Object();
+
+        new EvaluationContext().run(() -> {
+            List<Object> first = extractor.evaluate(input);
+            first.clear();
+            List<Object> second = extractor.evaluate(input);
+            assertEquals(List.of(input), second);
+            second.add(input);
+            assertEquals(List.of(input), extractor.evaluate(input));
+            return null;
+        });
+        assertEquals(1, extractor.evaluations.get());
+    }
+
+    @Test
+    void shouldRestorePreviousContext() {
+        EvaluationContext outer = new EvaluationContext();
+        EvaluationContext inner = new EvaluationContext();
+
+        outer.run(() -> {
+            inner.run(() -> {
+                assertSame(inner, EvaluationContext.current());
+                return null;
+            });
+            assertSame(outer, EvaluationContext.current());
+            return null;
+        });
+        assertNull(EvaluationContext.current());
+    }
+
+    @Test
+    void shouldMatchExtractorFunctions() {
+        assertTrue(EvaluationMemoiser.FUNCTIONS.matches(TradeForEvent.class));
+        assertTrue(EvaluationMemoiser.FUNCTIONS.matches(Counterparties.class));
+        assertFalse(EvaluationMemoiser.FUNCTIONS.matches(DrrRuntimeModule.class));
+    }
+
+    @Test
+    void shouldOnlyMemoiseWithMemoisationModule() {
+        assertFalse(isEnhanced(Guice.createInjector(new DrrRuntimeModule()).getInstance(TradeForEvent.class)));
+        assertTrue(isEnhanced(Guice.createInjector(new DrrRuntimeModule(), new EvaluationMemoisationModule()).getInstance(TradeForEvent.class)));
+    }
+
+    private static boolean isEnhanced(Object function) {
+        // intercepted functions are instances of a subclass generated by Guice
+        return function.getClass().getName().contains("$$EnhancerByGuice$$");
+    }
+
+    private static Extractor createExtractor() {
+        return create(Extractor.class);
+    }
+
+    private static <T> T create(Class<T> extractorType) {
+        return Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindInterceptor(Matchers.subclassesOf(extractorType), EvaluationMemoiser.EVALUATE, new EvaluationMemoiser());
+            }
+        }).getInstance(extractorType);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class Extractor {
+
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        public Object evaluate(Object input) {
+            evaluations.incrementAndGet();
+            if (input == null) {
+                throw new IllegalArgumentException("No input");
+            }
+            return new Object();
+        }
+    }
+
+    static class ReentrantExtractor {
+
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        public Object evaluate(Object input) {
+            if (evaluations.incrementAndGet() == 1) {
+                // re-enters itself through the interceptor, with the same input
+                return evaluate(input);
+            }
+            return new Object();
+        }
+    }
+
+    static class ListExtractor {
+
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        public List<Object> evaluate(Object input) {
+            evaluations.incrementAndGet();
+            return new ArrayList<>(List.of(input));
+        }
+    }
+}
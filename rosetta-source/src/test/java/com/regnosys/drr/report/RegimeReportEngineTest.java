@@ -0,0 +1,229 @@
+package com.regnosys.drr.report;
+
+import cdm.base.staticdata.party.metafields.ReferenceWithMetaParty;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import drr.enrichment.common.trade.functions.Create_TransactionReportInstructionForRegime;
+import drr.enrichment.lei.functions.LeiDataPrefetcher;
+import drr.regulation.common.RegimeNameEnum;
+import drr.regulation.common.RegimeReportableEvent;
+import drr.regulation.common.RegimeReportingSide;
+import drr.regulation.common.ReportingSide;
+import drr.regulation.common.SupervisoryBodyEnum;
+import drr.regulation.common.TransactionReportInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegimeReportEngineTest {
+
+    private static final TransactionReportInstruction INSTRUCTION = TransactionReportInstruction.builder().build();
+
+    private final Injector injector = Guice.createInjector();
+    private Create_TransactionReportInstructionForRegime createInstruction;
+    private LeiDataPrefetcher leiDataPrefetcher;
+
+    @BeforeEach
+    void setUp() {
+        createInstruction = mock(Create_TransactionReportInstructionForRegime.class);
+        when(createInstruction.evaluate(any(), any(), any(), eq(false))).thenReturn(INSTRUCTION);
+        leiDataPrefetcher = mock(LeiDataPrefetcher.class);
+    }
+
+    @Test
+    void shouldRunRegimesConcurrently() {
+        CountDownLatch started = new CountDownLatch(3);
+        List<RegimeReport<?>> regimeReports = List.of(
+                awaitingReport(RegimeNameEnum.EMIR, started),
+                awaitingReport(RegimeNameEnum.ASIC, started),
+                awaitingReport(RegimeNameEnum.MAS, started));
+
+        try (RegimeReportEngine engine = new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, regimeReports, 3)) {
+            RegimeReportEngine.Result result = engine.run(createRegimeReportableEvent(
+                    side(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA),
+                    side(RegimeNameEnum.ASIC, SupervisoryBodyEnum.ASIC),
+                    side(RegimeNameEnum.MAS, SupervisoryBodyEnum.MAS)));
+
+            // each report only returns once all three have started
+            assertTrue(result.isSuccess(), result.toString());
+            assertEquals(3, result.getRegimeResults().size());
+            assertEquals(RegimeNameEnum.EMIR, result.getRegimeResults().get(0).getRegimeName());
+            assertEquals(RegimeNameEnum.ASIC, result.getRegimeResults().get(1).getRegimeName());
+            assertEquals(RegimeNameEnum.MAS, result.getRegimeResults().get(2).getRegimeName());
+        }
+    }
+
+    @Test
+    void shouldIsolateFailedRegimes() {
+        List<RegimeReport<?>> regimeReports = List.of(
+                RegimeReport.of(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA, TransactionReportInstruction.class,
+                        (injector, instruction) -> {
+                            throw new IllegalStateException("EMIR report failed");
+                        }, null),
+                RegimeReport.of(RegimeNameEnum.JFSA, SupervisoryBodyEnum.JFSA, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null));
+
+        try (RegimeReportEngine engine = new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, regimeReports, 2)) {
+            RegimeReportEngine.Result result = engine.run(createRegimeReportableEvent(
+                    side(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA),
+                    side(RegimeNameEnum.JFSA, SupervisoryBodyEnum.JFSA)));
+
+            assertFalse(result.isSuccess());
+            RegimeReportEngine.RegimeResult emir = result.getRegimeResult(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA).orElseThrow();
+            assertEquals("EMIR report failed", emir.getError().getMessage());
+            assertNull(emir.getReport());
+            assertEquals(List.of(emir), result.getFailures());
+
+            RegimeReportEngine.RegimeResult jfsa = result.getRegimeResult(RegimeNameEnum.JFSA, SupervisoryBodyEnum.JFSA).orElseThrow();
+            assertTrue(jfsa.isSuccess());
+            assertSame(INSTRUCTION, jfsa.getReport());
+        }
+    }
+
+    @Test
+    void shouldProjectReports() {
+        TransactionReportInstruction projection = TransactionReportInstruction.builder().build();
+        List<RegimeReport<?>> regimeReports = List.of(
+                RegimeReport.of(RegimeNameEnum.HKMA, SupervisoryBodyEnum.HKMA, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, (injector, report) -> projection),
+                RegimeReport.of(RegimeNameEnum.DODD_FRANK_ACT, SupervisoryBodyEnum.CFTC, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null));
+
+        try (RegimeReportEngine engine = new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, regimeReports, 2)) {
+            RegimeReportEngine.Result result = engine.run(createRegimeReportableEvent(
+                    side(RegimeNameEnum.HKMA, SupervisoryBodyEnum.HKMA),
+                    side(RegimeNameEnum.DODD_FRANK_ACT, SupervisoryBodyEnum.CFTC)));
+
+            RegimeReportEngine.RegimeResult hkma = result.getRegimeResults().get(0);
+            assertSame(projection, hkma.getProjection());
+            assertTrue(hkma.getTotalNanos() >= hkma.getReportNanos() + hkma.getProjectionNanos());
+            assertNull(result.getRegimeResults().get(1).getProjection());
+        }
+    }
+
+    @Test
+    void shouldListUnsupportedRegimesAndPrefetchLeisOnce() {
+        List<RegimeReport<?>> regimeReports = List.of(
+                RegimeReport.of(RegimeNameEnum.MAS, null, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null));
+        RegimeReportableEvent regimeReportableEvent = createRegimeReportableEvent(
+                side(RegimeNameEnum.MAS, SupervisoryBodyEnum.MAS),
+                side(RegimeNameEnum.CSA, SupervisoryBodyEnum.CA_ON_OSC));
+
+        try (RegimeReportEngine engine = new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, regimeReports, 1)) {
+            RegimeReportEngine.Result result = engine.run(regimeReportableEvent);
+
+            assertTrue(result.isSuccess());
+            assertEquals(1, result.getRegimeResults().size());
+            assertEquals(1, result.getUnsupportedRegimes().size());
+            assertEquals(RegimeNameEnum.CSA, result.getUnsupportedRegimes().get(0).getRegimeName());
+            verify(leiDataPrefetcher).prefetch(regimeReportableEvent);
+        }
+    }
+
+    @Test
+    void shouldFailRegimesWithoutDelegatedReportingSide() {
+        when(createInstruction.evaluate(any(), any(), any(), eq(true))).thenReturn(null);
+        List<RegimeReport<?>> regimeReports = List.of(
+                RegimeReport.of(RegimeNameEnum.UKEMIR, SupervisoryBodyEnum.FCA, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null));
+
+        try (RegimeReportEngine engine = new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, regimeReports, 1)) {
+            RegimeReportEngine.Result result = engine.run(createRegimeReportableEvent(side(RegimeNameEnum.UKEMIR, SupervisoryBodyEnum.FCA)), true);
+
+            Exception error = result.getRegimeResults().get(0).getError();
+            assertNotNull(error);
+            assertEquals(IllegalArgumentException.class, error.getClass());
+        }
+    }
+
+    @Test
+    void shouldShareInstructionsAcrossRegimesWithSameReportingSide() {
+        when(createInstruction.evaluate(any(), any(), any(), eq(false)))
+                .thenAnswer(invocation -> TransactionReportInstruction.builder().build());
+        List<RegimeReport<?>> regimeReports = List.of(
+                RegimeReport.of(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null),
+                RegimeReport.of(RegimeNameEnum.UKEMIR, SupervisoryBodyEnum.FCA, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null),
+                RegimeReport.of(RegimeNameEnum.ASIC, SupervisoryBodyEnum.ASIC, TransactionReportInstruction.class,
+                        (injector, instruction) -> instruction, null));
+
+        try (RegimeReportEngine engine = new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, regimeReports, 3)) {
+            RegimeReportEngine.Result result = engine.run(createRegimeReportableEvent(
+                    side(RegimeNameEnum.EMIR, SupervisoryBodyEnum.ESMA, reportingSide("party1", "party2")),
+                    side(RegimeNameEnum.UKEMIR, SupervisoryBodyEnum.FCA, reportingSide("party1", "party2")),
+                    side(RegimeNameEnum.ASIC, SupervisoryBodyEnum.ASIC, reportingSide("party2", "party1"))));
+
+            assertTrue(result.isSuccess(), result.toString());
+            List<RegimeReportEngine.RegimeResult> regimeResults = result.getRegimeResults();
+            assertSame(regimeResults.get(0).getReport(), regimeResults.get(1).getReport());
+            assertNotSame(regimeResults.get(0).getReport(), regimeResults.get(2).getReport());
+            verify(createInstruction, times(2)).evaluate(any(), any(), any(), eq(false));
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new RegimeReportEngine(injector, createInstruction, leiDataPrefetcher, RegimeReport.TRADE_REPORTS, 0));
+    }
+
+    private static RegimeReport<TransactionReportInstruction> awaitingReport(RegimeNameEnum regimeName, CountDownLatch started) {
+        return RegimeReport.of(regimeName, null, TransactionReportInstruction.class, (injector, instruction) -> {
+            started.countDown();
+            try {
+                if (!started.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Regimes did not run concurrently");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return instruction;
+        }, null);
+    }
+
+    private static RegimeReportableEvent createRegimeReportableEvent(RegimeReportingSide... regimeReportingSides) {
+        return RegimeReportableEvent.builder()
+                .addRegimeReportingSide(List.of(regimeReportingSides))
+                .build();
+    }
+
+    private static RegimeReportingSide side(RegimeNameEnum regimeName, SupervisoryBodyEnum supervisoryBody) {
+        return side(regimeName, supervisoryBody, null);
+    }
+
+    private static RegimeReportingSide side(RegimeNameEnum regimeName, SupervisoryBodyEnum supervisoryBody, ReportingSide reportingSide) {
+        return RegimeReportingSide.builder()
+                .setRegimeName(regimeName)
+                .setSupervisoryBody(supervisoryBody)
+                .setReportingSide(reportingSide)
+                .build();
+    }
+
+    private static ReportingSide reportingSide(String reportingParty, String reportingCounterparty) {
+        return ReportingSide.builder()
+                .setReportingParty(ReferenceWithMetaParty.builder().setExternalReference(reportingParty).build())
+                .setReportingCounterparty(ReferenceWithMetaParty.builder().setExternalReference(reportingCounterparty).build())
+                .build();
+    }
+}
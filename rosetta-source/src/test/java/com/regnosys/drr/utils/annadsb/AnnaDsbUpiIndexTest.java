@@ -0,0 +1,164 @@
+package com.regnosys.drr.utils.annadsb;
+
+import com.google.common.io.Resources;
+import drr.standards.iosco.upi.AnnaDsbAssetClassEnum;
+import drr.standards.iosco.upi.AnnaDsbAttributes;
+import drr.standards.iosco.upi.AnnaDsbDeliveryTypeEnum;
+import drr.standards.iosco.upi.AnnaDsbHeader;
+import drr.standards.iosco.upi.AnnaDsbInstrumentTypeEnum;
+import drr.standards.iosco.upi.AnnaDsbLevelEnum;
+import drr.standards.iosco.upi.AnnaDsbUnderlyingInstrumentIndexTermUnitEnum;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+import drr.standards.iosco.upi.AnnaDsbUseCaseEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnnaDsbUpiIndexTest {
+
+    private static final String RESOURCE = "annadsb/upi-records.jsonl";
+
+    @Test
+    void shouldFindRecordForMatchingRequest() throws IOException {
+        AnnaDsbUpiIndex index = loadResource();
+
+        AnnaDsbUpiRecord record = index.get(request("EUR", "EUR-EuroSTR")).orElseThrow();
+
+        assertEquals("QZ0000000002", record.getIdentifier().getUPI());
+        assertEquals("EUR", record.getAttributes().getNotionalCurrency());
+    }
+
+    @Test
+    void shouldMatchEquivalentRequests() throws IOException {
+        AnnaDsbUpiIndex index = loadResource();
+
+        assertTrue(index.get(request(" eur", "EUR-EuroSTR ")).isPresent());
+    }
+
+    @Test
+    void shouldKeepMostRecentlyUpdatedRecord() throws IOException {
+        AnnaDsbUpiIndex index = loadResource();
+
+        AnnaDsbUpiRecord record = index.get(request("GBP", "GBP-SONIA")).orElseThrow();
+
+        assertEquals("Rates Swap Fixed_Float_OIS GBP SONIA", record.getDerived().getShortName());
+        assertEquals(record, index.getByUpi("QZ0000000001").orElseThrow());
+    }
+
+    @Test
+    void shouldSkipInactiveAndMalformedRecords() throws IOException {
+        AnnaDsbUpiIndex index = loadResource();
+
+        assertEquals(2, index.size());
+        assertTrue(index.get(request("USD", "USD-SOFR")).isEmpty());
+        assertTrue(index.getByUpi("QZ0000000003").isEmpty());
+    }
+
+    @Test
+    void shouldRemoveRecordDeletedAfterwardsInEitherOrder() throws IOException {
+        String active = record("New", "2023-06-01T09:00:00", "QZ0000000001");
+        String deleted = record("Deleted", "2024-02-01T09:00:00", "QZ0000000001");
+
+        for (List<String> records : List.of(List.of(active, deleted), List.of(deleted, active))) {
+            AnnaDsbUpiIndex index = load(records);
+
+            assertTrue(index.get(request("GBP", "GBP-SONIA")).isEmpty(), records.toString());
+            assertTrue(index.getByUpi("QZ0000000001").isEmpty(), records.toString());
+            assertEquals(0, index.size());
+        }
+    }
+
+    @Test
+    void shouldKeepRecordUpdatedAfterDeletionInEitherOrder() throws IOException {
+        String deleted = record("Deleted", "2023-06-01T09:00:00", "QZ0000000001");
+        String active = record("Updated", "2024-02-01T09:00:00", "QZ0000000001");
+
+        for (List<String> records : List.of(List.of(active, deleted), List.of(deleted, active))) {
+            AnnaDsbUpiIndex index = load(records);
+
+            assertTrue(index.get(request("GBP", "GBP-SONIA")).isPresent(), records.toString());
+            assertTrue(index.getByUpi("QZ0000000001").isPresent(), records.toString());
+        }
+    }
+
+    @Test
+    void shouldNotServeSupersededUpiInEitherOrder() throws IOException {
+        String older = record("New", "2023-06-01T09:00:00", "QZ0000000001");
+        String newer = record("Updated", "2024-02-01T09:00:00", "QZ0000000009");
+
+        for (List<String> records : List.of(List.of(older, newer), List.of(newer, older))) {
+            AnnaDsbUpiIndex index = load(records);
+
+            assertEquals("QZ0000000009", index.get(request("GBP", "GBP-SONIA")).orElseThrow().getIdentifier().getUPI(), records.toString());
+            assertTrue(index.getByUpi("QZ0000000001").isEmpty(), records.toString());
+            assertTrue(index.getByUpi("QZ0000000009").isPresent(), records.toString());
+        }
+    }
+
+    @Test
+    void shouldNotMatchDifferentRequest() throws IOException {
+        AnnaDsbUpiIndex index = loadResource();
+
+        assertTrue(index.get(request("GBP", "EUR-EuroSTR")).isEmpty());
+    }
+
+    @Test
+    void shouldLoadGzippedDumpsFromDirectory(@TempDir Path dir) throws IOException {
+        try (InputStream is = Resources.getResource(RESOURCE).openStream();
+             OutputStream os = new GZIPOutputStream(Files.newOutputStream(dir.resolve("upi-records.jsonl.gz")))) {
+            is.transferTo(os);
+        }
+        Files.writeString(dir.resolve("README.txt"), "not a dump");
+
+        AnnaDsbUpiIndex index = AnnaDsbUpiIndex.load(dir);
+
+        assertEquals(2, index.size());
+        assertTrue(index.get(request("GBP", "GBP-SONIA")).isPresent());
+    }
+
+    private static AnnaDsbUpiIndex loadResource() throws IOException {
+        try (InputStream is = Resources.getResource(RESOURCE).openStream()) {
+            return AnnaDsbUpiIndex.load(is);
+        }
+    }
+
+    private static AnnaDsbUpiIndex load(List<String> records) throws IOException {
+        byte[] jsonLines = String.join("\n", records).getBytes(StandardCharsets.UTF_8);
+        return new AnnaDsbUpiIndex.Builder().addAll(new ByteArrayInputStream(jsonLines)).build();
+    }
+
+    private static String record(String status, String lastUpdated, String upi) {
+        return "{\"Identifier\": {\"Status\": \"" + status + "\", \"LastUpdateDateTime\": \"" + lastUpdated + "\", \"UPI\": \"" + upi + "\"}, "
+                + "\"Header\": {\"InstrumentType\": \"Swap\", \"UseCase\": \"Fixed_Float_OIS\", \"Level\": \"UPI\", \"AssetClass\": \"Rates\"}, "
+                + "\"Attributes\": {\"NotionalCurrency\": \"GBP\", \"UnderlyingInstrumentIndex\": \"GBP-SONIA\", \"UnderlyingInstrumentIndexTermValue\": 1, "
+                + "\"UnderlyingInstrumentIndexTermUnit\": \"DAYS\", \"DeliveryType\": \"CASH\"}}";
+    }
+
+    private static AnnaDsbUpiRequest request(String currency, String index) {
+        return AnnaDsbUpiRequest.builder()
+                .setHeader(AnnaDsbHeader.builder()
+                        .setAssetClass(AnnaDsbAssetClassEnum.RATES)
+                        .setInstrumentType(AnnaDsbInstrumentTypeEnum.SWAP)
+                        .setUseCase(AnnaDsbUseCaseEnum.FIXED_FLOAT_OIS)
+                        .setLevel(AnnaDsbLevelEnum.UPI))
+                .setAttributes(AnnaDsbAttributes.builder()
+                        .setNotionalCurrency(currency)
+                        .setUnderlyingInstrumentIndex(index)
+                        .setUnderlyingInstrumentIndexTermValue(1)
+                        .setUnderlyingInstrumentIndexTermUnit(AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.DAYS)
+                        .setDeliveryType(AnnaDsbDeliveryTypeEnum.CASH))
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.regnosys.drr.utils.gleif;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GleifCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-06-01T00:00:00Z"));
+    private final GleifCircuitBreaker circuitBreaker = new GleifCircuitBreaker(3, Duration.ofSeconds(30), clock);
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        fail(2);
+        assertEquals(GleifCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // a success resets the count
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+        fail(2);
+        assertEquals(GleifCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        fail(1);
+        assertEquals(GleifCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulTrialRequest() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(circuitBreaker.tryAcquire());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(GleifCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        // only a single trial request is let through
+        assertFalse(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onSuccess();
+        assertEquals(GleifCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldReopenAfterFailedTrialRequest() {
+        fail(3);
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(GleifCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldBoundJitteredBackoff() {
+        GleifRetryPolicy retryPolicy = new GleifRetryPolicy(5, Duration.ofMillis(100), Duration.ofMillis(250));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retryPolicy.getBackoff(1).toMillis() <= 100);
+            assertTrue(retryPolicy.getBackoff(2).toMillis() <= 200);
+            assertTrue(retryPolicy.getBackoff(4).toMillis() <= 250);
+        }
+        assertTrue(retryPolicy.isRetryable(503));
+        assertTrue(retryPolicy.isRetryable(429));
+        assertFalse(retryPolicy.isRetryable(404));
+        assertFalse(retryPolicy.isRetryable(400));
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onFailure();
+        }
+    }
+}
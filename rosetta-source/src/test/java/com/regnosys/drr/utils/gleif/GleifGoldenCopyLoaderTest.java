@@ -0,0 +1,188 @@
+package com.regnosys.drr.utils.gleif;
+
+import drr.enrichment.lei.LeiCategoryEnum;
+import drr.enrichment.lei.LeiData;
+import drr.enrichment.lei.LeiRegistrationStatusEnum;
+import drr.enrichment.lei.LeiStatusEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GleifGoldenCopyLoaderTest {
+
+    private static final String CSV = "\uFEFF\"LEI\",\"Entity.LegalName\",\"Entity.LegalAddress.FirstAddressLine\",\"Entity.EntityCategory\",\"Entity.EntityStatus\",\"Registration.InitialRegistrationDate\",\"Registration.RegistrationStatus\"\r\n" +
+            "\"529900TESTLEI0000161\",\"Beta \"\"Holdings\"\", Ltd\",\"1 Street,\nTown\",\"GENERAL\",\"ACTIVE\",\"2014-02-01T09:00:00+00:00\",\"ISSUED\"\r\n" +
+            "\"529900TESTLEI0000064\",\"Alpha Bank\",\"\",\"BRANCH\",\"INACTIVE\",\"2012-06-06T15:53:00+00:00\",\"LAPSED\"\r\n" +
+            "\"529900TESTLEI0000258\",\"\",\"\",\"\",\"\",\"\",\"\"\r\n";
+
+    private static final String JSON = "{\"records\":[" +
+            "{\"LEI\":{\"$\":\"529900TESTLEI0000161\"}," +
+            "\"Entity\":{\"LegalName\":{\"@xml:lang\":\"en\",\"$\":\"Beta Holdings\"}," +
+            "\"OtherEntityNames\":{\"OtherEntityName\":[{\"$\":\"Ignored\"}]}," +
+            "\"LegalAddress\":{\"FirstAddressLine\":{\"$\":\"1 Street\"}}," +
+            "\"EntityCategory\":{\"$\":\"GENERAL\"},\"EntityStatus\":{\"$\":\"ACTIVE\"}}," +
+            "\"Registration\":{\"InitialRegistrationDate\":{\"$\":\"2014-02-01T09:00:00+00:00\"},\"RegistrationStatus\":{\"$\":\"ISSUED\"}}}," +
+            "{\"LEI\":{\"$\":\"529900TESTLEI0000064\"}," +
+            "\"Entity\":{\"LegalName\":{\"$\":\"Alpha Bank\"},\"EntityStatus\":{\"$\":\"INACTIVE\"}}}" +
+            "]}";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldIndexCsvGoldenCopy() throws IOException {
+        Path index = buildIndex("golden-copy.csv", CSV.getBytes(StandardCharsets.UTF_8));
+
+        try (GleifGoldenCopyIndex goldenCopyIndex = new GleifGoldenCopyIndex(index)) {
+            assertEquals(3, goldenCopyIndex.size());
+
+            LeiData beta = goldenCopyIndex.get("529900TESTLEI0000161").orElseThrow();
+            assertEquals("Beta \"Holdings\", Ltd", beta.getEntityName());
+            assertEquals(LeiCategoryEnum.GENERAL, beta.getEntityCategory());
+            assertEquals(LeiStatusEnum.ACTIVE, beta.getEntityStatus());
+            assertEquals(LeiRegistrationStatusEnum.ISSUED, beta.getRegistrationStatus());
+            assertEquals(ZonedDateTime.parse("2014-02-01T09:00:00Z"), beta.getRegistrationDate());
+            assertTrue(beta.getPublished());
+
+            LeiData alpha = goldenCopyIndex.get("529900TESTLEI0000064").orElseThrow();
+            assertEquals("Alpha Bank", alpha.getEntityName());
+            assertEquals(LeiCategoryEnum.BRANCH, alpha.getEntityCategory());
+            assertEquals(LeiRegistrationStatusEnum.LAPSED, alpha.getRegistrationStatus());
+
+            LeiData empty = goldenCopyIndex.get("529900TESTLEI0000258").orElseThrow();
+            assertNull(empty.getEntityName());
+            assertNull(empty.getEntityCategory());
+            assertEquals(LeiStatusEnum.NULL, empty.getEntityStatus());
+            assertNull(empty.getRegistrationDate());
+
+            assertFalse(goldenCopyIndex.get("529900TESTLEI0000355").isPresent());
+            assertFalse(goldenCopyIndex.get("INVALID").isPresent());
+        }
+    }
+
+    @Test
+    void shouldIndexJsonGoldenCopy() throws IOException {
+        Path index = buildIndex("golden-copy.json", JSON.getBytes(StandardCharsets.UTF_8));
+
+        try (GleifGoldenCopyIndex goldenCopyIndex = new GleifGoldenCopyIndex(index)) {
+            assertEquals(2, goldenCopyIndex.size());
+
+            LeiData beta = goldenCopyIndex.get("529900TESTLEI0000161").orElseThrow();
+            assertEquals("Beta Holdings", beta.getEntityName());
+            assertEquals(LeiCategoryEnum.GENERAL, beta.getEntityCategory());
+            assertEquals(LeiStatusEnum.ACTIVE, beta.getEntityStatus());
+            assertEquals(LeiRegistrationStatusEnum.ISSUED, beta.getRegistrationStatus());
+
+            LeiData alpha = goldenCopyIndex.get("529900TESTLEI0000064").orElseThrow();
+            assertEquals("Alpha Bank", alpha.getEntityName());
+            assertNull(alpha.getEntityCategory());
+            assertEquals(LeiStatusEnum.INACTIVE, alpha.getEntityStatus());
+            assertNull(alpha.getRegistrationStatus());
+        }
+    }
+
+    @Test
+    void shouldIndexZippedGoldenCopy() throws IOException {
+        Path zip = tempDir.resolve("golden-copy.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("20240101-0000-gleif-goldencopy-lei2-golden-copy.csv"));
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        Path index = tempDir.resolve("lei.idx");
+
+        assertEquals(3, new GleifGoldenCopyLoader().buildIndex(zip, index));
+    }
+
+    @Test
+    void shouldKeepLastRecordForDuplicateLei() throws IOException {
+        Path index = tempDir.resolve("lei.idx");
+        try (GleifGoldenCopyIndex.Builder builder = new GleifGoldenCopyIndex.Builder(index)) {
+            for (int i = 0; i < 5000; i++) {
+                builder.add(String.format("529900TEST%010d", i), "Entity " + i, LeiCategoryEnum.GENERAL, LeiStatusEnum.ACTIVE, LeiRegistrationStatusEnum.ISSUED, null);
+            }
+            builder.add("529900TEST0000000042", "Renamed", null, LeiStatusEnum.INACTIVE, null, null);
+            assertEquals(5000, builder.build());
+        }
+
+        try (GleifGoldenCopyIndex goldenCopyIndex = new GleifGoldenCopyIndex(index)) {
+            assertEquals(5000, goldenCopyIndex.size());
+            assertEquals("Renamed", goldenCopyIndex.get("529900TEST0000000042").orElseThrow().getEntityName());
+            assertEquals("Entity 4999", goldenCopyIndex.get("529900TEST0000004999").orElseThrow().getEntityName());
+            assertEquals("Entity 0", goldenCopyIndex.get("529900TEST0000000000").orElseThrow().getEntityName());
+        }
+    }
+
+    @Test
+    void shouldReadEnumsByTheirNamesInTheIndex() throws IOException {
+        // an index written while the categories were declared in reverse order
+        LeiCategoryEnum[] categories = LeiCategoryEnum.values();
+        Collections.reverse(Arrays.asList(categories));
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(names)) {
+            GleifGoldenCopyIndex.Builder.writeNames(out, categories);
+            GleifGoldenCopyIndex.Builder.writeNames(out, LeiStatusEnum.values());
+            GleifGoldenCopyIndex.Builder.writeNames(out, LeiRegistrationStatusEnum.values());
+        }
+        Path index = tempDir.resolve("lei.idx");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(index))) {
+            out.writeInt(GleifGoldenCopyIndex.MAGIC);
+            out.writeInt(GleifGoldenCopyIndex.VERSION);
+            out.writeInt(1);
+            out.writeInt(names.size());
+            names.writeTo(out);
+            out.write("529900TESTLEI0000064".getBytes(StandardCharsets.US_ASCII));
+            out.writeLong(0);
+            // the first category of the index, no statuses, registration date or name
+            out.writeByte(1);
+            out.writeByte(0);
+            out.writeByte(0);
+            out.writeLong(Long.MIN_VALUE);
+            out.writeChar(0);
+        }
+
+        try (GleifGoldenCopyIndex goldenCopyIndex = new GleifGoldenCopyIndex(index)) {
+            LeiData leiData = goldenCopyIndex.get("529900TESTLEI0000064").orElseThrow();
+            assertEquals(categories[0], leiData.getEntityCategory());
+            assertEquals(LeiStatusEnum.NULL, leiData.getEntityStatus());
+            assertNull(leiData.getRegistrationStatus());
+            assertNull(leiData.getEntityName());
+        }
+    }
+
+    @Test
+    void shouldRejectCsvWithoutLeiColumn() throws IOException {
+        Path csv = tempDir.resolve("golden-copy.csv");
+        Files.writeString(csv, "\"Entity.LegalName\"\n\"Alpha\"\n");
+
+        assertThrows(IOException.class, () -> new GleifGoldenCopyLoader().buildIndex(csv, tempDir.resolve("lei.idx")));
+    }
+
+    private Path buildIndex(String fileName, byte[] content) throws IOException {
+        Path goldenCopy = tempDir.resolve(fileName);
+        try (OutputStream out = Files.newOutputStream(goldenCopy)) {
+            out.write(content);
+        }
+        Path index = tempDir.resolve("lei.idx");
+        new GleifGoldenCopyLoader().buildIndex(goldenCopy, index);
+        return index;
+    }
+}
@@ -0,0 +1,142 @@
+package com.regnosys.drr.utils.gleif;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import drr.enrichment.lei.LeiCategoryEnum;
+import drr.enrichment.lei.LeiData;
+import drr.enrichment.lei.LeiRegistrationStatusEnum;
+import drr.enrichment.lei.LeiStatusEnum;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GleifLeiAdaptorTest {
+
+    private static final String TEST_PACK_GLEIF_DATA = "regulatory-reporting/lookup/test-pack-gleif-data.json";
+
+    private final GleifLeiAdaptor adaptor = new GleifLeiAdaptor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldMatchTreeAdaptationOfTestPackGleifData() throws IOException {
+        Map<String, String> testPackGleifData = objectMapper.readValue(
+                Resources.toString(Resources.getResource(TEST_PACK_GLEIF_DATA), StandardCharsets.UTF_8),
+                new TypeReference<>() {});
+
+        int adapted = 0;
+        for (Map.Entry<String, String> entry : testPackGleifData.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            LeiData expected = adaptTree(objectMapper.readTree(entry.getValue()).path("data"));
+            LeiData actual = adaptor.adapt(entry.getValue());
+            assertEquals(expected, actual, entry.getKey());
+            assertEquals(entry.getKey(), actual.getLei());
+            adapted++;
+        }
+        assertTrue(adapted > 0);
+    }
+
+    @Test
+    void shouldAdaptRecordWithRegistrationDates() {
+        String json = "{\"meta\":{\"goldenCopy\":{\"publishDate\":\"2024-09-11T08:00:00Z\"}},\"data\":" + record("529900TESTLEI0000064", "ISSUED") + "}";
+
+        GleifLeiRecord record = adaptor.adaptRecord(json);
+
+        LeiData leiData = record.getLeiData();
+        assertEquals("529900TESTLEI0000064", leiData.getLei());
+        assertEquals("TEST ENTITY", leiData.getEntityName());
+        assertEquals(LeiCategoryEnum.GENERAL, leiData.getEntityCategory());
+        assertEquals(LeiStatusEnum.ACTIVE, leiData.getEntityStatus());
+        assertEquals(LeiStatusEnum.NULL, leiData.getBranchEntityStatus());
+        assertEquals(LeiRegistrationStatusEnum.ISSUED, leiData.getRegistrationStatus());
+        assertEquals(ZonedDateTime.parse("2012-06-06T15:53:00Z"), leiData.getRegistrationDate());
+        assertTrue(leiData.getPublished());
+        assertEquals(Optional.of(ZonedDateTime.parse("2024-05-01T10:00:00Z")), record.getLastUpdateDate());
+        assertEquals(Optional.of(ZonedDateTime.parse("2025-06-01T00:00:00Z")), record.getNextRenewalDate());
+    }
+
+    @Test
+    void shouldAdaptRecordWithUnparseableDates() {
+        String json = "{\"data\":" + record("529900TESTLEI0000064", "ISSUED").replace("2025-06-01T00:00:00Z", "2025-06-01") + "}";
+
+        GleifLeiRecord record = adaptor.adaptRecord(json);
+
+        assertEquals("529900TESTLEI0000064", record.getLeiData().getLei());
+        assertEquals(ZonedDateTime.parse("2012-06-06T15:53:00Z"), record.getLeiData().getRegistrationDate());
+        assertEquals(Optional.of(ZonedDateTime.parse("2024-05-01T10:00:00Z")), record.getLastUpdateDate());
+        assertEquals(Optional.empty(), record.getNextRenewalDate());
+    }
+
+    @Test
+    void shouldAdaptAllRecordsOfBulkResponse() {
+        String json = "{\"meta\":{},\"data\":[" + record("529900TESTLEI0000064", "UNKNOWN") + "," + record("529900TESTLEI0000161", "ISSUED") + "],\"links\":{}}";
+
+        Map<String, LeiData> leiData = adaptor.adaptAll(json);
+
+        assertEquals(2, leiData.size());
+        assertEquals(LeiCategoryEnum.GENERAL, leiData.get("529900TESTLEI0000064").getEntityCategory());
+        assertNull(leiData.get("529900TESTLEI0000064").getRegistrationStatus());
+        assertEquals("529900TESTLEI0000161", leiData.get("529900TESTLEI0000161").getLei());
+    }
+
+    @Test
+    void shouldReturnNullForMalformedResponse() {
+        assertNull(adaptor.adapt("{\"data\":{\"attributes\":"));
+        assertTrue(adaptor.adaptAll("{\"data\":[{").isEmpty());
+    }
+
+    @Test
+    void shouldNotBePublishedWithoutRecordLinks() {
+        LeiData leiData = adaptor.adapt("{\"data\":{\"type\":\"lei-records\",\"attributes\":{\"lei\":\"529900TESTLEI0000064\"}}}");
+
+        assertEquals("529900TESTLEI0000064", leiData.getLei());
+        assertFalse(leiData.getPublished());
+        assertEquals(LeiStatusEnum.NULL, leiData.getEntityStatus());
+    }
+
+    private static String record(String lei, String registrationStatus) {
+        return "{\"type\":\"lei-records\",\"id\":\"" + lei + "\"," +
+                "\"attributes\":{\"lei\":\"" + lei + "\"," +
+                "\"entity\":{\"legalName\":{\"name\":\"TEST ENTITY\",\"language\":\"en\"},\"otherNames\":[{\"name\":\"OTHER\"}],\"category\":\"GENERAL\",\"status\":\"ACTIVE\"}," +
+                "\"registration\":{\"initialRegistrationDate\":\"2012-06-06T15:53:00Z\",\"lastUpdateDate\":\"2024-05-01T10:00:00Z\"," +
+                "\"status\":\"" + registrationStatus + "\",\"nextRenewalDate\":\"2025-06-01T00:00:00Z\"}}," +
+                "\"links\":{\"self\":\"https://api.gleif.org/api/v1/lei-records/" + lei + "\"}}";
+    }
+
+    /**
+     * Tree based adaptation using JSON pointers, as the adaptor was originally implemented, used as the reference.
+     */
+    private static LeiData adaptTree(JsonNode record) {
+        return LeiData.builder()
+                .setLei(field(record, "/attributes/lei").orElse(null))
+                .setEntityName(field(record, "/attributes/entity/legalName/name").orElse(null))
+                .setEntityCategory(field(record, "/attributes/entity/category").map(LeiCategoryEnum::valueOf).orElse(null))
+                .setEntityStatus(field(record, "/attributes/entity/status").map(LeiStatusEnum::valueOf).orElse(LeiStatusEnum.NULL))
+                .setBranchEntityStatus(field(record, "/attributes/branches/entityStatus").map(LeiStatusEnum::valueOf).orElse(LeiStatusEnum.NULL))
+                .setRegistrationStatus(field(record, "/attributes/registration/status").map(LeiRegistrationStatusEnum::valueOf).orElse(null))
+                .setRegistrationDate(field(record, "/attributes/registration/initialRegistrationDate").map(ZonedDateTime::parse).orElse(null))
+                .setPublished(field(record, "/type").map("lei-records"::equals).orElse(false)
+                        && field(record, "/id").isPresent()
+                        && field(record, "/links/self").isPresent())
+                .build();
+    }
+
+    private static Optional<String> field(JsonNode node, String path) {
+        return Optional.of(node.at(path))
+                .filter(n -> !n.isNull())
+                .map(JsonNode::asText)
+                .filter(str -> !str.isEmpty());
+    }
+}
@@ -0,0 +1,44 @@
+package com.regnosys.drr.utils.gleif;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeiValidatorTest {
+
+    @Test
+    void shouldAcceptValidLei() {
+        for (String lei : List.of("529900W18LQJJN6SJ336", "RR3QWICWWIPCS8A4S074", "5493001KJTIIGC8Y1R12", "529900TESTLEI0000064")) {
+            assertTrue(LeiValidator.isValid(lei), lei);
+            assertTrue(LeiValidator.isValid(new StringBuilder(lei)), lei);
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidChecksum() {
+        // wrong check digits
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6SJ337"));
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6SJ363"));
+        // transposed characters
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6JS336"));
+        // matches the LEI format, but not a real LEI
+        assertTrue(GleifLeiClient.LEI_PATTERN.matcher("IRINFLATIONFIXEDFL01").matches());
+        assertFalse(LeiValidator.isValid("IRINFLATIONFIXEDFL01"));
+        assertFalse(LeiValidator.isValid("48750084UKLVTR22DS78"));
+    }
+
+    @Test
+    void shouldRejectInvalidFormat() {
+        assertFalse(LeiValidator.isValid(null));
+        assertFalse(LeiValidator.isValid(""));
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6SJ33"));
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6SJ3360"));
+        assertFalse(LeiValidator.isValid("529900w18lqjjn6sj336"));
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6SJ3A6"));
+        assertFalse(LeiValidator.isValid("529900W18LQJJN6SJ3-6"));
+        assertFalse(LeiValidator.isValid("TRADEMODIFYPARTIAL02"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.regnosys.drr.utils.gleif;
+
+import drr.enrichment.lei.LeiCategoryEnum;
+import drr.enrichment.lei.LeiData;
+import drr.enrichment.lei.LeiRegistrationStatusEnum;
+import drr.enrichment.lei.LeiStatusEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentLeiCacheTest {
+
+    private static final String LEI_1 = "529900TESTLEI0000064";
+    private static final String LEI_2 = "529900TESTLEI0000161";
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReloadEntriesAfterRestart() throws IOException {
+        Path path = tempDir.resolve("lei-cache.tsv");
+        MutableClock clock = new MutableClock(NOW);
+        GleifLeiRecord record = record(LEI_1, "Société Générale\tEffekten\nGmbH", NOW.minus(Duration.ofDays(100)), NOW.plus(Duration.ofDays(200)));
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            cache.put(LEI_1, Optional.of(record));
+            cache.put(LEI_2, Optional.empty());
+        }
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            assertEquals(2, cache.size());
+            assertEquals(Optional.of(Optional.of(record.getLeiData())), cache.getIfPresent(LEI_1));
+            assertEquals(Optional.of(Optional.empty()), cache.getIfPresent(LEI_2));
+            assertTrue(cache.getIfPresent("529900TESTLEI0000258").isEmpty());
+        }
+    }
+
+    @Test
+    void shouldExpireEntriesOnReadAndOnReload() throws IOException {
+        Path path = tempDir.resolve("lei-cache.tsv");
+        MutableClock clock = new MutableClock(NOW);
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            cache.put(LEI_1, Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofDays(100)), NOW.plus(Duration.ofDays(5)))));
+            cache.put(LEI_2, Optional.empty());
+
+            clock.advance(Duration.ofDays(2));
+            assertTrue(cache.getIfPresent(LEI_1).isPresent());
+            assertTrue(cache.getIfPresent(LEI_2).isEmpty());
+        }
+
+        clock.advance(Duration.ofDays(4));
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            assertEquals(0, cache.size());
+            assertTrue(cache.getIfPresent(LEI_1).isEmpty());
+            // expired entries are compacted away
+            assertEquals(0, Files.size(path));
+        }
+    }
+
+    @Test
+    void shouldComputeExpiryFromRegistrationDates() throws IOException {
+        try (PersistentLeiCache cache = new PersistentLeiCache(tempDir.resolve("lei-cache.tsv"), Duration.ofDays(1), Duration.ofDays(30), new MutableClock(NOW))) {
+            // not found
+            assertEquals(NOW.plus(Duration.ofDays(1)), cache.expiresAt(Optional.empty(), NOW));
+            // half the time since last update
+            assertEquals(NOW.plus(Duration.ofDays(10)),
+                    cache.expiresAt(Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofDays(20)), NOW.plus(Duration.ofDays(300)))), NOW));
+            // bounded by min and max time-to-live
+            assertEquals(NOW.plus(Duration.ofDays(1)),
+                    cache.expiresAt(Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofHours(2)), NOW.plus(Duration.ofDays(300)))), NOW));
+            assertEquals(NOW.plus(Duration.ofDays(30)),
+                    cache.expiresAt(Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofDays(2000)), NOW.plus(Duration.ofDays(300)))), NOW));
+            // never beyond next renewal
+            assertEquals(NOW.plus(Duration.ofDays(3)),
+                    cache.expiresAt(Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofDays(2000)), NOW.plus(Duration.ofDays(3)))), NOW));
+            // renewal overdue
+            assertEquals(NOW.plus(Duration.ofDays(1)),
+                    cache.expiresAt(Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofDays(2000)), NOW.minus(Duration.ofDays(3)))), NOW));
+        }
+    }
+
+    @Test
+    void shouldCompactSupersededEntriesOnReload() throws IOException {
+        Path path = tempDir.resolve("lei-cache.tsv");
+        MutableClock clock = new MutableClock(NOW);
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put(LEI_1, Optional.of(record(LEI_1, "Entity " + i, NOW.minus(Duration.ofDays(100)), null)));
+            }
+        }
+        long uncompactedSize = Files.size(path);
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            assertTrue(Files.size(path) < uncompactedSize);
+            assertEquals("Entity 9", cache.getIfPresent(LEI_1).flatMap(Function.identity()).map(LeiData::getEntityName).orElse(null));
+        }
+    }
+
+    @Test
+    void shouldIgnoreIncompleteTrailingEntry() throws IOException {
+        Path path = tempDir.resolve("lei-cache.tsv");
+        MutableClock clock = new MutableClock(NOW);
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            cache.put(LEI_1, Optional.of(record(LEI_1, "Entity", NOW.minus(Duration.ofDays(100)), null)));
+        }
+        Files.write(path, (LEI_2 + "\t" + NOW.plus(Duration.ofDays(1)).toEpochMilli() + "\t1\t" + LEI_2).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            assertEquals(1, cache.size());
+            assertTrue(cache.getIfPresent(LEI_2).isEmpty());
+            cache.put(LEI_2, Optional.empty());
+            assertEquals(Optional.of(Optional.empty()), cache.getIfPresent(LEI_2));
+            assertEquals("Entity", cache.getIfPresent(LEI_1).flatMap(Function.identity()).map(LeiData::getEntityName).orElse(null));
+        }
+    }
+
+    @Test
+    void shouldScanFileOneWindowAtATime() throws IOException {
+        Path path = tempDir.resolve("lei-cache.tsv");
+        MutableClock clock = new MutableClock(NOW);
+        List<String> leis = new ArrayList<>();
+
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock)) {
+            for (int i = 0; i < 100; i++) {
+                String lei = String.format("529900TESTLEI%07d", i);
+                leis.add(lei);
+                cache.put(lei, Optional.of(record(lei, "Entity " + i, NOW.minus(Duration.ofDays(100)), null)));
+            }
+        }
+
+        // entries span the windows, which are mapped at offsets that do not fit in an int once the file exceeds 2 GB
+        try (PersistentLeiCache cache = new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock, 512)) {
+            assertEquals(100, cache.size());
+            for (int i = 0; i < leis.size(); i++) {
+                assertEquals("Entity " + i, cache.getIfPresent(leis.get(i)).flatMap(Function.identity()).map(LeiData::getEntityName).orElse(null));
+            }
+        }
+
+        assertThrows(UncheckedIOException.class, () -> new PersistentLeiCache(path, Duration.ofDays(1), Duration.ofDays(30), clock, 16));
+    }
+
+    private static GleifLeiRecord record(String lei, String entityName, Instant lastUpdateDate, Instant nextRenewalDate) {
+        LeiData leiData = LeiData.builder()
+                .setLei(lei)
+                .setEntityName(entityName)
+                .setEntityCategory(LeiCategoryEnum.GENERAL)
+                .setEntityStatus(LeiStatusEnum.ACTIVE)
+                .setBranchEntityStatus(LeiStatusEnum.NULL)
+                .setRegistrationStatus(LeiRegistrationStatusEnum.ISSUED)
+                .setRegistrationDate(ZonedDateTime.parse("2014-01-27T07:37:54Z"))
+                .setPublished(true)
+                .build();
+        return new GleifLeiRecord(leiData,
+                lastUpdateDate == null ? null : lastUpdateDate.atZone(ZoneOffset.UTC),
+                nextRenewalDate == null ? null : nextRenewalDate.atZone(ZoneOffset.UTC));
+    }
+}
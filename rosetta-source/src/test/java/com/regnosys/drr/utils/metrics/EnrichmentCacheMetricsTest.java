@@ -0,0 +1,164 @@
+package com.regnosys.drr.utils.metrics;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrichmentCacheMetricsTest {
+
+    @Test
+    void shouldCountHitsMissesAndEvictions() {
+        EnrichmentCacheMetrics metrics = new EnrichmentCacheMetrics("test");
+        metrics.recordHit();
+        metrics.recordHit();
+        metrics.recordHit();
+        metrics.recordMiss();
+        metrics.recordEviction();
+        metrics.setSizeSupplier(() -> 42);
+
+        assertEquals(3, metrics.getHitCount());
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(0.75, metrics.getHitRatio());
+        assertEquals(1, metrics.getEvictionCount());
+        assertEquals(42, metrics.getCacheSize());
+    }
+
+    @Test
+    void shouldTimeLoadsAndRemoteCalls() {
+        MutableTicker ticker = new MutableTicker();
+        EnrichmentCacheMetrics metrics = new EnrichmentCacheMetrics("test", ticker);
+
+        long loadStart = metrics.startTimer();
+        long callStart = metrics.recordRemoteCallStarted();
+        assertEquals(1, metrics.getInFlightRemoteCalls());
+
+        ticker.advance(Duration.ofMillis(40));
+        metrics.recordRemoteCallCompleted(callStart, false);
+        metrics.recordLoad(loadStart, false);
+
+        assertEquals(0, metrics.getInFlightRemoteCalls());
+        assertEquals(1, metrics.getRemoteCallCount());
+        assertEquals(1, metrics.getRemoteCallFailureCount());
+        assertEquals(1, metrics.getLoadCount());
+        assertEquals(1, metrics.getLoadFailureCount());
+        assertEquals(40.0, metrics.getLoadLatencyMaxMillis());
+        assertEquals(40.0, metrics.getLoadLatencyP50Millis());
+    }
+
+    @Test
+    void shouldReportPercentilesAsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(Duration.ofMillis(3).toNanos());
+        }
+        histogram.record(Duration.ofMillis(1).toNanos());
+        histogram.record(Duration.ofSeconds(20).toNanos());
+
+        long[] counts = histogram.getBucketCounts();
+        assertEquals(histogram.getBucketBoundsMillis().length + 1, counts.length);
+        assertEquals(1, counts[0]);
+        assertEquals(98, counts[2]);
+        assertEquals(1, counts[counts.length - 1]);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5.0, histogram.getPercentileMillis(50));
+        assertEquals(5.0, histogram.getPercentileMillis(99));
+        assertEquals(20_000.0, histogram.getPercentileMillis(100));
+    }
+
+    @Test
+    void shouldNotifyListenersAndIsolateTheirFailures() {
+        EnrichmentCacheMetrics metrics = new EnrichmentCacheMetrics("test");
+        List<String> events = new ArrayList<>();
+        metrics.addListener(new EnrichmentCacheListener() {
+            @Override
+            public void onHit(String cacheName) {
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        metrics.addListener(new EnrichmentCacheListener() {
+            @Override
+            public void onHit(String cacheName) {
+                events.add("hit " + cacheName);
+            }
+
+            @Override
+            public void onRemoteCallCompleted(String cacheName, long nanos, boolean success) {
+                events.add("remote call " + cacheName + " " + success);
+            }
+        });
+
+        metrics.recordHit();
+        metrics.recordRemoteCallCompleted(metrics.recordRemoteCallStarted(), true);
+
+        assertEquals(List.of("hit test", "remote call test true"), events);
+        assertEquals(1, metrics.getHitCount());
+    }
+
+    @Test
+    void shouldExposeMetricsOverJmx() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        EnrichmentCacheMetrics metrics = new EnrichmentCacheMetrics("jmx-test");
+        assertTrue(metrics.registerMBean());
+        metrics.recordMiss();
+        metrics.recordLoad(metrics.startTimer(), true);
+
+        try {
+            assertEquals(1L, server.getAttribute(metrics.getObjectName(), "MissCount"));
+            assertEquals(1L, server.getAttribute(metrics.getObjectName(), "LoadCount"));
+            assertArrayEquals(metrics.getLoadLatencyBucketCounts(), (long[]) server.getAttribute(metrics.getObjectName(), "LoadLatencyBucketCounts"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(server.isRegistered(metrics.getObjectName()));
+    }
+
+    @Test
+    void shouldKeepMetricsRegisteredForCacheOfSameName() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        EnrichmentCacheMetrics first = new EnrichmentCacheMetrics("jmx-same-name-test");
+        EnrichmentCacheMetrics second = new EnrichmentCacheMetrics("jmx-same-name-test");
+        assertTrue(first.registerMBean());
+
+        try {
+            assertFalse(second.registerMBean());
+            first.recordHit();
+            assertEquals(1L, server.getAttribute(first.getObjectName(), "HitCount"));
+
+            // only the registered metrics unregister themselves
+            second.unregisterMBean();
+            assertTrue(server.isRegistered(first.getObjectName()));
+            first.unregisterMBean();
+            assertTrue(second.registerMBean());
+        } finally {
+            first.unregisterMBean();
+            second.unregisterMBean();
+        }
+        assertFalse(server.isRegistered(second.getObjectName()));
+    }
+
+    private static class MutableTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.regnosys.drr.utils.mic;
+
+import com.google.common.io.Resources;
+import com.rosetta.model.lib.records.Date;
+import drr.standards.iso.MicData;
+import drr.standards.iso.MicMarketCategoryEnum;
+import drr.standards.iso.MicTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MicDataLoaderTest {
+
+    @Test
+    void shouldLoadSnapshotInOnePass() throws IOException, URISyntaxException {
+        Path snapshot = Paths.get(Resources.getResource("ISO10383_MIC.xml").toURI());
+
+        Map<String, MicData> micData = new MicDataLoader().load(snapshot);
+
+        assertEquals(2580, micData.size());
+        MicData drsp = micData.get("DRSP");
+        assertEquals("DRSP", drsp.getMic());
+        assertEquals("DRSP", drsp.getOperatingMic());
+        assertEquals(MicTypeEnum.OPRT, drsp.getMicType());
+        assertEquals("EURONEXT UK - REPORTING SERVICES", drsp.getNameInstitutionDescription());
+        assertEquals("EURONEXT LONDON LIMITED", drsp.getLegalEntityName());
+        assertEquals(MicMarketCategoryEnum.APPA, drsp.getMarketCategory());
+        assertNull(drsp.getAcronym());
+        assertEquals("GB", drsp.getCountryCode());
+        assertEquals(Date.of(2021, 9, 27), drsp.getCreationDate());
+        assertNull(drsp.getExpiryDate());
+        assertEquals(MicTypeEnum.SGMT, micData.get("PURE").getMicType());
+        assertThrows(UnsupportedOperationException.class, () -> micData.put("XXXX", drsp));
+    }
+
+    @Test
+    void shouldDropLineBreaksAndTrim() {
+        assertEquals("CANADIAN SECURITIES EXCHANGE", MicDataLoader.clean("CANADIAN SECURITIES EXCHANGE\n        "));
+        assertEquals("A   B", MicDataLoader.clean("A\n   B\t"));
+        assertEquals("GB", MicDataLoader.clean("GB"));
+        assertNull(MicDataLoader.clean(" \n\t "));
+        assertNull(MicDataLoader.clean(""));
+    }
+
+    @Test
+    void shouldNotResolveExternalEntities() {
+        String xml = "<?xml version=\"1.0\"?>"
+                + "<!DOCTYPE dataroot [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                + "<dataroot><ISO10383_MIC><MIC>&xxe;</MIC></ISO10383_MIC></dataroot>";
+        InputStream in = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> new MicDataLoader().load(in));
+    }
+}
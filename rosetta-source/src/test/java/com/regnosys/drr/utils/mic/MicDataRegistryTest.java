@@ -0,0 +1,135 @@
+package com.regnosys.drr.utils.mic;
+
+import drr.standards.iso.MicData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicDataRegistryTest {
+
+    @Test
+    void shouldLoadOnceForConcurrentFirstCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MicDataRegistry registry = new MicDataRegistry(() -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return micData("XLON");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MicDataRegistry.Snapshot>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(registry::get));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            MicDataRegistry.Snapshot first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<MicDataRegistry.Snapshot> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, first.getVersion());
+            assertEquals("XLON", first.get("XLON").getMic());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRetryFailedInitialLoadOnNextCall() {
+        AtomicInteger loads = new AtomicInteger();
+        MicDataRegistry registry = new MicDataRegistry(() -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("unavailable");
+            }
+            return micData("XLON");
+        });
+
+        assertThrows(UncheckedIOException.class, registry::get);
+        assertNull(registry.getIfLoaded());
+        assertEquals("XLON", registry.get().get("XLON").getMic());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldSwapInRefreshedSnapshotWithoutBlockingReaders() throws Exception {
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MicDataRegistry registry = new MicDataRegistry(() -> micData("XLON"), () -> {
+            refreshing.countDown();
+            await(release);
+            return micData("XLON", "XPAR");
+        }, Clock.systemUTC());
+        MicDataRegistry.Snapshot initial = registry.get();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> refreshed = executor.submit(registry::refresh);
+            assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+
+            // readers keep seeing the current snapshot while the refresh is loading
+            assertSame(initial, registry.get());
+            assertNull(registry.get().get("XPAR"));
+
+            release.countDown();
+            assertTrue(refreshed.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, registry.get().getVersion());
+        assertEquals("XPAR", registry.get().get("XPAR").getMic());
+        // the old snapshot is unchanged for readers still holding it
+        assertEquals(1, initial.size());
+    }
+
+    @Test
+    void shouldKeepSnapshotWhenRefreshFails() {
+        MicDataRegistry registry = new MicDataRegistry(() -> micData("XLON"), () -> {
+            throw new IOException("unavailable");
+        }, Clock.systemUTC());
+        MicDataRegistry.Snapshot initial = registry.get();
+
+        assertFalse(registry.refresh());
+        assertSame(initial, registry.get());
+    }
+
+    private static Map<String, MicData> micData(String... mics) {
+        Map<String, MicData> micData = new HashMap<>();
+        for (String mic : mics) {
+            micData.put(mic, MicData.builder().setMic(mic).build());
+        }
+        return micData;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.regnosys.drr.utils.xsd;
+
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XsdSchemaRegistryTest {
+
+    private static final String MIC_SCHEMA_PATH = "schemas/iso10383/ISO10383_MIC.xsd";
+    private static final URL MIC_SCHEMA = Resources.getResource(MIC_SCHEMA_PATH);
+
+    private static final String VALID_DOCUMENT = "<dataroot generated=\"2023-03-13T15:02:49\"><ISO10383_MIC><MIC>XLON</MIC></ISO10383_MIC></dataroot>";
+    private static final String INVALID_DOCUMENT = "<dataroot generated=\"not a date\"/>";
+
+    @Test
+    void shouldCompileSchemaOnce() throws Exception {
+        XsdSchemaRegistry registry = new XsdSchemaRegistry(2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Schema>> schemas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                schemas.add(executor.submit(() -> registry.getSchema(MIC_SCHEMA)));
+            }
+            Schema schema = registry.getSchema(MIC_SCHEMA_PATH);
+            for (Future<Schema> future : schemas) {
+                assertSame(schema, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldValidateStream() throws Exception {
+        XsdSchemaRegistry registry = new XsdSchemaRegistry(2);
+        try (InputStream inputStream = new ByteArrayInputStream(VALID_DOCUMENT.getBytes(StandardCharsets.UTF_8))) {
+            registry.validate(MIC_SCHEMA, inputStream);
+        }
+    }
+
+    @Test
+    void shouldReportValidationError() throws Exception {
+        XsdSchemaRegistry registry = new XsdSchemaRegistry(2);
+
+        assertThrows(SAXException.class, () -> registry.validate(MIC_SCHEMA, new StreamSource(new StringReader(INVALID_DOCUMENT))));
+
+        String error = registry.getValidationError(MIC_SCHEMA, new StreamSource(new StringReader(INVALID_DOCUMENT)));
+        assertNotNull(error);
+        assertNull(registry.getValidationError(MIC_SCHEMA, new StreamSource(new StringReader(VALID_DOCUMENT))));
+    }
+
+    @Test
+    void shouldValidateConcurrentlyWithPooledValidators() throws Exception {
+        XsdSchemaRegistry registry = new XsdSchemaRegistry(2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<String>> validations = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                boolean valid = i % 2 == 0;
+                validations.add(() -> registry.getValidationError(MIC_SCHEMA, valid
+                        ? new StreamSource(new StringReader(VALID_DOCUMENT))
+                        : new StreamSource(new StringReader(INVALID_DOCUMENT))));
+            }
+            List<Future<String>> errors = executor.invokeAll(validations);
+            for (int i = 0; i < errors.size(); i++) {
+                assertEquals(i % 2 == 0, errors.get(i).get() == null, "validation " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotResolveExternalEntities(@TempDir Path tempDir) throws Exception {
+        // the entity would resolve to a valid MIC, so the document is only invalid if the entity is not resolved
+        Path mic = Files.writeString(tempDir.resolve("mic.txt"), "XLON");
+        String xml = "<?xml version=\"1.0\"?>"
+                + "<!DOCTYPE dataroot [<!ENTITY xxe SYSTEM \"" + mic.toUri() + "\">]>"
+                + "<dataroot generated=\"2023-03-13T15:02:49\"><ISO10383_MIC><MIC>&xxe;</MIC></ISO10383_MIC></dataroot>";
+        XsdSchemaRegistry registry = new XsdSchemaRegistry(1);
+
+        // the second validation reuses the pooled validator
+        for (int i = 0; i < 2; i++) {
+            assertThrows(SAXException.class, () -> registry.validate(MIC_SCHEMA, new StreamSource(new StringReader(xml))));
+        }
+        assertNull(registry.getValidationError(MIC_SCHEMA, new StreamSource(new StringReader(VALID_DOCUMENT))));
+    }
+
+    @Test
+    void shouldRejectInvalidPoolSize() {
+        assertThrows(IllegalArgumentException.class, () -> new XsdSchemaRegistry(0));
+    }
+}
@@ -4,9 +4,14 @@ import drr.functions.AbstractFunctionTest;
 import org.junit.jupiter.api.Test;
 
 import javax.inject.Inject;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GetAcceptedEicCodesImplTest  extends AbstractFunctionTest {
@@ -22,6 +27,32 @@ class GetAcceptedEicCodesImplTest  extends AbstractFunctionTest {
         assertTrue(acceptedEicCodes.contains("59WFSRUGOLARTUNH"));
     }
 
+    @Test
+    void shouldRecordLoadOnFirstEvaluationOnly() {
+        GetAcceptedEicCodesImpl func = new GetAcceptedEicCodesImpl(GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_CSV);
+        func.evaluate();
+        func.evaluate();
+        assertEquals(1, func.getMetrics().getMissCount());
+        assertEquals(1, func.getMetrics().getHitCount());
+        assertEquals(1, func.getMetrics().getLoadCount());
+        assertEquals(518, func.getMetrics().getCacheSize());
+    }
+
+    @Test
+    void shouldExposeMetricsOverJmxWhileStarted() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try (GetAcceptedEicCodesImpl func = new GetAcceptedEicCodesImpl(GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_CSV)) {
+            ObjectName objectName = func.getMetrics().getObjectName();
+            assertFalse(server.isRegistered(objectName));
+
+            func.start();
+            assertTrue(server.isRegistered(objectName));
+
+            func.close();
+            assertFalse(server.isRegistered(objectName));
+        }
+    }
+
     @Test
     void shouldNotThrowExceptionIfPathNotFound() {
         GetAcceptedEicCodes func = new GetAcceptedEicCodesImpl("/path/not/on/classpath");
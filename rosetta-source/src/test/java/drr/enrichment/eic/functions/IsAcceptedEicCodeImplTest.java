@@ -0,0 +1,103 @@
+package drr.enrichment.eic.functions;
+
+import com.google.inject.Guice;
+import com.regnosys.drr.DrrRuntimeModule;
+import drr.functions.AbstractFunctionTest;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IsAcceptedEicCodeImplTest extends AbstractFunctionTest {
+
+    private static final String OLD_CSV = "eic/List-of-Accepted-EICs-2023-10-10.csv";
+
+    @Inject
+    IsAcceptedEicCode isAcceptedEicCode;
+
+    @Inject
+    GetAcceptedEicCodes acceptedEicCodesFunc;
+
+    @Test
+    void shouldBeBoundToHashedSetImplementation() {
+        assertTrue(isAcceptedEicCode instanceof IsAcceptedEicCodeImpl);
+    }
+
+    @Test
+    void shouldCheckEveryCode() {
+        assertTrue(isAcceptedEicCode.evaluate(List.of("10YFI-1--------U")));
+        assertTrue(isAcceptedEicCode.evaluate(List.of("10YFI-1--------U", "59WFSRUGOLARTUNH")));
+        assertFalse(isAcceptedEicCode.evaluate(List.of("10YFI-1--------U", "XXXXXXXXXXXXXXXX")));
+        assertFalse(isAcceptedEicCode.evaluate(List.of("XXXXXXXXXXXXXXXX")));
+        assertFalse(isAcceptedEicCode.evaluate(Collections.emptyList()));
+        assertFalse(isAcceptedEicCode.evaluate(null));
+    }
+
+    @Test
+    void shouldMatchRosettaImplementationOnAcceptedEicList() {
+        IsAcceptedEicCode rosettaImpl = Guice.createInjector(new DrrRuntimeModule() {
+            @Override
+            protected Class<? extends IsAcceptedEicCode> bindIsAcceptedEicCode() {
+                return IsAcceptedEicCode.IsAcceptedEicCodeDefault.class;
+            }
+        }).getInstance(IsAcceptedEicCode.class);
+
+        List<List<String>> inputs = new ArrayList<>();
+        for (String code : acceptedEicCodesFunc.evaluate()) {
+            inputs.add(List.of(code));
+            inputs.add(List.of(code, "XXXXXXXXXXXXXXXX"));
+            inputs.add(List.of(code.toLowerCase()));
+        }
+        inputs.add(acceptedEicCodesFunc.evaluate());
+        inputs.add(Collections.emptyList());
+
+        for (List<String> input : inputs) {
+            assertEquals(rosettaImpl.evaluate(input), isAcceptedEicCode.evaluate(input), () -> "Mismatch for " + input);
+        }
+    }
+
+    @Test
+    void shouldUseListEffectiveOnReportingDate() {
+        IsAcceptedEicCodeImpl func = new IsAcceptedEicCodeImpl(
+                new GetAcceptedEicCodesImpl(OLD_CSV + "," + GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_CSV));
+
+        // only in the 2023-10-10 list
+        assertTrue(func.isAccepted(List.of("10YOLD-EIC-----X"), LocalDate.of(2024, 7, 4)));
+        assertFalse(func.isAccepted(List.of("10YOLD-EIC-----X"), LocalDate.of(2024, 7, 5)));
+        // only in the 2024-07-05 list
+        assertFalse(func.isAccepted(List.of("59WFSRUGOLARTUNH"), LocalDate.of(2024, 7, 4)));
+        assertTrue(func.isAccepted(List.of("59WFSRUGOLARTUNH"), LocalDate.of(2024, 7, 5)));
+        // no list was effective yet
+        assertFalse(func.isAccepted(List.of("10YAT-APG------L"), LocalDate.of(2023, 10, 9)));
+        // without a reporting date the latest list applies
+        assertTrue(func.evaluate(List.of("59WFSRUGOLARTUNH")));
+        assertFalse(func.evaluate(List.of("10YOLD-EIC-----X")));
+    }
+
+    @Test
+    void shouldParseEffectiveDateFromFileName() {
+        assertEquals(LocalDate.of(2024, 7, 5), AcceptedEicCodes.getEffectiveDate(GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_CSV));
+        assertEquals(LocalDate.MIN, AcceptedEicCodes.getEffectiveDate("accepted-eics.csv"));
+    }
+
+    @Test
+    void shouldReadAcceptedEicCodesOnce() {
+        GetAcceptedEicCodesImpl getAcceptedEicCodes = new GetAcceptedEicCodesImpl(GetAcceptedEicCodesImpl.ACCEPTED_EIC_CODES_CSV);
+        IsAcceptedEicCodeImpl func = new IsAcceptedEicCodeImpl(getAcceptedEicCodes);
+
+        for (String code : Arrays.asList("10YFI-1--------U", "59WFSRUGOLARTUNH", "XXXXXXXXXXXXXXXX")) {
+            func.evaluate(List.of(code));
+        }
+
+        assertEquals(1, getAcceptedEicCodes.getMetrics().getLoadCount());
+        assertEquals(1, getAcceptedEicCodes.getMetrics().getMissCount());
+    }
+}
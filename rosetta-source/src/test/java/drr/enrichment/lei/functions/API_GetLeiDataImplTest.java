@@ -1,12 +1,20 @@
 package drr.enrichment.lei.functions;
 
+import com.google.common.base.Ticker;
 import com.google.common.io.Resources;
+import com.regnosys.drr.utils.gleif.GleifCircuitBreaker;
 import com.regnosys.drr.utils.gleif.GleifLeiAdaptor;
+import com.regnosys.drr.utils.gleif.GleifLeiBatchLoader;
+import com.regnosys.drr.utils.gleif.GleifLeiClient;
+import com.regnosys.drr.utils.gleif.GleifRetryPolicy;
+import com.regnosys.drr.utils.gleif.PersistentLeiCache;
+import com.regnosys.drr.utils.metrics.EnrichmentCacheMetrics;
 import drr.enrichment.lei.LeiCategoryEnum;
 import drr.enrichment.lei.LeiData;
 import drr.enrichment.lei.LeiRegistrationStatusEnum;
 import drr.enrichment.lei.LeiStatusEnum;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
@@ -14,9 +22,22 @@ import java.net.URL;
 import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +48,16 @@ class API_GetLeiDataImplTest {
 
     private static final String LEI = "529900W18LQJJN6SJ336";
 
+    private static final String LEI_1 = "529900TESTLEI0000064";
+    private static final String LEI_2 = "529900TESTLEI0000161";
+    private static final String LEI_3 = "529900TESTLEI0000258";
+    private static final String LEI_4 = "529900TESTLEI0000355";
+    private static final String LEI_5 = "529900TESTLEI0000452";
+    private static final String UNKNOWN_LEI = "529900TESTLEI0000549";
+    private static final Set<String> KNOWN_LEIS = Set.of(LEI_1, LEI_2, LEI_3, LEI_4, LEI_5);
+    private static final List<String> EVENT_LEIS = List.of(LEI_1, LEI_2, LEI_3, LEI_4, LEI_5, UNKNOWN_LEI);
+    private static final LeiDataCacheTtl CACHE_TTL = new LeiDataCacheTtl(Duration.ofHours(24), Duration.ofHours(1), Duration.ofSeconds(30));
+
     @Test
     void parseResponseJson() throws IOException {
         String gleifResponseJson = readResource("gleif-api-response.json");
@@ -87,6 +118,291 @@ class API_GetLeiDataImplTest {
         assertNull(leiData);
     }
 
+    @Test
+    void testOneRequestPerLeiWithoutPrefetch() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor());
+
+            EVENT_LEIS.forEach(func::doEvaluate);
+
+            assertEquals(EVENT_LEIS.size(), server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testPrefetchUsesSingleBulkRequest() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor());
+
+            func.prefetch(EVENT_LEIS);
+
+            // check cache is full, including the miss
+            assertEquals(EVENT_LEIS.size(), func.leiDataCache.size());
+
+            List<LeiData> leiData = new ArrayList<>();
+            EVENT_LEIS.forEach(lei -> leiData.add(func.doEvaluate(lei)));
+
+            // all served from the single bulk request
+            assertEquals(1, server.getRequestCount());
+            assertEquals(LEI_1, leiData.get(0).getLei());
+            assertEquals(LEI_5, leiData.get(4).getLei());
+            assertEquals("Société Générale Effekten GmbH", leiData.get(4).getEntityName());
+            assertEquals(LeiRegistrationStatusEnum.ISSUED, leiData.get(4).getRegistrationStatus());
+            assertTrue(leiData.get(4).getPublished());
+            assertNull(leiData.get(5));
+        }
+    }
+
+    @Test
+    void testLeiWithInvalidChecksumIsNotLookedUp() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor());
+
+            // matches the LEI format, but fails the ISO 17442 checksum
+            assertNull(func.doEvaluate("529900TESTLEI0000065"));
+            func.prefetch(List.of("529900TESTLEI0000066"));
+
+            assertEquals(0, server.getRequestCount());
+            assertEquals(0, func.leiDataCache.size());
+        }
+    }
+
+    @Test
+    void testPrefetchSkipsCachedAndInvalidLeis() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor());
+
+            func.doEvaluate(LEI_1);
+            func.prefetch(List.of(LEI_1, LEI_2, "NOT-AN-LEI"));
+
+            assertEquals(2, server.getRequestCount());
+            assertEquals(List.of(LEI_1, LEI_2), server.getRequestedLeis());
+        }
+    }
+
+    @Test
+    void testConcurrentLookupsJoinInFlightBatch() throws Exception {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            GleifLeiBatchLoader batchLoader = new GleifLeiBatchLoader(newClient(server), new GleifLeiAdaptor(), 1);
+            CountDownLatch firstRequestReceived = new CountDownLatch(1);
+            CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+            server.setBeforeResponse(exchange -> {
+                firstRequestReceived.countDown();
+                try {
+                    releaseFirstRequest.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            ExecutorService executor = Executors.newFixedThreadPool(EVENT_LEIS.size() + 1);
+            try {
+                // first caller dispatches a batch containing only LEI_1, which the stub server holds open
+                List<Future<?>> lookups = new ArrayList<>();
+                lookups.add(executor.submit(() -> batchLoader.load(LEI_1)));
+                assertTrue(firstRequestReceived.await(10, TimeUnit.SECONDS));
+
+                // remaining callers, including a duplicate lookup of LEI_1, arrive while the first batch is in flight
+                EVENT_LEIS.forEach(lei -> lookups.add(executor.submit(() -> batchLoader.load(lei))));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (batchLoader.pendingCount() < EVENT_LEIS.size() - 1 && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                }
+                releaseFirstRequest.countDown();
+
+                for (Future<?> lookup : lookups) {
+                    lookup.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // one request for LEI_1, then one bulk request for everything queued behind it
+            assertEquals(2, server.getRequestCount());
+            assertEquals(EVENT_LEIS.size(), server.getRequestedLeis().size());
+        }
+    }
+
+    @Test
+    void testAsyncLookupCompletesWithoutBlockingCaller() throws Exception {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            CountDownLatch releaseRequest = new CountDownLatch(1);
+            server.setBeforeResponse(exchange -> {
+                try {
+                    releaseRequest.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor());
+
+            CompletableFuture<Optional<LeiData>> known = func.getLeiDataAsync(LEI_1);
+            CompletableFuture<Optional<LeiData>> unknown = func.getLeiDataAsync(UNKNOWN_LEI);
+
+            // caller is not blocked while the stub server holds the requests open
+            assertFalse(known.isDone());
+            assertFalse(unknown.isDone());
+            releaseRequest.countDown();
+
+            assertEquals(LEI_1, known.get(10, TimeUnit.SECONDS).map(LeiData::getLei).orElse(null));
+            assertTrue(unknown.get(10, TimeUnit.SECONDS).isEmpty());
+
+            // results are cached, so subsequent lookups complete immediately
+            assertEquals(2, func.leiDataCache.size());
+            assertTrue(func.getLeiDataAsync(LEI_1).isDone());
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testAsyncLookupOfInvalidLeiCompletesEmpty() {
+        API_GetLeiDataImpl func = new API_GetLeiDataImpl(mock(HttpClient.class));
+
+        CompletableFuture<Optional<LeiData>> result = func.getLeiDataAsync("NOT-AN-LEI");
+
+        assertTrue(result.isDone());
+        assertTrue(result.join().isEmpty());
+        assertEquals(0, func.leiDataCache.size());
+    }
+
+    @Test
+    void testPersistentCacheSurvivesRestart(@TempDir Path tempDir) throws IOException {
+        Path cachePath = tempDir.resolve("lei-cache.tsv");
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            try (PersistentLeiCache persistentLeiCache = new PersistentLeiCache(cachePath)) {
+                API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor(), 10, persistentLeiCache);
+                func.prefetch(EVENT_LEIS);
+                assertEquals(1, server.getRequestCount());
+            }
+
+            // after restart, all results (including the miss) are served from disk
+            try (PersistentLeiCache persistentLeiCache = new PersistentLeiCache(cachePath)) {
+                API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor(), 10, persistentLeiCache);
+                assertEquals(0, func.leiDataCache.size());
+
+                assertEquals(LEI_1, func.doEvaluate(LEI_1).getLei());
+                assertEquals("Société Générale Effekten GmbH", func.doEvaluate(LEI_5).getEntityName());
+                assertNull(func.doEvaluate(UNKNOWN_LEI));
+                assertEquals(1, server.getRequestCount());
+            }
+        }
+    }
+
+    @Test
+    void testTransientFailuresAreRetried() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            server.failNextRequests(2, HttpURLConnection.HTTP_UNAVAILABLE);
+            GleifLeiClient client = newClient(server, new GleifRetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5)), new GleifCircuitBreaker());
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(client, new GleifLeiAdaptor());
+
+            assertEquals(LEI_1, func.doEvaluate(LEI_1).getLei());
+            assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testFailuresAreOnlyCachedForErrorTtl() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            server.failNextRequests(1, HttpURLConnection.HTTP_UNAVAILABLE);
+            MutableTicker ticker = new MutableTicker();
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server, GleifRetryPolicy.NONE, new GleifCircuitBreaker()),
+                    new GleifLeiAdaptor(), 10, CACHE_TTL, null, ticker);
+
+            // the failure is cached briefly, so evaluations do not hammer a failing endpoint
+            assertNull(func.doEvaluate(LEI_1));
+            assertNull(func.doEvaluate(LEI_1));
+            assertEquals(1, server.getRequestCount());
+
+            // but not forever: once the error TTL has passed the LEI is looked up again
+            ticker.advance(CACHE_TTL.getError());
+            assertEquals(LEI_1, func.doEvaluate(LEI_1).getLei());
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testFoundAndNotFoundHaveSeparateTtls() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            MutableTicker ticker = new MutableTicker();
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor(), 10, CACHE_TTL, null, ticker);
+
+            func.prefetch(List.of(LEI_1, UNKNOWN_LEI));
+            assertEquals(1, server.getRequestCount());
+            server.getRequestedLeis().clear();
+
+            // only the not found LEI has expired
+            ticker.advance(CACHE_TTL.getNotFound());
+            assertEquals(LEI_1, func.doEvaluate(LEI_1).getLei());
+            assertNull(func.doEvaluate(UNKNOWN_LEI));
+            assertEquals(List.of(UNKNOWN_LEI), server.getRequestedLeis());
+
+            ticker.advance(CACHE_TTL.getFound());
+            func.doEvaluate(LEI_1);
+            assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testCircuitBreakerFailsFastWhileGleifIsUnhealthy() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            server.failNextRequests(Integer.MAX_VALUE, HttpURLConnection.HTTP_UNAVAILABLE);
+            GleifCircuitBreaker circuitBreaker = new GleifCircuitBreaker(2, Duration.ofMinutes(1), Clock.systemUTC());
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server, GleifRetryPolicy.NONE, circuitBreaker), new GleifLeiAdaptor());
+
+            EVENT_LEIS.forEach(lei -> assertNull(func.doEvaluate(lei)));
+
+            // only the requests needed to open the breaker reach the server
+            assertEquals(2, server.getRequestCount());
+            assertEquals(GleifCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+    }
+
+    @Test
+    void testMetricsRecordHitsMissesAndGleifRequests() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server), new GleifLeiAdaptor());
+            EnrichmentCacheMetrics metrics = func.getMetrics();
+
+            func.prefetch(EVENT_LEIS);
+            EVENT_LEIS.forEach(func::doEvaluate);
+
+            assertEquals(EVENT_LEIS.size(), metrics.getMissCount());
+            assertEquals(EVENT_LEIS.size(), metrics.getHitCount());
+            assertEquals(EVENT_LEIS.size(), metrics.getLoadCount());
+            assertEquals(0, metrics.getLoadFailureCount());
+            assertEquals(1, metrics.getRemoteCallCount());
+            assertEquals(0, metrics.getInFlightRemoteCalls());
+            assertEquals(EVENT_LEIS.size(), metrics.getCacheSize());
+        }
+    }
+
+    @Test
+    void testMetricsRecordFailedLoadsAndEvictions() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(KNOWN_LEIS)) {
+            server.failNextRequests(1, HttpURLConnection.HTTP_UNAVAILABLE);
+            API_GetLeiDataImpl func = new API_GetLeiDataImpl(newClient(server, GleifRetryPolicy.NONE, new GleifCircuitBreaker()),
+                    new GleifLeiAdaptor(), 1, CACHE_TTL, null, new MutableTicker());
+            EnrichmentCacheMetrics metrics = func.getMetrics();
+
+            assertNull(func.doEvaluate(LEI_1));
+            assertEquals(LEI_2, func.doEvaluate(LEI_2).getLei());
+
+            assertEquals(2, metrics.getLoadCount());
+            assertEquals(1, metrics.getLoadFailureCount());
+            assertEquals(1, metrics.getRemoteCallFailureCount());
+            // the cache only holds one LEI
+            assertEquals(1, metrics.getEvictionCount());
+        }
+    }
+
+    private static GleifLeiClient newClient(GleifStubServer server) {
+        return new GleifLeiClient(HttpClient.newHttpClient(), server.getDataSourceUrl());
+    }
+
+    private static GleifLeiClient newClient(GleifStubServer server, GleifRetryPolicy retryPolicy, GleifCircuitBreaker circuitBreaker) {
+        return new GleifLeiClient(HttpClient.newHttpClient(), server.getDataSourceUrl(), retryPolicy, circuitBreaker);
+    }
+
     private static void assertResponse(LeiData leiData) {
         assertEquals(LEI, leiData.getLei());
         assertEquals("Société Générale Effekten GmbH", leiData.getEntityName());
@@ -102,4 +418,17 @@ class API_GetLeiDataImplTest {
         URL url = Objects.requireNonNull(Resources.getResource(path));
         return Resources.toString(url, StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+
+    private static class MutableTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package drr.enrichment.lei.functions;
+
+import com.regnosys.drr.utils.gleif.GleifGoldenCopyIndex;
+import drr.enrichment.lei.LeiCategoryEnum;
+import drr.enrichment.lei.LeiData;
+import drr.enrichment.lei.LeiRegistrationStatusEnum;
+import drr.enrichment.lei.LeiStatusEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class API_GetLeiDataOfflineImplTest {
+
+    private static final String LEI = "529900W18LQJJN6SJ336";
+
+    @Test
+    void shouldServeLeiDataFromGoldenCopyIndex(@TempDir Path tempDir) throws IOException {
+        Path index = tempDir.resolve("lei.idx");
+        try (GleifGoldenCopyIndex.Builder builder = new GleifGoldenCopyIndex.Builder(index)) {
+            builder.add(LEI, "Societe Generale", LeiCategoryEnum.GENERAL, LeiStatusEnum.ACTIVE,
+                    LeiRegistrationStatusEnum.ISSUED, ZonedDateTime.parse("2012-06-06T15:53:00Z"));
+            builder.build();
+        }
+
+        API_GetLeiDataOfflineImpl apiGetLeiData = new API_GetLeiDataOfflineImpl(index);
+
+        LeiData leiData = apiGetLeiData.doEvaluate(LEI);
+        assertEquals(LEI, leiData.getLei());
+        assertEquals("Societe Generale", leiData.getEntityName());
+        assertEquals(LeiRegistrationStatusEnum.ISSUED, leiData.getRegistrationStatus());
+        assertNull(apiGetLeiData.doEvaluate("529900TESTLEI0000064"));
+        assertNull(apiGetLeiData.doEvaluate("INVALID"));
+        assertNull(apiGetLeiData.doEvaluate(null));
+    }
+}
@@ -0,0 +1,134 @@
+package drr.enrichment.lei.functions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in for the GLEIF lei-records endpoint, serving both the single LEI and the multi-LEI filter queries
+ * from the {@code gleif-api-response.json} test resource, and recording each request received. Failures can be
+ * injected with {@link #failNextRequests(int, int)}.
+ */
+class GleifStubServer implements AutoCloseable {
+
+    static final String PATH = "/api/v1/lei-records";
+
+    private static final String TEMPLATE_LEI = "529900W18LQJJN6SJ336";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<String> knownLeis;
+    private final String singleResponseTemplate;
+    private final String recordTemplate;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final CopyOnWriteArrayList<String> requestedLeis = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresRemaining = new AtomicInteger();
+    private volatile int failureStatus;
+    private volatile Consumer<HttpExchange> beforeResponse = exchange -> {};
+
+    GleifStubServer(Set<String> knownLeis) throws IOException {
+        this.knownLeis = knownLeis;
+        URL url = Resources.getResource("gleif-api-response.json");
+        this.singleResponseTemplate = Resources.toString(url, StandardCharsets.UTF_8);
+        this.recordTemplate = new ObjectMapper().readTree(singleResponseTemplate).path("data").toString();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String getDataSourceUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH;
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    CopyOnWriteArrayList<String> getRequestedLeis() {
+        return requestedLeis;
+    }
+
+    /**
+     * Hook invoked on the server thread before each response is written, e.g. to hold a request open.
+     */
+    void setBeforeResponse(Consumer<HttpExchange> beforeResponse) {
+        this.beforeResponse = beforeResponse;
+    }
+
+    /**
+     * Responds to the next {@code count} requests with the given HTTP status instead of LEI data.
+     */
+    void failNextRequests(int count, int status) {
+        failureStatus = status;
+        failuresRemaining.set(count);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        beforeResponse.accept(exchange);
+        if (failuresRemaining.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+            respond(exchange, failureStatus, "{\"errors\":[{\"status\":\"" + failureStatus + "\"}]}");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() > PATH.length() + 1) {
+            String lei = path.substring(PATH.length() + 1);
+            requestedLeis.add(lei);
+            if (knownLeis.contains(lei)) {
+                respond(exchange, 200, singleResponseTemplate.replace(TEMPLATE_LEI, lei));
+            } else {
+                respond(exchange, 404, "{\"errors\":[{\"status\":\"404\",\"title\":\"Not Found\"}]}");
+            }
+        } else {
+            String query = exchange.getRequestURI().getQuery();
+            String filter = Arrays.stream(query.split("&"))
+                    .filter(param -> param.startsWith("filter[lei]="))
+                    .map(param -> param.substring("filter[lei]=".length()))
+                    .findFirst()
+                    .orElse("");
+            String records = Arrays.stream(filter.split(","))
+                    .peek(requestedLeis::add)
+                    .filter(knownLeis::contains)
+                    .map(lei -> recordTemplate.replace(TEMPLATE_LEI, lei))
+                    .collect(Collectors.joining(","));
+            respond(exchange, 200, "{\"data\":[" + records + "]}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) {
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/vnd.api+json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
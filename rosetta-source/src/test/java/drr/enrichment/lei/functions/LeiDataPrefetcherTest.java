@@ -0,0 +1,109 @@
+package drr.enrichment.lei.functions;
+
+import cdm.base.staticdata.identifier.AssignedIdentifier;
+import cdm.base.staticdata.party.LegalEntity;
+import cdm.base.staticdata.party.Party;
+import cdm.base.staticdata.party.PartyIdentifier;
+import cdm.base.staticdata.party.PartyIdentifierTypeEnum;
+import cdm.event.common.Trade;
+import cdm.event.common.TradeIdentifier;
+import cdm.event.common.TradeState;
+import cdm.product.asset.ReferenceInformation;
+import com.regnosys.drr.utils.gleif.GleifLeiAdaptor;
+import com.regnosys.drr.utils.gleif.GleifLeiClient;
+import com.rosetta.model.metafields.FieldWithMetaString;
+import drr.regulation.common.PartyInformation;
+import drr.regulation.common.ReportableEvent;
+import drr.regulation.common.ReportableInformation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class LeiDataPrefetcherTest {
+
+    private static final String COUNTERPARTY_LEI = "529900TESTLEI0000064";
+    private static final String BENEFICIARY_LEI = "529900TESTLEI0000161";
+    private static final String UNKNOWN_LEI = "529900TESTLEI0000549";
+    private static final String REFERENCE_ENTITY_LEI = "529900TESTLEI0000258";
+    private static final String TRADE_ID = "529900TESTLEI0000355";
+
+    @Test
+    void shouldCollectLeisFromPartiesAndPartyInformation() {
+        ReportableEvent reportableEvent = createReportableEvent();
+
+        Set<String> leis = LeiDataPrefetcher.collectLeis(reportableEvent);
+
+        assertEquals(Set.of(COUNTERPARTY_LEI, BENEFICIARY_LEI, UNKNOWN_LEI), leis);
+    }
+
+    @Test
+    void shouldOnlyCollectPartyAndEntityIdentifiers() {
+        ReportableEvent reportableEvent = createReportableEvent().toBuilder()
+                .setReportableTrade(TradeState.builder()
+                        .setTrade(Trade.builder()
+                                .addParty(createParty(COUNTERPARTY_LEI))
+                                .addTradeIdentifier(TradeIdentifier.builder()
+                                        .addAssignedIdentifier(AssignedIdentifier.builder()
+                                                .setIdentifierValue(TRADE_ID)))))
+                .build();
+        ReferenceInformation referenceInformation = ReferenceInformation.builder()
+                .setReferenceEntity(LegalEntity.builder()
+                        .addEntityId(FieldWithMetaString.builder().setValue(REFERENCE_ENTITY_LEI)))
+                .build();
+
+        assertEquals(Set.of(COUNTERPARTY_LEI, UNKNOWN_LEI), LeiDataPrefetcher.collectLeis(reportableEvent));
+        assertEquals(Set.of(REFERENCE_ENTITY_LEI), LeiDataPrefetcher.collectLeis(referenceInformation));
+    }
+
+    @Test
+    void shouldResolveAllLeisBeforeEvaluation() throws IOException {
+        try (GleifStubServer server = new GleifStubServer(Set.of(COUNTERPARTY_LEI, BENEFICIARY_LEI))) {
+            GleifLeiClient client = new GleifLeiClient(HttpClient.newHttpClient(), server.getDataSourceUrl());
+            API_GetLeiDataImpl apiGetLeiData = new API_GetLeiDataImpl(client, new GleifLeiAdaptor());
+
+            new LeiDataPrefetcher(apiGetLeiData).prefetch(createReportableEvent());
+
+            assertEquals(1, server.getRequestCount());
+            assertNotNull(apiGetLeiData.doEvaluate(COUNTERPARTY_LEI));
+            assertNotNull(apiGetLeiData.doEvaluate(BENEFICIARY_LEI));
+            assertNull(apiGetLeiData.doEvaluate(UNKNOWN_LEI));
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void shouldIgnoreOtherApiGetLeiDataBindings() {
+        LeiDataPrefetcher prefetcher = new LeiDataPrefetcher(mock(API_GetLeiData.class));
+
+        prefetcher.prefetch(createReportableEvent());
+    }
+
+    private static ReportableEvent createReportableEvent() {
+        Party counterparty = createParty(COUNTERPARTY_LEI);
+        Party beneficiary = createParty(BENEFICIARY_LEI);
+        return ReportableEvent.builder()
+                .setReportableTrade(TradeState.builder()
+                        .setTrade(Trade.builder()
+                                .addParty(counterparty)
+                                .addParty(beneficiary)))
+                .setReportableInformation(ReportableInformation.builder()
+                        .addPartyInformation(PartyInformation.builder()
+                                .setPartyReferenceValue(createParty(UNKNOWN_LEI))))
+                .build();
+    }
+
+    private static Party createParty(String lei) {
+        return Party.builder()
+                .addPartyId(PartyIdentifier.builder()
+                        .setIdentifierValue(lei)
+                        .setIdentifierType(PartyIdentifierTypeEnum.LEI))
+                .build();
+    }
+}
@@ -0,0 +1,214 @@
+package drr.enrichment.upi.functions;
+
+import com.google.common.base.Ticker;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiClient;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiRequestKey;
+import drr.standards.iosco.upi.AnnaDsbAssetClassEnum;
+import drr.standards.iosco.upi.AnnaDsbAttributes;
+import drr.standards.iosco.upi.AnnaDsbHeader;
+import drr.standards.iosco.upi.AnnaDsbInstrumentTypeEnum;
+import drr.standards.iosco.upi.AnnaDsbLevelEnum;
+import drr.standards.iosco.upi.AnnaDsbUnderlyingInstrumentIndexTermUnitEnum;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+import drr.standards.iosco.upi.AnnaDsbUseCaseEnum;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class API_AnnaDsbRetrieveUpiImplTest {
+
+    private static final String UPI = "QZ0000000001";
+    private static final Duration CACHE_TTL = Duration.ofHours(1);
+
+    @Test
+    void testRetrievesRecordFromAnnaDsb() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            AnnaDsbUpiRecord record = func.evaluate(request("GBP", "GBP-SONIA"));
+
+            assertEquals(UPI, record.getIdentifier().getUPI());
+            assertEquals(AnnaDsbAssetClassEnum.RATES, record.getHeader().getAssetClass());
+            assertEquals("GBP", record.getAttributes().getNotionalCurrency());
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testEquivalentRequestsShareCacheEntry() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            assertEquals(UPI, func.evaluate(request("GBP", "GBP-SONIA")).getIdentifier().getUPI());
+            assertEquals(UPI, func.evaluate(request(" gbp", "GBP-SONIA ")).getIdentifier().getUPI());
+
+            assertEquals(1, server.getRequestCount());
+            assertEquals(1, func.getMetrics().getHitCount());
+        }
+    }
+
+    @Test
+    void testRequestIsSentInCanonicalForm() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            func.evaluate(request(" gbp", "GBP-SONIA "));
+
+            assertEquals(List.of(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")).toJson()), server.getRequestBodies());
+        }
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsShareSingleSearch() throws Exception {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            CountDownLatch release = new CountDownLatch(1);
+            server.setBeforeResponse(exchange -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            int callers = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            try {
+                CountDownLatch started = new CountDownLatch(callers);
+                List<Future<AnnaDsbUpiRecord>> results = new ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    results.add(executor.submit(() -> {
+                        started.countDown();
+                        return func.evaluate(request("GBP", "GBP-SONIA"));
+                    }));
+                }
+                started.await(10, TimeUnit.SECONDS);
+                // give the callers time to join the in-flight search before it completes
+                Thread.sleep(200);
+                release.countDown();
+
+                for (Future<AnnaDsbUpiRecord> result : results) {
+                    assertEquals(UPI, result.get(10, TimeUnit.SECONDS).getIdentifier().getUPI());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testPrefetchSearchesOncePerDistinctRequest() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            func.prefetchAsync(List.of(request("GBP", "GBP-SONIA"), request("gbp", "GBP-SONIA"), request("USD", "USD-SOFR"))).join();
+            assertEquals(2, server.getRequestCount());
+
+            assertEquals(UPI, func.evaluate(request("GBP", "GBP-SONIA")).getIdentifier().getUPI());
+            assertNull(func.evaluate(request("USD", "USD-SOFR")));
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testCachedResultsExpireAfterTtl() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            MutableTicker ticker = new MutableTicker();
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, ticker);
+
+            func.evaluate(request("GBP", "GBP-SONIA"));
+            assertNull(func.evaluate(request("USD", "USD-SOFR")));
+            func.evaluate(request("GBP", "GBP-SONIA"));
+            assertNull(func.evaluate(request("USD", "USD-SOFR")));
+            assertEquals(2, server.getRequestCount());
+
+            ticker.advance(CACHE_TTL);
+            assertEquals(UPI, func.evaluate(request("GBP", "GBP-SONIA")).getIdentifier().getUPI());
+            assertNull(func.evaluate(request("USD", "USD-SOFR")));
+            assertEquals(4, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testFailuresAreNotCached() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            server.failNextRequests(1, HttpURLConnection.HTTP_UNAVAILABLE);
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            assertNull(func.evaluate(request("GBP", "GBP-SONIA")));
+            assertEquals(UPI, func.evaluate(request("GBP", "GBP-SONIA")).getIdentifier().getUPI());
+
+            assertEquals(2, server.getRequestCount());
+            assertEquals(1, func.getMetrics().getLoadFailureCount());
+            assertEquals(1, func.getMetrics().getRemoteCallFailureCount());
+        }
+    }
+
+    @Test
+    void testEachEvaluationGetsItsOwnBuilder() throws IOException {
+        try (AnnaDsbStubServer server = new AnnaDsbStubServer()) {
+            server.addUpi(AnnaDsbUpiRequestKey.of(request("GBP", "GBP-SONIA")), UPI);
+            API_AnnaDsbRetrieveUpiImpl func = newFunc(server, new MutableTicker());
+
+            AnnaDsbUpiRecord.AnnaDsbUpiRecordBuilder first = func.doEvaluate(request("GBP", "GBP-SONIA"));
+            first.setTemplateVersion(99);
+
+            assertEquals(1, func.doEvaluate(request("GBP", "GBP-SONIA")).getTemplateVersion());
+        }
+    }
+
+    private static API_AnnaDsbRetrieveUpiImpl newFunc(AnnaDsbStubServer server, Ticker ticker) {
+        AnnaDsbUpiClient client = new AnnaDsbUpiClient(HttpClient.newHttpClient(), server.getSearchUrl(), Map.of("Authorization", "Bearer test"));
+        return new API_AnnaDsbRetrieveUpiImpl(client, 100, CACHE_TTL, ticker);
+    }
+
+    private static AnnaDsbUpiRequest request(String currency, String index) {
+        return AnnaDsbUpiRequest.builder()
+                .setHeader(AnnaDsbHeader.builder()
+                        .setAssetClass(AnnaDsbAssetClassEnum.RATES)
+                        .setInstrumentType(AnnaDsbInstrumentTypeEnum.SWAP)
+                        .setUseCase(AnnaDsbUseCaseEnum.FIXED_FLOAT_OIS)
+                        .setLevel(AnnaDsbLevelEnum.UPI))
+                .setAttributes(AnnaDsbAttributes.builder()
+                        .setNotionalCurrency(currency)
+                        .setUnderlyingInstrumentIndex(index)
+                        .setUnderlyingInstrumentIndexTermValue(1)
+                        .setUnderlyingInstrumentIndexTermUnit(AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.DAYS))
+                .build();
+    }
+
+    private static class MutableTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package drr.enrichment.upi.functions;
+
+import com.google.common.io.Resources;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiIndex;
+import drr.standards.iosco.upi.AnnaDsbAssetClassEnum;
+import drr.standards.iosco.upi.AnnaDsbAttributes;
+import drr.standards.iosco.upi.AnnaDsbDeliveryTypeEnum;
+import drr.standards.iosco.upi.AnnaDsbHeader;
+import drr.standards.iosco.upi.AnnaDsbInstrumentTypeEnum;
+import drr.standards.iosco.upi.AnnaDsbLevelEnum;
+import drr.standards.iosco.upi.AnnaDsbUnderlyingInstrumentIndexTermUnitEnum;
+import drr.standards.iosco.upi.AnnaDsbUpiRecord;
+import drr.standards.iosco.upi.AnnaDsbUpiRequest;
+import drr.standards.iosco.upi.AnnaDsbUseCaseEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class API_AnnaDsbRetrieveUpiOfflineImplTest {
+
+    private AnnaDsbUpiIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream is = Resources.getResource("annadsb/upi-records.jsonl").openStream()) {
+            index = AnnaDsbUpiIndex.load(is);
+        }
+    }
+
+    @Test
+    void testIndexedRequestIsServedLocally() {
+        API_AnnaDsbRetrieveUpi fallback = mock(API_AnnaDsbRetrieveUpi.class);
+        API_AnnaDsbRetrieveUpiOfflineImpl func = new API_AnnaDsbRetrieveUpiOfflineImpl(index, fallback);
+
+        AnnaDsbUpiRecord record = func.evaluate(request("GBP", "GBP-SONIA"));
+
+        assertEquals("QZ0000000001", record.getIdentifier().getUPI());
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void testUnindexedRequestUsesFallback() {
+        AnnaDsbUpiRecord remoteRecord = index.getByUpi("QZ0000000002").orElseThrow();
+        API_AnnaDsbRetrieveUpi fallback = mock(API_AnnaDsbRetrieveUpi.class);
+        when(fallback.evaluate(any())).thenReturn(remoteRecord);
+        API_AnnaDsbRetrieveUpiOfflineImpl func = new API_AnnaDsbRetrieveUpiOfflineImpl(index, fallback);
+
+        AnnaDsbUpiRequest request = request("USD", "USD-SOFR");
+        assertEquals("QZ0000000002", func.evaluate(request).getIdentifier().getUPI());
+        verify(fallback).evaluate(request);
+    }
+
+    @Test
+    void testUnindexedRequestWithoutFallbackIsNotFound() {
+        API_AnnaDsbRetrieveUpiOfflineImpl func = new API_AnnaDsbRetrieveUpiOfflineImpl(index, null);
+
+        assertNull(func.evaluate(request("USD", "USD-SOFR")));
+    }
+
+    private static AnnaDsbUpiRequest request(String currency, String index) {
+        return AnnaDsbUpiRequest.builder()
+                .setHeader(AnnaDsbHeader.builder()
+                        .setAssetClass(AnnaDsbAssetClassEnum.RATES)
+                        .setInstrumentType(AnnaDsbInstrumentTypeEnum.SWAP)
+                        .setUseCase(AnnaDsbUseCaseEnum.FIXED_FLOAT_OIS)
+                        .setLevel(AnnaDsbLevelEnum.UPI))
+                .setAttributes(AnnaDsbAttributes.builder()
+                        .setNotionalCurrency(currency)
+                        .setUnderlyingInstrumentIndex(index)
+                        .setUnderlyingInstrumentIndexTermValue(1)
+                        .setUnderlyingInstrumentIndexTermUnit(AnnaDsbUnderlyingInstrumentIndexTermUnitEnum.DAYS)
+                        .setDeliveryType(AnnaDsbDeliveryTypeEnum.CASH))
+                .build();
+    }
+}
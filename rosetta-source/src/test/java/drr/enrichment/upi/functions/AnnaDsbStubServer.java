@@ -0,0 +1,135 @@
+package drr.enrichment.upi.functions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.regnosys.drr.utils.annadsb.AnnaDsbUpiRequestKey;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Local stand-in for the ANNA DSB UPI search endpoint, answering searches for requests registered with
+ * {@link #addUpi(AnnaDsbUpiRequestKey, String)} with a record echoing the request's header and attributes, and with
+ * a 404 otherwise. Each request body received is recorded, and failures can be injected with
+ * {@link #failNextRequests(int, int)}.
+ */
+class AnnaDsbStubServer implements AutoCloseable {
+
+    static final String PATH = "/api/upi/search";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<AnnaDsbUpiRequestKey, String> upis = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final CopyOnWriteArrayList<String> requestBodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresRemaining = new AtomicInteger();
+    private volatile int failureStatus;
+    private volatile Consumer<HttpExchange> beforeResponse = exchange -> {};
+
+    AnnaDsbStubServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String getSearchUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH;
+    }
+
+    void addUpi(AnnaDsbUpiRequestKey key, String upi) {
+        upis.put(key, upi);
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    CopyOnWriteArrayList<String> getRequestBodies() {
+        return requestBodies;
+    }
+
+    /**
+     * Hook invoked on the server thread before each response is written, e.g. to hold a request open.
+     */
+    void setBeforeResponse(Consumer<HttpExchange> beforeResponse) {
+        this.beforeResponse = beforeResponse;
+    }
+
+    /**
+     * Responds to the next {@code count} requests with the given HTTP status instead of a UPI record.
+     */
+    void failNextRequests(int count, int status) {
+        failureStatus = status;
+        failuresRemaining.set(count);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        String body;
+        try (InputStream is = exchange.getRequestBody()) {
+            body = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        requestBodies.add(body);
+        beforeResponse.accept(exchange);
+        if (failuresRemaining.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+            respond(exchange, failureStatus, "{\"error\":\"" + failureStatus + "\"}");
+            return;
+        }
+        JsonNode request = OBJECT_MAPPER.readTree(body);
+        String upi = upis.get(AnnaDsbUpiRequestKey.of(request));
+        if (upi == null) {
+            respond(exchange, 404, "{\"error\":\"Not Found\"}");
+            return;
+        }
+        ObjectNode record = OBJECT_MAPPER.createObjectNode();
+        record.putObject("Identifier")
+                .put("Status", "New")
+                .put("LastUpdateDateTime", "2024-01-02T03:04:05")
+                .put("UPI", upi);
+        record.set("Header", request.get("Header"));
+        record.putObject("Derived")
+                .put("ShortName", "Rates Swap Fixed_Float")
+                .put("ClassificationType", "SRCCSP");
+        record.set("Attributes", request.get("Attributes"));
+        record.put("TemplateVersion", 1);
+        record.put("UnknownField", "ignored");
+        respond(exchange, 200, OBJECT_MAPPER.writeValueAsString(OBJECT_MAPPER.createArrayNode().add(record)));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) {
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
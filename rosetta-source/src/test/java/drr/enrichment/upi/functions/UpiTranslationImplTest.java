@@ -0,0 +1,186 @@
+package drr.enrichment.upi.functions;
+
+import cdm.base.datetime.PeriodEnum;
+import cdm.base.datetime.PeriodExtendedEnum;
+import cdm.base.staticdata.asset.common.AssetClassEnum;
+import cdm.base.staticdata.asset.rates.FloatingRateIndexEnum;
+import cdm.observable.asset.FloatingRateOption;
+import cdm.product.asset.FloatingRateSpecification;
+import cdm.product.asset.InflationRateSpecification;
+import cdm.product.asset.InterestRatePayout;
+import cdm.product.asset.RateSpecification;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.regnosys.drr.DrrRuntimeModule;
+import drr.functions.AbstractFunctionTest;
+import drr.standards.iosco.upi.codesets.AnnaDsbMrktCreditIndexEnum;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the table-driven translations against the Rosetta implementations over every enum value.
+ */
+class UpiTranslationImplTest extends AbstractFunctionTest {
+
+    private static Injector rosettaInjector;
+
+    @Inject
+    ConvertCurrency convertCurrency;
+    @Inject
+    TranslateAssetClass translateAssetClass;
+    @Inject
+    TranslatePeriodEnum translatePeriodEnum;
+    @Inject
+    TranslatePeriodExtendedEnum translatePeriodExtendedEnum;
+    @Inject
+    FloatingRateIndex floatingRateIndex;
+    @Inject
+    TranslateIndexNameToId translateIndexNameToId;
+
+    @BeforeAll
+    static void setUpRosettaInjector() {
+        rosettaInjector = Guice.createInjector(new DrrRuntimeModule() {
+            @Override
+            protected Class<? extends ConvertCurrency> bindConvertCurrency() {
+                return ConvertCurrency.ConvertCurrencyDefault.class;
+            }
+
+            @Override
+            protected Class<? extends TranslateAssetClass> bindTranslateAssetClass() {
+                return TranslateAssetClass.TranslateAssetClassDefault.class;
+            }
+
+            @Override
+            protected Class<? extends TranslatePeriodEnum> bindTranslatePeriodEnum() {
+                return TranslatePeriodEnum.TranslatePeriodEnumDefault.class;
+            }
+
+            @Override
+            protected Class<? extends TranslatePeriodExtendedEnum> bindTranslatePeriodExtendedEnum() {
+                return TranslatePeriodExtendedEnum.TranslatePeriodExtendedEnumDefault.class;
+            }
+
+            @Override
+            protected Class<? extends FloatingRateIndex> bindFloatingRateIndex() {
+                return FloatingRateIndex.FloatingRateIndexDefault.class;
+            }
+
+            @Override
+            protected Class<? extends TranslateIndexNameToId> bindTranslateIndexNameToId() {
+                return TranslateIndexNameToId.TranslateIndexNameToIdDefault.class;
+            }
+        });
+    }
+
+    @Test
+    void shouldBeBoundToTableDrivenImplementations() {
+        assertTrue(convertCurrency instanceof ConvertCurrencyImpl);
+        assertTrue(translateAssetClass instanceof TranslateAssetClassImpl);
+        assertTrue(translatePeriodEnum instanceof TranslatePeriodEnumImpl);
+        assertTrue(translatePeriodExtendedEnum instanceof TranslatePeriodExtendedEnumImpl);
+        assertTrue(floatingRateIndex instanceof FloatingRateIndexImpl);
+        assertTrue(translateIndexNameToId instanceof TranslateIndexNameToIdImpl);
+    }
+
+    @Test
+    void convertCurrencyShouldMatchRosetta() {
+        List<String> currencies = new ArrayList<>(Arrays.asList(
+                "CNH", "COO", "GBPpence", "ARO", "AZO", "BRO", "CNO", "IDO", "INO", "KRO", "MAO", "MYO", "RUO", "THO",
+                "TWO", "VNO", "XRH", "AUO", "LKO", "UAO", "cnh", "GBPPENCE", "", null));
+        Currency.getAvailableCurrencies().forEach(currency -> currencies.add(currency.getCurrencyCode()));
+
+        assertMatchesRosetta(currencies, rosettaInjector.getInstance(ConvertCurrency.class)::evaluate, convertCurrency::evaluate);
+    }
+
+    @Test
+    void translateAssetClassShouldMatchRosetta() {
+        List<AssetClassEnum> assetClasses = new ArrayList<>(Arrays.asList(AssetClassEnum.values()));
+        assetClasses.add(null);
+
+        assertMatchesRosetta(assetClasses, rosettaInjector.getInstance(TranslateAssetClass.class)::evaluate, translateAssetClass::evaluate);
+    }
+
+    @Test
+    void translatePeriodEnumShouldMatchRosetta() {
+        List<PeriodEnum> periods = new ArrayList<>(Arrays.asList(PeriodEnum.values()));
+        periods.add(null);
+
+        assertMatchesRosetta(periods, rosettaInjector.getInstance(TranslatePeriodEnum.class)::evaluate, translatePeriodEnum::evaluate);
+    }
+
+    @Test
+    void translatePeriodExtendedEnumShouldMatchRosetta() {
+        List<PeriodExtendedEnum> periods = new ArrayList<>(Arrays.asList(PeriodExtendedEnum.values()));
+        periods.add(null);
+
+        assertMatchesRosetta(periods, rosettaInjector.getInstance(TranslatePeriodExtendedEnum.class)::evaluate, translatePeriodExtendedEnum::evaluate);
+    }
+
+    @Test
+    void floatingRateIndexShouldMatchRosetta() {
+        List<InterestRatePayout> payouts = new ArrayList<>();
+        for (FloatingRateIndexEnum index : FloatingRateIndexEnum.values()) {
+            payouts.add(floatingRatePayout(index));
+            payouts.add(inflationRatePayout(index));
+        }
+        payouts.add(InterestRatePayout.builder().build());
+        payouts.add(InterestRatePayout.builder().setRateSpecification(RateSpecification.builder().build()).build());
+        payouts.add(InterestRatePayout.builder()
+                .setRateSpecification(RateSpecification.builder()
+                        .setFloatingRate(FloatingRateSpecification.builder().build()))
+                .build());
+
+        assertMatchesRosetta(payouts, rosettaInjector.getInstance(FloatingRateIndex.class)::evaluate, floatingRateIndex::evaluate);
+    }
+
+    @Test
+    void translateIndexNameToIdShouldMatchRosetta() {
+        List<String> names = new ArrayList<>();
+        for (AnnaDsbMrktCreditIndexEnum index : AnnaDsbMrktCreditIndexEnum.values()) {
+            String name = index.toDisplayString();
+            names.add(name);
+            names.add(name + " SERIES 41 VERSION 1");
+            names.add(name + " SERIES 41\nVERSION 1");
+            names.add(name.toLowerCase(Locale.ROOT));
+        }
+        names.add("UNKNOWN INDEX SERIES 1");
+        names.add(" SERIES");
+        names.add("");
+        names.add(null);
+
+        assertMatchesRosetta(names, rosettaInjector.getInstance(TranslateIndexNameToId.class)::evaluate, translateIndexNameToId::evaluate);
+    }
+
+    private static <T, R> void assertMatchesRosetta(List<T> inputs, Function<T, R> rosettaImpl, Function<T, R> impl) {
+        for (T input : inputs) {
+            assertEquals(rosettaImpl.apply(input), impl.apply(input), () -> "Mismatch for " + input);
+        }
+    }
+
+    private static InterestRatePayout floatingRatePayout(FloatingRateIndexEnum index) {
+        return InterestRatePayout.builder()
+                .setRateSpecification(RateSpecification.builder()
+                        .setFloatingRate(FloatingRateSpecification.builder()
+                                .setRateOptionValue(FloatingRateOption.builder().setFloatingRateIndexValue(index))))
+                .build();
+    }
+
+    private static InterestRatePayout inflationRatePayout(FloatingRateIndexEnum index) {
+        return InterestRatePayout.builder()
+                .setRateSpecification(RateSpecification.builder()
+                        .setInflationRate(InflationRateSpecification.builder()
+                                .setRateOptionValue(FloatingRateOption.builder().setFloatingRateIndexValue(index))))
+                .build();
+    }
+}
@@ -2,10 +2,12 @@ package drr.regulation.common.functions;
 
 import com.rosetta.model.lib.records.Date;
 import drr.functions.AbstractFunctionTest;
+import drr.standards.iosco.cde.base.price.PriceFormat;
 import drr.standards.iosco.cde.base.price.PricePeriod;
 import org.junit.jupiter.api.Test;
 
 import javax.inject.Inject;
+import java.math.BigDecimal;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -78,6 +80,51 @@ class Create_ContinuousPriceScheduleImplTest extends AbstractFunctionTest {
         assertEquals(continuousSchedule, expected);
     }
 
+    @Test
+    void shouldSortUnorderedSchedule() {
+        List<PricePeriod> unorderedSchedule = List.of(
+                createPricePeriod(Date.of(2023, 3, 1), null),
+                createPricePeriod(Date.of(2023, 1, 1), null),
+                createPricePeriod(Date.of(2023, 2, 1), null));
+        Date terminationDate = Date.of(2023, 4, 1);
+
+        List<? extends PricePeriod> continuousSchedule = func.evaluate(unorderedSchedule, terminationDate);
+
+        List<PricePeriod> expected = List.of(
+                createPricePeriod(Date.of(2023, 1, 1), Date.of(2023, 1, 31)),
+                createPricePeriod(Date.of(2023, 2, 1), Date.of(2023, 2, 28)),
+                createPricePeriod(Date.of(2023, 3, 1), Date.of(2023, 4, 1)));
+
+        assertEquals(expected, continuousSchedule);
+    }
+
+    @Test
+    void shouldKeepAdjacentPeriodsWithSamePrice() {
+        List<PricePeriod> schedule = List.of(
+                createPricePeriod(Date.of(2023, 1, 1), null, "1.5"),
+                createPricePeriod(Date.of(2023, 2, 1), null, "1.5"),
+                createPricePeriod(Date.of(2023, 3, 1), null, "2"),
+                createPricePeriod(Date.of(2023, 4, 1), null, "1.5"),
+                createPricePeriod(Date.of(2023, 5, 1), Date.of(2023, 5, 31), "1.5"));
+        Date terminationDate = Date.of(2023, 6, 30);
+
+        List<? extends PricePeriod> continuousSchedule = func.evaluate(schedule, terminationDate);
+
+        List<PricePeriod> expected = List.of(
+                createPricePeriod(Date.of(2023, 1, 1), Date.of(2023, 1, 31), "1.5"),
+                createPricePeriod(Date.of(2023, 2, 1), Date.of(2023, 2, 28), "1.5"),
+                createPricePeriod(Date.of(2023, 3, 1), Date.of(2023, 3, 31), "2"),
+                createPricePeriod(Date.of(2023, 4, 1), Date.of(2023, 4, 30), "1.5"),
+                createPricePeriod(Date.of(2023, 5, 1), Date.of(2023, 6, 30), "1.5"));
+
+        assertEquals(expected, continuousSchedule);
+    }
+
+    private PricePeriod.PricePeriodBuilder createPricePeriod(Date effectiveDate, Date endDate, String price) {
+        return createPricePeriod(effectiveDate, endDate)
+                .setPrice(PriceFormat.builder().setDecimal(new BigDecimal(price)));
+    }
+
     private PricePeriod.PricePeriodBuilder createPricePeriod(Date effectiveDate, Date endDate){
         return PricePeriod.builder()
                 .setEffectiveDate(effectiveDate)
@@ -6,9 +6,13 @@ import drr.standards.iosco.cde.base.quantity.NotionalPeriod;
 import org.junit.jupiter.api.Test;
 
 import javax.inject.Inject;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class Create_ContinuousQuantityScheduleImplTest extends AbstractFunctionTest {
 
@@ -78,6 +82,55 @@ class Create_ContinuousQuantityScheduleImplTest extends AbstractFunctionTest {
         assertEquals(continuousSchedule, expected);
     }
 
+    @Test
+    void shouldKeepAdjacentPeriodsWithSameNotional() {
+        List<NotionalPeriod> schedule = List.of(
+                createNotionalPeriod(Date.of(2023, 1, 1), null, "100"),
+                createNotionalPeriod(Date.of(2023, 2, 1), null, "100.00"),
+                createNotionalPeriod(Date.of(2023, 3, 1), null, "50"));
+        Date terminationDate = Date.of(2023, 4, 1);
+
+        List<? extends NotionalPeriod> continuousSchedule = func.evaluate(schedule, terminationDate);
+
+        List<NotionalPeriod> expected = List.of(
+                createNotionalPeriod(Date.of(2023, 1, 1), Date.of(2023, 1, 31), "100"),
+                createNotionalPeriod(Date.of(2023, 2, 1), Date.of(2023, 2, 28), "100.00"),
+                createNotionalPeriod(Date.of(2023, 3, 1), Date.of(2023, 4, 1), "50"));
+
+        assertEquals(expected, continuousSchedule);
+    }
+
+    @Test
+    void shouldMakeDailyScheduleContinuous() {
+        // a daily settled commodity trade over 10,000 days, with the notional changing every 30 days
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<NotionalPeriod> schedule = new ArrayList<>();
+        for (int day = 0; day < 10_000; day++) {
+            schedule.add(createNotionalPeriod(Date.of(start.plusDays(day)), null, String.valueOf(day / 30)));
+        }
+        Date terminationDate = Date.of(start.plusDays(10_000));
+
+        List<? extends NotionalPeriod> continuousSchedule = func.evaluate(schedule, terminationDate);
+
+        assertEquals(10_000, continuousSchedule.size());
+        for (int day = 0; day < continuousSchedule.size(); day++) {
+            NotionalPeriod period = continuousSchedule.get(day);
+            assertEquals(0, new BigDecimal(day / 30).compareTo(period.getValue()));
+            assertEquals(Date.of(start.plusDays(day)), period.getEffectiveDate());
+            LocalDate expectedEndDate = day == continuousSchedule.size() - 1 ? terminationDate.toLocalDate() : start.plusDays(day);
+            assertEquals(Date.of(expectedEndDate), period.getEndDate());
+        }
+    }
+
+    @Test
+    void shouldReturnNullWithoutEndDate() {
+        assertNull(func.evaluate(List.of(createNotionalPeriod(Date.of(2023, 1, 1), null)), null));
+    }
+
+    private NotionalPeriod.NotionalPeriodBuilder createNotionalPeriod(Date effectiveDate, Date endDate, String value) {
+        return createNotionalPeriod(effectiveDate, endDate).setValue(new BigDecimal(value));
+    }
+
     private NotionalPeriod.NotionalPeriodBuilder createNotionalPeriod(Date effectiveDate, Date endDate){
         return NotionalPeriod.builder()
                 .setEffectiveDate(effectiveDate)
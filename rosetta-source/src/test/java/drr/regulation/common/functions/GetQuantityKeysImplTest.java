@@ -0,0 +1,68 @@
+package drr.regulation.common.functions;
+
+import cdm.base.math.metafields.FieldWithMetaNonNegativeQuantitySchedule;
+import cdm.product.common.settlement.PriceQuantity;
+import com.rosetta.model.lib.meta.Key;
+import com.rosetta.model.metafields.MetaFields;
+import drr.functions.AbstractFunctionTest;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetQuantityKeysImplTest extends AbstractFunctionTest {
+
+    @Inject
+    GetQuantityKeys func;
+
+    @Test
+    void shouldReturnDistinctKeysInOrder() {
+        PriceQuantity priceQuantity = PriceQuantity.builder()
+                .addQuantity(quantity("quantity-2", "quantity-1"))
+                .addQuantity(FieldWithMetaNonNegativeQuantitySchedule.builder())
+                .addQuantity(quantity("quantity-1", null))
+                .build();
+
+        assertEquals(List.of("quantity-2", "quantity-1"), func.evaluate(priceQuantity));
+    }
+
+    @Test
+    void shouldReturnEmptyListWithoutKeys() {
+        assertTrue(func.evaluate(null).isEmpty());
+        assertTrue(func.evaluate(PriceQuantity.builder().build()).isEmpty());
+    }
+
+    @Test
+    void shouldReturnNewListForEachEvaluation() {
+        PriceQuantity priceQuantity = PriceQuantity.builder().addQuantity(quantity("quantity-1")).build();
+
+        List<String> keys = func.doEvaluate(priceQuantity);
+        assertNotSame(keys, func.doEvaluate(priceQuantity));
+        keys.add("quantity-2");
+        assertEquals(List.of("quantity-1"), func.doEvaluate(priceQuantity));
+        func.doEvaluate(null).add("quantity-1");
+        assertTrue(func.doEvaluate(null).isEmpty());
+    }
+
+    @Test
+    void shouldNotReuseKeysOfPriceQuantityBuilder() {
+        PriceQuantity.PriceQuantityBuilder priceQuantity = PriceQuantity.builder().addQuantity(quantity("quantity-1"));
+        assertEquals(List.of("quantity-1"), func.evaluate(priceQuantity));
+
+        priceQuantity.addQuantity(quantity("quantity-2"));
+
+        assertEquals(List.of("quantity-1", "quantity-2"), func.evaluate(priceQuantity));
+    }
+
+    private static FieldWithMetaNonNegativeQuantitySchedule.FieldWithMetaNonNegativeQuantityScheduleBuilder quantity(String... keyValues) {
+        MetaFields.MetaFieldsBuilder meta = MetaFields.builder();
+        for (String keyValue : keyValues) {
+            meta.addKey(Key.builder().setKeyValue(keyValue));
+        }
+        return FieldWithMetaNonNegativeQuantitySchedule.builder().setMeta(meta);
+    }
+}
@@ -0,0 +1,36 @@
+package drr.regulation.common.processor;
+
+import cdm.base.staticdata.party.NaturalPersonRoleEnum;
+import drr.regulation.common.FinancialSectorEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EnumLookupTest {
+
+    @Test
+    void shouldGetEnumValueByName() {
+        assertEquals(Optional.of(FinancialSectorEnum.INVF), EnumLookup.getEnumValue(FinancialSectorEnum.class, "INVF"));
+        assertEquals(Optional.empty(), EnumLookup.getEnumValue(FinancialSectorEnum.class, "invf"));
+        assertEquals(Optional.empty(), EnumLookup.getEnumValue(FinancialSectorEnum.class, "IncorrectValue"));
+        assertEquals(Optional.empty(), EnumLookup.getEnumValue(FinancialSectorEnum.class, null));
+    }
+
+    @Test
+    void shouldGetEnumValueByDisplayNameIgnoringCase() {
+        assertEquals(Optional.of(NaturalPersonRoleEnum.TRADER), EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, "Trader"));
+        assertEquals(Optional.of(NaturalPersonRoleEnum.TRADER), EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, " TRADER "));
+        assertEquals(Optional.of(NaturalPersonRoleEnum.INVESTMENT_DECISION_MAKER), EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, "investmentDecisionMaker"));
+        assertEquals(Optional.empty(), EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, "INVESTMENT_DECISION_MAKER"));
+        assertEquals(Optional.empty(), EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, null));
+    }
+
+    @Test
+    void shouldMatchEveryDisplayNameAsBefore() {
+        for (NaturalPersonRoleEnum role : NaturalPersonRoleEnum.values()) {
+            assertEquals(Optional.of(role), EnumLookup.getEnumValueIgnoreCase(NaturalPersonRoleEnum.class, role.toString().toUpperCase()));
+        }
+    }
+}
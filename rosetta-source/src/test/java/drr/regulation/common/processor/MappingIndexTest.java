@@ -0,0 +1,120 @@
+package drr.regulation.common.processor;
+
+import com.regnosys.rosetta.common.translation.Mapping;
+import com.regnosys.rosetta.common.translation.MappingContext;
+import com.regnosys.rosetta.common.translation.MappingProcessorUtils;
+import com.regnosys.rosetta.common.translation.Path;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappingIndexTest {
+
+    private static final Path PARTY_ID_PATH = Path.parse("nonpublicExecutionReport.party[0].id");
+    private static final Path HREF_PATH = Path.parse("nonpublicExecutionReport.trade.tradeHeader.partyTradeInformation[0].relatedPerson[0].personReference.href");
+    private static final Path ROLE_PATH = Path.parse("nonpublicExecutionReport.trade.tradeHeader.partyTradeInformation[0].relatedPerson[0].role");
+    private static final Path PERSON_ID_PATH = Path.parse("nonpublicExecutionReport.person[0].id");
+
+    @Test
+    void shouldFindMappingsByLastElements() {
+        MappingIndex mappingIndex = new MappingIndex(mappings());
+
+        assertEquals(List.of(PARTY_ID_PATH, PERSON_ID_PATH), xmlPaths(mappingIndex.getMappingsEndingWith("id")));
+        assertEquals(List.of(PARTY_ID_PATH), xmlPaths(mappingIndex.getMappingsEndingWith("party", "id")));
+        assertEquals(List.of(HREF_PATH), xmlPaths(mappingIndex.getMappingsEndingWith("personReference", "href")));
+        assertTrue(mappingIndex.getMappingsEndingWith("category").isEmpty());
+    }
+
+    @Test
+    void shouldFindMappingsUnderElement() {
+        MappingIndex mappingIndex = new MappingIndex(mappings());
+
+        assertEquals(List.of(HREF_PATH, ROLE_PATH), xmlPaths(mappingIndex.getMappingsUnder("relatedPerson")));
+        assertTrue(mappingIndex.getMappingsUnder("nonpublicExecutionReport").isEmpty());
+    }
+
+    @Test
+    void shouldGetNonNullMappedValue() {
+        List<Mapping> mappings = mappings();
+        mappings.add(0, getErrorMapping(ROLE_PATH, null));
+        MappingIndex mappingIndex = new MappingIndex(mappings);
+
+        assertEquals(Optional.of("party1"), mappingIndex.getNonNullMappedValue(PARTY_ID_PATH));
+        assertEquals(Optional.of("Trader"), mappingIndex.getNonNullMappedValue(ROLE_PATH));
+        assertEquals(Optional.empty(), mappingIndex.getNonNullMappedValue(Path.parse("nonpublicExecutionReport.party[1].id")));
+        assertEquals(Optional.empty(), mappingIndex.getNonNullMappedValue(Path.parse("nonpublicExecutionReport.party[0].name")));
+    }
+
+    @Test
+    void shouldMatchNonNullMappedValueOverAllMappings() {
+        List<Mapping> mappings = mappings();
+        mappings.add(getErrorMapping(Path.parse("nonpublicExecutionReport.party[1].id"), null));
+        mappings.add(getErrorMapping(Path.parse("nonpublicExecutionReport.party[0].id.id"), "nested"));
+        mappings.add(getErrorMapping(Path.parse("party[0].id"), "relative"));
+        MappingIndex mappingIndex = new MappingIndex(mappings);
+
+        List<Path> xmlPaths = new ArrayList<>(xmlPaths(mappings));
+        xmlPaths.add(Path.parse("nonpublicExecutionReport.party[0]"));
+        xmlPaths.add(Path.parse("nonpublicExecutionReport.party[2].id"));
+        for (Path xmlPath : xmlPaths) {
+            assertEquals(MappingProcessorUtils.getNonNullMappedValue(xmlPath, mappings), mappingIndex.getNonNullMappedValue(xmlPath), xmlPath.toString());
+        }
+    }
+
+    @Test
+    void shouldShareIndexOfContextAndAddAppendedMappings() {
+        List<Mapping> mappings = mappings();
+        MappingContext context = new MappingContext(mappings, null, null, null);
+
+        MappingIndex mappingIndex = MappingIndex.of(context);
+        assertSame(mappingIndex, MappingIndex.of(context));
+        assertNotSame(mappingIndex, MappingIndex.of(new MappingContext(mappings(), null, null, null)));
+        assertEquals(List.of(HREF_PATH, ROLE_PATH), xmlPaths(mappingIndex.getMappingsUnder("relatedPerson")));
+
+        Path categoryPath = Path.parse("nonpublicExecutionReport.trade.tradeHeader.partyTradeInformation[0].category");
+        Path relatedPersonIdPath = Path.parse("nonpublicExecutionReport.trade.tradeHeader.partyTradeInformation[0].relatedPerson[1].id");
+        mappings.add(getErrorMapping(categoryPath, "true"));
+        mappings.add(getErrorMapping(relatedPersonIdPath, "person2"));
+
+        assertSame(mappingIndex, MappingIndex.of(context));
+        assertEquals(List.of(categoryPath), xmlPaths(mappingIndex.getMappingsEndingWith("category")));
+        assertEquals(List.of(PARTY_ID_PATH, PERSON_ID_PATH, relatedPersonIdPath), xmlPaths(mappingIndex.getMappingsEndingWith("id")));
+        assertEquals(List.of(HREF_PATH, ROLE_PATH, relatedPersonIdPath), xmlPaths(mappingIndex.getMappingsUnder("relatedPerson")));
+    }
+
+    @Test
+    void shouldRebuildIndexOfContextWhenMappingsAreRemoved() {
+        List<Mapping> mappings = mappings();
+        MappingContext context = new MappingContext(mappings, null, null, null);
+        MappingIndex mappingIndex = MappingIndex.of(context);
+
+        mappings.remove(mappings.size() - 1);
+        mappings.add(getErrorMapping(Path.parse("nonpublicExecutionReport.account[0].id"), "account1"));
+
+        MappingIndex rebuilt = MappingIndex.of(context);
+        assertNotSame(mappingIndex, rebuilt);
+        assertEquals(List.of(PARTY_ID_PATH, Path.parse("nonpublicExecutionReport.account[0].id")), xmlPaths(rebuilt.getMappingsEndingWith("id")));
+    }
+
+    private static List<Mapping> mappings() {
+        List<Mapping> mappings = new ArrayList<>();
+        mappings.add(getErrorMapping(PARTY_ID_PATH, "party1"));
+        mappings.add(getErrorMapping(HREF_PATH, "person1"));
+        mappings.add(getErrorMapping(ROLE_PATH, "Trader"));
+        mappings.add(getErrorMapping(PERSON_ID_PATH, "person1"));
+        return mappings;
+    }
+
+    private static List<Path> xmlPaths(List<Mapping> mappings) {
+        return mappings.stream().map(Mapping::getXmlPath).collect(Collectors.toList());
+    }
+
+    private static Mapping getErrorMapping(Path xmlPath, String xmlValue) {
+        return new Mapping(xmlPath, xmlValue, null, null, "Not found", false, false, false);
+    }
+}
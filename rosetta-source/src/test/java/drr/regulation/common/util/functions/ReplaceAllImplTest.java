@@ -0,0 +1,55 @@
+package drr.regulation.common.util.functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplaceAllImplTest {
+
+    @Test
+    void shouldReplaceEveryMatch() {
+        ReplaceAll func = new ReplaceAllImpl();
+        String result = func.evaluate("a-b-c", "-", "_");
+
+        assertEquals("a_b_c", result);
+    }
+
+    @Test
+    void shouldRemoveSuffix() {
+        ReplaceAll func = new ReplaceAllImpl();
+        String result = func.evaluate("ITRAXX EUROPE SERIES 41 VERSION 1", " SERIES.*$", "");
+
+        assertEquals("ITRAXX EUROPE", result);
+    }
+
+    @Test
+    void shouldSupportGroupReferences() {
+        ReplaceAll func = new ReplaceAllImpl();
+        String result = func.evaluate("2024-01-31", "(\\d{4})-(\\d{2})-(\\d{2})", "$3/$2/$1");
+
+        assertEquals("31/01/2024", result);
+    }
+
+    @Test
+    void shouldHandleEmpty() {
+        ReplaceAll func = new ReplaceAllImpl();
+
+        assertNull(func.evaluate(null, "-", "_"));
+        assertEquals("a-b", func.evaluate("a-b", null, "_"));
+    }
+
+    @Test
+    void shouldReuseCompiledPattern() {
+        assertSame(CompiledPatterns.get("[A-Z]{2}"), CompiledPatterns.get("[A-Z]{2}"));
+        assertTrue(CompiledPatterns.size() <= CompiledPatterns.MAXIMUM_SIZE);
+    }
+
+    @Test
+    void shouldRejectInvalidRegex() {
+        ReplaceAll func = new ReplaceAllImpl();
+
+        assertThrows(PatternSyntaxException.class, () -> func.evaluate("a", "(", ""));
+    }
+}
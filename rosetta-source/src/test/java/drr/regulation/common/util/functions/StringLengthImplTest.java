@@ -21,4 +21,12 @@ class StringLengthImplTest {
 
         assertEquals(0, strLength);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldCountSupplementaryCharacterOnce() {
+        StringLength func = new StringLengthImpl();
+        Integer strLength = func.evaluate("a\uD835\uDD0Ab");
+
+        assertEquals(3, strLength);
+    }
+}
@@ -85,4 +85,14 @@ class SubStringImplTest {
 
         assertEquals(text, result);
     }
+
+    @Test
+    void shouldNotSplitSupplementaryCharacters() {
+        SubString func = new SubStringImpl();
+        String text = "\uD835\uDD0A\uD835\uDD0B\uD835\uDD0Cd";
+
+        assertEquals("\uD835\uDD0A\uD835\uDD0B", func.doEvaluate(text, 1, 2));
+        assertEquals("\uD835\uDD0Cd", func.doEvaluate(text, 3, 5));
+        assertEquals("", func.doEvaluate(text, 5, 1));
+    }
 }
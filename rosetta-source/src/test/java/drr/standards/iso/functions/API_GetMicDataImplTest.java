@@ -5,71 +5,111 @@ import com.rosetta.model.lib.records.Date;
 import drr.standards.iso.MicData;
 import drr.standards.iso.MicMarketCategoryEnum;
 import drr.standards.iso.MicTypeEnum;
-import org.iso10383.Dataroot;
-import org.iso10383.ISO10383MIC;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
-import javax.xml.bind.JAXBException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 public class API_GetMicDataImplTest {
 
     private static final String DATA_PATH = "ISO10383_MIC.xml";
 
     @Test
-    void testParseResponse() throws IOException, JAXBException {
-        String isoResponse = loadDataFromXmlResource();
-
-        API_GetMicDataImpl func = new API_GetMicDataImpl();
-
-        Dataroot dataroot = func.parseResponse(isoResponse);
+    void testLoadFromSnapshotWithoutNetwork() throws URISyntaxException {
+        HttpClient httpClient = mock(HttpClient.class);
+        Path snapshot = Paths.get(Resources.getResource(DATA_PATH).toURI());
 
-        ISO10383MIC iso10383MIC = dataroot.getISO10383MIC().stream()
-                .filter(mic -> mic.getMIC().equals("DRSP"))
-                .findFirst()
-                .orElse(null);
+        API_GetMicDataImpl func = new API_GetMicDataImpl(httpClient, snapshot);
 
-        // assert data
-        assertEquals("DRSP", iso10383MIC.getMIC());
-        assertEquals("ACTIVE", iso10383MIC.getSTATUS());
-        assertEquals("", iso10383MIC.getEXPIRYX0020DATE());
+        assertChecks(func.doEvaluate("DRSP"));
+        assertEquals(2580, func.getMicDataRegistry().get().size());
+        assertEquals(0, func.getMetrics().getRemoteCallCount());
+        verifyNoInteractions(httpClient);
+    }
 
+    @Test
+    void testDownloadIsSavedAsSnapshot(@TempDir Path tempDir) throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        HttpResponse httpResponse = mock(HttpResponse.class);
+        doAnswer(invocation -> {
+            Path download = tempDir.resolve(Files.list(tempDir).findFirst().orElseThrow().getFileName());
+            Files.writeString(download, loadDataFromXmlResource());
+            return httpResponse;
+        }).when(httpClient).send(any(), any());
+        doReturn(HttpURLConnection.HTTP_OK).when(httpResponse).statusCode();
+        Path snapshot = tempDir.resolve("ISO10383_MIC.xml");
+
+        assertChecks(new API_GetMicDataImpl(httpClient, snapshot).doEvaluate("DRSP"));
+        assertTrue(Files.exists(snapshot));
+
+        // the next start reads the snapshot instead of downloading again
+        assertChecks(new API_GetMicDataImpl(httpClient, snapshot).doEvaluate("DRSP"));
+        verify(httpClient, times(1)).send(any(), any());
     }
+
     @Test
-    void testWithHttpResponse() throws IOException {
+    void testWithHttpResponse() throws Exception {
         // Set up mocks
         HttpClient httpClient = mock(HttpClient.class);
         HttpResponse httpResponse = mock(HttpResponse.class);
-        doReturn(CompletableFuture.completedFuture(httpResponse)).when(httpClient).sendAsync(any(), any());
-        doReturn(loadDataFromXmlResource()).when(httpResponse).body();
+        doReturn(httpResponse).when(httpClient).send(any(), any());
+        doReturn(HttpURLConnection.HTTP_OK).when(httpResponse).statusCode();
+        doReturn(new ByteArrayInputStream(loadDataFromXmlResource().getBytes(StandardCharsets.UTF_8))).when(httpResponse).body();
 
         API_GetMicDataImpl func = new API_GetMicDataImpl(httpClient);
 
-        // check cache is empty
-        assertEquals(func.micDataCache.size(), 0);
+        // check nothing is loaded
+        assertNull(func.getMicDataRegistry().getIfLoaded());
 
         // run func
         MicData micData = func.doEvaluate("DRSP");
 
-        // check cache is full
-        assertEquals(func.micDataCache.size(), 2580);
+        // check everything is loaded
+        assertEquals(func.getMicDataRegistry().getIfLoaded().size(), 2580);
+
+        // second lookup is served from the cache
+        func.doEvaluate("XLON");
+        assertEquals(1, func.getMetrics().getMissCount());
+        assertEquals(1, func.getMetrics().getHitCount());
+        assertEquals(1, func.getMetrics().getLoadCount());
+        assertEquals(1, func.getMetrics().getRemoteCallCount());
+        assertEquals(2580, func.getMetrics().getCacheSize());
 
         // assert data
         assertChecks(micData);
     }
 
+    @Test
+    void testEachLookupGetsItsOwnBuilder() throws URISyntaxException {
+        API_GetMicDataImpl func = new API_GetMicDataImpl(mock(HttpClient.class), Paths.get(Resources.getResource(DATA_PATH).toURI()));
+
+        func.doEvaluate("DRSP").setCity("PARIS");
+
+        assertChecks(func.doEvaluate("DRSP"));
+    }
+
     private String loadDataFromXmlResource() throws IOException {
         URL url = Objects.requireNonNull(Resources.getResource(DATA_PATH));
         return Resources.toString(url, StandardCharsets.UTF_8);
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.io.Resources;
 import com.google.inject.Injector;
+import com.regnosys.drr.utils.xsd.XsdSchemaRegistry;
 import com.regnosys.rosetta.common.transform.TestPackModel;
 import com.regnosys.rosetta.common.transform.TestPackUtils;
 import com.regnosys.rosetta.common.validation.RosettaTypeValidator;
@@ -13,17 +14,14 @@ import com.rosetta.model.lib.RosettaModelObject;
 import com.rosetta.model.lib.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXException;
 
 import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Validator;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,14 +37,20 @@ public class DefaultValidationSummaryProcessor<IN extends RosettaModelObject> im
     private final RosettaTypeValidator typeValidator;
     private final ObjectMapper objectMapper;
     private final ObjectWriter xmlObjectWriter;
-    private final Validator xsdValidator;
+    private final XsdSchemaRegistry schemaRegistry;
+    private final URL xsdSchemaUrl;
 
-    public DefaultValidationSummaryProcessor(Injector injector, ObjectMapper defaultObjectMapper, ObjectWriter outputObjectWriter, RosettaTypeValidator typeValidator, Validator xsdValidator) {
+    public DefaultValidationSummaryProcessor(Injector injector, ObjectMapper defaultObjectMapper, ObjectWriter outputObjectWriter, RosettaTypeValidator typeValidator, URL xsdSchemaUrl) {
+        this(injector, defaultObjectMapper, outputObjectWriter, typeValidator, XsdSchemaRegistry.getInstance(), xsdSchemaUrl);
+    }
+
+    public DefaultValidationSummaryProcessor(Injector injector, ObjectMapper defaultObjectMapper, ObjectWriter outputObjectWriter, RosettaTypeValidator typeValidator, XsdSchemaRegistry schemaRegistry, URL xsdSchemaUrl) {
         this.injector = injector;
         this.typeValidator = typeValidator;
         this.objectMapper = defaultObjectMapper;
         this.xmlObjectWriter = outputObjectWriter;
-        this.xsdValidator = xsdValidator;
+        this.schemaRegistry = schemaRegistry;
+        this.xsdSchemaUrl = xsdSchemaUrl;
     }
 
     @Override
@@ -207,19 +211,16 @@ public class DefaultValidationSummaryProcessor<IN extends RosettaModelObject> im
     }
 
     private String getXsdSchemaValidationErrors(RosettaModelObject isoReport) {
-        String actualXml;
+        byte[] actualXml;
         try {
-            actualXml = xmlObjectWriter.writeValueAsString(isoReport);
+            actualXml = xmlObjectWriter.writeValueAsBytes(isoReport);
         } catch (JsonProcessingException e) {
             LOGGER.error("Failed to serialise to xml", e);
             throw new RuntimeException(e);
         }
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(actualXml.getBytes(StandardCharsets.UTF_8))) {
-            xsdValidator.validate(new StreamSource(inputStream));
-            return null;
-        } catch (SAXException e) {
-            // Schema validation errors
-            return e.getMessage();
+        try {
+            // Schema validation errors, or null if valid
+            return schemaRegistry.getValidationError(xsdSchemaUrl, new StreamSource(new ByteArrayInputStream(actualXml)));
         } catch (IOException e) {
             LOGGER.error("Failed to validate against xsd", e);
             throw new RuntimeException(e);
@@ -36,13 +36,8 @@ import drr.projection.iso20022.mas.rewrite.trade.functions.Project_MASTradeRepor
 import iso20022.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXException;
 
 import jakarta.inject.Inject;
-import javax.xml.XMLConstants;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import javax.xml.validation.Validator;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
@@ -106,9 +101,8 @@ class Iso20022ValidationSummaryCreator {
             ObjectWriter outputObjectWriter = TestPackUtils.getObjectWriter(pipelineModel.getOutputSerialisation()).orElse(DEFAULT_OBJECT_WRITER);
 
             URL xmlSchemaUrl = Resources.getResource(transformData.getSchemaPath());
-            Validator xsdValidator = getXsdValidator(xmlSchemaUrl);
 
-            ValidationSummaryProcessor<IN> validationSummaryProcessor = new DefaultValidationSummaryProcessor<>(injector, DEFAULT_OBJECT_MAPPER, outputObjectWriter, validator, xsdValidator);
+            ValidationSummaryProcessor<IN> validationSummaryProcessor = new DefaultValidationSummaryProcessor<>(injector, DEFAULT_OBJECT_MAPPER, outputObjectWriter, validator, xmlSchemaUrl);
             validationDataList.addAll(validationSummaryProcessor.processValidation(functionClass, inputClass, pipelineTestPackModels));
         }
         // Write results
@@ -125,17 +119,4 @@ class Iso20022ValidationSummaryCreator {
             throw new RuntimeException(e);
         }
     }
-
-    private Validator getXsdValidator(URL xsdSchema) {
-        try {
-            SchemaFactory schemaFactory = SchemaFactory
-                    .newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            // required to process xml elements with an maxOccurs greater than 5000 (rather than unbounded)
-            schemaFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, false);
-            Schema schema = schemaFactory.newSchema(xsdSchema);
-            return schema.newValidator();
-        } catch (SAXException e) {
-            throw new RuntimeException(e);
-        }
-    }
 }
@@ -1,6 +1,7 @@
 package com.regnosys.drr.ingest;
 
 import com.regnosys.drr.DrrRuntimeModuleExternalApi;
+import com.regnosys.rosetta.common.serialisation.RosettaObjectMapper;
 import com.regnosys.ingest.test.framework.ingestor.ExpectationUtil;
 import com.regnosys.ingest.test.framework.ingestor.IngestionTest;
 import com.regnosys.ingest.test.framework.ingestor.IngestionTestUtil;
@@ -8,15 +9,27 @@ import com.regnosys.ingest.test.framework.ingestor.service.IngestionFactory;
 import com.regnosys.ingest.test.framework.ingestor.service.IngestionService;
 import drr.regulation.common.ReportableEvent;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.provider.Arguments;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class Fpml513RecordKeepingIngestionServiceTest extends IngestionTest<ReportableEvent> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Fpml513RecordKeepingIngestionServiceTest.class);
+
     public static final String INSTANCE = "target/FpML_5_13";
 
     private static final String SAMPLE_FILES_DIR = "cdm-sample-files/fpml-5-13/record-keeping/";
@@ -45,6 +58,49 @@ class Fpml513RecordKeepingIngestionServiceTest extends IngestionTest<ReportableE
         return ingestionService;
     }
 
+    @Test
+    void shouldStreamTradesOfDataDocument(@TempDir Path tempDir) throws IOException {
+        Path dataDocument = tempDir.resolve("data-document.xml");
+        List<String> tradeIds = FpmlSampleFiles.writeDataDocument(
+                FpmlSampleFiles.xmlFiles(FpmlSampleFiles.directory(SAMPLE_FILES_DIR + "products")), 5, dataDocument);
+        StreamingFpmlIngestion<ReportableEvent> ingestion = new StreamingFpmlIngestion<>(reader ->
+                ingestionService.ingestValidateAndPostProcess(ReportableEvent.class, reader).getRosettaModelInstance());
+
+        try (Stream<StreamingFpmlIngestion.Result<ReportableEvent>> results = ingestion.ingest(dataDocument)) {
+            List<StreamingFpmlIngestion.Result<ReportableEvent>> resultList = results.collect(Collectors.toList());
+
+            assertEquals(tradeIds.size(), resultList.size());
+            for (StreamingFpmlIngestion.Result<ReportableEvent> result : resultList) {
+                assertTrue(result.isSuccess(), () -> "Trade " + result.getTradeIndex() + " (" + result.getTradeId() + ") failed: " + result.getError());
+                String json = RosettaObjectMapper.getNewRosettaObjectMapper().writeValueAsString(result.getValue());
+                assertTrue(json.contains(tradeIds.get(result.getTradeIndex())), "Trade " + result.getTradeIndex() + " is not " + tradeIds.get(result.getTradeIndex()));
+            }
+        }
+    }
+
+    @Test
+    void shouldIngestSampleFilesInParallel() throws IOException {
+        Path sampleFiles = FpmlSampleFiles.directory(SAMPLE_FILES_DIR);
+        int fileCount = FpmlSampleFiles.xmlFiles(sampleFiles).size();
+
+        try (ParallelFpmlIngestion<ReportableEvent> ingestion = new ParallelFpmlIngestion<>(() -> {
+            // a service per worker thread
+            IngestionService workerIngestionService = IngestionFactory.getInstance(INSTANCE).getService("FpML_5_RecordKeeping_To_ReportableEvent");
+            return reader -> workerIngestionService.ingestValidateAndPostProcess(ReportableEvent.class, reader).getRosettaModelInstance();
+        });
+             Stream<ParallelFpmlIngestion.Result<ReportableEvent>> results = ingestion.ingestDirectory(sampleFiles)) {
+            List<Path> failed = results
+                    .filter(result -> !result.isSuccess())
+                    .map(ParallelFpmlIngestion.Result::getFile)
+                    .collect(Collectors.toList());
+            LOGGER.info("Ingested FpML 5.13 record keeping samples: {}", ingestion.getSummary());
+
+            assertEquals(List.of(), failed);
+            assertEquals(fileCount, ingestion.getFileCount());
+            assertTrue(ingestion.getThroughputPerSecond() > 0);
+        }
+    }
+
     @SuppressWarnings("unused")//used by the junit parameterized test
     private static Stream<Arguments> fpMLFiles() {
         return readExpectationsFromPath(SAMPLE_FILES_DIR);
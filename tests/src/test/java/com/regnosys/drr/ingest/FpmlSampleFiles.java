@@ -0,0 +1,153 @@
+package com.regnosys.drr.ingest;
+
+import com.google.common.io.Resources;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Locates the FpML sample files on the classpath and assembles data documents from them, so the ingestion helpers of
+ * rosetta-source can be run against the real ingestion service.
+ */
+class FpmlSampleFiles {
+
+    private static final String TRADE = "trade";
+
+    /**
+     * The sample file directory, whether the samples are in a directory or in the rosetta-source jar.
+     */
+    static Path directory(String sampleFilesDir) throws IOException {
+        try {
+            URI uri = Resources.getResource(sampleFilesDir).toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try {
+                    FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    // opened by an earlier test
+                }
+            }
+            return Path.of(uri);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid sample file directory " + sampleFilesDir, e);
+        }
+    }
+
+    /**
+     * The {@code .xml} files in the directory and its subdirectories, in path order.
+     */
+    static List<Path> xmlFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Writes a {@code dataDocument} holding the trade of each of the first {@code maxTrades} single trade samples,
+     * followed by their parties and accounts; of the samples using the same party or account id, the first one is
+     * kept. Returns the first {@code tradeId} of each trade, in document order.
+     */
+    static List<String> writeDataDocument(List<Path> samples, int maxTrades, Path target) throws IOException {
+        try {
+            DocumentBuilder documentBuilder = createDocumentBuilder();
+            Document dataDocument = documentBuilder.newDocument();
+            Element root = null;
+            List<Element> trades = new ArrayList<>();
+            Map<String, Element> partiesAndAccounts = new LinkedHashMap<>();
+            for (Path sample : samples) {
+                if (trades.size() == maxTrades) {
+                    break;
+                }
+                Element sampleRoot;
+                try (InputStream in = Files.newInputStream(sample)) {
+                    sampleRoot = documentBuilder.parse(in).getDocumentElement();
+                }
+                List<Element> sampleTrades = children(sampleRoot, TRADE);
+                if (sampleTrades.size() != 1) {
+                    continue;
+                }
+                if (root == null) {
+                    root = dataDocument.createElementNS(sampleRoot.getNamespaceURI(), FpmlTradeSplitter.DATA_DOCUMENT);
+                    root.setAttribute("fpmlVersion", sampleRoot.getAttribute("fpmlVersion"));
+                    dataDocument.appendChild(root);
+                }
+                trades.add((Element) dataDocument.importNode(sampleTrades.get(0), true));
+                for (String name : List.of("party", "account")) {
+                    for (Element element : children(sampleRoot, name)) {
+                        partiesAndAccounts.putIfAbsent(name + "/" + element.getAttribute("id"), (Element) dataDocument.importNode(element, true));
+                    }
+                }
+            }
+            if (root == null) {
+                throw new IllegalArgumentException("No single trade samples in " + samples);
+            }
+            trades.forEach(root::appendChild);
+            partiesAndAccounts.values().forEach(root::appendChild);
+            write(dataDocument, target);
+            return trades.stream()
+                    .map(trade -> trade.getElementsByTagNameNS("*", "tradeId").item(0).getTextContent().trim())
+                    .collect(Collectors.toList());
+        } catch (ParserConfigurationException | SAXException | TransformerException e) {
+            throw new IOException("Failed to assemble a data document from " + samples, e);
+        }
+    }
+
+    private static List<Element> children(Element parent, String localName) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && localName.equals(child.getLocalName())) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    private static DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory.newDocumentBuilder();
+    }
+
+    private static void write(Document document, Path target) throws IOException, TransformerException {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            transformer.transform(new DOMSource(document), new StreamResult(writer));
+        }
+    }
+}